@@ -0,0 +1,186 @@
+package org.wordpress.android.analytics;
+
+import android.test.InstrumentationTestCase;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.analytics.AnalyticsTracker.Stat;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AnalyticsEventDispatcherTest extends InstrumentationTestCase {
+    private static final int NUM_EVENTS = 500;
+
+    private RecordingTracker mTracker;
+    private AnalyticsEventDispatcher mDispatcher;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mTracker = new RecordingTracker();
+        List<Tracker> trackers = new CopyOnWriteArrayList<>();
+        trackers.add(mTracker);
+        mDispatcher = new AnalyticsEventDispatcher(trackers);
+    }
+
+    public void testEventsAreTrackedInOrder() throws InterruptedException {
+        mTracker.expectEvents(NUM_EVENTS);
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            mDispatcher.dispatch(AnalyticsEvent.track(Stat.READER_ARTICLE_OPENED, createProperties(i)), false);
+        }
+
+        assertTrue(mTracker.awaitEvents());
+        assertEquals(NUM_EVENTS, mTracker.mTrackedIndexes.size());
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            assertEquals(Integer.valueOf(i), mTracker.mTrackedIndexes.get(i));
+        }
+        assertEquals(0, mDispatcher.getNumDropped());
+    }
+
+    public void testFlushRunsAfterQueuedEvents() throws InterruptedException {
+        mTracker.expectEvents(2);
+        mDispatcher.dispatch(AnalyticsEvent.track(Stat.READER_ARTICLE_OPENED, createProperties(0)), false);
+        mDispatcher.dispatch(AnalyticsEvent.track(Stat.READER_ARTICLE_OPENED, createProperties(1)), false);
+        mDispatcher.dispatch(AnalyticsEvent.FLUSH, true);
+
+        // the flush is urgent so it shouldn't wait for the flush interval
+        assertTrue(mTracker.mFlushLatch.await(AnalyticsEventDispatcher.FLUSH_INTERVAL_MS / 2, TimeUnit.MILLISECONDS));
+        assertEquals(2, mTracker.mNumTrackedBeforeFlush);
+    }
+
+    public void testConcurrentEventsWakeIdleThread() throws InterruptedException {
+        for (int round = 0; round < 5; round++) {
+            // give the analytics thread time to find the queue empty and wait for it to be added to
+            Thread.sleep(100);
+            mTracker.expectEvents(2);
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            for (int i = 0; i < 2; i++) {
+                final int index = i;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            startLatch.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        mDispatcher.dispatch(
+                                AnalyticsEvent.track(Stat.READER_ARTICLE_OPENED, createProperties(index)), false);
+                    }
+                }).start();
+            }
+            startLatch.countDown();
+
+            // the events should be passed on once the flush interval passes, not left waiting for more
+            assertTrue(mTracker.mEventsLatch.await(AnalyticsEventDispatcher.FLUSH_INTERVAL_MS * 3 / 2,
+                    TimeUnit.MILLISECONDS));
+        }
+    }
+
+    public void testCallerCostOfTracking() throws InterruptedException {
+        Map<String, Object> properties = createProperties(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            mTracker.track(Stat.READER_ARTICLE_OPENED, properties);
+        }
+        long synchronousNs = (System.nanoTime() - start) / NUM_EVENTS;
+
+        mTracker.expectEvents(NUM_EVENTS);
+        start = System.nanoTime();
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            mDispatcher.dispatch(AnalyticsEvent.track(Stat.READER_ARTICLE_OPENED, properties), false);
+        }
+        long dispatchedNs = (System.nanoTime() - start) / NUM_EVENTS;
+        assertTrue(mTracker.awaitEvents());
+
+        AppLog.i(T.TESTS, "Tracking cost on the caller's thread: synchronous " + synchronousNs + "ns, dispatched "
+                          + dispatchedNs + "ns per event");
+    }
+
+    private static Map<String, Object> createProperties(int index) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(RecordingTracker.INDEX_KEY, index);
+        properties.put("blog_id", 12345L);
+        properties.put("post_id", 67890L);
+        properties.put("feed_id", "feed");
+        return properties;
+    }
+
+    /*
+     * builds a JSON object for each event like AnalyticsTrackerNosara does, and records the events it sees
+     */
+    private class RecordingTracker extends Tracker {
+        static final String INDEX_KEY = "index";
+
+        final List<Integer> mTrackedIndexes = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch mFlushLatch = new CountDownLatch(1);
+        volatile int mNumTrackedBeforeFlush;
+        volatile CountDownLatch mEventsLatch;
+
+        RecordingTracker() {
+            super(getInstrumentation().getTargetContext());
+        }
+
+        void expectEvents(int numEvents) {
+            mTrackedIndexes.clear();
+            mEventsLatch = new CountDownLatch(numEvents);
+        }
+
+        boolean awaitEvents() throws InterruptedException {
+            return mEventsLatch.await(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        void track(Stat stat) {
+            track(stat, null);
+        }
+
+        @Override
+        void track(Stat stat, Map<String, ?> properties) {
+            JSONObject json = new JSONObject();
+            try {
+                json.put("event", stat.name().toLowerCase());
+                if (properties != null) {
+                    for (Map.Entry<String, ?> entry : properties.entrySet()) {
+                        json.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (JSONException e) {
+                throw new AssertionError(e);
+            }
+            if (mEventsLatch != null && properties != null && Thread.currentThread().getName().equals("wp-analytics")) {
+                mTrackedIndexes.add((Integer) properties.get(INDEX_KEY));
+                mEventsLatch.countDown();
+            }
+        }
+
+        @Override
+        void endSession() {
+        }
+
+        @Override
+        void flush() {
+            mNumTrackedBeforeFlush = mTrackedIndexes.size();
+            mFlushLatch.countDown();
+        }
+
+        @Override
+        void refreshMetadata(AnalyticsMetadata metadata) {
+        }
+
+        @Override
+        String getAnonIdPrefKey() {
+            return "analytics_dispatcher_test_anon_id";
+        }
+    }
+}
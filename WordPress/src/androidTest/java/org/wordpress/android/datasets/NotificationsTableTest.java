@@ -0,0 +1,177 @@
+package org.wordpress.android.datasets;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.models.Note;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * checks that notes read through their stored summaries match notes parsed from their JSON, and
+ * compares loading the notifications list that way with parsing every note as the table used to
+ */
+public class NotificationsTableTest extends TestCase {
+    private static final String TAG = "NotificationsTableTest";
+    private static final int NUM_NOTES = NotificationsTable.NOTES_TO_RETRIEVE;
+
+    private SQLiteDatabase mDb;
+    private final List<String> mRawNotes = new ArrayList<>();
+
+    @Override
+    protected void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        // the table as it was before the summary columns were added
+        mDb.execSQL("CREATE TABLE tbl_notifications ("
+                    + "id INTEGER PRIMARY KEY DEFAULT 0,"
+                    + "note_id TEXT,"
+                    + "type TEXT,"
+                    + "raw_note_data TEXT,"
+                    + "timestamp INTEGER,"
+                    + " UNIQUE (note_id) ON CONFLICT REPLACE"
+                    + ")");
+        for (int i = 0; i < NUM_NOTES; i++) {
+            String rawNote = buildNoteJson(i);
+            mRawNotes.add(rawNote);
+            mDb.execSQL("INSERT INTO tbl_notifications (note_id, type, raw_note_data, timestamp) VALUES (?,?,?,?)",
+                    new Object[]{Integer.toString(i), i % 3 == 0 ? "like" : "comment", rawNote, i});
+        }
+        NotificationsTable.addSummaryColumns(mDb);
+    }
+
+    @Override
+    protected void tearDown() {
+        mDb.close();
+    }
+
+    public void testStoredSummariesMatchNoteJson() throws JSONException {
+        List<Note> notes = NotificationsTable.getLatestNotes(mDb, NUM_NOTES);
+        assertEquals(NUM_NOTES, notes.size());
+
+        for (Note note : notes) {
+            String rawNote = mRawNotes.get(Integer.parseInt(note.getId()));
+            // the JSON hasn't been parsed, or it would be returned re-serialized
+            assertEquals(rawNote, note.getRawNoteData());
+
+            Note parsedNote = new Note(note.getId(), new JSONObject(rawNote));
+            assertEquals(parsedNote.getType(), note.getType());
+            assertEquals(parsedNote.getTimestamp(), note.getTimestamp());
+            assertEquals(parsedNote.getTimestampString(), note.getTimestampString());
+            assertEquals(parsedNote.isUnread(), note.isUnread());
+            assertEquals(parsedNote.isCommentType(), note.isCommentType());
+            assertEquals(parsedNote.getIconURL(), note.getIconURL());
+            assertEquals(parsedNote.getNoticonCharacter(), note.getNoticonCharacter());
+            assertEquals(parsedNote.getSubject().toString(), note.getSubject().toString());
+            assertEquals(parsedNote.getCommentSubject(), note.getCommentSubject());
+            assertEquals(parsedNote.getCommentSubjectNoticon(), note.getCommentSubjectNoticon());
+            assertEquals(parsedNote.getCommentStatus(), note.getCommentStatus());
+            assertEquals(parsedNote.getSiteId(), note.getSiteId());
+            assertEquals(parsedNote.getPostId(), note.getPostId());
+            assertEquals(parsedNote.getCommentId(), note.getCommentId());
+            assertEquals(parsedNote.getParentCommentId(), note.getParentCommentId());
+            assertTrue(parsedNote.equalsTimeAndLength(note));
+
+            // fields which aren't in the summary are read from the JSON
+            assertEquals(parsedNote.getUrl(), note.getUrl());
+            assertEquals(parsedNote.getCommentAuthorName(), note.getCommentAuthorName());
+        }
+
+        // notes are returned newest first
+        assertEquals(Integer.toString(NUM_NOTES - 1), notes.get(0).getId());
+    }
+
+    public void testSetReadIsSaved() throws JSONException {
+        Note note = NotificationsTable.getLatestNotes(mDb, 1).get(0);
+        assertTrue(note.isUnread());
+
+        note.setRead();
+        assertFalse(note.isUnread());
+        List<Note> notes = new ArrayList<>();
+        notes.add(note);
+        // a note without an id isn't written, and isn't counted as saved
+        notes.add(new Note("", new JSONObject(mRawNotes.get(0))));
+        assertEquals(1, NotificationsTable.putNotes(mDb, notes));
+
+        Note savedNote = NotificationsTable.getLatestNotes(mDb, 1).get(0);
+        assertEquals(note.getId(), savedNote.getId());
+        assertFalse(savedNote.isUnread());
+        assertFalse(savedNote.getJSON().optInt("read", 0) == 0);
+    }
+
+    public void testListLoadTime() throws JSONException {
+        long start = System.nanoTime();
+        for (Note note : NotificationsTable.getLatestNotes(mDb, NUM_NOTES)) {
+            readListFields(note);
+        }
+        long summaryNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (String rawNote : mRawNotes) {
+            readListFields(new Note(new JSONObject(rawNote)));
+        }
+        long parseNanos = System.nanoTime() - start;
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "%d notes: summaries %.2fms, parsing json %.2fms",
+                NUM_NOTES, summaryNanos / 1e6, parseNanos / 1e6));
+    }
+
+    /*
+     * reads the fields NotesAdapter reads when filtering and binding notes
+     */
+    private static void readListFields(Note note) {
+        note.isCommentType();
+        note.isFollowType();
+        note.isLikeType();
+        note.isUnread();
+        note.getTimestamp();
+        note.getSubject();
+        note.getCommentStatus();
+        note.getCommentSubject();
+        note.getCommentSubjectNoticon();
+        note.getIconURL();
+        note.getNoticonCharacter();
+        note.getJSONLength();
+    }
+
+    private static String buildNoteJson(int index) {
+        boolean isComment = index % 3 != 0;
+        String body = "[{\"type\":\"user\",\"text\":\"User " + index + "\","
+                      + "\"meta\":{\"links\":{\"home\":\"https://user" + index + ".example.com\"}}}";
+        if (isComment) {
+            body += ",{\"type\":\"comment\",\"text\":\"" + repeat("Comment text ", 40) + "\","
+                    + "\"meta\":{\"ids\":{\"comment\":" + (1000 + index) + "}},"
+                    + "\"actions\":{\"replyto-comment\":true,\"approve-comment\":" + (index % 2 == 0) + ","
+                    + "\"spam-comment\":false,\"like-comment\":false}}";
+        }
+        body += "]";
+
+        return "{\"id\":" + index + ","
+               + "\"type\":\"" + (isComment ? "comment" : "like") + "\","
+               + "\"read\":0,"
+               + "\"noticon\":\"\\uf300\","
+               + "\"timestamp\":\"" + String.format(Locale.ROOT, "2019-01-%02dT10:%02d:00+00:00",
+                                                  1 + index / 60, index % 60) + "\","
+               + "\"icon\":\"https://gravatar.example.com/" + index + "\","
+               + "\"url\":\"https://site.example.com/post/" + index + "\","
+               + "\"subject\":[{\"text\":\"User " + index + " commented on Post\","
+               + "\"ranges\":[{\"type\":\"user\",\"indices\":[0,6]},{\"type\":\"noticon\",\"value\":\"\\uf467\"}]},"
+               + "{\"text\":\"" + repeat("Snippet ", 40) + "\"}],"
+               + "\"body\":" + body + ","
+               + "\"meta\":{\"ids\":{\"site\":" + (index % 7) + ",\"post\":" + index
+               + (isComment ? ",\"comment\":" + (1000 + index) : "") + "}}}";
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import junit.framework.TestCase;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.reader.models.ReaderPostPage;
+import org.wordpress.android.util.SqlUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * reads streams a page at a time and checks that every post is returned once, in the same order
+ * as reading the whole stream, when many posts share a sort value - including REAL scores which
+ * don't survive being converted to a string
+ */
+public class ReaderPostPageTest extends TestCase {
+    private static final int NUM_POSTS = 100;
+    private static final int PAGE_SIZE = 7;
+
+    private static final ReaderTag SEARCH_TAG =
+            new ReaderTag("cats", "cats", "cats", null, ReaderTagType.SEARCH);
+    private static final ReaderTag FOLLOWED_TAG =
+            new ReaderTag("dogs", "dogs", "dogs", "/read/tags/dogs/posts", ReaderTagType.FOLLOWED);
+
+    private SQLiteDatabase mDb;
+
+    @Override
+    protected void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        ReaderPostTable.createTables(mDb);
+        insertPosts();
+    }
+
+    @Override
+    protected void tearDown() {
+        mDb.close();
+    }
+
+    public void testPagesOfPostsWithEqualScores() {
+        assertEquals(getAllPseudoIds(SEARCH_TAG, "score"), getPagedPseudoIds(SEARCH_TAG));
+    }
+
+    public void testPagesOfPostsWithEqualTimestamps() {
+        assertEquals(getAllPseudoIds(FOLLOWED_TAG, "ts_tagged"), getPagedPseudoIds(FOLLOWED_TAG));
+    }
+
+    private List<String> getPagedPseudoIds(ReaderTag tag) {
+        List<String> pseudoIds = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        ReaderPostPage page = null;
+        do {
+            page = ReaderPostTable.getPostPageWithTag(mDb, tag, page, PAGE_SIZE, true);
+            assertTrue(page.getPosts().size() <= PAGE_SIZE);
+            for (ReaderPost post : page.getPosts()) {
+                assertTrue("post returned twice: " + post.getPseudoId(), seen.add(post.getPseudoId()));
+                pseudoIds.add(post.getPseudoId());
+            }
+        } while (page.hasMore());
+        return pseudoIds;
+    }
+
+    private List<String> getAllPseudoIds(ReaderTag tag, String sortColumn) {
+        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        List<String> pseudoIds = new ArrayList<>();
+        Cursor cursor = mDb.rawQuery("SELECT pseudo_id FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                                     + " ORDER BY " + sortColumn + " DESC, pseudo_id DESC", args);
+        try {
+            while (cursor.moveToNext()) {
+                pseudoIds.add(cursor.getString(0));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        assertEquals(NUM_POSTS, pseudoIds.size());
+        return pseudoIds;
+    }
+
+    private void insertPosts() {
+        SQLiteStatement stmt = mDb.compileStatement(
+                "INSERT INTO tbl_posts (post_id, blog_id, pseudo_id, tag_name, tag_type, score, ts_tagged)"
+                + " VALUES (?1,?2,?3,?4,?5,?6,?7)");
+        try {
+            for (ReaderTag tag : new ReaderTag[]{SEARCH_TAG, FOLLOWED_TAG}) {
+                for (int i = 0; i < NUM_POSTS; i++) {
+                    stmt.bindLong(1, i);
+                    stmt.bindLong(2, 1);
+                    stmt.bindString(3, tag.getTagSlug() + "-" + i);
+                    stmt.bindString(4, tag.getTagSlug());
+                    stmt.bindLong(5, tag.tagType.toInt());
+                    // runs of ten posts share a score whose string form is rounded
+                    stmt.bindDouble(6, (i / 10) / 3.0 + 0.1 + 0.2);
+                    stmt.bindLong(7, 1500000000000L + (i / 10) * 60000L);
+                    stmt.executeInsert();
+                }
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.wordpress.android.util.SqlUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * compares the latency of searching cached posts using the full-text index in ReaderPostSearchTable
+ * with scanning tbl_posts using LIKE, using a 20k post in-memory database
+ */
+public class ReaderPostSearchBenchmarkTest extends TestCase {
+    private static final String TAG = "ReaderPostSearchBenchmark";
+    private static final int NUM_POSTS = 20000;
+    private static final int NUM_ITERATIONS = 10;
+    private static final int MAX_RESULTS = 20;
+    private static final int WORDS_PER_POST = 150;
+
+    private static final String[] WORDS = {
+            "android", "garden", "recipe", "travel", "photography", "kitchen", "mountain", "coffee",
+            "painting", "music", "guitar", "running", "science", "history", "poetry", "design",
+            "wordpress", "camera", "island", "winter", "summer", "bicycle", "library", "theatre"
+    };
+    private static final String[] QUERIES = {"photography", "moun", "coffee kitchen", "zebra"};
+
+    private SQLiteDatabase mDb;
+
+    @Override
+    protected void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        ReaderPostTable.createTables(mDb);
+        ReaderPostSearchTable.createTables(mDb);
+        insertPosts();
+    }
+
+    @Override
+    protected void tearDown() {
+        mDb.close();
+    }
+
+    public void testSearchByIndex() {
+        for (String query : QUERIES) {
+            List<String> indexIds = ReaderPostSearchTable.getMatchingPseudoIds(mDb, query, MAX_RESULTS);
+            Set<String> likeIds = queryLike(query);
+
+            // every indexed match must also be found by scanning the table
+            assertTrue(likeIds.containsAll(indexIds));
+            assertEquals(Math.min(MAX_RESULTS, likeIds.size()), indexIds.size());
+
+            long indexNanos = 0;
+            long likeNanos = 0;
+            for (int i = 0; i < NUM_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                ReaderPostSearchTable.getMatchingPseudoIds(mDb, query, MAX_RESULTS);
+                indexNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                queryLike(query);
+                likeNanos += System.nanoTime() - start;
+            }
+            Log.i(TAG, String.format(Locale.ENGLISH, "\"%s\" (%d matches): index %.2fms, like %.2fms",
+                    query, likeIds.size(), indexNanos / 1e6 / NUM_ITERATIONS, likeNanos / 1e6 / NUM_ITERATIONS));
+        }
+    }
+
+    public void testTermSuggestions() {
+        List<String> terms = ReaderPostSearchTable.getTermSuggestions(mDb, "Pho", 5);
+        assertEquals(1, terms.size());
+        assertEquals("photography", terms.get(0));
+
+        assertTrue(ReaderPostSearchTable.getTermSuggestions(mDb, "two words", 5).isEmpty());
+    }
+
+    public void testMatchQueryDropsSyntax() {
+        assertEquals("coffee* kitchen*", ReaderPostSearchTable.toMatchQuery("  Coffee \"kitchen\" "));
+        assertEquals("near* or*", ReaderPostSearchTable.toMatchQuery("NEAR OR -*"));
+        assertEquals("", ReaderPostSearchTable.toMatchQuery("*\"()"));
+    }
+
+    private void insertPosts() {
+        SQLiteStatement stmt = mDb.compileStatement(
+                "INSERT INTO tbl_posts (post_id, blog_id, pseudo_id, tag_name, title, excerpt, text, blog_name,"
+                + " author_name) VALUES (?1,?2,?3,'',?4,?5,?6,?7,?8)");
+        ReaderPostSearchTable.Indexer indexer = new ReaderPostSearchTable.Indexer(mDb);
+        Random random = new Random(42);
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < NUM_POSTS; i++) {
+                String title = randomWords(random, 5);
+                String excerpt = randomWords(random, 25);
+                String text = "<p>" + randomWords(random, WORDS_PER_POST) + "</p>";
+                String blogName = "blog " + (i % 500);
+                String authorName = "author " + (i % 1000);
+
+                stmt.bindLong(1, i);
+                stmt.bindLong(2, i % 500);
+                stmt.bindString(3, "pseudo" + i);
+                stmt.bindString(4, title);
+                stmt.bindString(5, excerpt);
+                stmt.bindString(6, text);
+                stmt.bindString(7, blogName);
+                stmt.bindString(8, authorName);
+                stmt.executeInsert();
+                indexer.index("pseudo" + i, title, excerpt, text, blogName, authorName);
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+            stmt.close();
+            indexer.close();
+        }
+    }
+
+    private String randomWords(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /*
+     * returns the pseudo_ids of posts containing every word in the query using LIKE, which is
+     * how cached posts would be searched without the index
+     */
+    private Set<String> queryLike(String query) {
+        String[] words = query.split(" ");
+        StringBuilder where = new StringBuilder();
+        String[] args = new String[words.length * 3];
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) {
+                where.append(" AND ");
+            }
+            where.append("(title LIKE ? OR excerpt LIKE ? OR text LIKE ?)");
+            args[i * 3] = "%" + words[i] + "%";
+            args[i * 3 + 1] = args[i * 3];
+            args[i * 3 + 2] = args[i * 3];
+        }
+
+        Set<String> ids = new HashSet<>();
+        Cursor cursor = mDb.rawQuery("SELECT pseudo_id FROM tbl_posts WHERE " + where, args);
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return ids;
+    }
+}
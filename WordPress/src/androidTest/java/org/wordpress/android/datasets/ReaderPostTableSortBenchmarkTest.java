@@ -0,0 +1,150 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.wordpress.android.util.DateTimeUtils;
+import org.wordpress.android.util.SqlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * compares stream query latency when sorting on the iso8601 date columns (as tbl_posts did prior
+ * to db version 138) with sorting on the indexed ts_ columns, using a 20k row in-memory table
+ */
+public class ReaderPostTableSortBenchmarkTest extends TestCase {
+    private static final String TAG = "ReaderPostSortBenchmark";
+    private static final int NUM_ROWS = 20000;
+    private static final int NUM_ITERATIONS = 20;
+    private static final int PAGE_SIZE = 200;
+
+    private static final String[] TAG_NAMES = {"Followed Sites", "Posts I Like", "dogs", "bookmarked-posts"};
+    private static final String[] SORT_COLUMNS = {"published", "liked", "tagged", "tagged"};
+
+    private SQLiteDatabase mDb;
+
+    @Override
+    protected void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        ReaderPostTable.createTables(mDb);
+        // the indexes that existed on the date columns before they were replaced
+        mDb.execSQL("CREATE INDEX idx_posts_date_published ON tbl_posts(date_published)");
+        mDb.execSQL("CREATE INDEX idx_posts_date_tagged ON tbl_posts(date_tagged)");
+        mDb.execSQL("CREATE INDEX idx_posts_tag_name ON tbl_posts(tag_name)");
+        insertRows();
+    }
+
+    @Override
+    protected void tearDown() {
+        mDb.close();
+    }
+
+    public void testStreamQueriesByTimestamp() {
+        for (int i = 0; i < TAG_NAMES.length; i++) {
+            String tagName = TAG_NAMES[i];
+            String sortType = SORT_COLUMNS[i];
+
+            String dateSql = "SELECT blog_id, post_id FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                             + " ORDER BY date_" + sortType + " DESC LIMIT " + PAGE_SIZE;
+            String tsSql = "SELECT blog_id, post_id FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                           + " ORDER BY ts_" + sortType + " DESC LIMIT " + PAGE_SIZE;
+            String[] args = {tagName, "0"};
+
+            List<Long> dateIds = queryIds(dateSql, args);
+            List<Long> tsIds = queryIds(tsSql, args);
+            assertEquals(dateIds, tsIds);
+
+            long dateNanos = timeQuery(dateSql, args);
+            long tsNanos = timeQuery(tsSql, args);
+            Log.i(TAG, String.format(Locale.ENGLISH, "%s: date column %.2fms, ts column %.2fms",
+                    tagName, dateNanos / 1e6, tsNanos / 1e6));
+        }
+    }
+
+    public void testPurgeQueryByTimestamp() {
+        String where = "SELECT count(*) FROM tbl_posts WHERE tag_name=? AND tag_type=? AND pseudo_id NOT IN"
+                       + " (SELECT pseudo_id FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                       + " ORDER BY %s DESC LIMIT " + PAGE_SIZE + ")";
+        String[] args = {TAG_NAMES[0], "0", TAG_NAMES[0], "0"};
+
+        String dateSql = String.format(where, "date_published");
+        String tsSql = String.format(where, "ts_published");
+        assertEquals(SqlUtils.intForQuery(mDb, dateSql, args), SqlUtils.intForQuery(mDb, tsSql, args));
+
+        long dateNanos = timeQuery(dateSql, args);
+        long tsNanos = timeQuery(tsSql, args);
+        Log.i(TAG, String.format(Locale.ENGLISH, "purge: date column %.2fms, ts column %.2fms",
+                dateNanos / 1e6, tsNanos / 1e6));
+    }
+
+    private void insertRows() {
+        SQLiteStatement stmt = mDb.compileStatement(
+                "INSERT INTO tbl_posts (post_id, blog_id, pseudo_id, tag_name, tag_type,"
+                + " date_published, date_liked, date_tagged, ts_published, ts_liked, ts_tagged)"
+                + " VALUES (?1,?2,?3,?4,0,?5,?6,?7,?8,?9,?10)");
+        long baseTimestamp = 1500000000000L;
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < NUM_ROWS; i++) {
+                // spread the dates so each sort column produces a different order
+                long published = baseTimestamp + (i * 60000L);
+                long liked = baseTimestamp + (((i * 7919L) % NUM_ROWS) * 60000L);
+                long tagged = baseTimestamp + (((i * 104729L) % NUM_ROWS) * 60000L);
+                stmt.bindLong(1, i);
+                stmt.bindLong(2, i % 500);
+                stmt.bindString(3, "pseudo" + i);
+                stmt.bindString(4, TAG_NAMES[i % TAG_NAMES.length]);
+                stmt.bindString(5, DateTimeUtils.iso8601UTCFromTimestamp(published / 1000));
+                stmt.bindString(6, DateTimeUtils.iso8601UTCFromTimestamp(liked / 1000));
+                stmt.bindString(7, DateTimeUtils.iso8601UTCFromTimestamp(tagged / 1000));
+                stmt.bindLong(8, published);
+                stmt.bindLong(9, liked);
+                stmt.bindLong(10, tagged);
+                stmt.executeInsert();
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+            stmt.close();
+        }
+    }
+
+    private List<Long> queryIds(String sql, String[] args) {
+        List<Long> ids = new ArrayList<>();
+        Cursor cursor = mDb.rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(1));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return ids;
+    }
+
+    /*
+     * returns the average time to execute the passed query and read every row it returns
+     */
+    private long timeQuery(String sql, String[] args) {
+        long totalNanos = 0;
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            Cursor cursor = mDb.rawQuery(sql, args);
+            try {
+                while (cursor.moveToNext()) {
+                    cursor.getLong(0);
+                }
+            } finally {
+                SqlUtils.closeCursor(cursor);
+            }
+            totalNanos += System.nanoTime() - start;
+        }
+        return totalNanos / NUM_ITERATIONS;
+    }
+}
@@ -0,0 +1,191 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.reader.ReaderConstants;
+import org.wordpress.android.util.SqlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * checks that purging excess posts in a tag a chunk at a time leaves the same posts as purging them
+ * in a single delete did prior to ReaderDatabasePurger, using a 20k row in-memory table
+ */
+public class ReaderPurgeStepTest extends TestCase {
+    private static final String TAG = "ReaderPurgeStepTest";
+    private static final int NUM_ROWS = 20000;
+    private static final int CHUNK_SIZE = 250;
+
+    private static final ReaderTag READER_TAG =
+            new ReaderTag("dogs", "dogs", "dogs", "/read/tags/dogs/posts", ReaderTagType.FOLLOWED);
+
+    private SQLiteDatabase mDb;
+
+    @Override
+    protected void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        ReaderPostTable.createTables(mDb);
+        ReaderCommentTable.createTables(mDb);
+        insertRows();
+    }
+
+    @Override
+    protected void tearDown() {
+        mDb.close();
+    }
+
+    public void testPurgeExcessPostsInChunks() {
+        List<Long> expectedIds = queryIds("SELECT post_id FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                                          + " ORDER BY ts_tagged DESC LIMIT "
+                                          + ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
+
+        ReaderPurgeStep step = ReaderPostTable.getPurgeStepForTag(mDb, READER_TAG);
+        assertNotNull(step);
+        int numDeleted = 0;
+        int maxChunkMs = 0;
+        while (!step.isDone()) {
+            long start = System.nanoTime();
+            int numDeletedInChunk = step.purgeChunk(mDb, CHUNK_SIZE);
+            maxChunkMs = Math.max(maxChunkMs, (int) ((System.nanoTime() - start) / 1000000));
+            assertTrue(numDeletedInChunk <= CHUNK_SIZE);
+            numDeleted += numDeletedInChunk;
+        }
+
+        List<Long> remainingIds = queryIds("SELECT post_id FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                                           + " ORDER BY ts_tagged DESC");
+        assertEquals(expectedIds, remainingIds);
+        assertEquals(NUM_ROWS - ReaderConstants.READER_MAX_POSTS_TO_DISPLAY, numDeleted);
+        assertEquals(numDeleted, step.getNumDeleted());
+        Log.i(TAG, String.format(Locale.ENGLISH, "purged %d posts in %d chunks, %dms, longest chunk %dms",
+                numDeleted, step.getNumChunks(), step.getElapsedMs(), maxChunkMs));
+
+        // a tag with no excess posts doesn't need purging
+        assertNull(ReaderPostTable.getPurgeStepForTag(mDb, READER_TAG));
+    }
+
+    public void testPurgeExcessPostsByScore() {
+        ReaderTag searchTag = new ReaderTag("cats", "cats", "cats", null, ReaderTagType.SEARCH);
+        int numPosts = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY + 100;
+        SQLiteStatement stmt = mDb.compileStatement(
+                "INSERT INTO tbl_posts (post_id, blog_id, pseudo_id, tag_name, tag_type, score)"
+                + " VALUES (?1,?2,?3,?4,?5,?6)");
+        try {
+            for (int i = 0; i < numPosts; i++) {
+                stmt.bindLong(1, NUM_ROWS + i);
+                stmt.bindLong(2, 1);
+                stmt.bindString(3, "search" + i);
+                stmt.bindString(4, searchTag.getTagSlug());
+                stmt.bindLong(5, searchTag.tagType.toInt());
+                // scores whose 15 digit string form is rounded up
+                stmt.bindDouble(6, i + 2 / 3.0);
+                stmt.executeInsert();
+            }
+        } finally {
+            stmt.close();
+        }
+
+        ReaderPurgeStep step = ReaderPostTable.getPurgeStepForTag(mDb, searchTag);
+        assertNotNull(step);
+        while (!step.isDone()) {
+            step.purgeChunk(mDb, CHUNK_SIZE);
+        }
+
+        String[] args = {searchTag.getTagSlug(), Integer.toString(searchTag.tagType.toInt())};
+        assertEquals(ReaderConstants.READER_MAX_POSTS_TO_DISPLAY,
+                SqlUtils.intForQuery(mDb, "SELECT count(*) FROM tbl_posts WHERE tag_name=? AND tag_type=?", args));
+        assertEquals(numPosts - ReaderConstants.READER_MAX_POSTS_TO_DISPLAY, step.getNumDeleted());
+        assertNull(ReaderPostTable.getPurgeStepForTag(mDb, searchTag));
+    }
+
+    public void testPurgeCommentsForMissingPosts() {
+        mDb.execSQL("DELETE FROM tbl_posts WHERE post_id % 2 = 1");
+        // a comment on a post which exists, but in another blog, is purged too
+        mDb.execSQL("INSERT INTO tbl_comments (blog_id, post_id, comment_id, page_number) VALUES (999, 0, 999999, 1)");
+        for (ReaderPurgeStep step : ReaderCommentTable.getPurgeSteps()) {
+            while (!step.isDone()) {
+                step.purgeChunk(mDb, CHUNK_SIZE);
+            }
+        }
+
+        assertEquals(0, SqlUtils.intForQuery(mDb, "SELECT count(*) FROM tbl_comments WHERE NOT EXISTS"
+                + " (SELECT 1 FROM tbl_posts WHERE tbl_posts.post_id = tbl_comments.post_id"
+                + " AND tbl_posts.blog_id = tbl_comments.blog_id)", null));
+        assertEquals(0, SqlUtils.intForQuery(mDb, "SELECT count(*) FROM tbl_comments WHERE page_number != 1", null));
+        assertEquals(NUM_ROWS / 2, SqlUtils.intForQuery(mDb, "SELECT count(*) FROM tbl_comments", null));
+    }
+
+    public void testFullVacuumSwitchesToIncremental() {
+        // the in-memory database predates auto_vacuum, as databases created by older versions do
+        mDb.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        assertFalse(ReaderDatabase.isIncrementalVacuumEnabled(mDb));
+
+        mDb.execSQL("DELETE FROM tbl_comments");
+        assertTrue(SqlUtils.intForQuery(mDb, "PRAGMA freelist_count", null) > 0);
+
+        assertTrue(ReaderDatabase.vacuumToIncremental(mDb));
+        assertTrue(ReaderDatabase.isIncrementalVacuumEnabled(mDb));
+        assertEquals(0, SqlUtils.intForQuery(mDb, "PRAGMA freelist_count", null));
+
+        // it's only done once
+        assertFalse(ReaderDatabase.vacuumToIncremental(mDb));
+    }
+
+    private void insertRows() {
+        SQLiteStatement postStmt = mDb.compileStatement(
+                "INSERT INTO tbl_posts (post_id, blog_id, pseudo_id, tag_name, tag_type, ts_tagged)"
+                + " VALUES (?1,?2,?3,?4,?5,?6)");
+        SQLiteStatement commentStmt = mDb.compileStatement(
+                "INSERT INTO tbl_comments (blog_id, post_id, comment_id, page_number) VALUES (?1,?2,?3,?4)");
+        long baseTimestamp = 1500000000000L;
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < NUM_ROWS; i++) {
+                // spread the timestamps so they're not in rowid order
+                postStmt.bindLong(1, i);
+                postStmt.bindLong(2, i % 500);
+                postStmt.bindString(3, "pseudo" + i);
+                postStmt.bindString(4, READER_TAG.getTagSlug());
+                postStmt.bindLong(5, READER_TAG.tagType.toInt());
+                postStmt.bindLong(6, baseTimestamp + (((i * 104729L) % NUM_ROWS) * 60000L));
+                postStmt.executeInsert();
+
+                // two pages of comments on every post
+                for (int page = 1; page <= 2; page++) {
+                    commentStmt.bindLong(1, i % 500);
+                    commentStmt.bindLong(2, i);
+                    commentStmt.bindLong(3, (i * 2L) + page);
+                    commentStmt.bindLong(4, page);
+                    commentStmt.executeInsert();
+                }
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+            postStmt.close();
+            commentStmt.close();
+        }
+    }
+
+    private List<Long> queryIds(String sql) {
+        String[] args = {READER_TAG.getTagSlug(), Integer.toString(READER_TAG.tagType.toInt())};
+        List<Long> ids = new ArrayList<>();
+        Cursor cursor = mDb.rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(0));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,204 @@
+package org.wordpress.android.models;
+
+import android.os.Build;
+import android.os.Debug;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONObject;
+import org.wordpress.android.TestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * compares parsing the recorded reader responses in WordPressMocks as a JSONObject tree (as
+ * ReaderPostList.fromJson does) with parsing them from the stream, checking the results match and
+ * logging parse time and bytes allocated for each
+ */
+public class ReaderPostStreamParserBenchmarkTest extends InstrumentationTestCase {
+    private static final String TAG = "ReaderPostParseBenchmark";
+    private static final int NUM_ITERATIONS = 20;
+    private static final int BATCH_SIZE = 5;
+
+    private static final String[] FIXTURES = {
+            "mocks/mappings/wpcom/reader/rest_v12_read_following.json",
+            "mocks/mappings/wpcom/reader/rest_v12_read_sites_discover_posts.json"
+    };
+
+    public void testStreamParserMatchesTreeParser() throws Exception {
+        for (String fixture : FIXTURES) {
+            byte[] response = loadResponseBody(fixture);
+
+            ReaderPostList treePosts = ReaderPostList.fromJson(new JSONObject(new String(response, "UTF-8")));
+            ReaderPostList streamPosts = ReaderPostStreamParser.parseAll(new ByteArrayInputStream(response));
+
+            assertFalse(treePosts.isEmpty());
+            assertEquals(treePosts.size(), streamPosts.size());
+            for (int i = 0; i < treePosts.size(); i++) {
+                assertSamePost(treePosts.get(i), streamPosts.get(i));
+            }
+        }
+    }
+
+    /*
+     * values which org.json and JSONUtils coerce - strings for numbers and booleans, nulls, missing
+     * values and nested objects which override top-level ones - must be read the same way
+     */
+    public void testStreamParserCoercesValuesLikeTreeParser() throws Exception {
+        String response = "{\"found\":3,\"posts\":["
+                          + "{\"ID\":\"12\",\"site_ID\":34,\"pseudo_ID\":\"abc\",\"global_ID\":\"def\","
+                          + "\"title\":\"Fish &amp; Chips\",\"excerpt\":\"<p>An excerpt</p>\","
+                          + "\"i_like\":\"1\",\"is_following\":true,\"use_excerpt\":\"false\","
+                          + "\"like_count\":\"7\",\"comments_open\":false,\"comment_count\":2,"
+                          + "\"discussion\":{\"comments_open\":true,\"comment_count\":5},"
+                          + "\"score\":1.5,\"site_name\":null,\"unknown\":{\"a\":[1,2]},"
+                          + "\"metadata\":[{\"key\":\"xpost_origin\",\"value\":\"56:78\"}]},"
+                          + "{\"ID\":99999999999,\"global_ID\":\"ghi\",\"content\":\"text\",\"score\":null,"
+                          + "\"feed_item_ID\":9007199254740993,"
+                          + "\"meta\":{\"data\":{\"site\":{\"ID\":3,\"name\":\"Site\",\"is_private\":true}}}},"
+                          + "{}"
+                          + "]}";
+        byte[] data = response.getBytes("UTF-8");
+
+        ReaderPostList treePosts = ReaderPostList.fromJson(new JSONObject(response));
+        ReaderPostList streamPosts = ReaderPostStreamParser.parseAll(new ByteArrayInputStream(data));
+
+        assertEquals(3, streamPosts.size());
+        for (int i = 0; i < treePosts.size(); i++) {
+            assertSamePost(treePosts.get(i), streamPosts.get(i));
+        }
+
+        ReaderPost post = streamPosts.get(0);
+        assertEquals(12, post.postId);
+        assertEquals("abc", post.getPseudoId());
+        assertEquals("Fish & Chips", post.getTitle());
+        assertTrue(post.isLikedByCurrentUser);
+        assertTrue(post.isCommentsOpen);
+        assertEquals(5, post.numReplies);
+        assertEquals(56, post.xpostBlogId);
+        assertEquals(99999999999L, streamPosts.get(1).postId);
+        // ids above 2^53 aren't rounded as they would be by a double
+        assertEquals(9007199254740993L, streamPosts.get(1).feedItemId);
+        assertEquals("ghi", streamPosts.get(1).getPseudoId());
+        assertTrue(Double.isNaN(streamPosts.get(1).score));
+        assertEquals(3, streamPosts.get(1).blogId);
+    }
+
+    public void testStreamParserBatchesPosts() throws Exception {
+        byte[] response = loadResponseBody(FIXTURES[0]);
+        final int[] numBatches = {0};
+        int numPosts = new ReaderPostStreamParser(BATCH_SIZE).parse(new ByteArrayInputStream(response),
+                new ReaderPostStreamParser.BatchListener() {
+                    @Override
+                    public void onPostsParsed(@NonNull ReaderPostList posts) {
+                        assertTrue(posts.size() <= BATCH_SIZE);
+                        numBatches[0]++;
+                    }
+                });
+
+        assertEquals((numPosts + BATCH_SIZE - 1) / BATCH_SIZE, numBatches[0]);
+    }
+
+    public void testParseTimeAndAllocation() throws Exception {
+        for (String fixture : FIXTURES) {
+            final byte[] response = loadResponseBody(fixture);
+
+            long treeStart = System.nanoTime();
+            long treeBytes = getAllocatedBytes();
+            for (int i = 0; i < NUM_ITERATIONS; i++) {
+                ReaderPostList.fromJson(new JSONObject(new String(response, "UTF-8")));
+            }
+            long treeNanos = (System.nanoTime() - treeStart) / NUM_ITERATIONS;
+            treeBytes = (getAllocatedBytes() - treeBytes) / NUM_ITERATIONS;
+
+            long streamStart = System.nanoTime();
+            long streamBytes = getAllocatedBytes();
+            for (int i = 0; i < NUM_ITERATIONS; i++) {
+                new ReaderPostStreamParser(BATCH_SIZE).parse(new ByteArrayInputStream(response),
+                        new ReaderPostStreamParser.BatchListener() {
+                            @Override
+                            public void onPostsParsed(@NonNull ReaderPostList posts) {
+                                // no-op
+                            }
+                        });
+            }
+            long streamNanos = (System.nanoTime() - streamStart) / NUM_ITERATIONS;
+            streamBytes = (getAllocatedBytes() - streamBytes) / NUM_ITERATIONS;
+
+            Log.i(TAG, String.format(Locale.ENGLISH,
+                    "%s: tree %.2fms %dKB, stream %.2fms %dKB",
+                    fixture, treeNanos / 1e6, treeBytes / 1024, streamNanos / 1e6, streamBytes / 1024));
+        }
+    }
+
+    private static void assertSamePost(ReaderPost expected, ReaderPost actual) {
+        assertEquals(expected.postId, actual.postId);
+        assertEquals(expected.blogId, actual.blogId);
+        assertEquals(expected.feedId, actual.feedId);
+        assertEquals(expected.feedItemId, actual.feedItemId);
+        assertEquals(expected.authorId, actual.authorId);
+        assertEquals(expected.getPseudoId(), actual.getPseudoId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getExcerpt(), actual.getExcerpt());
+        assertEquals(expected.getFormat(), actual.getFormat());
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getShortUrl(), actual.getShortUrl());
+        assertEquals(expected.getBlogName(), actual.getBlogName());
+        assertEquals(expected.getBlogUrl(), actual.getBlogUrl());
+        assertEquals(expected.getBlogImageUrl(), actual.getBlogImageUrl());
+        assertEquals(expected.getAuthorName(), actual.getAuthorName());
+        assertEquals(expected.getPostAvatar(), actual.getPostAvatar());
+        assertEquals(expected.getPrimaryTag(), actual.getPrimaryTag());
+        assertEquals(expected.getSecondaryTag(), actual.getSecondaryTag());
+        assertEquals(expected.getDatePublished(), actual.getDatePublished());
+        assertEquals(expected.getDateLiked(), actual.getDateLiked());
+        assertEquals(expected.getDateTagged(), actual.getDateTagged());
+        assertEquals(expected.getFeaturedImage(), actual.getFeaturedImage());
+        assertEquals(expected.getFeaturedVideo(), actual.getFeaturedVideo());
+        assertEquals(expected.getAttachmentsJson(), actual.getAttachmentsJson());
+        assertEquals(expected.getDiscoverJson(), actual.getDiscoverJson());
+        assertEquals(expected.getRailcarJson(), actual.getRailcarJson());
+        assertEquals(expected.score, actual.score);
+        assertEquals(expected.numLikes, actual.numLikes);
+        assertEquals(expected.numReplies, actual.numReplies);
+        assertEquals(expected.isLikedByCurrentUser, actual.isLikedByCurrentUser);
+        assertEquals(expected.isFollowedByCurrentUser, actual.isFollowedByCurrentUser);
+        assertEquals(expected.isCommentsOpen, actual.isCommentsOpen);
+        assertEquals(expected.isExternal, actual.isExternal);
+        assertEquals(expected.isPrivate, actual.isPrivate);
+        assertEquals(expected.isJetpack, actual.isJetpack);
+        assertEquals(expected.useExcerpt, actual.useExcerpt);
+        assertEquals(expected.xpostPostId, actual.xpostPostId);
+        assertEquals(expected.xpostBlogId, actual.xpostBlogId);
+        assertEquals(expected.getCardType(), actual.getCardType());
+    }
+
+    /*
+     * returns the total bytes allocated by the runtime, or zero where that isn't available
+     */
+    private static long getAllocatedBytes() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return 0;
+        }
+        String stat = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        return stat != null ? Long.parseLong(stat) : 0;
+    }
+
+    /*
+     * the fixtures are WireMock mappings, so the recorded response is the "jsonBody" of the mapping
+     */
+    private byte[] loadResponseBody(String fixture) throws Exception {
+        InputStream input = getInstrumentation().getContext().getAssets().open(fixture);
+        try {
+            JSONObject mapping = new JSONObject(TestUtils.convertStreamToString(input));
+            return mapping.getJSONObject("response").getJSONObject("jsonBody").toString().getBytes("UTF-8");
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package org.wordpress.android.networking;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+import android.webkit.WebResourceResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.internal.Util;
+
+/**
+ * serves a private post's images from a local server which requires the auth header, and checks
+ * that AuthenticatedWebResourceLoader reuses connections, serves reopened posts from its cache,
+ * shares concurrent downloads and prefetches - logging how long opening the post twice takes
+ * compared with opening a connection for every image as the WebView clients used to
+ */
+public class AuthenticatedWebResourceLoaderTest extends InstrumentationTestCase {
+    private static final String TAG = "AuthResourceLoaderTest";
+    private static final String TOKEN = "test-token";
+    private static final int NUM_IMAGES = 12;
+    private static final int IMAGE_SIZE = 80 * 1024;
+    // delay before each response, so concurrent requests for the same image overlap
+    private static final long RESPONSE_DELAY_MS = 50;
+
+    private final ConcurrentHashMap<String, AtomicInteger> mRequestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger mConnectionCount = new AtomicInteger();
+    private final List<Socket> mClientSockets = Collections.synchronizedList(new ArrayList<Socket>());
+
+    private byte[] mImage;
+    private File mCacheDir;
+    private ServerSocket mServerSocket;
+    private Thread mServerThread;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mImage = new byte[IMAGE_SIZE];
+        new Random(42).nextBytes(mImage);
+        mCacheDir = new File(getInstrumentation().getTargetContext().getCacheDir(), "auth_resource_loader_test");
+        deleteDir(mCacheDir);
+
+        mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        mServerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        });
+        mServerThread.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mServerSocket.close();
+        synchronized (mClientSockets) {
+            for (Socket socket : mClientSockets) {
+                Util.closeQuietly(socket);
+            }
+        }
+        mServerThread.join();
+        deleteDir(mCacheDir);
+        super.tearDown();
+    }
+
+    public void testReopenedPostIsServedFromCache() throws IOException {
+        AuthenticatedWebResourceLoader loader = newLoader();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_IMAGES; i++) {
+            assertImage(loader.load(getImageUrl(i), TOKEN));
+        }
+        long firstOpenNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < NUM_IMAGES; i++) {
+            assertImage(loader.load(getImageUrl(i), TOKEN));
+        }
+        long secondOpenNanos = System.nanoTime() - start;
+
+        assertEquals(NUM_IMAGES, getTotalRequestCount());
+        assertEquals(NUM_IMAGES, loader.getNetworkCount());
+        assertEquals(NUM_IMAGES, loader.getHitCount());
+        // keep-alive connections are reused rather than opened for each image
+        assertEquals(1, mConnectionCount.get());
+
+        mRequestCounts.clear();
+        mConnectionCount.set(0);
+        start = System.nanoTime();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < NUM_IMAGES; i++) {
+                assertEquals(IMAGE_SIZE, loadWithUrlConnection(getImageUrl(i)).length);
+            }
+        }
+        long urlConnectionNanos = System.nanoTime() - start;
+        assertEquals(NUM_IMAGES * 2, getTotalRequestCount());
+
+        Log.i(TAG, String.format(Locale.ENGLISH,
+                "%d images opened twice: loader %.2fms + %.2fms, connection per image %.2fms (%d connections)",
+                NUM_IMAGES, firstOpenNanos / 1e6, secondOpenNanos / 1e6, urlConnectionNanos / 1e6,
+                mConnectionCount.get()));
+    }
+
+    public void testConcurrentRequestsShareOneDownload() throws InterruptedException {
+        final AuthenticatedWebResourceLoader loader = newLoader();
+        final String url = getImageUrl(0);
+        final int numThreads = 4;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(numThreads);
+        final List<WebResourceResponse> responses =
+                Collections.synchronizedList(new ArrayList<WebResourceResponse>());
+
+        for (int i = 0; i < numThreads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        responses.add(loader.load(url, TOKEN));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        assertTrue(doneLatch.await(30, TimeUnit.SECONDS));
+
+        assertEquals(numThreads, responses.size());
+        for (WebResourceResponse response : responses) {
+            assertImage(response);
+        }
+        assertEquals(1, getTotalRequestCount());
+    }
+
+    public void testPrefetchedImagesAreNotDownloadedAgain() throws InterruptedException {
+        AuthenticatedWebResourceLoader loader = newLoader();
+        for (int i = 0; i < NUM_IMAGES; i++) {
+            loader.prefetch(getImageUrl(i), TOKEN);
+        }
+        // loads wait for prefetches which are in progress, and run the ones which haven't started
+        for (int i = 0; i < NUM_IMAGES; i++) {
+            assertImage(loader.load(getImageUrl(i), TOKEN));
+        }
+        assertEquals(NUM_IMAGES, getTotalRequestCount());
+    }
+
+    public void testRequestsWithoutTokenAreRejected() {
+        AuthenticatedWebResourceLoader loader = newLoader();
+        assertNull(loader.load(getImageUrl(0), ""));
+    }
+
+    public void testOnlyWordPressComImagesAreAuthenticated() {
+        String imageUrl = "http://example.files.wordpress.com/image.jpg";
+        assertEquals("https://example.files.wordpress.com/image.jpg",
+                AuthenticatedWebResourceLoader.getAuthenticatedImageUrl(imageUrl));
+        assertNull(AuthenticatedWebResourceLoader.getAuthenticatedImageUrl("https://example.com/image.jpg"));
+        assertNull(AuthenticatedWebResourceLoader.getAuthenticatedImageUrl("https://example.wordpress.com/post/"));
+    }
+
+    private AuthenticatedWebResourceLoader newLoader() {
+        return new AuthenticatedWebResourceLoader(mCacheDir, 10 * 1024 * 1024, null);
+    }
+
+    private String getImageUrl(int index) {
+        return "http://127.0.0.1:" + mServerSocket.getLocalPort() + "/wp-content/uploads/image" + index + ".jpg";
+    }
+
+    private int getTotalRequestCount() {
+        int total = 0;
+        for (AtomicInteger count : mRequestCounts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    private void assertImage(WebResourceResponse response) {
+        assertNotNull(response);
+        assertEquals("image/jpeg", response.getMimeType());
+        assertTrue(Arrays.equals(mImage, readFully(response.getData())));
+    }
+
+    /*
+     * how the WebView clients loaded private images before AuthenticatedWebResourceLoader
+     */
+    private byte[] loadWithUrlConnection(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestProperty("Authorization", "Bearer " + TOKEN);
+        conn.setRequestProperty("Connection", "Keep-Alive");
+        return readFully(conn.getInputStream());
+    }
+
+    private static byte[] readFully(InputStream in) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try {
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } finally {
+            Util.closeQuietly(in);
+        }
+        return out.toByteArray();
+    }
+
+    private void acceptConnections() {
+        while (!mServerSocket.isClosed()) {
+            try {
+                final Socket socket = mServerSocket.accept();
+                mClientSockets.add(socket);
+                mConnectionCount.incrementAndGet();
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        serveConnection(socket);
+                    }
+                }).start();
+            } catch (IOException e) {
+                // the server socket was closed by tearDown
+            }
+        }
+    }
+
+    /*
+     * serves the image for every GET on the connection, requiring the auth header and allowing the
+     * response to be cached privately for an hour
+     */
+    private void serveConnection(Socket socket) {
+        try {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            String request;
+            while ((request = readRequestHead(in)) != null) {
+                String path = request.split(" ")[1];
+                mRequestCounts.putIfAbsent(path, new AtomicInteger());
+                mRequestCounts.get(path).incrementAndGet();
+                Thread.sleep(RESPONSE_DELAY_MS);
+
+                if (!request.contains("\r\nAuthorization: Bearer " + TOKEN + "\r\n")) {
+                    out.write("HTTP/1.1 403 Forbidden\r\nContent-Length: 0\r\n\r\n".getBytes("US-ASCII"));
+                } else {
+                    out.write(("HTTP/1.1 200 OK\r\n"
+                               + "Content-Type: image/jpeg\r\n"
+                               + "Content-Length: " + mImage.length + "\r\n"
+                               + "Cache-Control: private, max-age=3600\r\n"
+                               + "\r\n").getBytes("US-ASCII"));
+                    out.write(mImage);
+                }
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // the connection was closed
+        } finally {
+            Util.closeQuietly(socket);
+        }
+    }
+
+    /*
+     * returns the request line and headers, or null if the connection was closed
+     */
+    private static String readRequestHead(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            head.append((char) b);
+            if (head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                return head.toString();
+            }
+        }
+        return null;
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+}
@@ -0,0 +1,422 @@
+package org.wordpress.android.networking;
+
+import android.content.Context;
+import android.net.Uri;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import com.android.volley.RequestQueue;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.Volley;
+import com.wordpress.rest.RestClient;
+import com.wordpress.rest.RestRequest;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.FactoryUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.internal.Util;
+
+/**
+ * makes requests through RestClientUtils against a local server which answers both individual and
+ * batch requests after a delay, as a high latency connection would, and checks that requests made
+ * together are sent as one batch, that each listener receives its own response and that requests
+ * the batch couldn't answer are sent again on their own - logging how long the requests take
+ * batched and individually
+ */
+public class RestRequestBatcherTest extends InstrumentationTestCase {
+    private static final String TAG = "RestRequestBatcherTest";
+    private static final String API_PREFIX = "/rest/v1.1";
+    private static final long RESPONSE_DELAY_MS = 150;
+    private static final String[] SETTINGS_PATHS = {
+            "sites/1/settings",
+            "sites/1/categories",
+            "jetpack-blogs/1/rest-api/?path=/jetpack/v4/settings",
+            "jetpack-blogs/1",
+            "sites/1/jetpack/modules"
+    };
+
+    private final List<String> mRequestPaths = Collections.synchronizedList(new ArrayList<String>());
+    private final List<Socket> mClientSockets = Collections.synchronizedList(new ArrayList<Socket>());
+    private final Map<String, String> mResponses = new ConcurrentHashMap<>();
+    private final Map<String, String> mQueries = new ConcurrentHashMap<>();
+    private final Map<String, String> mErrors = new ConcurrentHashMap<>();
+
+    private volatile boolean mFailBatches;
+    private ServerSocket mServerSocket;
+    private Thread mServerThread;
+    private RestClientUtils mRestClientUtils;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        mServerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        });
+        mServerThread.start();
+
+        final String endpoint = "http://127.0.0.1:" + mServerSocket.getLocalPort() + API_PREFIX + "/";
+        setRestClientFactory(new RestClientFactoryAbstract() {
+            @Override
+            public RestClient make(RequestQueue queue) {
+                return new RestClient(queue, "test-token", endpoint);
+            }
+
+            @Override
+            public RestClient make(RequestQueue queue, RestClient.REST_CLIENT_VERSIONS version) {
+                return make(queue);
+            }
+        });
+        Context context = getInstrumentation().getTargetContext();
+        mRestClientUtils = new RestClientUtils(context, Volley.newRequestQueue(context), null, null,
+                RestClient.REST_CLIENT_VERSIONS.V1_1);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FactoryUtils.clearFactories();
+        mServerSocket.close();
+        synchronized (mClientSockets) {
+            for (Socket socket : mClientSockets) {
+                Util.closeQuietly(socket);
+            }
+        }
+        mServerThread.join();
+        super.tearDown();
+    }
+
+    public void testRequestsMadeTogetherAreBatched() throws InterruptedException {
+        long start = System.nanoTime();
+        CountDownLatch latch = new CountDownLatch(SETTINGS_PATHS.length);
+        for (String path : SETTINGS_PATHS) {
+            mRestClientUtils.getBatched(path, null, newListener(path, latch), newErrorListener(path, latch));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        long batchedNanos = System.nanoTime() - start;
+
+        assertEquals(1, mRequestPaths.size());
+        assertTrue(mRequestPaths.get(0).startsWith(API_PREFIX + "/batch/"));
+        assertTrue(mErrors.isEmpty());
+        for (String path : SETTINGS_PATHS) {
+            assertEquals(getResponsePath(path), mResponses.get(path));
+        }
+
+        mRequestPaths.clear();
+        mResponses.clear();
+        start = System.nanoTime();
+        latch = new CountDownLatch(SETTINGS_PATHS.length);
+        for (String path : SETTINGS_PATHS) {
+            mRestClientUtils.get(path, null, null, newListener(path, latch), newErrorListener(path, latch));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        long individualNanos = System.nanoTime() - start;
+        assertEquals(SETTINGS_PATHS.length, mRequestPaths.size());
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "%d requests with %dms latency: batched %.0fms, individually %.0fms",
+                SETTINGS_PATHS.length, RESPONSE_DELAY_MS, batchedNanos / 1e6, individualNanos / 1e6));
+    }
+
+    public void testRequestParamsAreKeptInBatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        Map<String, String> params = Collections.singletonMap("page", "2");
+        mRestClientUtils.getBatched("sites/1/viewers", params, newListener("viewers", latch),
+                newErrorListener("viewers", latch));
+        mRestClientUtils.getBatched("sites/1/users", null, newListener("users", latch),
+                newErrorListener("users", latch));
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        assertEquals(1, mRequestPaths.size());
+        assertEquals("/sites/1/viewers", mResponses.get("viewers"));
+        assertEquals("page=2", mQueries.get("viewers"));
+        assertEquals("/sites/1/users", mResponses.get("users"));
+        assertEquals("", mQueries.get("users"));
+    }
+
+    public void testPathWithQueryIsMatchedInBatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        mRestClientUtils.getJetpackSettings(1, newListener("jetpack", latch), newErrorListener("jetpack", latch));
+        mRestClientUtils.getGeneralSettings(1, newListener("general", latch), newErrorListener("general", latch));
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        // both were answered by the batch, rather than sent again on their own
+        assertEquals(1, mRequestPaths.size());
+        assertTrue(mErrors.isEmpty());
+        assertEquals("/jetpack-blogs/1/rest-api/", mResponses.get("jetpack"));
+        assertEquals("path=/jetpack/v4/settings", mQueries.get("jetpack"));
+        assertEquals("/sites/1/settings", mResponses.get("general"));
+    }
+
+    public void testRequestsForSameUrlGetTheirOwnResponse() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final List<JSONObject> settingsResponses = Collections.synchronizedList(new ArrayList<JSONObject>());
+        final List<String> settingsPaths = Collections.synchronizedList(new ArrayList<String>());
+        RestRequest.Listener settingsListener = new RestRequest.Listener() {
+            @Override
+            public void onResponse(JSONObject response) {
+                // a listener which changes its response mustn't change the response of the others
+                settingsResponses.add(response);
+                settingsPaths.add(response.optString("path"));
+                response.remove("path");
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < 2; i++) {
+            mRestClientUtils.getBatched(SETTINGS_PATHS[0], null, settingsListener,
+                    newErrorListener(SETTINGS_PATHS[0], latch));
+        }
+        mRestClientUtils.getBatched(SETTINGS_PATHS[1], null, newListener(SETTINGS_PATHS[1], latch),
+                newErrorListener(SETTINGS_PATHS[1], latch));
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        assertEquals(1, mRequestPaths.size());
+        assertTrue(mErrors.isEmpty());
+        assertEquals(2, settingsResponses.size());
+        assertNotSame(settingsResponses.get(0), settingsResponses.get(1));
+        assertEquals(Arrays.asList("/sites/1/settings", "/sites/1/settings"), settingsPaths);
+        assertEquals("/sites/1/categories", mResponses.get(SETTINGS_PATHS[1]));
+    }
+
+    public void testSingleRequestIsNotBatched() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        mRestClientUtils.getBatched(SETTINGS_PATHS[0], null, newListener(SETTINGS_PATHS[0], latch),
+                newErrorListener(SETTINGS_PATHS[0], latch));
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        assertEquals(1, mRequestPaths.size());
+        assertTrue(mRequestPaths.get(0).startsWith(API_PREFIX + "/sites/1/settings"));
+        assertEquals("/sites/1/settings", mResponses.get(SETTINGS_PATHS[0]));
+    }
+
+    public void testFailedEntriesAreSentIndividually() throws InterruptedException {
+        String missingPath = "sites/1/missing";
+        CountDownLatch latch = new CountDownLatch(3);
+        for (String path : new String[]{SETTINGS_PATHS[0], missingPath, SETTINGS_PATHS[1]}) {
+            mRestClientUtils.getBatched(path, null, newListener(path, latch), newErrorListener(path, latch));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        // the batch, then the request it couldn't answer - whose error reaches its listener as before
+        assertEquals(2, mRequestPaths.size());
+        assertTrue(mRequestPaths.get(1).startsWith(API_PREFIX + "/sites/1/missing"));
+        assertEquals("/sites/1/settings", mResponses.get(SETTINGS_PATHS[0]));
+        assertEquals("/sites/1/categories", mResponses.get(SETTINGS_PATHS[1]));
+        assertEquals(1, mErrors.size());
+        assertTrue(mErrors.containsKey(missingPath));
+    }
+
+    public void testFailedBatchFallsBackToIndividualRequests() throws InterruptedException {
+        mFailBatches = true;
+        CountDownLatch latch = new CountDownLatch(SETTINGS_PATHS.length);
+        for (String path : SETTINGS_PATHS) {
+            mRestClientUtils.getBatched(path, null, newListener(path, latch), newErrorListener(path, latch));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        assertEquals(SETTINGS_PATHS.length + 1, mRequestPaths.size());
+        assertTrue(mErrors.isEmpty());
+        for (String path : SETTINGS_PATHS) {
+            assertEquals(getResponsePath(path), mResponses.get(path));
+        }
+    }
+
+    private RestRequest.Listener newListener(final String key, final CountDownLatch latch) {
+        return new RestRequest.Listener() {
+            @Override
+            public void onResponse(JSONObject response) {
+                mResponses.put(key, response.optString("path"));
+                mQueries.put(key, response.optString("query"));
+                latch.countDown();
+            }
+        };
+    }
+
+    private RestRequest.ErrorListener newErrorListener(final String key, final CountDownLatch latch) {
+        return new RestRequest.ErrorListener() {
+            @Override
+            public void onErrorResponse(VolleyError volleyError) {
+                mErrors.put(key, String.valueOf(volleyError));
+                latch.countDown();
+            }
+        };
+    }
+
+    /*
+     * the path the server echoes for a request - without the api prefix or the query
+     */
+    private static String getResponsePath(String path) {
+        int queryStart = path.indexOf('?');
+        return "/" + (queryStart > 0 ? path.substring(0, queryStart) : path);
+    }
+
+    private static void setRestClientFactory(RestClientFactoryAbstract factory) throws Exception {
+        Field field = RestClientFactory.class.getDeclaredField("sFactory");
+        field.setAccessible(true);
+        field.set(null, factory);
+    }
+
+    private void acceptConnections() {
+        while (!mServerSocket.isClosed()) {
+            try {
+                final Socket socket = mServerSocket.accept();
+                mClientSockets.add(socket);
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        serveConnection(socket);
+                    }
+                }).start();
+            } catch (IOException e) {
+                // the server socket was closed by tearDown
+            }
+        }
+    }
+
+    /*
+     * answers batch requests with an object holding the response to each of their urls, and other
+     * requests with their own path and query, less the locale - paths ending in "missing" are
+     * answered with a 404, or with the error in its place within a batch
+     */
+    private void serveConnection(Socket socket) {
+        try {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            String request;
+            while ((request = readRequestHead(in)) != null) {
+                String target = request.split(" ")[1];
+                mRequestPaths.add(target);
+                Thread.sleep(RESPONSE_DELAY_MS);
+
+                String path = stripQuery(target.substring(API_PREFIX.length()), "locale");
+                int status = 200;
+                JSONObject body;
+                if (path.startsWith("/batch/")) {
+                    if (mFailBatches) {
+                        status = 500;
+                        body = getError();
+                    } else {
+                        body = new JSONObject();
+                        for (String url : getBatchUrls(target)) {
+                            body.put(getBatchResultKey(url), getResult(stripQuery(url, "locale")));
+                        }
+                    }
+                } else {
+                    body = getResult(path);
+                    if (body.has("error")) {
+                        status = 404;
+                    }
+                }
+
+                byte[] content = body.toString().getBytes("UTF-8");
+                out.write(("HTTP/1.1 " + status + (status == 200 ? " OK" : " Error") + "\r\n"
+                           + "Content-Type: application/json\r\n"
+                           + "Content-Length: " + content.length + "\r\n"
+                           + "\r\n").getBytes("US-ASCII"));
+                out.write(content);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException | JSONException e) {
+            // the connection was closed
+        } finally {
+            Util.closeQuietly(socket);
+        }
+    }
+
+    private static JSONObject getResult(String path) throws JSONException {
+        if (path.endsWith("missing")) {
+            return getError();
+        }
+        int queryStart = path.indexOf('?');
+        return new JSONObject()
+                .put("path", queryStart > 0 ? path.substring(0, queryStart) : path)
+                .put("query", queryStart > 0 ? path.substring(queryStart + 1) : "");
+    }
+
+    /*
+     * the key of a url's result in a batch response - the url isn't echoed exactly as it was sent,
+     * its trailing slash is dropped and its parameters are re-encoded in reverse order
+     */
+    private static String getBatchResultKey(String url) {
+        Uri uri = Uri.parse(url);
+        String path = uri.getPath();
+        Uri.Builder builder = new Uri.Builder().path(path.endsWith("/") ? path.substring(0, path.length() - 1) : path);
+        List<String> names = new ArrayList<>(uri.getQueryParameterNames());
+        Collections.reverse(names);
+        for (String name : names) {
+            for (String value : uri.getQueryParameters(name)) {
+                builder.appendQueryParameter(name, value);
+            }
+        }
+        return builder.build().toString();
+    }
+
+    private static JSONObject getError() throws JSONException {
+        return new JSONObject().put("error", "unknown_endpoint").put("message", "Endpoint not found");
+    }
+
+    private static List<String> getBatchUrls(String target) throws IOException {
+        List<String> urls = new ArrayList<>();
+        String query = target.substring(target.indexOf('?') + 1);
+        for (String param : query.split("&")) {
+            String[] nameAndValue = param.split("=", 2);
+            if (URLDecoder.decode(nameAndValue[0], "UTF-8").startsWith("urls[")) {
+                urls.add(URLDecoder.decode(nameAndValue[1], "UTF-8"));
+            }
+        }
+        return urls;
+    }
+
+    /*
+     * removes the passed parameter, and the query if it's left empty
+     */
+    private static String stripQuery(String url, String param) {
+        int queryStart = url.indexOf('?');
+        if (queryStart < 0) {
+            return url;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String pair : url.substring(queryStart + 1).split("&")) {
+            if (!pair.isEmpty() && !pair.startsWith(param + "=")) {
+                query.append(query.length() > 0 ? "&" : "").append(pair);
+            }
+        }
+        String path = url.substring(0, queryStart);
+        return query.length() > 0 ? path + "?" + query : path;
+    }
+
+    /*
+     * returns the request line and headers, or null if the connection was closed
+     */
+    private static String readRequestHead(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            head.append((char) b);
+            if (head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                return head.toString();
+            }
+        }
+        return null;
+    }
+}
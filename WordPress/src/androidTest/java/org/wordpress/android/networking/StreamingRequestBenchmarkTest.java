@@ -0,0 +1,270 @@
+package org.wordpress.android.networking;
+
+import android.os.Debug;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.internal.Util;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * uploads a file to a local server with StreamingRequest and with the body it replaced (which wrote
+ * 2KB at a time and flushed after each), logging the throughput and CPU time per MB of each, and
+ * checks that ranges of the file are sent intact
+ */
+public class StreamingRequestBenchmarkTest extends InstrumentationTestCase {
+    private static final String TAG = "StreamingRequestBenchmark";
+    private static final int FILE_SIZE = 8 * 1024 * 1024;
+    private static final int NUM_UPLOADS = 3;
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private File mFile;
+    private byte[] mFileContents;
+    private ServerSocket mServerSocket;
+    private Thread mServerThread;
+    private volatile Socket mClientSocket;
+    private final AtomicLong mBytesReceived = new AtomicLong();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFileContents = new byte[FILE_SIZE];
+        new Random(42).nextBytes(mFileContents);
+        mFile = new File(getInstrumentation().getTargetContext().getCacheDir(), "streaming_request_benchmark");
+        FileOutputStream fos = new FileOutputStream(mFile);
+        fos.write(mFileContents);
+        fos.close();
+
+        mServerSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+        mServerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        });
+        mServerThread.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mServerSocket.close();
+        // the client keeps its connection open, so close it to end the server thread
+        Util.closeQuietly(mClientSocket);
+        mServerThread.join();
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+        super.tearDown();
+    }
+
+    public void testUploadThroughput() throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .writeTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .build();
+
+        final List<Long> progress = new ArrayList<>();
+        RequestBody streamingBody = new StreamingRequest(mFile, new StreamingRequest.ProgressListener() {
+            @Override
+            public void onProgress(long bytesWritten, long totalBytes) {
+                progress.add(bytesWritten);
+            }
+        });
+        RequestBody legacyBody = new LegacyStreamingRequest(mFile);
+
+        // warm up the connection and both code paths
+        upload(client, streamingBody);
+        upload(client, legacyBody);
+        assertEquals(FILE_SIZE, progress.get(progress.size() - 1).longValue());
+
+        logUploads("streaming request", client, streamingBody);
+        logUploads("2KB chunks with flush", client, legacyBody);
+    }
+
+    public void testRangesAreSentIntact() throws IOException {
+        int chunkSize = 3 * 1000 * 1000;
+        Buffer received = new Buffer();
+        int numChunks = 0;
+
+        StreamingRequest chunk = new StreamingRequest(mFile, 0, chunkSize, null);
+        while (chunk != null) {
+            assertEquals(received.size(), chunk.getOffset());
+            long end = Math.min(chunk.getOffset() + chunkSize, FILE_SIZE) - 1;
+            assertEquals("bytes " + chunk.getOffset() + "-" + end + "/" + FILE_SIZE, chunk.getContentRange());
+
+            Buffer buffer = new Buffer();
+            chunk.writeTo(buffer);
+            assertEquals(chunk.contentLength(), buffer.size());
+            received.writeAll(buffer);
+
+            chunk = chunk.nextChunk();
+            numChunks++;
+        }
+
+        assertEquals((FILE_SIZE + chunkSize - 1) / chunkSize, numChunks);
+        assertTrue(Arrays.equals(mFileContents, received.readByteArray()));
+    }
+
+    public void testRangeBeyondEndOfFileFails() {
+        StreamingRequest request = new StreamingRequest(mFile, FILE_SIZE - 10, 20, null);
+        try {
+            request.writeTo(new Buffer());
+            fail("Expected the write to fail");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private void logUploads(String name, OkHttpClient client, RequestBody body) throws IOException {
+        long startCpuNanos = Debug.threadCpuTimeNanos();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < NUM_UPLOADS; i++) {
+            upload(client, body);
+        }
+        double elapsedSecs = (System.nanoTime() - startNanos) / 1e9;
+        double cpuMillis = (Debug.threadCpuTimeNanos() - startCpuNanos) / 1e6;
+        double megabytes = NUM_UPLOADS * FILE_SIZE / BYTES_PER_MB;
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "%s: %.1f MB/s, %.2fms CPU per MB",
+                name, megabytes / elapsedSecs, cpuMillis / megabytes));
+    }
+
+    private void upload(OkHttpClient client, RequestBody body) throws IOException {
+        long receivedBefore = mBytesReceived.get();
+        Request request = new Request.Builder()
+                .url("http://127.0.0.1:" + mServerSocket.getLocalPort() + "/upload")
+                .post(body)
+                .build();
+        Response response = client.newCall(request).execute();
+        try {
+            assertTrue(response.isSuccessful());
+        } finally {
+            response.close();
+        }
+        assertEquals(FILE_SIZE, mBytesReceived.get() - receivedBefore);
+    }
+
+    /*
+     * accepts connections until the socket is closed, reading each request's body and responding
+     * with an empty 200 - bodies must have a Content-Length
+     */
+    private void serve() {
+        byte[] buffer = new byte[64 * 1024];
+        while (!mServerSocket.isClosed()) {
+            Socket socket = null;
+            try {
+                socket = mServerSocket.accept();
+                mClientSocket = socket;
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                long contentLength;
+                while ((contentLength = readHeaders(in)) >= 0) {
+                    long remaining = contentLength;
+                    while (remaining > 0) {
+                        int count = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (count == -1) {
+                            throw new IOException("Connection closed while reading body");
+                        }
+                        remaining -= count;
+                    }
+                    mBytesReceived.addAndGet(contentLength);
+                    out.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes("US-ASCII"));
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // the socket was closed by tearDown
+            } finally {
+                Util.closeQuietly(socket);
+            }
+        }
+    }
+
+    /*
+     * reads the request line and headers a byte at a time so none of the body is consumed, returning
+     * the Content-Length or -1 if the connection was closed
+     */
+    private static long readHeaders(InputStream in) throws IOException {
+        StringBuilder headers = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            headers.append((char) b);
+            if (headers.length() >= 4 && headers.lastIndexOf("\r\n\r\n") == headers.length() - 4) {
+                break;
+            }
+        }
+        if (b == -1) {
+            return -1;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(headers.toString().getBytes("US-ASCII")), "US-ASCII"));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                return Long.parseLong(line.substring("content-length:".length()).trim());
+            }
+        }
+        return 0;
+    }
+
+    /*
+     * the body StreamingRequest replaced, reporting its length so both are sent the same way
+     */
+    private static class LegacyStreamingRequest extends RequestBody {
+        private static final int CHUNK_SIZE = 2048;
+        private final File mFile;
+
+        LegacyStreamingRequest(File file) {
+            mFile = file;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.parse("multipart/form-data");
+        }
+
+        @Override
+        public long contentLength() {
+            return mFile.length();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            Source source = null;
+            try {
+                source = Okio.source(mFile);
+                while (source.read(sink.buffer(), CHUNK_SIZE) != -1) {
+                    sink.flush();
+                }
+            } finally {
+                Util.closeQuietly(source);
+            }
+        }
+    }
+}
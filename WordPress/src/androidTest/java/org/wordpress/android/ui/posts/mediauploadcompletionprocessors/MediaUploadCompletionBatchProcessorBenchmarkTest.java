@@ -0,0 +1,90 @@
+package org.wordpress.android.ui.posts.mediauploadcompletionprocessors;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.wordpress.android.util.helpers.MediaFile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * replaces the local ids in galleries of 10, 50 and 100 uploaded images with
+ * MediaUploadCompletionBatchProcessor and with a MediaUploadCompletionProcessor per image, checking
+ * both give the same post and logging how long each takes
+ */
+public class MediaUploadCompletionBatchProcessorBenchmarkTest extends TestCase {
+    private static final String TAG = "MediaUploadBatchBenchmark";
+    private static final int[] GALLERY_SIZES = {10, 50, 100};
+    private static final int LOCAL_ID_BASE = 1000;
+    private static final int REMOTE_ID_BASE = 90000;
+    private static final String SITE_URL = "https://wordpress.org";
+    private static final String PARAGRAPH_BLOCK = "<!-- wp:paragraph -->\n"
+                                                  + "<p>Photos from the weekend</p>\n"
+                                                  + "<!-- /wp:paragraph -->\n";
+
+    public void testProcessLargeGalleries() {
+        for (int gallerySize : GALLERY_SIZES) {
+            Map<String, MediaFile> mediaFiles = new LinkedHashMap<>();
+            List<String> localIds = new ArrayList<>(gallerySize);
+            for (int i = 1; i <= gallerySize; i++) {
+                String localId = Integer.toString(LOCAL_ID_BASE + i);
+                localIds.add(localId);
+                mediaFiles.put(localId, createMediaFile(Integer.toString(REMOTE_ID_BASE + LOCAL_ID_BASE + i)));
+            }
+            String post = PARAGRAPH_BLOCK + createGalleryBlock(localIds, "media")
+                          + createGalleryBlock(localIds.subList(0, gallerySize / 2), "attachment");
+
+            long start = System.nanoTime();
+            String expected = post;
+            for (Map.Entry<String, MediaFile> entry : mediaFiles.entrySet()) {
+                expected = new MediaUploadCompletionProcessor(entry.getKey(), entry.getValue(), SITE_URL)
+                        .processPost(expected);
+            }
+            long perMediaNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            String actual = new MediaUploadCompletionBatchProcessor(mediaFiles, SITE_URL).processPost(post);
+            long batchNanos = System.nanoTime() - start;
+
+            assertEquals(expected, actual);
+            assertFalse(actual.contains("data-id=\"" + localIds.get(0) + "\""));
+            Log.i(TAG, String.format(Locale.ENGLISH, "gallery of %d: per-media %.1fms, batch %.1fms",
+                    gallerySize, perMediaNanos / 1e6, batchNanos / 1e6));
+        }
+    }
+
+    private static MediaFile createMediaFile(String remoteId) {
+        MediaFile mediaFile = new MediaFile();
+        mediaFile.setMediaId(remoteId);
+        mediaFile.setFileURL("https://example.files.wordpress.com/" + remoteId + ".jpg");
+        return mediaFile;
+    }
+
+    private static String createGalleryBlock(List<String> localIds, String linkTo) {
+        StringBuilder block = new StringBuilder();
+        block.append("<!-- wp:gallery {\"ids\":[").append(TextUtils.join(",", localIds))
+             .append("],\"linkTo\":\"").append(linkTo).append("\"} -->\n")
+             .append("<figure class=\"wp-block-gallery columns-3 is-cropped\">\n")
+             .append("  <ul class=\"blocks-gallery-grid\">\n");
+        for (String localId : localIds) {
+            String localUrl = "file://image" + localId + ".jpg";
+            block.append("    <li class=\"blocks-gallery-item\">\n")
+                 .append("      <figure><a href=\"").append(localUrl).append("\"><img src=\"").append(localUrl)
+                 .append("\" alt=\"\" data-id=\"").append(localId)
+                 .append("\" data-full-url=\"").append(localUrl)
+                 .append("\" data-link=\"").append(localUrl)
+                 .append("\" class=\"wp-image-").append(localId).append("\"></a></figure>\n")
+                 .append("    </li>\n");
+        }
+        block.append("  </ul>\n")
+             .append("</figure>\n")
+             .append("<!-- /wp:gallery -->\n");
+        return block.toString();
+    }
+}
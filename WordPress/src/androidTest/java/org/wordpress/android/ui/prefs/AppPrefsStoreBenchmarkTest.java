@@ -0,0 +1,125 @@
+package org.wordpress.android.ui.prefs;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * compares loading and reading preferences through AppPrefsStore with reading them directly from
+ * SharedPreferences and parsing the string each time as AppPrefs did, and checks that the store
+ * reads the existing string values and persists bursts of writes together
+ */
+public class AppPrefsStoreBenchmarkTest extends InstrumentationTestCase {
+    private static final String TAG = "AppPrefsStoreBenchmark";
+    private static final String PREFS_NAME = "app_prefs_store_benchmark";
+    private static final int NUM_KEYS = 150;
+    private static final int NUM_READS = 20000;
+
+    private SharedPreferences mPrefs;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPrefs = getInstrumentation().getTargetContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        SharedPreferences.Editor editor = mPrefs.edit().clear();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            // stored as strings, the same as AppPrefs has always stored them
+            editor.putString("int_" + i, Integer.toString(i));
+            editor.putString("bool_" + i, Boolean.toString(i % 2 == 0));
+            editor.putString("string_" + i, "value " + i);
+        }
+        Set<String> urls = new HashSet<>();
+        urls.add("https://example.com");
+        editor.putStringSet("url_set", urls);
+        editor.putLong("native_long", 42L);
+        editor.commit();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mPrefs.edit().clear().commit();
+        super.tearDown();
+    }
+
+    public void testLoadAndRead() {
+        long start = System.nanoTime();
+        AppPrefsStore store = new AppPrefsStore(mPrefs);
+        long loadNanos = System.nanoTime() - start;
+
+        for (int i = 0; i < NUM_KEYS; i++) {
+            assertEquals(i, store.getInt("int_" + i, -1));
+            assertEquals(i % 2 == 0, store.getBoolean("bool_" + i, false));
+            assertEquals("value " + i, store.getString("string_" + i, null));
+        }
+        assertEquals(42L, store.getLong("native_long", 0));
+        assertTrue(store.getStringSet("url_set").contains("https://example.com"));
+        assertEquals(7, store.getInt("missing", 7));
+
+        start = System.nanoTime();
+        long total = 0;
+        for (int i = 0; i < NUM_READS; i++) {
+            String key = "int_" + (i % NUM_KEYS);
+            total += store.getInt(key, 0);
+        }
+        long storeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long expectedTotal = 0;
+        for (int i = 0; i < NUM_READS; i++) {
+            String key = "int_" + (i % NUM_KEYS);
+            expectedTotal += Integer.parseInt(mPrefs.getString(key, "0"));
+        }
+        long prefsNanos = System.nanoTime() - start;
+
+        assertEquals(expectedTotal, total);
+        Log.i(TAG, String.format(Locale.ENGLISH, "load %.2fms, %d reads: store %.2fms, shared prefs %.2fms",
+                loadNanos / 1e6, NUM_READS, storeNanos / 1e6, prefsNanos / 1e6));
+    }
+
+    public void testBurstOfWritesIsPersistedTogether() {
+        AppPrefsStore store = new AppPrefsStore(mPrefs);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            store.putString("int_" + i, Integer.toString(i * 2));
+        }
+        store.remove("string_0");
+        assertEquals(NUM_KEYS + 1, store.getPendingWriteCount());
+
+        // reads see the new values before they're persisted
+        assertEquals(10, store.getInt("int_5", -1));
+        assertFalse(store.contains("string_0"));
+
+        store.flush();
+        long storeNanos = System.nanoTime() - start;
+        assertEquals(0, store.getPendingWriteCount());
+        assertEquals("10", mPrefs.getString("int_5", null));
+        assertFalse(mPrefs.contains("string_0"));
+
+        start = System.nanoTime();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            mPrefs.edit().putString("int_" + i, Integer.toString(i * 3)).apply();
+        }
+        long prefsNanos = System.nanoTime() - start;
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "%d writes: store %.2fms, shared prefs %.2fms",
+                NUM_KEYS, storeNanos / 1e6, prefsNanos / 1e6));
+    }
+
+    public void testChangesMadeElsewhereAreRead() {
+        AppPrefsStore store = new AppPrefsStore(mPrefs);
+        assertEquals(1, store.getInt("int_1", -1));
+
+        mPrefs.edit().putString("int_1", "100").putString("new_key", "new").commit();
+        // change listeners are called on the main thread
+        getInstrumentation().waitForIdleSync();
+
+        assertEquals(100, store.getInt("int_1", -1));
+        assertEquals("new", store.getString("new_key", null));
+    }
+}
@@ -0,0 +1,44 @@
+package org.wordpress.android.ui.reader;
+
+import android.test.InstrumentationTestCase;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.ui.reader.utils.FeaturedImageUtils;
+
+import java.util.Set;
+
+/**
+ * renders a private post and checks that the images prefetched for it are found in the rendered
+ * html, whose image tags are single-quoted unlike those in the post's content
+ */
+public class ReaderPostRendererTest extends InstrumentationTestCase {
+    private static final String IMAGE_URL = "https://example.files.wordpress.com/2019/05/photo-%d.jpg";
+
+    public void testPrivateImagesAreFoundInRenderedHtml() {
+        StringBuilder content = new StringBuilder("<p>A private post</p>");
+        for (int i = 0; i < 12; i++) {
+            content.append("<img src=\"").append(String.format(IMAGE_URL, i)).append("\" width=\"600\" />");
+        }
+        // images on other hosts can't be sent the user's token
+        content.append("<img src=\"https://example.com/other.jpg\" />");
+
+        ReaderPost post = new ReaderPost();
+        post.blogId = 1;
+        post.postId = 2;
+        post.isPrivate = true;
+        post.setBlogUrl("https://example.wordpress.com");
+        post.setText(content.toString());
+
+        String html = ReaderPostRenderer.prerender(post, new FeaturedImageUtils(),
+                new ReaderResourceVars(getInstrumentation().getTargetContext()));
+        assertTrue(html.contains("<img class='"));
+
+        Set<String> imageUrls = ReaderPostRenderer.getPrivateImageUrls(html);
+        assertEquals(10, imageUrls.size());
+        int i = 0;
+        for (String imageUrl : imageUrls) {
+            assertTrue(imageUrl, imageUrl.startsWith("https://example.files.wordpress.com/"));
+            assertTrue(imageUrl, imageUrl.contains("photo-" + i++ + ".jpg"));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.wordpress.android.ui.reader.services.prefetch;
+
+import android.test.InstrumentationTestCase;
+import android.text.format.DateUtils;
+
+import org.wordpress.android.models.ReaderTagType;
+
+import java.util.List;
+
+/**
+ * checks how ReaderTagHistory ranks the streams the user opens, and how ReaderPrefetchStats
+ * tracks the daily budget and hit rates, without touching prefs
+ */
+public class ReaderPrefetchTest extends InstrumentationTestCase {
+    private static final long NOW = 1000 * DateUtils.DAY_IN_MILLIS;
+
+    public void testFrequentTagsRankFirst() {
+        ReaderTagHistory history = new ReaderTagHistory(null);
+        history.add("photography", ReaderTagType.FOLLOWED, NOW);
+        history.add("cooking", ReaderTagType.FOLLOWED, NOW);
+        history.add("cooking", ReaderTagType.FOLLOWED, NOW);
+        history.add("discover", ReaderTagType.DEFAULT, NOW);
+        history.add("discover", ReaderTagType.DEFAULT, NOW);
+        history.add("discover", ReaderTagType.DEFAULT, NOW);
+
+        List<ReaderTagHistory.Entry> ranked = history.getRanked(NOW, 2);
+        assertEquals(2, ranked.size());
+        assertEquals("discover", ranked.get(0).mSlug);
+        assertEquals(ReaderTagType.DEFAULT, ranked.get(0).mType);
+        assertEquals("cooking", ranked.get(1).mSlug);
+    }
+
+    public void testOldOpensCountForLess() {
+        ReaderTagHistory history = new ReaderTagHistory(null);
+        long threeWeeksAgo = NOW - 21 * DateUtils.DAY_IN_MILLIS;
+        for (int i = 0; i < 4; i++) {
+            history.add("travel", ReaderTagType.FOLLOWED, threeWeeksAgo);
+        }
+        history.add("music", ReaderTagType.FOLLOWED, NOW);
+
+        // four opens three weeks ago are worth half an open today
+        assertEquals("music", history.getRanked(NOW, 1).get(0).mSlug);
+        assertEquals(0.5, history.getRanked(NOW, 2).get(1).getScore(NOW), 0.001);
+    }
+
+    public void testHistoryIsSavedAndBounded() {
+        ReaderTagHistory history = new ReaderTagHistory(null);
+        for (int i = 0; i < 30; i++) {
+            history.add("tag" + i, ReaderTagType.FOLLOWED, NOW + i);
+        }
+
+        ReaderTagHistory restored = new ReaderTagHistory(history.toJson());
+        List<ReaderTagHistory.Entry> ranked = restored.getRanked(NOW + 30, Integer.MAX_VALUE);
+        assertEquals(20, ranked.size());
+        // the most recently opened tags are kept
+        assertEquals("tag29", ranked.get(0).mSlug);
+        assertEquals("tag10", ranked.get(19).mSlug);
+
+        // a corrupt history is treated as empty
+        assertTrue(new ReaderTagHistory("not json").getRanked(NOW, 10).isEmpty());
+    }
+
+    public void testBudgetResetsEachDay() {
+        ReaderPrefetchStats stats = new ReaderPrefetchStats(null);
+        assertEquals(ReaderPrefetchStats.DAILY_BUDGET_BYTES, stats.getBytesRemaining(NOW));
+
+        stats.onBytesUsed(ReaderPrefetchStats.DAILY_BUDGET_BYTES - 100, NOW);
+        assertEquals(100, stats.getBytesRemaining(NOW));
+        stats.onBytesUsed(500, NOW);
+        assertEquals(0, stats.getBytesRemaining(NOW));
+
+        ReaderPrefetchStats restored = new ReaderPrefetchStats(stats.toJson());
+        assertEquals(0, restored.getBytesRemaining(NOW));
+
+        long tomorrow = NOW + DateUtils.DAY_IN_MILLIS;
+        assertEquals(ReaderPrefetchStats.DAILY_BUDGET_BYTES, restored.getBytesRemaining(tomorrow));
+        restored.onBytesUsed(1000, tomorrow);
+        assertEquals(ReaderPrefetchStats.DAILY_BUDGET_BYTES - 1000, restored.getBytesRemaining(tomorrow));
+    }
+
+    public void testHitRates() {
+        ReaderPrefetchStats stats = new ReaderPrefetchStats(null);
+        stats.onStreamPrefetched("0:cooking");
+        stats.onStreamPrefetched("0:cooking");
+        stats.onStreamPrefetched("1:discover");
+
+        // opening a prefetched stream is a hit once, opening one which wasn't prefetched is not
+        stats.onStreamOpened("0:cooking");
+        stats.onStreamOpened("0:cooking");
+        stats.onStreamOpened("0:travel");
+        assertEquals(0.5f, stats.getStreamHitRate(), 0.001f);
+
+        stats.onPageLoaded(true);
+        stats.onPageLoaded(true);
+        stats.onPageLoaded(true);
+        stats.onPageLoaded(false);
+        assertEquals(0.75f, stats.getPageHitRate(), 0.001f);
+
+        // the stream still waiting to be opened counts as a hit after a restart
+        ReaderPrefetchStats restored = new ReaderPrefetchStats(stats.toJson());
+        restored.onStreamOpened("1:discover");
+        assertEquals(1f, restored.getStreamHitRate(), 0.001f);
+        assertEquals(0.75f, restored.getPageHitRate(), 0.001f);
+    }
+}
@@ -0,0 +1,139 @@
+package org.wordpress.android.ui.reader.utils;
+
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.wordpress.android.models.ReaderComment;
+import org.wordpress.android.models.ReaderCommentList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * compares leveling deep and wide synthetic comment threads with ReaderCommentLeveler against the
+ * per-level walk it replaced, checking the results match and logging the time each takes - along
+ * with adding the same threads to a level list a page at a time
+ */
+public class ReaderCommentLevelerBenchmarkTest extends TestCase {
+    private static final String TAG = "ReaderCommentLevelerBenchmark";
+    private static final int[] THREAD_SIZES = {500, 2000, 5000};
+    private static final int WIDE_THREAD_ROOTS = 10;
+    private static final int NUM_PAGES = 10;
+    private static final long RANDOM_SEED = 42;
+
+    public void testLevelDeepThreads() {
+        for (int size : THREAD_SIZES) {
+            List<long[]> thread = new ArrayList<>(size);
+            for (int id = 1; id <= size; id++) {
+                thread.add(new long[]{id, id - 1});
+            }
+            benchmark("deep", thread);
+        }
+    }
+
+    public void testLevelWideThreads() {
+        Random random = new Random(RANDOM_SEED);
+        for (int size : THREAD_SIZES) {
+            List<long[]> thread = new ArrayList<>(size);
+            for (int id = 1; id <= size; id++) {
+                long parentId = id <= WIDE_THREAD_ROOTS ? 0 : 1 + random.nextInt(WIDE_THREAD_ROOTS);
+                thread.add(new long[]{id, parentId});
+            }
+            benchmark("wide", thread);
+        }
+    }
+
+    /*
+     * the thread is passed as (commentId, parentId) pairs so each run levels its own comments
+     */
+    private void benchmark(String name, List<long[]> thread) {
+        int size = thread.size();
+
+        long start = System.nanoTime();
+        ReaderCommentList walked = createLevelListByWalkingLevels(createList(thread, 0, size));
+        long walkNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ReaderCommentList leveled = new ReaderCommentLeveler(createList(thread, 0, size)).createLevelList();
+        long indexNanos = System.nanoTime() - start;
+
+        int pageSize = size / NUM_PAGES;
+        start = System.nanoTime();
+        ReaderCommentList paged = new ReaderCommentLeveler(createList(thread, 0, pageSize)).createLevelList();
+        for (int pageStart = pageSize; pageStart < size; pageStart += pageSize) {
+            paged = ReaderCommentLeveler.addToLevelList(paged,
+                    createList(thread, pageStart, Math.min(pageStart + pageSize, size)));
+        }
+        long pagedNanos = System.nanoTime() - start;
+
+        assertSameLevels(walked, leveled);
+        assertSameLevels(leveled, paged);
+        Log.i(TAG, String.format(Locale.ENGLISH,
+                "%s thread of %d: per-level walk %.0fms, indexed %.0fms, %d incremental pages %.0fms",
+                name, size, walkNanos / 1e6, indexNanos / 1e6, NUM_PAGES, pagedNanos / 1e6));
+    }
+
+    /*
+     * the previous implementation, which walked the list once per level and scanned every comment
+     * for each parent
+     */
+    private static ReaderCommentList createLevelListByWalkingLevels(ReaderCommentList comments) {
+        ReaderCommentList result = new ReaderCommentList();
+        for (ReaderComment comment : comments) {
+            comment.level = 0;
+            if (comment.parentId == 0) {
+                result.add(comment);
+            }
+        }
+
+        int level = 0;
+        boolean hasChanges = true;
+        while (hasChanges) {
+            hasChanges = false;
+            int index = 0;
+            while (index < result.size()) {
+                ReaderComment parent = result.get(index);
+                List<ReaderComment> children = new ArrayList<>();
+                for (ReaderComment comment : comments) {
+                    if (comment.parentId == parent.commentId) {
+                        children.add(comment);
+                    }
+                }
+                if (parent.level == level && !children.isEmpty()) {
+                    for (ReaderComment child : children) {
+                        child.level = level + 1;
+                    }
+                    result.addAll(index + 1, children);
+                    hasChanges = true;
+                    index += children.size();
+                }
+                index++;
+            }
+            level++;
+        }
+        return result;
+    }
+
+    private static ReaderCommentList createList(List<long[]> thread, int start, int end) {
+        ReaderCommentList comments = new ReaderCommentList();
+        for (int i = start; i < end; i++) {
+            ReaderComment comment = new ReaderComment();
+            comment.commentId = thread.get(i)[0];
+            comment.parentId = thread.get(i)[1];
+            comment.timestamp = comment.commentId;
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    private static void assertSameLevels(ReaderCommentList expected, ReaderCommentList actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).commentId, actual.get(i).commentId);
+            assertEquals(expected.get(i).level, actual.get(i).level);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.wordpress.android.ui.reader.utils;
+
+import android.test.InstrumentationTestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * checks which changes to a post or its display give it a new ReaderPostHtmlCache key, and that
+ * trimming the disk cache deletes the least-recently-used files first
+ */
+public class ReaderPostHtmlCacheTest extends InstrumentationTestCase {
+    private static final String CONTENT = "<p>Some post content</p>";
+    private static final int FILE_SIZE = 1024;
+
+    private File mCacheDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCacheDir = new File(getInstrumentation().getTargetContext().getCacheDir(), "reader_post_html_test");
+        deleteDir(mCacheDir);
+        assertTrue(mCacheDir.mkdirs());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        deleteDir(mCacheDir);
+        super.tearDown();
+    }
+
+    public void testKeyChangesWithPostContentAndDisplay() {
+        String key = ReaderPostHtmlCache.makeKey(1, 2, CONTENT, 1024, false);
+        assertEquals(key, ReaderPostHtmlCache.makeKey(1, 2, CONTENT, 1024, false));
+
+        // widths in the same bucket share entries
+        assertEquals(key, ReaderPostHtmlCache.makeKey(1, 2, CONTENT, 1050, false));
+        assertFalse(key.equals(ReaderPostHtmlCache.makeKey(1, 2, CONTENT, 1440, false)));
+
+        assertFalse(key.equals(ReaderPostHtmlCache.makeKey(1, 3, CONTENT, 1024, false)));
+        assertFalse(key.equals(ReaderPostHtmlCache.makeKey(4, 2, CONTENT, 1024, false)));
+        assertFalse(key.equals(ReaderPostHtmlCache.makeKey(1, 2, CONTENT + " ", 1024, false)));
+        assertFalse(key.equals(ReaderPostHtmlCache.makeKey(1, 2, CONTENT, 1024, true)));
+
+        // keys are used as file names
+        assertFalse(key.contains(File.separator));
+    }
+
+    public void testTrimDeletesLeastRecentlyUsedFiles() throws IOException {
+        long baseTime = System.currentTimeMillis() - 60000;
+        for (int i = 0; i < 10; i++) {
+            writeFile("file" + i, baseTime + i * 1000);
+        }
+        // reading a file makes it recently used
+        assertTrue(new File(mCacheDir, "file0").setLastModified(baseTime + 20000));
+
+        long remainingBytes = ReaderPostHtmlCache.trimDiskCache(mCacheDir, 6 * FILE_SIZE);
+        assertEquals(6 * FILE_SIZE, remainingBytes);
+        assertTrue(new File(mCacheDir, "file0").exists());
+        for (int i = 1; i <= 4; i++) {
+            assertFalse(new File(mCacheDir, "file" + i).exists());
+        }
+        for (int i = 5; i < 10; i++) {
+            assertTrue(new File(mCacheDir, "file" + i).exists());
+        }
+
+        // nothing is deleted once the cache is within its size
+        assertEquals(6 * FILE_SIZE, ReaderPostHtmlCache.trimDiskCache(mCacheDir, 6 * FILE_SIZE));
+        assertEquals(6, mCacheDir.listFiles().length);
+    }
+
+    private void writeFile(String name, long lastModified) throws IOException {
+        File file = new File(mCacheDir, name);
+        OutputStream output = new FileOutputStream(file);
+        try {
+            output.write(new byte[FILE_SIZE]);
+        } finally {
+            output.close();
+        }
+        assertTrue(file.setLastModified(lastModified));
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+}
@@ -0,0 +1,274 @@
+package org.wordpress.android.ui.reader.utils;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+import android.webkit.WebResourceResponse;
+
+import org.wordpress.android.datasets.ReaderPostAssetTable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.internal.Util;
+
+/**
+ * saves posts whose assets are served by a local server, then checks that ReaderSavedPostAssets
+ * serves them once the server is gone, stores shared content once, deletes what unsaved posts no
+ * longer need and stays within its size budget
+ */
+public class ReaderSavedPostAssetsTest extends InstrumentationTestCase {
+    private static final String TAG = "ReaderSavedPostAssets";
+    private static final int ASSET_SIZE = 64 * 1024;
+    private static final long BLOG_ID = 1;
+
+    private final AtomicInteger mRequestCount = new AtomicInteger();
+    private final List<Socket> mClientSockets = Collections.synchronizedList(new ArrayList<Socket>());
+
+    private SQLiteDatabase mDb;
+    private File mStoreDir;
+    private ServerSocket mServerSocket;
+    private Thread mServerThread;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDb = SQLiteDatabase.create(null);
+        ReaderPostAssetTable.createTables(mDb);
+        mStoreDir = new File(getInstrumentation().getTargetContext().getCacheDir(), "saved_post_assets_test");
+        deleteDir(mStoreDir);
+
+        mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        mServerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        });
+        mServerThread.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        stopServer();
+        deleteDir(mStoreDir);
+        mDb.close();
+        super.tearDown();
+    }
+
+    public void testSavedPostIsServedWithoutNetwork() throws Exception {
+        ReaderSavedPostAssets store = newStore(10 * 1024 * 1024);
+        // image tags as the renderer writes them, an image with an encoded query, an embed script
+        // and a stylesheet, along with a link which isn't a resource
+        String html = "<html><head>"
+                      + "<link rel='stylesheet' href='" + getUrl("style.css") + "'>"
+                      + "<script src=\"" + getUrl("embed.js") + "\" type=\"text/javascript\" async></script>"
+                      + "</head><body>"
+                      + "<img class='size-full' src='" + getUrl("featured.jpg") + "'/>"
+                      + "<img class='size-none'src='" + getUrl("inline.jpg") + "' width='300' />"
+                      + "<img src=\"" + getUrl("query.jpg") + "?w=300&amp;h=200\" />"
+                      + "<a href='" + getUrl("page.html") + "'>link</a>"
+                      + "</body></html>";
+
+        long start = System.nanoTime();
+        store.savePostAssets(BLOG_ID, 1, html, false, null);
+        long saveNanos = System.nanoTime() - start;
+        assertEquals(5, mRequestCount.get());
+
+        stopServer();
+
+        start = System.nanoTime();
+        assertAsset(store.getResponse(getUrl("style.css")), "text/css", "style.css");
+        assertAsset(store.getResponse(getUrl("embed.js")), "application/javascript", "embed.js");
+        assertAsset(store.getResponse(getUrl("featured.jpg")), "image/jpeg", "featured.jpg");
+        assertAsset(store.getResponse(getUrl("inline.jpg")), "image/jpeg", "inline.jpg");
+        assertAsset(store.getResponse(getUrl("query.jpg") + "?w=300&h=200"), "image/jpeg", "query.jpg");
+        long serveNanos = System.nanoTime() - start;
+        assertNull(store.getResponse(getUrl("page.html")));
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "5 assets: downloaded in %.2fms, served offline in %.2fms",
+                saveNanos / 1e6, serveNanos / 1e6));
+    }
+
+    public void testSharedAssetsAreStoredOnce() throws Exception {
+        ReaderSavedPostAssets store = newStore(10 * 1024 * 1024);
+        store.savePostAssets(BLOG_ID, 1, imageHtml("header.jpg", "first.jpg"), false, null);
+        store.savePostAssets(BLOG_ID, 2, imageHtml("header.jpg", "second.jpg"), false, null);
+
+        // the shared image is only downloaded for the first post
+        assertEquals(3, mRequestCount.get());
+        assertEquals(3 * ASSET_SIZE, store.getStoreSize());
+
+        store.removeAsync(BLOG_ID, 1).get();
+        assertNull(store.getResponse(getUrl("first.jpg")));
+        assertAsset(store.getResponse(getUrl("header.jpg")), "image/jpeg", "header.jpg");
+        assertAsset(store.getResponse(getUrl("second.jpg")), "image/jpeg", "second.jpg");
+        assertEquals(2 * ASSET_SIZE, store.getStoreSize());
+    }
+
+    public void testStoreIsTrimmedToBudget() throws Exception {
+        ReaderSavedPostAssets store = newStore(3 * ASSET_SIZE);
+        for (int i = 1; i <= 5; i++) {
+            store.savePostAssets(BLOG_ID, i, imageHtml("image" + i + ".jpg"), false, null);
+            // file times are only accurate to the second on some file systems
+            Thread.sleep(1000);
+        }
+
+        assertTrue(store.getStoreSize() <= 3 * ASSET_SIZE);
+        assertNull(store.getResponse(getUrl("image1.jpg")));
+        assertNull(store.getResponse(getUrl("image2.jpg")));
+        for (int i = 3; i <= 5; i++) {
+            assertAsset(store.getResponse(getUrl("image" + i + ".jpg")), "image/jpeg", "image" + i + ".jpg");
+        }
+    }
+
+    private ReaderSavedPostAssets newStore(long maxStoreBytes) {
+        return new ReaderSavedPostAssets(mStoreDir, maxStoreBytes, mDb, null);
+    }
+
+    private String getUrl(String name) {
+        return "http://127.0.0.1:" + mServerSocket.getLocalPort() + "/assets/" + name;
+    }
+
+    private String imageHtml(String... names) {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (String name : names) {
+            html.append("<img class='size-full' src='").append(getUrl(name)).append("'/>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private void stopServer() throws Exception {
+        mServerSocket.close();
+        synchronized (mClientSockets) {
+            for (Socket socket : mClientSockets) {
+                Util.closeQuietly(socket);
+            }
+        }
+        mServerThread.join();
+    }
+
+    /*
+     * each asset's content is generated from its name, so assets with different names differ
+     */
+    private static byte[] getContent(String name) {
+        byte[] content = new byte[ASSET_SIZE];
+        new Random(name.hashCode()).nextBytes(content);
+        return content;
+    }
+
+    private static void assertAsset(WebResourceResponse response, String mimeType, String name) {
+        assertNotNull(response);
+        assertEquals(mimeType, response.getMimeType());
+        assertTrue(Arrays.equals(getContent(name), readFully(response.getData())));
+    }
+
+    private static byte[] readFully(InputStream in) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try {
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } finally {
+            Util.closeQuietly(in);
+        }
+        return out.toByteArray();
+    }
+
+    private void acceptConnections() {
+        while (!mServerSocket.isClosed()) {
+            try {
+                final Socket socket = mServerSocket.accept();
+                mClientSockets.add(socket);
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        serveConnection(socket);
+                    }
+                }).start();
+            } catch (IOException e) {
+                // the server socket was closed
+            }
+        }
+    }
+
+    /*
+     * serves the content for the name at the end of each GET's path, typed by its extension
+     */
+    private void serveConnection(Socket socket) {
+        try {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            String request;
+            while ((request = readRequestHead(in)) != null) {
+                mRequestCount.incrementAndGet();
+                String path = request.split(" ")[1];
+                int queryStart = path.indexOf('?');
+                String name = path.substring(path.lastIndexOf('/') + 1, queryStart > 0 ? queryStart : path.length());
+                String contentType;
+                if (name.endsWith(".css")) {
+                    contentType = "text/css; charset=utf-8";
+                } else if (name.endsWith(".js")) {
+                    contentType = "application/javascript";
+                } else {
+                    contentType = "image/jpeg";
+                }
+                byte[] content = getContent(name);
+                out.write(("HTTP/1.1 200 OK\r\n"
+                           + "Content-Type: " + contentType + "\r\n"
+                           + "Content-Length: " + content.length + "\r\n"
+                           + "\r\n").getBytes("US-ASCII"));
+                out.write(content);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the connection was closed
+        } finally {
+            Util.closeQuietly(socket);
+        }
+    }
+
+    /*
+     * returns the request line and headers, or null if the connection was closed
+     */
+    private static String readRequestHead(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            head.append((char) b);
+            if (head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                return head.toString();
+            }
+        }
+        return null;
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+}
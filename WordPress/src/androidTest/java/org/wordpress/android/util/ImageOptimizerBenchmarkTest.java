@@ -0,0 +1,302 @@
+package org.wordpress.android.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.media.ExifInterface;
+import android.os.Debug;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * optimizes generated 12, 24 and 48 megapixel photos with ImageOptimizer and with
+ * ImageUtils.optimizeImage, logging how long each takes and how much memory it needs, and checks
+ * that results are rotated, reused by retries and that parallel jobs stay within the memory budget
+ * and release their pooled bitmaps when they're done
+ */
+public class ImageOptimizerBenchmarkTest extends InstrumentationTestCase {
+    private static final String TAG = "ImageOptimizerBenchmark";
+    private static final int MAX_SIZE = 2048;
+    private static final int QUALITY = 85;
+
+    private Context mContext;
+    private File mSampleDir;
+    private File mCacheDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContext = getInstrumentation().getTargetContext();
+        mSampleDir = new File(mContext.getCacheDir(), "image_optimizer_samples");
+        mCacheDir = new File(mContext.getCacheDir(), "image_optimizer_test");
+        deleteDir(mSampleDir);
+        deleteDir(mCacheDir);
+        assertTrue(mSampleDir.mkdirs());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        deleteDir(mSampleDir);
+        deleteDir(mCacheDir);
+        super.tearDown();
+    }
+
+    public void testBenchmarkAgainstLegacyOptimizer() throws IOException {
+        int[][] sizes = {{4000, 3000}, {6000, 4000}, {8000, 6000}};
+        for (int[] size : sizes) {
+            File sample;
+            try {
+                sample = createSample("sample_" + size[0] + "x" + size[1] + ".jpg", size[0], size[1], 0, 0);
+            } catch (OutOfMemoryError e) {
+                Log.w(TAG, "Not enough memory to generate a " + size[0] + "x" + size[1] + " sample, skipping it");
+                continue;
+            }
+
+            MemorySampler legacyMemory = new MemorySampler();
+            long start = System.nanoTime();
+            String legacyPath = ImageUtils.optimizeImage(mContext, sample.getPath(), MAX_SIZE, QUALITY);
+            long legacyNanos = System.nanoTime() - start;
+            long legacyPeak = legacyMemory.stop();
+            boolean legacyOptimized = !sample.getPath().equals(legacyPath);
+            if (legacyOptimized) {
+                //noinspection ResultOfMethodCallIgnored
+                new File(legacyPath).delete();
+            }
+
+            ImageOptimizer optimizer = newOptimizer(64 * 1024 * 1024);
+            MemorySampler memory = new MemorySampler();
+            start = System.nanoTime();
+            String path = optimizer.optimize(sample.getPath(), MAX_SIZE, QUALITY);
+            long nanos = System.nanoTime() - start;
+            long peak = memory.stop();
+
+            assertFalse(sample.getPath().equals(path));
+            assertDimensions(path, MAX_SIZE, MAX_SIZE * size[1] / size[0]);
+
+            Log.i(TAG, String.format(Locale.ENGLISH,
+                    "%.0fMP: optimizeImage %.0fms %.1fMB%s, ImageOptimizer %.0fms %.1fMB",
+                    size[0] * size[1] / 1e6, legacyNanos / 1e6, legacyPeak / 1e6,
+                    legacyOptimized ? "" : " (failed)", nanos / 1e6, peak / 1e6));
+            //noinspection ResultOfMethodCallIgnored
+            sample.delete();
+        }
+    }
+
+    public void testOrientationIsApplied() throws IOException {
+        // rotated 90 degrees clockwise, so the top left quadrant ends up at the top right
+        File sample = createSample("rotated.jpg", 1200, 800, 0, ExifInterface.ORIENTATION_ROTATE_90);
+        String path = newOptimizer(16 * 1024 * 1024).optimize(sample.getPath(), 600, QUALITY);
+
+        Bitmap bitmap = BitmapFactory.decodeFile(path);
+        assertEquals(400, bitmap.getWidth());
+        assertEquals(600, bitmap.getHeight());
+        assertColor(Color.BLUE, bitmap.getPixel(100, 150));
+        assertColor(Color.RED, bitmap.getPixel(300, 150));
+        assertColor(Color.WHITE, bitmap.getPixel(100, 450));
+        assertColor(Color.GREEN, bitmap.getPixel(300, 450));
+        bitmap.recycle();
+    }
+
+    public void testRetriesAreNotEncodedAgain() throws IOException {
+        File sample = createSample("retried.jpg", 3000, 2000, 0, 0);
+        ImageOptimizer optimizer = newOptimizer(32 * 1024 * 1024);
+
+        long start = System.nanoTime();
+        String path = optimizer.optimize(sample.getPath(), MAX_SIZE, QUALITY);
+        long firstNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        assertEquals(path, optimizer.optimize(sample.getPath(), MAX_SIZE, QUALITY));
+        long retryNanos = System.nanoTime() - start;
+        assertEquals(1, optimizer.getEncodeCount());
+        assertEquals("retried.jpg", new File(path).getName());
+
+        // different settings produce a different result
+        assertFalse(path.equals(optimizer.optimize(sample.getPath(), MAX_SIZE, 50)));
+        assertEquals(2, optimizer.getEncodeCount());
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "optimized in %.0fms, retried in %.0fms",
+                firstNanos / 1e6, retryNanos / 1e6));
+    }
+
+    public void testParallelJobsStayWithinMemoryBudget() throws Exception {
+        final int numImages = 6;
+        final List<File> samples = new ArrayList<>();
+        for (int i = 0; i < numImages; i++) {
+            samples.add(createSample("parallel" + i + ".jpg", 3000, 2000, i, 0));
+        }
+        // room for about two of these jobs at once
+        final ImageOptimizer optimizer = newOptimizer(32 * 1024 * 1024);
+        final List<String> paths = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch doneLatch = new CountDownLatch(numImages);
+
+        long start = System.nanoTime();
+        for (final File sample : samples) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        paths.add(optimizer.optimize(sample.getPath(), MAX_SIZE, QUALITY));
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        assertTrue(doneLatch.await(120, TimeUnit.SECONDS));
+        long nanos = System.nanoTime() - start;
+
+        assertEquals(numImages, paths.size());
+        for (String path : paths) {
+            assertTrue(path.startsWith(mCacheDir.getPath()));
+            assertDimensions(path, MAX_SIZE, MAX_SIZE * 2 / 3);
+        }
+        assertEquals(numImages, optimizer.getEncodeCount());
+        assertTrue(optimizer.getPeakReservedBytes() <= optimizer.getMemoryBudget());
+        // the pooled bitmaps are released once the last job is done
+        assertEquals(0, optimizer.getPooledBytes());
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "%d 6MP images optimized in parallel in %.0fms, peak reserved %.1fMB",
+                numImages, nanos / 1e6, optimizer.getPeakReservedBytes() / 1e6));
+    }
+
+    private ImageOptimizer newOptimizer(long memoryBudget) {
+        return new ImageOptimizer(mContext, mCacheDir, memoryBudget);
+    }
+
+    /*
+     * writes a jpeg whose quadrants are red, green, blue and white (clockwise from the top left),
+     * with a gradient across it so it compresses like a photo rather than flat colour - the seed
+     * moves the gradient so samples differ
+     */
+    private File createSample(String name, int width, int height, int seed, int orientation) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint();
+        int halfWidth = width / 2;
+        int halfHeight = height / 2;
+        paint.setColor(Color.RED);
+        canvas.drawRect(0, 0, halfWidth, halfHeight, paint);
+        paint.setColor(Color.GREEN);
+        canvas.drawRect(halfWidth, 0, width, halfHeight, paint);
+        paint.setColor(Color.WHITE);
+        canvas.drawRect(halfWidth, halfHeight, width, height, paint);
+        paint.setColor(Color.BLUE);
+        canvas.drawRect(0, halfHeight, halfWidth, height, paint);
+
+        paint.setShader(new LinearGradient(seed * 10, 0, width / 16f + seed * 10, height / 16f,
+                Color.TRANSPARENT, Color.argb(48, 0, 0, 0), Shader.TileMode.MIRROR));
+        canvas.drawRect(0, 0, width, height, paint);
+
+        File file = new File(mSampleDir, name);
+        OutputStream out = new FileOutputStream(file);
+        try {
+            assertTrue(bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out));
+        } finally {
+            out.close();
+            bitmap.recycle();
+        }
+
+        if (orientation != 0) {
+            ExifInterface exif = new ExifInterface(file.getPath());
+            exif.setAttribute(ExifInterface.TAG_ORIENTATION, Integer.toString(orientation));
+            exif.saveAttributes();
+        }
+        return file;
+    }
+
+    private static void assertDimensions(String path, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        assertEquals(width, options.outWidth);
+        assertEquals(height, options.outHeight);
+    }
+
+    private static void assertColor(int expected, int actual) {
+        // the gradient and jpeg compression shift each channel a little
+        assertTrue(Math.abs(Color.red(expected) - Color.red(actual)) < 64);
+        assertTrue(Math.abs(Color.green(expected) - Color.green(actual)) < 64);
+        assertTrue(Math.abs(Color.blue(expected) - Color.blue(actual)) < 64);
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    deleteDir(file);
+                } else {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+
+    /*
+     * samples the java and native heaps in the background, reporting the largest amount allocated
+     * above what was allocated when sampling started
+     */
+    private static class MemorySampler {
+        private final long mBaseline = getAllocated();
+        private volatile boolean mStopped;
+        private volatile long mPeak;
+        private final Thread mThread;
+
+        MemorySampler() {
+            mThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (!mStopped) {
+                        sample();
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            });
+            mThread.start();
+        }
+
+        long stop() {
+            sample();
+            mStopped = true;
+            try {
+                mThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return mPeak;
+        }
+
+        private synchronized void sample() {
+            mPeak = Math.max(mPeak, getAllocated() - mBaseline);
+        }
+
+        private static long getAllocated() {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.wordpress.android.util;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.test.InstrumentationTestCase;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * checks that VideoThumbnailLoader hands memory cache hits to the listener only after load() has
+ * returned the request, that cancelling that request stops the delivery, and that a local video
+ * which changes on disk isn't given its previous thumbnail from the disk cache
+ */
+public class VideoThumbnailLoaderTest extends InstrumentationTestCase {
+    private static final int MAX_WIDTH = 64;
+    private static final String REMOTE_PATH = "https://example.com/videos/video-thumbnail-test.mp4";
+
+    private VideoThumbnailLoader mLoader;
+    private File mVideoFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mLoader = VideoThumbnailLoader.getInstance(getInstrumentation().getTargetContext());
+        mLoader.clearMemoryCache();
+        mVideoFile = new File(getInstrumentation().getTargetContext().getCacheDir(), "video_thumbnail_test.mp4");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mLoader.clearMemoryCache();
+        //noinspection ResultOfMethodCallIgnored
+        mVideoFile.delete();
+        super.tearDown();
+    }
+
+    public void testMemoryHitIsDeliveredAfterLoadReturns() {
+        mLoader.putThumbnail(REMOTE_PATH, MAX_WIDTH, createThumbnail());
+        assertNotNull(mLoader.getFromMemory(REMOTE_PATH, MAX_WIDTH));
+
+        final VideoThumbnailLoader.Request[] request = new VideoThumbnailLoader.Request[1];
+        final AtomicInteger numLoaded = new AtomicInteger();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                request[0] = mLoader.load(REMOTE_PATH, MAX_WIDTH, new TestListener() {
+                    @Override
+                    public void onThumbnailLoaded(@NonNull String path, @NonNull Bitmap thumbnail) {
+                        // the caller has stored the request by the time it hears about the result
+                        assertNotNull(request[0]);
+                        numLoaded.incrementAndGet();
+                    }
+                });
+                assertEquals(0, numLoaded.get());
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        assertEquals(1, numLoaded.get());
+    }
+
+    public void testCancelledMemoryHitIsNotDelivered() {
+        mLoader.putThumbnail(REMOTE_PATH, MAX_WIDTH, createThumbnail());
+
+        final AtomicInteger numLoaded = new AtomicInteger();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mLoader.load(REMOTE_PATH, MAX_WIDTH, new TestListener() {
+                    @Override
+                    public void onThumbnailLoaded(@NonNull String path, @NonNull Bitmap thumbnail) {
+                        numLoaded.incrementAndGet();
+                    }
+                }).cancel();
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        assertEquals(0, numLoaded.get());
+    }
+
+    public void testChangedFileIsNotServedFromDisk() throws IOException {
+        writeVideoFile(1024);
+        String path = mVideoFile.getPath();
+        mLoader.putThumbnail(path, MAX_WIDTH, createThumbnail());
+
+        mLoader.clearMemoryCache();
+        assertNotNull(mLoader.getCachedThumbnail(path, MAX_WIDTH));
+
+        writeVideoFile(2048);
+        assertTrue(mVideoFile.setLastModified(mVideoFile.lastModified() + 10000));
+        mLoader.clearMemoryCache();
+        assertNull(mLoader.getCachedThumbnail(path, MAX_WIDTH));
+    }
+
+    private void writeVideoFile(int numBytes) throws IOException {
+        OutputStream output = new FileOutputStream(mVideoFile);
+        try {
+            output.write(new byte[numBytes]);
+        } finally {
+            output.close();
+        }
+    }
+
+    private static Bitmap createThumbnail() {
+        Bitmap thumbnail = Bitmap.createBitmap(MAX_WIDTH, MAX_WIDTH / 2, Bitmap.Config.ARGB_8888);
+        thumbnail.eraseColor(Color.RED);
+        return thumbnail;
+    }
+
+    private abstract static class TestListener implements VideoThumbnailLoader.Listener {
+        @Override
+        public void onThumbnailFailed(@NonNull String path) {
+            fail("thumbnail failed for " + path);
+        }
+    }
+}
@@ -16,7 +16,9 @@ public class JobServiceId {
     public static final int JOB_INSTALL_REFERRER_SERVICE_ID = 9000;
     public static final int JOB_STATS_SERVICE_ID = 8000;
     public static final int JOB_NOTIFICATIONS_UPDATE_SERVICE_ID = 7000;
+    public static final int JOB_READER_PREFETCH_SERVICE_ID = 6000;
     public static final int JOB_READER_SEARCH_SERVICE_ID = 5000;
+    public static final int JOB_READER_VACUUM_SERVICE_ID = 4000;
     public static final int JOB_PUBLICIZE_UPDATE_SERVICE_ID = 3000;
     public static final int JOB_READER_UPDATE_SERVICE_ID = 2000;
     public static final int JOB_GCM_REG_SERVICE_ID = 1000;
@@ -67,6 +67,7 @@ import org.wordpress.android.fluxc.tools.FluxCImageLoader;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
 import org.wordpress.android.modules.AppComponent;
 import org.wordpress.android.modules.DaggerAppComponent;
+import org.wordpress.android.networking.AuthenticatedWebResourceLoader;
 import org.wordpress.android.networking.ConnectionChangeReceiver;
 import org.wordpress.android.networking.OAuthAuthenticator;
 import org.wordpress.android.networking.RestClientUtils;
@@ -614,6 +615,9 @@ public class WordPress extends MultiDexApplication implements HasServiceInjector
         // Reset Notifications Data
         NotificationsTable.reset();
 
+        // remove private images which were downloaded with the user's token
+        AuthenticatedWebResourceLoader.getInstance(context).clearCache();
+
         // Cancel QuickStart reminders
         QuickStartUtils.cancelQuickStartReminder(context);
     }
@@ -837,6 +841,8 @@ public class WordPress extends MultiDexApplication implements HasServiceInjector
             properties.putAll(mReaderTracker.getAnalyticsData());
             AnalyticsTracker.track(AnalyticsTracker.Stat.APPLICATION_CLOSED, properties);
             AnalyticsTracker.endSession(false);
+            // persist preference changes now since the process may be killed while in the background
+            AppPrefs.flush();
             // Methods onAppComesFromBackground and onAppGoesToBackground are only workarounds to track when the
             // app goes to or comes from background. The workarounds are not 100% reliable, so avoid unregistering
             // the receiver twice.
@@ -1,9 +1,9 @@
 package org.wordpress.android.datasets;
 
-import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.CursorIndexOutOfBoundsException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.text.TextUtils;
 
 import org.json.JSONException;
@@ -12,8 +12,10 @@ import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Note;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.SqlUtils;
+import org.wordpress.android.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class NotificationsTable {
@@ -25,6 +27,28 @@ public class NotificationsTable {
 
     public static final int NOTES_TO_RETRIEVE = 200;
 
+    // the columns getNoteFromCursor() and putNotes() expect, in order
+    private static final String[] COLUMNS_NOTE = {
+            "note_id",
+            "raw_note_data",
+            "type",
+            "timestamp",
+            "timestamp_string",
+            "is_unread",
+            "is_comment",
+            "icon_url",
+            "noticon",
+            "subject",
+            "comment_subject",
+            "comment_subject_noticon",
+            "comment_status",
+            "site_id",
+            "post_id",
+            "comment_id",
+            "parent_comment_id",
+            "json_length"
+    };
+
     public static void createTables(SQLiteDatabase db) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + NOTIFICATIONS_TABLE + " ("
                    + "id INTEGER PRIMARY KEY DEFAULT 0,"
@@ -32,124 +56,202 @@ public class NotificationsTable {
                    + "type TEXT,"
                    + "raw_note_data TEXT,"
                    + "timestamp INTEGER,"
+                   + "timestamp_string TEXT,"
+                   + "is_unread INTEGER DEFAULT 0,"
+                   + "is_comment INTEGER DEFAULT 0,"
+                   + "icon_url TEXT,"
+                   + "noticon TEXT,"
+                   + "subject TEXT,"
+                   + "comment_subject TEXT,"
+                   + "comment_subject_noticon TEXT,"
+                   + "comment_status TEXT,"
+                   + "site_id INTEGER DEFAULT 0,"
+                   + "post_id INTEGER DEFAULT 0,"
+                   + "comment_id INTEGER DEFAULT 0,"
+                   + "parent_comment_id INTEGER DEFAULT 0,"
+                   + "json_length INTEGER DEFAULT 0,"
                    + " UNIQUE (note_id) ON CONFLICT REPLACE"
                    + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_notifications_timestamp ON " + NOTIFICATIONS_TABLE
+                   + "(timestamp)");
     }
 
     private static void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS " + NOTIFICATIONS_TABLE);
     }
 
+    /*
+     * recreates the table with the summary columns, re-saving the existing notes so their summaries
+     * are stored - this is the only time the stored notes are all parsed
+     */
+    public static void addSummaryColumns(SQLiteDatabase db) {
+        List<Note> notes = new ArrayList<>();
+        Cursor cursor = db.query(NOTIFICATIONS_TABLE, new String[]{"note_id", "raw_note_data"},
+                                 null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                String noteId = cursor.getString(0);
+                try {
+                    notes.add(new Note(noteId, new JSONObject(cursor.getString(1))));
+                } catch (JSONException e) {
+                    AppLog.e(AppLog.T.DB, "Can't parse notification with noteId:" + noteId + ", exception:" + e);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        db.beginTransaction();
+        try {
+            dropTables(db);
+            createTables(db);
+            putNotes(db, notes);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     public static ArrayList<Note> getLatestNotes() {
         return getLatestNotes(NOTES_TO_RETRIEVE);
     }
 
+    /*
+     * returns the latest notes without parsing their JSON, which is only parsed if a field that isn't
+     * in the note's summary is requested
+     */
     public static ArrayList<Note> getLatestNotes(int limit) {
-        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, new String[]{"note_id", "raw_note_data"},
-                                      null, null, null, null, "timestamp DESC", "" + limit);
-        ArrayList<Note> notes = new ArrayList<Note>();
-        while (cursor.moveToNext()) {
-            String noteId = cursor.getString(0);
-            String rawNoteData = cursor.getString(1);
-            try {
-                Note note = new Note(noteId, new JSONObject(rawNoteData));
-                notes.add(note);
-            } catch (JSONException e) {
-                AppLog.e(AppLog.T.DB, "Can't parse notification with noteId:" + noteId + ", exception:" + e);
+        return getLatestNotes(getDb(), limit);
+    }
+
+    static ArrayList<Note> getLatestNotes(SQLiteDatabase db, int limit) {
+        Cursor cursor = db.query(NOTIFICATIONS_TABLE, COLUMNS_NOTE, null, null, null, null,
+                                      "timestamp DESC", Integer.toString(limit));
+        ArrayList<Note> notes = new ArrayList<>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                notes.add(getNoteFromCursor(cursor));
             }
+        } finally {
+            cursor.close();
         }
-        cursor.close();
         return notes;
     }
 
-    private static boolean putNote(Note note, boolean checkBeforeInsert) {
-        ContentValues values = new ContentValues();
-        values.put("type", note.getType());
-        values.put("timestamp", note.getTimestamp());
-        values.put("raw_note_data", note.getJSON().toString());
-
-        long result;
-        if (checkBeforeInsert && isNoteAvailable(note.getId())) {
-            // Update
-            String[] args = {note.getId()};
-            result = getDb().update(
-                    NOTIFICATIONS_TABLE,
-                    values,
-                    "note_id=?",
-                    args);
-            return result == 1;
-        } else {
-            // insert
-            values.put("note_id", note.getId());
-            result = getDb().insertWithOnConflict(NOTIFICATIONS_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-            if (result == -1) {
-                AppLog.e(AppLog.T.DB, "An error occurred while saving the note into the DB - note_id:" + note.getId());
+    private static Note getNoteFromCursor(Cursor cursor) {
+        Note.Summary summary = new Note.Summary();
+        summary.setType(cursor.getString(2));
+        summary.setTimestamp(cursor.getLong(3));
+        summary.setTimestampString(cursor.getString(4));
+        summary.setIsUnread(SqlUtils.sqlToBool(cursor.getInt(5)));
+        summary.setIsComment(SqlUtils.sqlToBool(cursor.getInt(6)));
+        summary.setIconUrl(cursor.getString(7));
+        summary.setNoticon(cursor.getString(8));
+        summary.setSubject(cursor.getString(9));
+        summary.setCommentSubject(cursor.getString(10));
+        summary.setCommentSubjectNoticon(cursor.getString(11));
+        summary.setCommentStatus(cursor.getString(12));
+        summary.setSiteId(cursor.getInt(13));
+        summary.setPostId(cursor.getInt(14));
+        summary.setCommentId(cursor.getLong(15));
+        summary.setParentCommentId(cursor.getLong(16));
+        summary.setJSONLength(cursor.getInt(17));
+        return new Note(cursor.getString(0), cursor.getString(1), summary);
+    }
+
+    /*
+     * writes the notes using a single prepared statement and returns how many were written - the caller
+     * is responsible for the transaction
+     */
+    static int putNotes(SQLiteDatabase db, List<Note> notes) {
+        int numSaved = 0;
+        SQLiteStatement stmt = db.compileStatement(
+                "INSERT OR REPLACE INTO " + NOTIFICATIONS_TABLE + " ("
+                + TextUtils.join(",", COLUMNS_NOTE)
+                + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18)");
+        try {
+            for (Note note : notes) {
+                if (TextUtils.isEmpty(note.getId())) {
+                    AppLog.e(AppLog.T.DB, "Unable to save a note without an id");
+                    continue;
+                }
+                JSONObject subject = note.getSubject();
+                stmt.bindString(1, note.getId());
+                stmt.bindString(2, note.getRawNoteData());
+                stmt.bindString(3, StringUtils.notNullStr(note.getType()));
+                stmt.bindLong(4, note.getTimestamp());
+                stmt.bindString(5, StringUtils.notNullStr(note.getTimestampString()));
+                stmt.bindLong(6, SqlUtils.boolToSql(note.isUnread()));
+                stmt.bindLong(7, SqlUtils.boolToSql(note.isCommentType()));
+                stmt.bindString(8, StringUtils.notNullStr(note.getIconURL()));
+                stmt.bindString(9, StringUtils.notNullStr(note.getNoticonCharacter()));
+                if (subject != null) {
+                    stmt.bindString(10, subject.toString());
+                } else {
+                    stmt.bindNull(10);
+                }
+                stmt.bindString(11, StringUtils.notNullStr(note.getCommentSubject()));
+                stmt.bindString(12, StringUtils.notNullStr(note.getCommentSubjectNoticon()));
+                stmt.bindString(13, note.getCommentStatus().toString());
+                stmt.bindLong(14, note.getSiteId());
+                stmt.bindLong(15, note.getPostId());
+                stmt.bindLong(16, note.getCommentId());
+                stmt.bindLong(17, note.getParentCommentId());
+                stmt.bindLong(18, note.getJSONLength());
+                if (stmt.executeInsert() == -1) {
+                    AppLog.e(AppLog.T.DB, "An error occurred while saving the note into the DB - note_id:"
+                                          + note.getId());
+                } else {
+                    numSaved++;
+                }
             }
-            return result != -1;
+        } finally {
+            SqlUtils.closeStatement(stmt);
         }
+        return numSaved;
     }
 
     public static void saveNotes(List<Note> notes, boolean clearBeforeSaving) {
-        getDb().beginTransaction();
+        SQLiteDatabase db = getDb();
+        db.beginTransaction();
         try {
             if (clearBeforeSaving) {
                 clearNotes();
             }
-
-            for (Note note : notes) {
-                // No need to check if the row already exists if we've just dropped the table.
-                putNote(note, !clearBeforeSaving);
-            }
-
-            getDb().setTransactionSuccessful();
+            putNotes(db, notes);
+            db.setTransactionSuccessful();
         } finally {
-            getDb().endTransaction();
+            db.endTransaction();
         }
     }
 
     public static boolean saveNote(Note note) {
-        getDb().beginTransaction();
+        SQLiteDatabase db = getDb();
+        db.beginTransaction();
         boolean saved = false;
         try {
-            saved = putNote(note, true);
-            getDb().setTransactionSuccessful();
+            saved = putNotes(db, Collections.singletonList(note)) == 1;
+            db.setTransactionSuccessful();
         } finally {
-            getDb().endTransaction();
+            db.endTransaction();
         }
         return saved;
     }
 
-    private static boolean isNoteAvailable(String noteID) {
-        if (TextUtils.isEmpty(noteID)) {
-            AppLog.e(AppLog.T.DB, "Asking for a note with null Id. Really?" + noteID);
-            return false;
-        }
-
-        String[] args = {noteID};
-        return SqlUtils.boolForQuery(getDb(),
-                                     "SELECT 1 FROM " + NOTIFICATIONS_TABLE + " WHERE note_id=?1",
-                                     args);
-    }
-
     public static Note getNoteById(String noteID) {
         if (TextUtils.isEmpty(noteID)) {
             AppLog.e(AppLog.T.DB, "Asking for a note with null Id. Really?" + noteID);
             return null;
         }
-        Cursor cursor =
-                getDb().query(NOTIFICATIONS_TABLE, new String[]{"raw_note_data"}, "note_id=" + noteID, null, null, null,
-                              null);
+        String[] args = {noteID};
+        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, COLUMNS_NOTE, "note_id=?", args, null, null, null);
         try {
             if (cursor.moveToFirst()) {
-                JSONObject jsonNote = new JSONObject(cursor.getString(0));
-                return new Note(noteID, jsonNote);
+                return getNoteFromCursor(cursor);
             } else {
                 AppLog.v(AppLog.T.DB, "No Note found in the DB with this id: " + noteID);
                 return null;
             }
-        } catch (JSONException e) {
-            AppLog.e(AppLog.T.DB, "Can't parse JSON Note: " + e);
-            return null;
         } catch (CursorIndexOutOfBoundsException e) {
             AppLog.e(AppLog.T.DB, "An error with the cursor has occurred", e);
             return null;
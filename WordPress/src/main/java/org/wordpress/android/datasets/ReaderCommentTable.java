@@ -10,6 +10,9 @@ import org.wordpress.android.models.ReaderCommentList;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * stores comments on reader posts
  */
@@ -64,14 +67,21 @@ public class ReaderCommentTable {
         createTables(db);
     }
 
-    protected static int purge(SQLiteDatabase db) {
+    /*
+     * returns the steps which purge comments, run by ReaderDatabasePurger after posts are purged
+     */
+    protected static List<ReaderPurgeStep> getPurgeSteps() {
+        List<ReaderPurgeStep> steps = new ArrayList<>();
+
         // purge comments attached to posts that no longer exist
-        int numDeleted = db.delete("tbl_comments", "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_posts)", null);
+        steps.add(new ReaderPurgeStep("tbl_comments",
+                "NOT EXISTS (SELECT 1 FROM tbl_posts WHERE tbl_posts.post_id = tbl_comments.post_id"
+                + " AND tbl_posts.blog_id = tbl_comments.blog_id)", null));
 
         // purge all but the first page of comments
-        numDeleted += db.delete("tbl_comments", "page_number != 1", null);
+        steps.add(new ReaderPurgeStep("tbl_comments", "page_number != 1", null));
 
-        return numDeleted;
+        return steps;
     }
 
     public static boolean isEmpty() {
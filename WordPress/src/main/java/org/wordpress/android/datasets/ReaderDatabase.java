@@ -3,18 +3,23 @@ package org.wordpress.android.datasets;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.SystemClock;
 
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTagList;
+import org.wordpress.android.ui.reader.utils.ReaderPostHtmlCache;
+import org.wordpress.android.ui.reader.utils.ReaderSavedPostAssets;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.SqlUtils;
 
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -22,8 +27,9 @@ import java.util.Locale;
  */
 public class ReaderDatabase extends SQLiteOpenHelper {
     protected static final String DB_NAME = "wpreader.db";
-    private static final int DB_VERSION = 137;
+    private static final int DB_VERSION = 141;
     private static final int DB_LAST_VERSION_WITHOUT_MIGRATION_SCRIPT = 136; // do not change this value
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
 
     /*
      * version history
@@ -93,6 +99,10 @@ public class ReaderDatabase extends SQLiteOpenHelper {
      * 135 - added tbl_blog_info.is_notifications_enabled in ReaderBlogTable
      * 136 - added tbl_posts.is_bookmarked
      * 137 - added support for migration scripts
+     * 138 - added ts_published, ts_liked, ts_tagged to tbl_posts and indexed them with tag_name & tag_type
+     * 139 - added tbl_posts.content_hash
+     * 140 - added ReaderPostSearchTable
+     * 141 - added ReaderPostAssetTable
      */
 
     /*
@@ -134,6 +144,9 @@ public class ReaderDatabase extends SQLiteOpenHelper {
      * resets (clears) the reader database
      */
     public static void reset(boolean retainBookmarkedPosts) {
+        ReaderPostHtmlCache.clear();
+        ReaderDatabasePurger.cancel();
+
         // note that we must call getWritableDb() before getDatabase() in case the database
         // object hasn't been created yet
         SQLiteDatabase db = getWritableDb();
@@ -142,10 +155,13 @@ public class ReaderDatabase extends SQLiteOpenHelper {
             ReaderTagList tags = ReaderTagTable.getBookmarkTags();
             if (!tags.isEmpty()) {
                 ReaderPostList bookmarkedPosts = ReaderPostTable.getPostsWithTag(tags.get(0), 0, false);
+                // the stored assets of saved posts are kept along with them
+                List<ReaderPostAssetTable.Asset> assets = ReaderPostAssetTable.getAllAssets(db);
                 db.beginTransaction();
                 try {
                     getDatabase().reset(db);
                     ReaderPostTable.addOrUpdatePosts(tags.get(0), bookmarkedPosts);
+                    ReaderPostAssetTable.addAssets(db, assets);
                     db.setTransactionSuccessful();
                 } finally {
                     db.endTransaction();
@@ -155,12 +171,50 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         }
 
         getDatabase().reset(db);
+        ReaderSavedPostAssets.getInstance().clear();
     }
 
     public ReaderDatabase(Context context) {
         super(context, DB_NAME, null, DB_VERSION);
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // lets ReaderDatabasePurger return free pages to the file system a few at a time - this
+        // only takes effect for new databases, existing ones switch over when they're vacuumed in
+        // full by vacuumToIncremental()
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+    }
+
+    static boolean isIncrementalVacuumEnabled(SQLiteDatabase db) {
+        return SqlUtils.intForQuery(db, "PRAGMA auto_vacuum", null) == AUTO_VACUUM_INCREMENTAL;
+    }
+
+    /*
+     * vacuums a database created before auto_vacuum was enabled in full, which releases its free
+     * pages and switches it to incremental vacuuming - this rewrites the whole file and holds the
+     * write lock while it does, so it's only run once by ReaderVacuumJobService while the device
+     * is idle and charging. returns false if the database didn't need it.
+     */
+    public static boolean vacuumToIncremental() {
+        return vacuumToIncremental(getWritableDb());
+    }
+
+    static boolean vacuumToIncremental(SQLiteDatabase db) {
+        if (isIncrementalVacuumEnabled(db)) {
+            return false;
+        }
+        long startTime = SystemClock.elapsedRealtime();
+        int numPages = SqlUtils.intForQuery(db, "PRAGMA page_count", null);
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        db.execSQL("VACUUM");
+        AppLog.i(T.READER, String.format(Locale.ENGLISH, "reader db > full vacuum from %d to %d pages in %dms",
+                numPages, SqlUtils.intForQuery(db, "PRAGMA page_count", null),
+                SystemClock.elapsedRealtime() - startTime));
+        return isIncrementalVacuumEnabled(db);
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         createAllTables(db);
@@ -182,6 +236,18 @@ public class ReaderDatabase extends SQLiteOpenHelper {
             case 136:
                 // no-op
                 currentVersion++;
+            case 137:
+                ReaderPostTable.addTimestampColumns(db);
+                currentVersion++;
+            case 138:
+                ReaderPostTable.addContentHashColumn(db);
+                currentVersion++;
+            case 139:
+                ReaderPostSearchTable.createTables(db);
+                currentVersion++;
+            case 140:
+                ReaderPostAssetTable.createTables(db);
+                currentVersion++;
         }
         if (currentVersion != newVersion) {
             throw new RuntimeException(
@@ -207,6 +273,8 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         ReaderThumbnailTable.createTables(db);
         ReaderBlogTable.createTables(db);
         ReaderSearchTable.createTables(db);
+        ReaderPostSearchTable.createTables(db);
+        ReaderPostAssetTable.createTables(db);
     }
 
     private void dropAllTables(SQLiteDatabase db) {
@@ -218,6 +286,8 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         ReaderThumbnailTable.dropTables(db);
         ReaderBlogTable.dropTables(db);
         ReaderSearchTable.dropTables(db);
+        ReaderPostSearchTable.dropTables(db);
+        ReaderPostAssetTable.dropTables(db);
     }
 
     /*
@@ -235,49 +305,10 @@ public class ReaderDatabase extends SQLiteOpenHelper {
     }
 
     /*
-     * purge older/unattached data - use purgeAsync() to do this in the background
+     * purge older/unattached data in the background - see ReaderDatabasePurger
      */
-    private static void purge() {
-        SQLiteDatabase db = getWritableDb();
-        db.beginTransaction();
-        try {
-            int numPostsDeleted = ReaderPostTable.purge(db);
-
-            // don't bother purging other data unless posts were purged
-            if (numPostsDeleted > 0) {
-                AppLog.i(T.READER, String.format(Locale.ENGLISH, "%d total posts purged", numPostsDeleted));
-
-                // purge unattached comments
-                int numCommentsDeleted = ReaderCommentTable.purge(db);
-                if (numCommentsDeleted > 0) {
-                    AppLog.i(T.READER, String.format(Locale.ENGLISH, "%d comments purged", numCommentsDeleted));
-                }
-
-                // purge unattached likes
-                int numLikesDeleted = ReaderLikeTable.purge(db);
-                if (numLikesDeleted > 0) {
-                    AppLog.i(T.READER, String.format(Locale.ENGLISH, "%d likes purged", numLikesDeleted));
-                }
-
-                // purge unattached thumbnails
-                int numThumbsPurged = ReaderThumbnailTable.purge(db);
-                if (numThumbsPurged > 0) {
-                    AppLog.i(T.READER, String.format(Locale.ENGLISH, "%d thumbnails purged", numThumbsPurged));
-                }
-            }
-            db.setTransactionSuccessful();
-        } finally {
-            db.endTransaction();
-        }
-    }
-
     public static void purgeAsync() {
-        new Thread() {
-            @Override
-            public void run() {
-                purge();
-            }
-        }.start();
+        ReaderDatabasePurger.purgeAsync();
     }
 
     /*
@@ -0,0 +1,294 @@
+package org.wordpress.android.datasets;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.ui.reader.services.vacuum.ReaderVacuumScheduler;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.SqlUtils;
+import org.wordpress.android.util.WPExecutors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * purges older/unattached data from the reader database in the background without holding the
+ * database's write lock for long - each table's purge is split into ReaderPurgeSteps which delete
+ * a chunk of rows per transaction, and the purge runs on the db write executor in short slices,
+ * re-queueing itself between slices so other database writes aren't held up behind it.
+ * <p>
+ * once everything has been purged, the post search index is brought up to date, then free pages
+ * are returned to the file system and the query planner's statistics are refreshed so the
+ * database file doesn't keep growing.
+ */
+class ReaderDatabasePurger {
+    // rows deleted per transaction, and how long each slice may run before yielding
+    private static final int CHUNK_SIZE = 250;
+    private static final long SLICE_BUDGET_MS = 50;
+
+    // posts added to the search index per transaction - fewer than CHUNK_SIZE since each post's
+    // text is read and indexed
+    private static final int INDEX_CHUNK_SIZE = 25;
+
+    // pages released per incremental vacuum, and how many free pages a database which predates
+    // auto_vacuum must have (both as a count and a proportion of its pages) to be vacuumed in full
+    private static final int VACUUM_PAGES_PER_CHUNK = 128;
+    private static final int MIN_FREE_PAGES_FOR_FULL_VACUUM = 1024;
+    private static final int MIN_FREE_PAGE_PERCENT_FOR_FULL_VACUUM = 25;
+
+    private static final AtomicBoolean IS_RUNNING = new AtomicBoolean(false);
+    private static volatile ReaderDatabasePurger sCurrentPurger;
+
+    private enum Phase {
+        PURGE_POSTS,
+        PURGE_ATTACHED,
+        UPDATE_SEARCH_INDEX,
+        VACUUM,
+        DONE
+    }
+
+    private final ArrayDeque<ReaderPurgeStep> mSteps = new ArrayDeque<>();
+    private final List<ReaderPurgeStep> mCompletedSteps = new ArrayList<>();
+    private Phase mPhase = Phase.PURGE_POSTS;
+    private boolean mHasCreatedSteps;
+    private volatile boolean mIsCancelled;
+
+    private final long mStartTime = SystemClock.elapsedRealtime();
+    private int mNumSlices;
+    private int mNumPostsIndexed;
+    private int mNumPagesVacuumed;
+    private long mVacuumMs;
+
+    /*
+     * starts a purge unless one is already running
+     */
+    static void purgeAsync() {
+        if (!IS_RUNNING.compareAndSet(false, true)) {
+            AppLog.d(T.READER, "reader db purge > already running");
+            return;
+        }
+        ReaderDatabasePurger purger = new ReaderDatabasePurger();
+        sCurrentPurger = purger;
+        purger.scheduleSlice();
+    }
+
+    /*
+     * stops the current purge after its current chunk - used when the database is reset, since
+     * the purge steps were created for the data that existed before the reset
+     */
+    static void cancel() {
+        ReaderDatabasePurger purger = sCurrentPurger;
+        if (purger != null) {
+            purger.mIsCancelled = true;
+        }
+    }
+
+    private void scheduleSlice() {
+        WPExecutors.dbWrite(new Runnable() {
+            @Override
+            public void run() {
+                runSlice();
+            }
+        });
+    }
+
+    private void runSlice() {
+        mNumSlices++;
+        boolean isDone = true;
+        try {
+            isDone = purgeUntilBudgetSpent(ReaderDatabase.getWritableDb());
+        } finally {
+            if (isDone) {
+                finish();
+            }
+        }
+        if (!isDone) {
+            scheduleSlice();
+        }
+    }
+
+    /*
+     * runs purge steps until the time budget for this slice is spent, returns true when the
+     * purge is complete
+     */
+    private boolean purgeUntilBudgetSpent(@NonNull SQLiteDatabase db) {
+        long sliceStart = SystemClock.elapsedRealtime();
+        while (SystemClock.elapsedRealtime() - sliceStart < SLICE_BUDGET_MS) {
+            if (mIsCancelled) {
+                AppLog.d(T.READER, "reader db purge > cancelled");
+                return true;
+            }
+
+            switch (mPhase) {
+                case PURGE_POSTS:
+                    if (!mHasCreatedSteps) {
+                        mSteps.addAll(ReaderPostTable.getPurgeSteps(db));
+                        mHasCreatedSteps = true;
+                    }
+                    if (!runNextChunk(db)) {
+                        // don't bother purging other data unless posts were purged
+                        mPhase = getNumDeleted() > 0 ? Phase.PURGE_ATTACHED : Phase.UPDATE_SEARCH_INDEX;
+                        mHasCreatedSteps = false;
+                    }
+                    break;
+                case PURGE_ATTACHED:
+                    if (!mHasCreatedSteps) {
+                        // comments are purged before likes since likes on comments are purged
+                        // once the comments no longer exist
+                        mSteps.addAll(ReaderCommentTable.getPurgeSteps());
+                        mSteps.addAll(ReaderLikeTable.getPurgeSteps());
+                        mSteps.add(ReaderThumbnailTable.getPurgeStep());
+                        mSteps.add(ReaderPostAssetTable.getPurgeStep());
+                        mHasCreatedSteps = true;
+                    }
+                    if (!runNextChunk(db)) {
+                        mPhase = Phase.UPDATE_SEARCH_INDEX;
+                        mHasCreatedSteps = false;
+                    }
+                    break;
+                case UPDATE_SEARCH_INDEX:
+                    // posts are removed from the index even if none were purged above, since
+                    // they're also deleted elsewhere (ex: when a search is repeated)
+                    if (!mHasCreatedSteps) {
+                        mSteps.add(ReaderPostSearchTable.getPurgeStep());
+                        mHasCreatedSteps = true;
+                    }
+                    if (!runNextChunk(db) && !indexNextChunk(db)) {
+                        mPhase = getNumDeleted() > 0 ? Phase.VACUUM : Phase.DONE;
+                    }
+                    break;
+                case VACUUM:
+                    if (!vacuumNextChunk(db)) {
+                        mPhase = Phase.DONE;
+                    }
+                    break;
+                case DONE:
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * purges the next chunk of rows, returns false if there are no more steps to run
+     */
+    private boolean runNextChunk(@NonNull SQLiteDatabase db) {
+        ReaderPurgeStep step = mSteps.peek();
+        if (step == null) {
+            return false;
+        }
+        step.purgeChunk(db, CHUNK_SIZE);
+        if (step.isDone()) {
+            mCompletedSteps.add(mSteps.poll());
+        }
+        return true;
+    }
+
+    /*
+     * indexes the next chunk of posts which aren't in the search index, returns false once
+     * they've all been indexed
+     */
+    private boolean indexNextChunk(@NonNull SQLiteDatabase db) {
+        int numIndexed = ReaderPostSearchTable.indexUnindexedPosts(db, INDEX_CHUNK_SIZE);
+        mNumPostsIndexed += numIndexed;
+        return numIndexed == INDEX_CHUNK_SIZE;
+    }
+
+    /*
+     * releases the next chunk of free pages, returns false once there's nothing left to release.
+     * databases created before auto_vacuum was enabled can only give back their free pages with a
+     * full VACUUM, which rewrites the whole file and can't be split into chunks - that would hold
+     * the write lock for far longer than a slice, so once a good proportion of the file is free
+     * pages it's left to ReaderVacuumJobService, which runs it once while the device is idle and
+     * switches the database to incremental vacuuming.
+     */
+    private boolean vacuumNextChunk(@NonNull SQLiteDatabase db) {
+        if (!ReaderDatabase.isIncrementalVacuumEnabled(db)) {
+            int freePages = SqlUtils.intForQuery(db, "PRAGMA freelist_count", null);
+            int numPages = SqlUtils.intForQuery(db, "PRAGMA page_count", null);
+            if (freePages >= MIN_FREE_PAGES_FOR_FULL_VACUUM
+                && freePages * 100L >= numPages * (long) MIN_FREE_PAGE_PERCENT_FOR_FULL_VACUUM) {
+                ReaderVacuumScheduler.scheduleFullVacuum(WordPress.getContext());
+            }
+            return false;
+        }
+        long startTime = SystemClock.elapsedRealtime();
+        int freePages = SqlUtils.intForQuery(db, "PRAGMA freelist_count", null);
+        if (freePages == 0) {
+            return false;
+        }
+
+        db.execSQL("PRAGMA incremental_vacuum(" + VACUUM_PAGES_PER_CHUNK + ")");
+
+        mNumPagesVacuumed += freePages - SqlUtils.intForQuery(db, "PRAGMA freelist_count", null);
+        mVacuumMs += SystemClock.elapsedRealtime() - startTime;
+        return freePages > VACUUM_PAGES_PER_CHUNK;
+    }
+
+    private int getNumDeleted() {
+        int numDeleted = 0;
+        for (ReaderPurgeStep step : mCompletedSteps) {
+            numDeleted += step.getNumDeleted();
+        }
+        return numDeleted;
+    }
+
+    private void finish() {
+        try {
+            if (!mIsCancelled) {
+                // refresh the query planner's statistics - this only analyzes tables which need it
+                ReaderDatabase.getWritableDb().execSQL("PRAGMA optimize");
+            }
+            logMetrics();
+        } finally {
+            sCurrentPurger = null;
+            IS_RUNNING.set(false);
+        }
+    }
+
+    /*
+     * logs the rows deleted and the time spent on each table
+     */
+    private void logMetrics() {
+        List<ReaderPurgeStep> steps = new ArrayList<>(mCompletedSteps);
+        steps.addAll(mSteps);
+
+        Map<String, long[]> tableMetrics = new LinkedHashMap<>();
+        for (ReaderPurgeStep step : steps) {
+            long[] metrics = tableMetrics.get(step.getTable());
+            if (metrics == null) {
+                metrics = new long[3];
+                tableMetrics.put(step.getTable(), metrics);
+            }
+            metrics[0] += step.getNumDeleted();
+            metrics[1] += step.getNumChunks();
+            metrics[2] += step.getElapsedMs();
+        }
+
+        for (Map.Entry<String, long[]> entry : tableMetrics.entrySet()) {
+            long[] metrics = entry.getValue();
+            if (metrics[0] > 0) {
+                AppLog.i(T.READER, String.format(Locale.ENGLISH, "reader db purge > %s: %d rows in %d chunks, %dms",
+                        entry.getKey(), metrics[0], metrics[1], metrics[2]));
+            }
+        }
+        if (mNumPostsIndexed > 0) {
+            AppLog.i(T.READER, "reader db purge > added " + mNumPostsIndexed + " posts to the search index");
+        }
+        if (mNumPagesVacuumed > 0) {
+            AppLog.i(T.READER, String.format(Locale.ENGLISH, "reader db purge > vacuumed %d pages in %dms",
+                    mNumPagesVacuumed, mVacuumMs));
+        }
+        AppLog.i(T.READER, String.format(Locale.ENGLISH, "reader db purge > finished in %d slices, %dms elapsed",
+                mNumSlices, SystemClock.elapsedRealtime() - mStartTime));
+    }
+}
@@ -10,6 +10,9 @@ import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderUserIdList;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * stores likes for Reader posts and comments
  */
@@ -41,11 +44,14 @@ public class ReaderLikeTable {
     /*
      * purge likes attached to posts/comments that no longer exist
      */
-    protected static int purge(SQLiteDatabase db) {
-        int numDeleted = db.delete("tbl_post_likes", "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_posts)", null);
-        numDeleted += db.delete("tbl_comment_likes", "comment_id NOT IN (SELECT DISTINCT comment_id FROM tbl_comments)",
-                                null);
-        return numDeleted;
+    protected static List<ReaderPurgeStep> getPurgeSteps() {
+        List<ReaderPurgeStep> steps = new ArrayList<>();
+        steps.add(new ReaderPurgeStep("tbl_post_likes",
+                "NOT EXISTS (SELECT 1 FROM tbl_posts WHERE tbl_posts.post_id = tbl_post_likes.post_id"
+                + " AND tbl_posts.blog_id = tbl_post_likes.blog_id)", null));
+        steps.add(new ReaderPurgeStep("tbl_comment_likes",
+                "comment_id NOT IN (SELECT DISTINCT comment_id FROM tbl_comments)", null));
+        return steps;
     }
 
     /*
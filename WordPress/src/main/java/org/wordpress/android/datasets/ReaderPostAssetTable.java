@@ -0,0 +1,174 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.SqlUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * the assets (images, scripts and stylesheets) downloaded for saved posts so they can be shown
+ * without a network connection - the files are stored by ReaderSavedPostAssets and named by a hash
+ * of their content, so an asset used by several posts is only stored once:
+ * <p>
+ * tbl_post_assets - each url requested by a saved post, and the hash and content type of the file
+ * it was downloaded into
+ * <p>
+ * methods take the database so the store can be tested against its own
+ */
+public class ReaderPostAssetTable {
+    public static class Asset {
+        public final long blogId;
+        public final long postId;
+        public final String url;
+        public final String hash;
+        public final String contentType;
+
+        public Asset(long blogId, long postId, @NonNull String url, @NonNull String hash,
+                     @Nullable String contentType) {
+            this.blogId = blogId;
+            this.postId = postId;
+            this.url = url;
+            this.hash = hash;
+            this.contentType = contentType;
+        }
+    }
+
+    public static void createTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE tbl_post_assets ("
+                   + " blog_id INTEGER DEFAULT 0,"
+                   + " post_id INTEGER DEFAULT 0,"
+                   + " url TEXT NOT NULL,"
+                   + " hash TEXT NOT NULL,"
+                   + " content_type TEXT,"
+                   + " PRIMARY KEY (blog_id, post_id, url))");
+        db.execSQL("CREATE INDEX idx_post_assets_url ON tbl_post_assets(url)");
+        db.execSQL("CREATE INDEX idx_post_assets_hash ON tbl_post_assets(hash)");
+    }
+
+    protected static void dropTables(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_assets");
+    }
+
+    /*
+     * purge table of assets attached to posts which are no longer saved - ReaderSavedPostAssets
+     * deletes their files once nothing refers to them
+     */
+    protected static ReaderPurgeStep getPurgeStep() {
+        return new ReaderPurgeStep("tbl_post_assets",
+                "NOT EXISTS (SELECT 1 FROM tbl_posts WHERE tbl_posts.blog_id = tbl_post_assets.blog_id"
+                + " AND tbl_posts.post_id = tbl_post_assets.post_id AND tbl_posts.is_bookmarked = 1)", null);
+    }
+
+    /*
+     * replaces the assets stored for the passed post
+     */
+    public static void setAssetsForPost(@NonNull SQLiteDatabase db, long blogId, long postId,
+                                        @NonNull List<Asset> assets) {
+        db.beginTransaction();
+        try {
+            db.delete("tbl_post_assets", "blog_id=? AND post_id=?",
+                    new String[]{Long.toString(blogId), Long.toString(postId)});
+            addAssets(db, assets);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public static void addAssets(@NonNull SQLiteDatabase db, @NonNull List<Asset> assets) {
+        SQLiteStatement stmt = db.compileStatement(
+                "INSERT OR REPLACE INTO tbl_post_assets (blog_id, post_id, url, hash, content_type)"
+                + " VALUES (?1,?2,?3,?4,?5)");
+        db.beginTransaction();
+        try {
+            for (Asset asset : assets) {
+                stmt.bindLong(1, asset.blogId);
+                stmt.bindLong(2, asset.postId);
+                stmt.bindString(3, asset.url);
+                stmt.bindString(4, asset.hash);
+                if (asset.contentType != null) {
+                    stmt.bindString(5, asset.contentType);
+                } else {
+                    stmt.bindNull(5);
+                }
+                stmt.execute();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            SqlUtils.closeStatement(stmt);
+        }
+    }
+
+    /*
+     * returns the stored asset for the passed url, from whichever saved post requested it
+     */
+    @Nullable
+    public static Asset getAsset(@NonNull SQLiteDatabase db, @NonNull String url) {
+        Cursor cursor = db.rawQuery("SELECT blog_id, post_id, url, hash, content_type FROM tbl_post_assets"
+                                    + " WHERE url=? LIMIT 1", new String[]{url});
+        try {
+            return cursor.moveToFirst() ? getAssetFromCursor(cursor) : null;
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+    }
+
+    @NonNull
+    public static List<Asset> getAllAssets(@NonNull SQLiteDatabase db) {
+        List<Asset> assets = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT blog_id, post_id, url, hash, content_type FROM tbl_post_assets", null);
+        try {
+            while (cursor.moveToNext()) {
+                assets.add(getAssetFromCursor(cursor));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return assets;
+    }
+
+    /*
+     * returns the hashes of every stored file which is still used by a saved post
+     */
+    @NonNull
+    public static Set<String> getHashes(@NonNull SQLiteDatabase db) {
+        Set<String> hashes = new HashSet<>();
+        Cursor cursor = db.rawQuery("SELECT DISTINCT hash FROM tbl_post_assets", null);
+        try {
+            while (cursor.moveToNext()) {
+                hashes.add(cursor.getString(0));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return hashes;
+    }
+
+    public static void deleteAssetsForPost(@NonNull SQLiteDatabase db, long blogId, long postId) {
+        db.delete("tbl_post_assets", "blog_id=? AND post_id=?",
+                new String[]{Long.toString(blogId), Long.toString(postId)});
+    }
+
+    /*
+     * called when the file with the passed hash is evicted, so posts which used it request it
+     * from the network again
+     */
+    public static void deleteAssetsWithHash(@NonNull SQLiteDatabase db, @NonNull String hash) {
+        db.delete("tbl_post_assets", "hash=?", new String[]{hash});
+    }
+
+    private static Asset getAssetFromCursor(Cursor cursor) {
+        return new Asset(cursor.getLong(0), cursor.getLong(1), cursor.getString(2), cursor.getString(3),
+                cursor.isNull(4) ? null : cursor.getString(4));
+    }
+}
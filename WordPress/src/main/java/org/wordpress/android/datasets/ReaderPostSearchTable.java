@@ -0,0 +1,318 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.util.HtmlUtils;
+import org.wordpress.android.util.SqlUtils;
+import org.wordpress.android.util.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * full-text search index of the posts in tbl_posts, used to search cached posts without a network
+ * request and to suggest search terms - a post may be stored in tbl_posts several times (once for
+ * each tag it was retrieved with) but is only indexed once, keyed by its pseudo_id:
+ * <p>
+ * tbl_post_search - assigns each indexed post the docid of its row in the index
+ * tbl_post_search_fts - FTS4 index of each post's title, excerpt, text (without html), blog name
+ * and author name
+ * tbl_post_search_terms - fts4aux view of the terms in the index and how many posts contain them
+ * <p>
+ * the index is updated when ReaderPostTable writes posts, posts which were stored before the index
+ * existed are indexed by ReaderDatabasePurger, and posts which no longer exist in tbl_posts are
+ * left out of search results and removed from the index when the database is purged
+ */
+public class ReaderPostSearchTable {
+    // the indexed columns, in the order they appear in matchinfo(), and how much a match in each
+    // column counts towards a post's rank
+    private static final String[] INDEX_COLUMNS = {"title", "excerpt", "text", "blog_name", "author_name"};
+    private static final double[] INDEX_COLUMN_WEIGHTS = {4.0, 2.0, 1.0, 2.0, 2.0};
+
+    // limits how much of a post's text is indexed, since matches near the start are what matter
+    private static final int MAX_INDEXED_TEXT_LEN = 10000;
+
+    protected static void createTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE tbl_post_search ("
+                   + " docid INTEGER PRIMARY KEY,"
+                   + " pseudo_id TEXT NOT NULL UNIQUE)");
+        // unicode61 folds case and removes diacritics for all scripts, not just ascii
+        db.execSQL("CREATE VIRTUAL TABLE tbl_post_search_fts USING fts4("
+                   + TextUtils.join(",", INDEX_COLUMNS) + ", tokenize=unicode61)");
+        db.execSQL("CREATE VIRTUAL TABLE tbl_post_search_terms USING fts4aux(tbl_post_search_fts)");
+
+        // remove a post from the index along with its docid
+        db.execSQL("CREATE TRIGGER tbl_post_search_delete AFTER DELETE ON tbl_post_search"
+                   + " BEGIN DELETE FROM tbl_post_search_fts WHERE docid = old.docid; END");
+    }
+
+    protected static void dropTables(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_search_terms");
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_search_fts");
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_search");
+    }
+
+    /*
+     * adds posts to the index or replaces their existing entries - the statements used to do
+     * this are compiled once, so use a single Indexer for a batch of posts and close it afterwards
+     */
+    static class Indexer {
+        private final SQLiteStatement mStmtGetDocId;
+        private final SQLiteStatement mStmtAddDocId;
+        private final SQLiteStatement mStmtDeleteFromIndex;
+        private final SQLiteStatement mStmtAddToIndex;
+
+        Indexer(@NonNull SQLiteDatabase db) {
+            mStmtGetDocId = db.compileStatement("SELECT docid FROM tbl_post_search WHERE pseudo_id=?1");
+            mStmtAddDocId = db.compileStatement("INSERT INTO tbl_post_search (pseudo_id) VALUES (?1)");
+            mStmtDeleteFromIndex = db.compileStatement("DELETE FROM tbl_post_search_fts WHERE docid=?1");
+            mStmtAddToIndex = db.compileStatement("INSERT INTO tbl_post_search_fts (docid,"
+                                                  + TextUtils.join(",", INDEX_COLUMNS)
+                                                  + ") VALUES (?1,?2,?3,?4,?5,?6)");
+        }
+
+        void index(@NonNull ReaderPost post) {
+            index(post.getPseudoId(), post.getTitle(), post.getExcerpt(), post.getText(), post.getBlogName(),
+                    post.getAuthorName());
+        }
+
+        void index(@NonNull String pseudoId,
+                   String title,
+                   String excerpt,
+                   String text,
+                   String blogName,
+                   String authorName) {
+            long docId;
+            mStmtGetDocId.bindString(1, pseudoId);
+            try {
+                docId = mStmtGetDocId.simpleQueryForLong();
+                mStmtDeleteFromIndex.bindLong(1, docId);
+                mStmtDeleteFromIndex.execute();
+            } catch (SQLiteDoneException e) {
+                mStmtAddDocId.bindString(1, pseudoId);
+                docId = mStmtAddDocId.executeInsert();
+            }
+
+            mStmtAddToIndex.bindLong(1, docId);
+            mStmtAddToIndex.bindString(2, StringUtils.notNullStr(title));
+            mStmtAddToIndex.bindString(3, stripHtml(excerpt));
+            mStmtAddToIndex.bindString(4, truncate(stripHtml(text), MAX_INDEXED_TEXT_LEN));
+            mStmtAddToIndex.bindString(5, StringUtils.notNullStr(blogName));
+            mStmtAddToIndex.bindString(6, StringUtils.notNullStr(authorName));
+            mStmtAddToIndex.execute();
+        }
+
+        void close() {
+            SqlUtils.closeStatement(mStmtGetDocId);
+            SqlUtils.closeStatement(mStmtAddDocId);
+            SqlUtils.closeStatement(mStmtDeleteFromIndex);
+            SqlUtils.closeStatement(mStmtAddToIndex);
+        }
+
+        private static String stripHtml(String html) {
+            return StringUtils.notNullStr(HtmlUtils.fastStripHtml(html));
+        }
+
+        private static String truncate(@NonNull String text, int maxLength) {
+            return text.length() > maxLength ? text.substring(0, maxLength) : text;
+        }
+    }
+
+    /*
+     * indexes up to maxPosts posts which were stored before the index existed in a single
+     * transaction, and returns the number indexed - the posts are read before any are indexed
+     * since indexing them changes which posts the query returns
+     */
+    protected static int indexUnindexedPosts(SQLiteDatabase db, int maxPosts) {
+        String sql = "SELECT pseudo_id, title, excerpt, text, blog_name, author_name FROM tbl_posts"
+                     + " WHERE pseudo_id NOT IN (SELECT pseudo_id FROM tbl_post_search)"
+                     + " GROUP BY pseudo_id LIMIT " + maxPosts;
+        db.beginTransaction();
+        try {
+            List<String[]> posts = new ArrayList<>();
+            Cursor c = db.rawQuery(sql, null);
+            try {
+                while (c.moveToNext()) {
+                    posts.add(new String[]{c.getString(0), c.getString(1), c.getString(2), c.getString(3),
+                            c.getString(4), c.getString(5)});
+                }
+            } finally {
+                SqlUtils.closeCursor(c);
+            }
+
+            Indexer indexer = new Indexer(db);
+            try {
+                for (String[] post : posts) {
+                    indexer.index(post[0], post[1], post[2], post[3], post[4], post[5]);
+                }
+            } finally {
+                indexer.close();
+            }
+            db.setTransactionSuccessful();
+            return posts.size();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /*
+     * returns the step which removes posts that no longer exist in tbl_posts from the index
+     */
+    protected static ReaderPurgeStep getPurgeStep() {
+        return new ReaderPurgeStep("tbl_post_search",
+                "NOT EXISTS (SELECT 1 FROM tbl_posts WHERE tbl_posts.pseudo_id = tbl_post_search.pseudo_id)", null);
+    }
+
+    /*
+     * returns the pseudo_ids of up to maxPosts indexed posts which contain every word in the passed
+     * query (the last of which may be partly typed), best matches first - posts are ranked by how
+     * often each word appears in each column, weighted by the column and by how rare the word is
+     */
+    @NonNull
+    public static List<String> getMatchingPseudoIds(@NonNull String query, int maxPosts) {
+        return getMatchingPseudoIds(ReaderDatabase.getReadableDb(), query, maxPosts);
+    }
+
+    @NonNull
+    protected static List<String> getMatchingPseudoIds(SQLiteDatabase db, @NonNull String query, int maxPosts) {
+        List<String> pseudoIds = new ArrayList<>();
+        String matchQuery = toMatchQuery(query);
+        if (TextUtils.isEmpty(matchQuery) || maxPosts <= 0) {
+            return pseudoIds;
+        }
+
+        String sql = "SELECT tbl_post_search.pseudo_id, matchinfo(tbl_post_search_fts, 'pcnx')"
+                     + " FROM tbl_post_search_fts"
+                     + " JOIN tbl_post_search ON tbl_post_search.docid = tbl_post_search_fts.docid"
+                     + " WHERE tbl_post_search_fts MATCH ?";
+        final List<String> matchIds = new ArrayList<>();
+        final List<Double> matchRanks = new ArrayList<>();
+        Cursor c = db.rawQuery(sql, new String[]{matchQuery});
+        try {
+            while (c.moveToNext()) {
+                matchIds.add(c.getString(0));
+                matchRanks.add(getRank(c.getBlob(1)));
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+
+        List<Integer> order = new ArrayList<>(matchIds.size());
+        for (int i = 0; i < matchIds.size(); i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer index1, Integer index2) {
+                return Double.compare(matchRanks.get(index2), matchRanks.get(index1));
+            }
+        });
+        for (int i = 0; i < Math.min(maxPosts, order.size()); i++) {
+            pseudoIds.add(matchIds.get(order.get(i)));
+        }
+        return pseudoIds;
+    }
+
+    /*
+     * returns the rank of a match from its matchinfo 'pcnx' blob, which is an array of 32-bit ints:
+     * the number of phrases, the number of columns, the number of indexed posts, then for each
+     * phrase and column the number of hits in this post, the number of hits in all posts and the
+     * number of posts with a hit
+     */
+    private static double getRank(byte[] matchInfo) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int numPhrases = buffer.getInt();
+        int numColumns = buffer.getInt();
+        int numPosts = buffer.getInt();
+        double rank = 0;
+        for (int phrase = 0; phrase < numPhrases; phrase++) {
+            for (int column = 0; column < numColumns; column++) {
+                int hitsInPost = buffer.getInt();
+                buffer.getInt(); // hits in all posts
+                int postsWithHits = buffer.getInt();
+                if (hitsInPost > 0 && column < INDEX_COLUMN_WEIGHTS.length) {
+                    double idf = Math.log(1.0 + (numPosts - postsWithHits + 0.5) / (postsWithHits + 0.5));
+                    rank += INDEX_COLUMN_WEIGHTS[column] * idf * (hitsInPost / (hitsInPost + 1.0));
+                }
+            }
+        }
+        return rank;
+    }
+
+    /*
+     * converts what the user typed into an FTS query which matches posts containing every word,
+     * treating each word as a prefix so results appear as the user types - punctuation is dropped
+     * so it can't be interpreted as query syntax
+     */
+    static String toMatchQuery(@NonNull String query) {
+        StringBuilder matchQuery = new StringBuilder();
+        for (String word : getWords(query)) {
+            if (matchQuery.length() > 0) {
+                matchQuery.append(' ');
+            }
+            matchQuery.append(word).append('*');
+        }
+        return matchQuery.toString();
+    }
+
+    private static List<String> getWords(@NonNull String query) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lowerQuery.length(); i++) {
+            char c = i < lowerQuery.length() ? lowerQuery.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /*
+     * returns up to max words from the index which start with the passed prefix, ordered by the
+     * number of posts they appear in
+     */
+    @NonNull
+    public static List<String> getTermSuggestions(@NonNull String prefix, int max) {
+        return getTermSuggestions(ReaderDatabase.getReadableDb(), prefix, max);
+    }
+
+    @NonNull
+    protected static List<String> getTermSuggestions(SQLiteDatabase db, @NonNull String prefix, int max) {
+        List<String> terms = new ArrayList<>();
+        List<String> words = getWords(prefix);
+        if (words.size() != 1 || max <= 0) {
+            return terms;
+        }
+
+        // fts4aux only supports range constraints on terms, so the prefix is matched as a range
+        String word = words.get(0);
+        String upperBound = word.substring(0, word.length() - 1) + (char) (word.charAt(word.length() - 1) + 1);
+        String sql = "SELECT term FROM tbl_post_search_terms WHERE col='*' AND term >= ? AND term < ?"
+                     + " ORDER BY documents DESC LIMIT " + max;
+        Cursor c = db.rawQuery(sql, new String[]{word, upperBound});
+        try {
+            while (c.moveToNext()) {
+                terms.add(c.getString(0));
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        return terms;
+    }
+}
@@ -2,11 +2,15 @@ package org.wordpress.android.datasets;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
 import android.database.sqlite.SQLiteStatement;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
@@ -20,11 +24,21 @@ import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
+import org.wordpress.android.ui.reader.models.ReaderPostChanges;
+import org.wordpress.android.ui.reader.models.ReaderPostPage;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.CrashLoggingUtils;
+import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * tbl_posts contains all reader posts - the primary key is pseudo_id + tag_name + tag_type,
@@ -79,7 +93,11 @@ public class ReaderPostTable {
             + "has_gap_marker," // 43
             + "card_type," // 44
             + "use_excerpt," // 45
-            + "is_bookmarked"; // 46
+            + "is_bookmarked," // 46
+            + "ts_published," // 47
+            + "ts_liked," // 48
+            + "ts_tagged," // 49
+            + "content_hash"; // 50
 
     // used when querying multiple rows and skipping text column
     private static final String COLUMN_NAMES_NO_TEXT =
@@ -177,13 +195,59 @@ public class ReaderPostTable {
                    + " card_type TEXT,"
                    + " use_excerpt INTEGER DEFAULT 0,"
                    + " is_bookmarked INTEGER DEFAULT 0,"
+                   + " ts_published INTEGER DEFAULT 0,"
+                   + " ts_liked INTEGER DEFAULT 0,"
+                   + " ts_tagged INTEGER DEFAULT 0,"
+                   + " content_hash INTEGER DEFAULT 0,"
                    + " PRIMARY KEY (pseudo_id, tag_name, tag_type)"
                    + ")");
 
         db.execSQL("CREATE INDEX idx_posts_post_id_blog_id ON tbl_posts(post_id, blog_id)");
-        db.execSQL("CREATE INDEX idx_posts_date_published ON tbl_posts(date_published)");
-        db.execSQL("CREATE INDEX idx_posts_date_tagged ON tbl_posts(date_tagged)");
-        db.execSQL("CREATE INDEX idx_posts_tag_name ON tbl_posts(tag_name)");
+        createTimestampIndexes(db);
+    }
+
+    /*
+     * streams are sorted by one of the ts_ columns (see getSortColumnForTag), so each of these
+     * is indexed along with the tag - blog_id & post_id are included so id-only stream queries
+     * are satisfied by the index alone. blog previews (tag_name='') sort by ts_published.
+     */
+    private static void createTimestampIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX idx_posts_tag_ts_published"
+                   + " ON tbl_posts(tag_name, tag_type, ts_published, blog_id, post_id)");
+        db.execSQL("CREATE INDEX idx_posts_tag_ts_liked"
+                   + " ON tbl_posts(tag_name, tag_type, ts_liked, blog_id, post_id)");
+        db.execSQL("CREATE INDEX idx_posts_tag_ts_tagged"
+                   + " ON tbl_posts(tag_name, tag_type, ts_tagged, blog_id, post_id)");
+        db.execSQL("CREATE INDEX idx_posts_blog_id_ts_published ON tbl_posts(blog_id, tag_name, ts_published)");
+        db.execSQL("CREATE INDEX idx_posts_feed_id_ts_published ON tbl_posts(feed_id, tag_name, ts_published)");
+    }
+
+    /*
+     * adds the epoch-millis timestamp columns which replace sorting on the iso8601 date columns,
+     * populating them from the existing dates - SQLite's strftime() understands iso8601 with
+     * a timezone offset and returns NULL for empty/invalid dates
+     */
+    protected static void addTimestampColumns(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE tbl_posts ADD ts_published INTEGER DEFAULT 0");
+        db.execSQL("ALTER TABLE tbl_posts ADD ts_liked INTEGER DEFAULT 0");
+        db.execSQL("ALTER TABLE tbl_posts ADD ts_tagged INTEGER DEFAULT 0");
+        db.execSQL("UPDATE tbl_posts SET"
+                   + " ts_published = IFNULL(CAST(strftime('%s', date_published) AS INTEGER) * 1000, 0),"
+                   + " ts_liked = IFNULL(CAST(strftime('%s', date_liked) AS INTEGER) * 1000, 0),"
+                   + " ts_tagged = IFNULL(CAST(strftime('%s', date_tagged) AS INTEGER) * 1000, 0)");
+
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_date_published");
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_date_tagged");
+        db.execSQL("DROP INDEX IF EXISTS idx_posts_tag_name");
+        createTimestampIndexes(db);
+    }
+
+    /*
+     * adds the column which stores ReaderPost.getContentHash() - existing rows are left with a hash of
+     * zero (unknown), so they're treated as changed and rewritten the next time they're retrieved
+     */
+    protected static void addContentHashColumn(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE tbl_posts ADD content_hash INTEGER DEFAULT 0");
     }
 
     protected static void dropTables(SQLiteDatabase db) {
@@ -196,24 +260,38 @@ public class ReaderPostTable {
     }
 
     /*
-     * purge table of unattached/older posts - no need to wrap this in a transaction since it's
-     * only called from ReaderDatabase.purge() which already creates a transaction
+     * returns the steps which purge unattached/older posts, which ReaderDatabasePurger runs a
+     * chunk at a time - these are run in order, so posts are purged in the same order as they
+     * would be if they were deleted all at once
      */
-    protected static int purge(SQLiteDatabase db) {
+    protected static List<ReaderPurgeStep> getPurgeSteps(SQLiteDatabase db) {
+        List<ReaderPurgeStep> steps = new ArrayList<>();
+
         // delete posts attached to tags that no longer exist
-        int numDeleted = db.delete("tbl_posts", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
+        steps.add(new ReaderPurgeStep("tbl_posts", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null));
 
         // delete excess posts on a per-tag basis
         ReaderTagList tags = ReaderTagTable.getAllTags();
         for (ReaderTag tag : tags) {
-            numDeleted += purgePostsForTag(db, tag);
+            ReaderPurgeStep step = getPurgeStepForTag(db, tag);
+            if (step != null) {
+                steps.add(step);
+            }
         }
 
-        numDeleted += purgeUnbookmarkedPostsWithBookmarkTag();
+        // delete posts which have a bookmark tag but are no longer bookmarked
+        for (ReaderTag tag : tags) {
+            if (tag.isBookmarked()) {
+                String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+                steps.add(new ReaderPurgeStep("tbl_posts", "tag_name=? AND tag_type=? AND is_bookmarked=0", args));
+            }
+        }
 
         // delete search results
-        numDeleted += purgeSearchResults(db);
-        return numDeleted;
+        String[] args = {Integer.toString(ReaderTagType.SEARCH.toInt())};
+        steps.add(new ReaderPurgeStep("tbl_posts", "tag_type=?", args));
+
+        return steps;
     }
 
     /**
@@ -234,34 +312,35 @@ public class ReaderPostTable {
         return numDeleted;
     }
 
-    /*
-     * purge excess posts in the passed tag
-     */
     private static final int MAX_POSTS_PER_TAG = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY;
 
-    private static int purgePostsForTag(SQLiteDatabase db, ReaderTag tag) {
-        int numPosts = getNumPostsWithTag(tag);
-        if (numPosts <= MAX_POSTS_PER_TAG) {
-            return 0;
-        }
-        String tagName = tag.getTagSlug();
-        String tagType = Integer.toString(tag.tagType.toInt());
-        String[] args = {tagName, tagType, tagName, tagType, Integer.toString(MAX_POSTS_PER_TAG)};
-        String where = "tag_name=? AND tag_type=? AND pseudo_id NOT IN (SELECT DISTINCT pseudo_id FROM tbl_posts WHERE "
-                       + "tag_name=? AND tag_type=? ORDER BY " + getSortColumnForTag(tag) + " DESC LIMIT ?)";
-        int numDeleted = db.delete("tbl_posts", where, args);
-        AppLog.d(AppLog.T.READER,
-                String.format(Locale.ENGLISH, "reader post table > purged %d posts in tag %s", numDeleted,
-                        tag.getTagNameForLog()));
-        return numDeleted;
-    }
-
     /*
-     * purge all posts that were retained from previous searches
+     * returns the step which purges excess posts in the passed tag, or null if it doesn't have
+     * any - rather than comparing every post with a list of the posts to keep, this finds the sort
+     * value of the oldest post to keep by its rank in the tag's timestamp index, and deletes the
+     * posts which sort before it. posts which share that sort value are all kept.
+     * <p>
+     * the oldest sort value is looked up by a subquery in the step's condition rather than being
+     * read and passed back as an arg, since args are bound as strings and a REAL score converted
+     * to a string may be rounded above the score it came from
      */
-    private static int purgeSearchResults(SQLiteDatabase db) {
-        String[] args = {Integer.toString(ReaderTagType.SEARCH.toInt())};
-        return db.delete("tbl_posts", "tag_type=?", args);
+    @Nullable
+    protected static ReaderPurgeStep getPurgeStepForTag(SQLiteDatabase db, ReaderTag tag) {
+        String sortColumn = getSortColumnForTag(tag);
+        String tagName = tag.getTagSlug();
+        String tagType = Integer.toString(tag.tagType.toInt());
+        String oldestSortValueSql = "SELECT " + sortColumn + " FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                                    + " ORDER BY " + sortColumn + " DESC LIMIT 1 OFFSET " + (MAX_POSTS_PER_TAG - 1);
+        // nothing to purge unless there are more posts than are kept
+        String[] tagArgs = {tagName, tagType};
+        String excessPostSql = "SELECT count(*) FROM (SELECT 1 FROM tbl_posts WHERE tag_name=? AND tag_type=?"
+                               + " LIMIT 1 OFFSET " + MAX_POSTS_PER_TAG + ")";
+        if (!SqlUtils.boolForQuery(db, excessPostSql, tagArgs)) {
+            return null;
+        }
+        String[] args = {tagName, tagType, tagName, tagType};
+        return new ReaderPurgeStep("tbl_posts",
+                "tag_name=? AND tag_type=? AND " + sortColumn + " < (" + oldestSortValueSql + ")", args);
     }
 
     public static int getNumPostsInBlog(long blogId) {
@@ -305,6 +384,7 @@ public class ReaderPostTable {
         values.put("is_followed", post.isFollowedByCurrentUser);
         values.put("is_comments_open", post.isCommentsOpen);
         values.put("use_excerpt", post.useExcerpt);
+        values.put("content_hash", 0);
         ReaderDatabase.getWritableDb().update(
                 "tbl_posts", values, "pseudo_id=?", new String[]{post.getPseudoId()});
 
@@ -377,45 +457,147 @@ public class ReaderPostTable {
                                      args);
     }
 
-    private static boolean postExistsForReaderTag(long blogId, long postId, ReaderTag readerTag) {
-        String[] args = {Long.toString(blogId), Long.toString(postId), readerTag.getTagSlug(),
-                Integer.toString(readerTag.tagType.toInt())};
-        return SqlUtils.boolForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT 1 FROM tbl_posts WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?",
-                args);
-    }
-
     /*
      * returns whether any of the passed posts are new or changed - used after posts are retrieved
      */
     public static ReaderActions.UpdateResult comparePosts(ReaderPostList posts) {
+        return getPostChanges(posts, null).getUpdateResult();
+    }
+
+    /*
+     * returns true if any posts in the passed list exist in this list for the given tag
+     */
+    public static boolean hasOverlap(ReaderPostList posts, ReaderTag tag) {
+        return getPostChanges(posts, tag).hasOverlapWithTag();
+    }
+
+    /*
+     * SQLite limits the number of variables in a statement to 999, so queries with a variable for
+     * each of a list of posts are run in chunks of this size
+     */
+    private static final int MAX_POSTS_PER_QUERY = 500;
+
+    /*
+     * splits the passed posts into new, changed and unchanged posts by comparing their content hash
+     * with the hashes stored for them, and checks whether any of them are stored with the passed tag -
+     * this reads only the ids and hashes of the stored posts, a chunk of posts at a time, rather than
+     * reading each stored post in full
+     */
+    public static ReaderPostChanges getPostChanges(@Nullable ReaderPostList posts, @Nullable ReaderTag tag) {
+        ReaderPostList newPosts = new ReaderPostList();
+        ReaderPostList changedPosts = new ReaderPostList();
+        ReaderPostList unchangedPosts = new ReaderPostList();
         if (posts == null || posts.size() == 0) {
-            return ReaderActions.UpdateResult.UNCHANGED;
+            return new ReaderPostChanges(newPosts, changedPosts, unchangedPosts, false);
         }
 
-        boolean hasChanges = false;
+        // a post may be stored more than once (once for each tag it's been retrieved with), so
+        // each post may have several stored hashes
+        Map<String, Set<Long>> storedHashes = new HashMap<>();
+        boolean hasOverlapWithTag = false;
+
+        // posts are queried by post_id alone, which may match posts in other blogs, so rows are
+        // only counted when they're for one of the passed posts
+        Set<String> postKeys = new HashSet<>(posts.size());
         for (ReaderPost post : posts) {
-            ReaderPost existingPost = getBlogPost(post.blogId, post.postId, true);
-            if (existingPost == null) {
-                return ReaderActions.UpdateResult.HAS_NEW;
-            } else if (!hasChanges && !post.isSamePost(existingPost)) {
-                hasChanges = true;
+            postKeys.add(getPostKey(post.blogId, post.postId));
+        }
+
+        String tagName = (tag != null ? tag.getTagSlug() : "");
+        String tagType = Integer.toString(tag != null ? tag.tagType.toInt() : 0);
+        String tagColumn = (tag != null ? "(tag_name=? AND tag_type=?)" : "0");
+        SQLiteDatabase db = ReaderDatabase.getReadableDb();
+        for (int start = 0; start < posts.size(); start += MAX_POSTS_PER_QUERY) {
+            List<ReaderPost> chunk = posts.subList(start, Math.min(start + MAX_POSTS_PER_QUERY, posts.size()));
+            List<String> args = new ArrayList<>(chunk.size() + 2);
+            if (tag != null) {
+                args.add(tagName);
+                args.add(tagType);
+            }
+            for (ReaderPost post : chunk) {
+                args.add(Long.toString(post.postId));
+            }
+            String sql = "SELECT blog_id, post_id, content_hash, " + tagColumn + " FROM tbl_posts"
+                         + " WHERE post_id IN (" + getPlaceholders(chunk.size()) + ")";
+            Cursor c = db.rawQuery(sql, args.toArray(new String[0]));
+            try {
+                while (c.moveToNext()) {
+                    String key = getPostKey(c.getLong(0), c.getLong(1));
+                    if (!postKeys.contains(key)) {
+                        continue;
+                    }
+                    Set<Long> hashes = storedHashes.get(key);
+                    if (hashes == null) {
+                        hashes = new HashSet<>();
+                        storedHashes.put(key, hashes);
+                    }
+                    hashes.add(c.getLong(2));
+                    if (c.getInt(3) != 0) {
+                        hasOverlapWithTag = true;
+                    }
+                }
+            } finally {
+                SqlUtils.closeCursor(c);
+            }
+        }
+
+        for (ReaderPost post : posts) {
+            Set<Long> hashes = storedHashes.get(getPostKey(post.blogId, post.postId));
+            if (hashes == null) {
+                newPosts.add(post);
+            } else if (hashes.contains(post.getContentHash())) {
+                unchangedPosts.add(post);
+            } else {
+                changedPosts.add(post);
             }
         }
 
-        return (hasChanges ? ReaderActions.UpdateResult.CHANGED : ReaderActions.UpdateResult.UNCHANGED);
+        return new ReaderPostChanges(newPosts, changedPosts, unchangedPosts, hasOverlapWithTag);
     }
 
     /*
-     * returns true if any posts in the passed list exist in this list for the given tag
+     * returns the content hashes stored for the passed posts with the passed tag, keyed by pseudo_id
      */
-    public static boolean hasOverlap(ReaderPostList posts, ReaderTag tag) {
-        for (ReaderPost post : posts) {
-            if (postExistsForReaderTag(post.blogId, post.postId, tag)) {
-                return true;
+    private static Map<String, Long> getStoredContentHashesForTag(@NonNull SQLiteDatabase db,
+                                                                  @NonNull String tagName,
+                                                                  int tagType,
+                                                                  @NonNull ReaderPostList posts) {
+        Map<String, Long> storedHashes = new HashMap<>();
+        for (int start = 0; start < posts.size(); start += MAX_POSTS_PER_QUERY) {
+            List<ReaderPost> chunk = posts.subList(start, Math.min(start + MAX_POSTS_PER_QUERY, posts.size()));
+            List<String> args = new ArrayList<>(chunk.size() + 2);
+            args.add(tagName);
+            args.add(Integer.toString(tagType));
+            for (ReaderPost post : chunk) {
+                args.add(post.getPseudoId());
             }
+            String sql = "SELECT pseudo_id, content_hash FROM tbl_posts"
+                         + " WHERE tag_name=? AND tag_type=? AND pseudo_id IN (" + getPlaceholders(chunk.size()) + ")";
+            Cursor c = db.rawQuery(sql, args.toArray(new String[0]));
+            try {
+                while (c.moveToNext()) {
+                    storedHashes.put(c.getString(0), c.getLong(1));
+                }
+            } finally {
+                SqlUtils.closeCursor(c);
+            }
+        }
+        return storedHashes;
+    }
+
+    private static String getPlaceholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
         }
-        return false;
+        return sb.toString();
+    }
+
+    private static String getPostKey(long blogId, long postId) {
+        return blogId + ":" + postId;
     }
 
     /*
@@ -499,6 +681,8 @@ public class ReaderPostTable {
     }
 
     private static void update(long blogId, long postId, ContentValues values) {
+        // the stored hash no longer matches the row
+        values.put("content_hash", 0);
         String[] args = {Long.toString(blogId), Long.toString(postId)};
         ReaderDatabase.getWritableDb().update(
                 "tbl_posts",
@@ -558,7 +742,7 @@ public class ReaderPostTable {
      */
     public static void updateFollowedStatus() {
         SQLiteStatement statement = ReaderDatabase.getWritableDb().compileStatement(
-                "UPDATE tbl_posts SET is_followed = 0"
+                "UPDATE tbl_posts SET is_followed = 0, content_hash = 0"
                 + " WHERE is_followed != 0"
                 + " AND blog_id NOT IN (SELECT DISTINCT blog_id FROM tbl_blog_info WHERE is_followed != 0)");
         try {
@@ -580,11 +764,10 @@ public class ReaderPostTable {
             return "";
         }
 
-        // date field depends on the tag
-        String dateColumn = getSortColumnForTag(tag);
-        String sql = "SELECT " + dateColumn + " FROM tbl_posts"
+        // date field depends on the tag, sort on its timestamp column so the index is used
+        String sql = "SELECT " + getDateColumnForTag(tag) + " FROM tbl_posts"
                      + " WHERE tag_name=? AND tag_type=?"
-                     + " ORDER BY " + dateColumn + " LIMIT 1";
+                     + " ORDER BY " + getSortColumnForTag(tag) + " LIMIT 1";
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, args);
     }
@@ -595,14 +778,14 @@ public class ReaderPostTable {
     public static String getOldestPubDateInBlog(long blogId) {
         String sql = "SELECT date_published FROM tbl_posts"
                      + " WHERE blog_id=? AND tag_name=''"
-                     + " ORDER BY date_published LIMIT 1";
+                     + " ORDER BY ts_published LIMIT 1";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, new String[]{Long.toString(blogId)});
     }
 
     public static String getOldestPubDateInFeed(long feedId) {
         String sql = "SELECT date_published FROM tbl_posts"
                      + " WHERE feed_id=? AND tag_name=''"
-                     + " ORDER BY date_published LIMIT 1";
+                     + " ORDER BY ts_published LIMIT 1";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, new String[]{Long.toString(feedId)});
     }
 
@@ -662,12 +845,32 @@ public class ReaderPostTable {
             return null;
         }
 
-        String dateColumn = getSortColumnForTag(tag);
+        String dateColumn = getDateColumnForTag(tag);
         String[] args = {Long.toString(ids.getBlogId()), Long.toString(ids.getPostId())};
         String sql = "SELECT " + dateColumn + " FROM tbl_posts WHERE blog_id=? AND post_id=?";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, args);
     }
 
+    /*
+     * returns the sort value (timestamp or score) of the post with the gap marker in the passed tag
+     */
+    private static String getGapMarkerSortValueForTag(ReaderTag tag) {
+        ReaderBlogIdPostId ids = getGapMarkerIdsForTag(tag);
+        if (ids == null) {
+            return null;
+        }
+
+        String[] args = {
+                Long.toString(ids.getBlogId()),
+                Long.toString(ids.getPostId()),
+                tag.getTagSlug(),
+                Integer.toString(tag.tagType.toInt())
+        };
+        String sql = "SELECT " + getSortColumnForTag(tag) + " FROM tbl_posts"
+                     + " WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?";
+        return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, args);
+    }
+
     /*
      * the column posts are sorted by depends on the type of tag stream being displayed:
      *
@@ -675,14 +878,30 @@ public class ReaderPostTable {
      * followed posts sort by the date the post was published
      * search results sort by score
      * tagged posts sort by the date the post was tagged
+     *
+     * dates are sorted using their epoch-millis ts_ columns rather than the iso8601 strings
      */
     private static String getSortColumnForTag(ReaderTag tag) {
         if (tag.isPostsILike()) {
-            return "date_liked";
+            return "ts_liked";
         } else if (tag.isFollowedSites()) {
-            return "date_published";
+            return "ts_published";
         } else if (tag.tagType == ReaderTagType.SEARCH) {
             return "score";
+        } else if (tag.isTagTopic() || tag.isBookmarked()) {
+            return "ts_tagged";
+        } else {
+            return "ts_published";
+        }
+    }
+
+    /*
+     * returns the iso8601 date column that corresponds to the sort column for the passed tag,
+     * used when a date must be passed to the server
+     */
+    private static String getDateColumnForTag(ReaderTag tag) {
+        if (tag.isPostsILike()) {
+            return "date_liked";
         } else if (tag.isTagTopic() || tag.isBookmarked()) {
             return "date_tagged";
         } else {
@@ -696,14 +915,14 @@ public class ReaderPostTable {
      * be cleaned up by the next purge
      */
     public static void deletePostsBeforeGapMarkerForTag(ReaderTag tag) {
-        String gapMarkerDate = getGapMarkerDateForTag(tag);
-        if (TextUtils.isEmpty(gapMarkerDate)) {
+        String gapMarkerSortValue = getGapMarkerSortValueForTag(tag);
+        if (TextUtils.isEmpty(gapMarkerSortValue)) {
             return;
         }
 
-        String dateColumn = getSortColumnForTag(tag);
-        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt()), gapMarkerDate};
-        String where = "tag_name=? AND tag_type=? AND " + dateColumn + " < ?";
+        String sortColumn = getSortColumnForTag(tag);
+        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt()), gapMarkerSortValue};
+        String where = "tag_name=? AND tag_type=? AND " + sortColumn + " < ?";
         int numDeleted = ReaderDatabase.getWritableDb().delete("tbl_posts", where, args);
         if (numDeleted > 0) {
             AppLog.d(AppLog.T.READER, "removed " + numDeleted + " posts older than gap marker");
@@ -728,11 +947,11 @@ public class ReaderPostTable {
         try {
             if (blogId != 0) {
                 String sql = "UPDATE tbl_posts SET is_followed=" + SqlUtils.boolToSql(isFollowed)
-                             + " WHERE blog_id=?";
+                             + ", content_hash=0 WHERE blog_id=?";
                 db.execSQL(sql, new String[]{Long.toString(blogId)});
             } else {
                 String sql = "UPDATE tbl_posts SET is_followed=" + SqlUtils.boolToSql(isFollowed)
-                             + " WHERE feed_id=?";
+                             + ", content_hash=0 WHERE feed_id=?";
                 db.execSQL(sql, new String[]{Long.toString(feedId)});
             }
 
@@ -794,7 +1013,13 @@ public class ReaderPostTable {
                 "INSERT OR REPLACE INTO tbl_posts ("
                 + COLUMN_NAMES
                 + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18,?19,?20,?21,?22,?23,?24,"
-                + "?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,?39,?40,?41,?42,?43,?44, ?45, ?46)");
+                + "?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,?39,?40,?41,?42,?43,?44,?45,?46,?47,?48,"
+                + "?49,?50)");
+        // the railcar isn't part of the content hash since it changes with every request, so it's
+        // still updated for posts which are otherwise unchanged
+        SQLiteStatement stmtRailcar = db.compileStatement(
+                "UPDATE tbl_posts SET railcar_json=?1 WHERE pseudo_id=?2 AND tag_name=?3 AND tag_type=?4");
+        ReaderPostSearchTable.Indexer indexer = new ReaderPostSearchTable.Indexer(db);
 
         db.beginTransaction();
         try {
@@ -803,7 +1028,23 @@ public class ReaderPostTable {
 
             ReaderBlogIdPostId postWithGapMarker = getGapMarkerIdsForTag(tag);
 
+            // posts which are already stored with this tag and haven't changed don't need to be written again
+            Map<String, Long> storedHashes = getStoredContentHashesForTag(db, tagName, tagType, posts);
+            int numUnchanged = 0;
+
             for (ReaderPost post : posts) {
+                long contentHash = post.getContentHash();
+                Long storedHash = storedHashes.get(post.getPseudoId());
+                if (storedHash != null && storedHash == contentHash) {
+                    stmtRailcar.bindString(1, post.getRailcarJson());
+                    stmtRailcar.bindString(2, post.getPseudoId());
+                    stmtRailcar.bindString(3, tagName);
+                    stmtRailcar.bindLong(4, tagType);
+                    stmtRailcar.execute();
+                    numUnchanged++;
+                    continue;
+                }
+
                 // keep the gapMarker flag
                 boolean hasGapMarker = postWithGapMarker != null && postWithGapMarker.getPostId() == post.postId
                                        && postWithGapMarker.getBlogId() == post.blogId;
@@ -853,16 +1094,44 @@ public class ReaderPostTable {
                 stmtPosts.bindString(44, ReaderCardType.toString(post.getCardType()));
                 stmtPosts.bindLong(45, SqlUtils.boolToSql(post.useExcerpt));
                 stmtPosts.bindLong(46, SqlUtils.boolToSql(post.isBookmarked));
+                stmtPosts.bindLong(47, DateTimeUtils.timestampFromIso8601Millis(post.getDatePublished()));
+                stmtPosts.bindLong(48, DateTimeUtils.timestampFromIso8601Millis(post.getDateLiked()));
+                stmtPosts.bindLong(49, DateTimeUtils.timestampFromIso8601Millis(post.getDateTagged()));
+                stmtPosts.bindLong(50, contentHash);
                 stmtPosts.execute();
+                indexer.index(post);
+            }
+
+            if (numUnchanged > 0) {
+                AppLog.d(AppLog.T.READER, String.format(Locale.ENGLISH,
+                        "reader post table > skipped %d unchanged posts", numUnchanged));
             }
 
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
             SqlUtils.closeStatement(stmtPosts);
+            SqlUtils.closeStatement(stmtRailcar);
+            indexer.close();
         }
     }
 
+    /*
+     * returns up to maxPosts stored posts which match the passed search query, best matches first,
+     * using the full-text index in ReaderPostSearchTable
+     */
+    public static ReaderPostList getPostsMatchingQuery(@NonNull String query, int maxPosts) {
+        ReaderPostList posts = new ReaderPostList();
+        for (String pseudoId : ReaderPostSearchTable.getMatchingPseudoIds(query, maxPosts)) {
+            // the index may include posts which have since been deleted, so these are skipped
+            ReaderPost post = getPost("pseudo_id=?", new String[]{pseudoId}, false);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
     public static ReaderPostList getPostsWithTag(ReaderTag tag, int maxPosts, boolean excludeTextColumn) {
         if (tag == null) {
             return new ReaderPostList();
@@ -899,7 +1168,7 @@ public class ReaderPostTable {
     public static ReaderPostList getPostsInBlog(long blogId, int maxPosts, boolean excludeTextColumn) {
         String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
         String sql =
-                "SELECT " + columns + " FROM tbl_posts WHERE blog_id=? AND tag_name='' ORDER BY date_published DESC";
+                "SELECT " + columns + " FROM tbl_posts WHERE blog_id=? AND tag_name='' ORDER BY ts_published DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
@@ -916,7 +1185,7 @@ public class ReaderPostTable {
     public static ReaderPostList getPostsInFeed(long feedId, int maxPosts, boolean excludeTextColumn) {
         String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
         String sql =
-                "SELECT " + columns + " FROM tbl_posts WHERE feed_id=? AND tag_name='' ORDER BY date_published DESC";
+                "SELECT " + columns + " FROM tbl_posts WHERE feed_id=? AND tag_name='' ORDER BY ts_published DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
@@ -930,6 +1199,126 @@ public class ReaderPostTable {
         }
     }
 
+    /*
+     * keyset-paginated versions of getPostsWithTag/InBlog/InFeed - each returns the page of posts
+     * that follows the passed page (or the first page if afterPage is null), so long streams can
+     * be read incrementally without re-reading the rows before them
+     */
+    public static ReaderPostPage getPostPageWithTag(ReaderTag tag,
+                                                    @Nullable ReaderPostPage afterPage,
+                                                    int pageSize,
+                                                    boolean excludeTextColumn) {
+        return getPostPageWithTag(ReaderDatabase.getReadableDb(), tag, afterPage, pageSize, excludeTextColumn);
+    }
+
+    static ReaderPostPage getPostPageWithTag(@NonNull SQLiteDatabase db,
+                                             ReaderTag tag,
+                                             @Nullable ReaderPostPage afterPage,
+                                             int pageSize,
+                                             boolean excludeTextColumn) {
+        if (tag == null) {
+            return new ReaderPostPage(new ReaderPostList(), 0, null, false);
+        }
+
+        String where = "tag_name=? AND tag_type=?";
+        if (tag.tagType == ReaderTagType.DEFAULT) {
+            if (tag.isPostsILike()) {
+                where += " AND is_liked != 0";
+            } else if (tag.isFollowedSites()) {
+                where += " AND is_followed != 0";
+            }
+        }
+
+        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        return getPostPage(db, where, args, getSortColumnForTag(tag), afterPage, pageSize, excludeTextColumn);
+    }
+
+    public static ReaderPostPage getPostPageInBlog(long blogId,
+                                                   @Nullable ReaderPostPage afterPage,
+                                                   int pageSize,
+                                                   boolean excludeTextColumn) {
+        String[] args = {Long.toString(blogId)};
+        return getPostPage(ReaderDatabase.getReadableDb(), "blog_id=? AND tag_name=''", args, "ts_published",
+                afterPage, pageSize, excludeTextColumn);
+    }
+
+    public static ReaderPostPage getPostPageInFeed(long feedId,
+                                                   @Nullable ReaderPostPage afterPage,
+                                                   int pageSize,
+                                                   boolean excludeTextColumn) {
+        String[] args = {Long.toString(feedId)};
+        return getPostPage(ReaderDatabase.getReadableDb(), "feed_id=? AND tag_name=''", args, "ts_published",
+                afterPage, pageSize, excludeTextColumn);
+    }
+
+    /*
+     * posts are ordered by the sort column then by pseudo_id, which is unique within a stream, so
+     * the (sort value, pseudo_id) of the last row in a page identifies exactly where the next page
+     * starts even when several posts share the same timestamp or score - one extra row is read to
+     * tell whether any posts follow the page.
+     * <p>
+     * the sort value is read and bound as a double rather than a string, since a REAL score
+     * converted to a string may not compare equal to the stored value
+     */
+    private static ReaderPostPage getPostPage(@NonNull SQLiteDatabase db,
+                                              @NonNull String where,
+                                              @NonNull String[] whereArgs,
+                                              @NonNull String sortColumn,
+                                              @Nullable ReaderPostPage afterPage,
+                                              int pageSize,
+                                              boolean excludeTextColumn) {
+        List<String> args = new ArrayList<>(Arrays.asList(whereArgs));
+        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
+        String sql = "SELECT " + columns + ", " + sortColumn + " AS sort_value FROM tbl_posts WHERE " + where;
+
+        SQLiteDatabase.CursorFactory cursorFactory = null;
+        if (afterPage != null && afterPage.getLastPseudoId() != null) {
+            sql += " AND (" + sortColumn + " < ? OR (" + sortColumn + " = ? AND pseudo_id < ?))";
+            // rawQuery() binds every arg as a string, so the sort value args are placeholders
+            // which the cursor factory re-binds as doubles
+            final int sortValueArgIndex = args.size() + 1;
+            final double afterSortValue = afterPage.getLastSortValue();
+            args.add("");
+            args.add("");
+            args.add(afterPage.getLastPseudoId());
+            cursorFactory = new SQLiteDatabase.CursorFactory() {
+                @Override
+                public Cursor newCursor(SQLiteDatabase database, SQLiteCursorDriver driver, String editTable,
+                                        SQLiteQuery query) {
+                    query.bindDouble(sortValueArgIndex, afterSortValue);
+                    query.bindDouble(sortValueArgIndex + 1, afterSortValue);
+                    return new SQLiteCursor(driver, editTable, query);
+                }
+            };
+        }
+
+        sql += " ORDER BY " + sortColumn + " DESC, pseudo_id DESC LIMIT " + Integer.toString(pageSize + 1);
+
+        ReaderPostList posts = new ReaderPostList();
+        double lastSortValue = 0;
+        boolean hasMore = false;
+        Cursor cursor = db.rawQueryWithFactory(cursorFactory, sql, args.toArray(new String[0]), null);
+        try {
+            int idxSortValue = cursor.getColumnIndex("sort_value");
+            while (cursor.moveToNext()) {
+                if (posts.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                posts.add(getPostFromCursor(cursor));
+                lastSortValue = cursor.getDouble(idxSortValue);
+            }
+        } catch (IllegalStateException e) {
+            CrashLoggingUtils.log(e);
+            AppLog.e(AppLog.T.READER, e);
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+
+        String lastPseudoId = posts.isEmpty() ? null : posts.get(posts.size() - 1).getPseudoId();
+        return new ReaderPostPage(posts, lastSortValue, lastPseudoId, hasMore);
+    }
+
     /*
      * same as getPostsWithTag() but only returns the blogId/postId pairs
      */
@@ -992,7 +1381,7 @@ public class ReaderPostTable {
      * same as getPostsInBlog() but only returns the blogId/postId pairs
      */
     public static ReaderBlogIdPostIdList getBlogIdPostIdsInBlog(long blogId, int maxPosts) {
-        String sql = "SELECT post_id FROM tbl_posts WHERE blog_id=? AND tag_name='' ORDER BY date_published DESC";
+        String sql = "SELECT post_id FROM tbl_posts WHERE blog_id=? AND tag_name='' ORDER BY ts_published DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + Integer.toString(maxPosts);
@@ -0,0 +1,106 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.SqlUtils;
+
+/**
+ * deletes the rows in a reader table which match a condition, a chunk of rows at a time so the
+ * database is never locked for long - rows are visited in rowid order starting after the last row
+ * examined by the previous chunk, so each row is only examined once however many chunks it takes
+ */
+class ReaderPurgeStep {
+    private final String mTable;
+    private final String mWhere;
+    private final String[] mWhereArgs;
+
+    private long mLastRowId;
+    private boolean mIsDone;
+
+    private int mNumDeleted;
+    private int mNumChunks;
+    private long mElapsedMs;
+
+    /*
+     * where is the condition rows must match to be deleted - it may refer to columns in the
+     * table using the table's name, ex: tbl_comments.post_id
+     */
+    ReaderPurgeStep(@NonNull String table, @NonNull String where, @Nullable String[] whereArgs) {
+        mTable = table;
+        mWhere = where;
+        mWhereArgs = whereArgs;
+    }
+
+    /*
+     * deletes up to maxRows matching rows in a single transaction and returns the number deleted,
+     * after which isDone() returns true if there are no more matching rows
+     */
+    int purgeChunk(@NonNull SQLiteDatabase db, int maxRows) {
+        if (mIsDone) {
+            return 0;
+        }
+
+        long startTime = SystemClock.elapsedRealtime();
+        int numFound = 0;
+        int numDeleted = 0;
+        db.beginTransaction();
+        try {
+            StringBuilder rowIds = new StringBuilder();
+            String sql = "SELECT rowid FROM " + mTable
+                         + " WHERE rowid > " + mLastRowId + " AND (" + mWhere + ")"
+                         + " ORDER BY rowid LIMIT " + maxRows;
+            Cursor c = db.rawQuery(sql, mWhereArgs);
+            try {
+                while (c.moveToNext()) {
+                    mLastRowId = c.getLong(0);
+                    if (numFound > 0) {
+                        rowIds.append(',');
+                    }
+                    rowIds.append(mLastRowId);
+                    numFound++;
+                }
+            } finally {
+                SqlUtils.closeCursor(c);
+            }
+
+            if (numFound > 0) {
+                numDeleted = db.delete(mTable, "rowid IN (" + rowIds + ")", null);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        mIsDone = numFound < maxRows;
+        mNumDeleted += numDeleted;
+        mNumChunks++;
+        mElapsedMs += SystemClock.elapsedRealtime() - startTime;
+        return numDeleted;
+    }
+
+    boolean isDone() {
+        return mIsDone;
+    }
+
+    @NonNull
+    String getTable() {
+        return mTable;
+    }
+
+    int getNumDeleted() {
+        return mNumDeleted;
+    }
+
+    int getNumChunks() {
+        return mNumChunks;
+    }
+
+    long getElapsedMs() {
+        return mElapsedMs;
+    }
+}
@@ -22,10 +22,12 @@ public class ReaderThumbnailTable {
     }
 
     /*
-     * purge table of thumbnails attached to posts that no longer exist
+     * purge table of thumbnails attached to posts that no longer exist - thumbnails aren't stored
+     * with their blog_id, so only the post_id half of the posts index can be used
      */
-    protected static int purge(SQLiteDatabase db) {
-        return db.delete("tbl_thumbnails", "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_posts)", null);
+    protected static ReaderPurgeStep getPurgeStep() {
+        return new ReaderPurgeStep("tbl_thumbnails",
+                "NOT EXISTS (SELECT 1 FROM tbl_posts WHERE tbl_posts.post_id = tbl_thumbnails.post_id)", null);
     }
 
     public static void addThumbnail(long postId, String fullUrl, String thumbnailUrl) {
@@ -52,6 +52,11 @@ public class Note {
     private JSONObject mNoteJSON;
     private final String mKey;
 
+    // notes read from the db keep their JSON as a string until it's needed, and use the stored
+    // summary for the fields shown in the notifications list
+    private String mRawNoteData;
+    private final Summary mSummary;
+
     private final Object mSyncLock = new Object();
     private String mLocalStatus;
 
@@ -71,18 +76,155 @@ public class Note {
         GROUP_OLDER_MONTH
     }
 
+    /**
+     * The fields of a note shown in the notifications list, which NotificationsTable stores in their
+     * own columns so the list can be shown without parsing the JSON of every note
+     */
+    public static class Summary {
+        private String mType;
+        private String mTimestampString;
+        private long mTimestamp;
+        private boolean mIsUnread;
+        private boolean mIsComment;
+        private String mIconUrl;
+        private String mNoticon;
+        private String mSubject;
+        private String mCommentSubject;
+        private String mCommentSubjectNoticon;
+        private String mCommentStatus;
+        private int mSiteId;
+        private int mPostId;
+        private long mCommentId;
+        private long mParentCommentId;
+        private int mJSONLength;
+
+        public void setType(String type) {
+            mType = StringUtils.notNullStr(type);
+        }
+
+        public void setTimestampString(String timestampString) {
+            mTimestampString = StringUtils.notNullStr(timestampString);
+        }
+
+        public void setTimestamp(long timestamp) {
+            mTimestamp = timestamp;
+        }
+
+        public void setIsUnread(boolean isUnread) {
+            mIsUnread = isUnread;
+        }
+
+        public void setIsComment(boolean isComment) {
+            mIsComment = isComment;
+        }
+
+        public void setIconUrl(String iconUrl) {
+            mIconUrl = StringUtils.notNullStr(iconUrl);
+        }
+
+        public void setNoticon(String noticon) {
+            mNoticon = StringUtils.notNullStr(noticon);
+        }
+
+        public void setSubject(String subject) {
+            mSubject = subject;
+        }
+
+        public void setCommentSubject(String commentSubject) {
+            mCommentSubject = StringUtils.notNullStr(commentSubject);
+        }
+
+        public void setCommentSubjectNoticon(String commentSubjectNoticon) {
+            mCommentSubjectNoticon = StringUtils.notNullStr(commentSubjectNoticon);
+        }
+
+        public void setCommentStatus(String commentStatus) {
+            mCommentStatus = StringUtils.notNullStr(commentStatus);
+        }
+
+        public void setSiteId(int siteId) {
+            mSiteId = siteId;
+        }
+
+        public void setPostId(int postId) {
+            mPostId = postId;
+        }
+
+        public void setCommentId(long commentId) {
+            mCommentId = commentId;
+        }
+
+        public void setParentCommentId(long parentCommentId) {
+            mParentCommentId = parentCommentId;
+        }
+
+        public void setJSONLength(int jsonLength) {
+            mJSONLength = jsonLength;
+        }
+    }
+
     public Note(String key, JSONObject noteJSON) {
         mKey = key;
         mNoteJSON = noteJSON;
+        mSummary = null;
     }
 
     public Note(JSONObject noteJSON) {
         mNoteJSON = noteJSON;
         mKey = mNoteJSON.optString("id", "");
+        mSummary = null;
+    }
+
+    /**
+     * Creates a note from its stored summary and JSON string, which is only parsed if a field that
+     * isn't in the summary is requested (ex: when the note's detail is shown)
+     */
+    public Note(String key, String rawNoteData, Summary summary) {
+        mKey = key;
+        mRawNoteData = rawNoteData;
+        mSummary = summary;
     }
 
     public JSONObject getJSON() {
-        return mNoteJSON != null ? mNoteJSON : new JSONObject();
+        JSONObject noteJSON = getNoteJSON();
+        return noteJSON != null ? noteJSON : new JSONObject();
+    }
+
+    /**
+     * Returns the note's JSON as a string, without parsing it if it hasn't been parsed yet
+     */
+    public String getRawNoteData() {
+        synchronized (mSyncLock) {
+            if (mNoteJSON == null && mRawNoteData != null) {
+                return mRawNoteData;
+            }
+        }
+        return getJSON().toString();
+    }
+
+    /**
+     * Returns the number of fields in the note's JSON, used to tell whether a note has changed
+     */
+    public int getJSONLength() {
+        if (mSummary != null) {
+            return mSummary.mJSONLength;
+        }
+        return getJSON().length();
+    }
+
+    private JSONObject getNoteJSON() {
+        synchronized (mSyncLock) {
+            if (mNoteJSON == null && mRawNoteData != null) {
+                try {
+                    mNoteJSON = new JSONObject(mRawNoteData);
+                } catch (JSONException e) {
+                    AppLog.e(AppLog.T.NOTIFS, "Can't parse notification with noteId:" + mKey, e);
+                    mNoteJSON = new JSONObject();
+                }
+                mRawNoteData = null;
+            }
+            return mNoteJSON;
+        }
     }
 
     public String getId() {
@@ -90,6 +232,9 @@ public class Note {
     }
 
     public String getType() {
+        if (mSummary != null) {
+            return mSummary.mType;
+        }
         return queryJSON("type", NOTE_UNKNOWN_TYPE);
     }
 
@@ -98,10 +243,11 @@ public class Note {
     }
 
     public Boolean isCommentType() {
-        synchronized (mSyncLock) {
-            return (isAutomattcherType() && JSONUtils.queryJSON(mNoteJSON, "meta.ids.comment", -1) != -1)
-                   || isType(NOTE_COMMENT_TYPE);
+        if (mSummary != null) {
+            return mSummary.mIsComment;
         }
+        return (isAutomattcherType() && queryJSON("meta.ids.comment", -1) != -1)
+               || isType(NOTE_COMMENT_TYPE);
     }
 
     public Boolean isAutomattcherType() {
@@ -183,8 +329,11 @@ public class Note {
 
     public JSONObject getSubject() {
         try {
+            if (mSummary != null) {
+                return mSummary.mSubject != null ? new JSONObject(mSummary.mSubject) : null;
+            }
             synchronized (mSyncLock) {
-                JSONArray subjectArray = mNoteJSON.getJSONArray("subject");
+                JSONArray subjectArray = getJSON().getJSONArray("subject");
                 if (subjectArray.length() > 0) {
                     return subjectArray.getJSONObject(0);
                 }
@@ -205,12 +354,18 @@ public class Note {
     }
 
     public String getIconURL() {
+        if (mSummary != null) {
+            return mSummary.mIconUrl;
+        }
         return queryJSON("icon", "");
     }
 
     public String getCommentSubject() {
+        if (mSummary != null) {
+            return mSummary.mCommentSubject;
+        }
         synchronized (mSyncLock) {
-            JSONArray subjectArray = mNoteJSON.optJSONArray("subject");
+            JSONArray subjectArray = getJSON().optJSONArray("subject");
             if (subjectArray != null) {
                 String commentSubject = JSONUtils.queryJSON(subjectArray, "subject[1].text", "");
 
@@ -227,6 +382,9 @@ public class Note {
     }
 
     public String getCommentSubjectNoticon() {
+        if (mSummary != null) {
+            return mSummary.mCommentSubjectNoticon;
+        }
         JSONArray subjectRanges = queryJSON("subject[0].ranges", new JSONArray());
         if (subjectRanges != null) {
             for (int i = 0; i < subjectRanges.length(); i++) {
@@ -284,14 +442,24 @@ public class Note {
     }
 
     private Boolean isRead() {
+        if (mSummary != null) {
+            synchronized (mSyncLock) {
+                return !mSummary.mIsUnread;
+            }
+        }
         return queryJSON("read", 0) == 1;
     }
 
     public void setRead() {
-        try {
-            mNoteJSON.putOpt("read", 1);
-        } catch (JSONException e) {
-            AppLog.e(AppLog.T.NOTIFS, "Failed to set 'read' property", e);
+        synchronized (mSyncLock) {
+            try {
+                getJSON().putOpt("read", 1);
+            } catch (JSONException e) {
+                AppLog.e(AppLog.T.NOTIFS, "Failed to set 'read' property", e);
+            }
+            if (mSummary != null) {
+                mSummary.mIsUnread = false;
+            }
         }
     }
 
@@ -299,17 +467,23 @@ public class Note {
      * Get the timestamp provided by the API for the note
      */
     public long getTimestamp() {
+        if (mSummary != null) {
+            return mSummary.mTimestamp;
+        }
         return DateTimeUtils.timestampFromIso8601(getTimestampString());
     }
 
     public String getTimestampString() {
+        if (mSummary != null) {
+            return mSummary.mTimestampString;
+        }
         return queryJSON("timestamp", "");
     }
 
     public JSONArray getBody() {
         try {
             synchronized (mSyncLock) {
-                return mNoteJSON.getJSONArray("body");
+                return getJSON().getJSONArray("body");
             }
         } catch (JSONException e) {
             return new JSONArray();
@@ -318,6 +492,9 @@ public class Note {
 
     // returns character code for notification font
     public String getNoticonCharacter() {
+        if (mSummary != null) {
+            return mSummary.mNoticon;
+        }
         return queryJSON("noticon", "");
     }
 
@@ -377,18 +554,30 @@ public class Note {
     }
 
     public int getSiteId() {
+        if (mSummary != null) {
+            return mSummary.mSiteId;
+        }
         return queryJSON("meta.ids.site", 0);
     }
 
     public int getPostId() {
+        if (mSummary != null) {
+            return mSummary.mPostId;
+        }
         return queryJSON("meta.ids.post", 0);
     }
 
     public long getCommentId() {
+        if (mSummary != null) {
+            return mSummary.mCommentId;
+        }
         return queryJSON("meta.ids.comment", 0);
     }
 
     public long getParentCommentId() {
+        if (mSummary != null) {
+            return mSummary.mParentCommentId;
+        }
         return queryJSON("meta.ids.parent_comment", 0);
     }
 
@@ -397,10 +586,11 @@ public class Note {
      */
     private <U> U queryJSON(String query, U defaultObject) {
         synchronized (mSyncLock) {
-            if (mNoteJSON == null) {
+            JSONObject noteJSON = getNoteJSON();
+            if (noteJSON == null) {
                 return defaultObject;
             }
-            return JSONUtils.queryJSON(mNoteJSON, query, defaultObject);
+            return JSONUtils.queryJSON(noteJSON, query, defaultObject);
         }
     }
 
@@ -462,6 +652,9 @@ public class Note {
     }
 
     public CommentStatus getCommentStatus() {
+        if (mSummary != null) {
+            return CommentStatus.fromString(mSummary.mCommentStatus);
+        }
         EnumSet<EnabledActions> enabledActions = getEnabledActions();
 
         if (enabledActions.contains(EnabledActions.ACTION_UNAPPROVE)) {
@@ -484,7 +677,7 @@ public class Note {
 
     public JSONArray getHeader() {
         synchronized (mSyncLock) {
-            return mNoteJSON.optJSONArray("header");
+            return getJSON().optJSONArray("header");
         }
     }
 
@@ -497,7 +690,7 @@ public class Note {
         }
 
         if (this.getTimestampString().equalsIgnoreCase(note.getTimestampString())
-            && this.getJSON().length() == note.getJSON().length()) {
+            && this.getJSONLength() == note.getJSONLength()) {
             return true;
         }
         return false;
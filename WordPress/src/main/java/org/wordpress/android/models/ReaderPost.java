@@ -1,6 +1,8 @@
 package org.wordpress.android.models;
 
 import android.text.TextUtils;
+import android.util.JsonReader;
+import android.util.JsonToken;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -17,6 +19,7 @@ import org.wordpress.android.util.JSONUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.UrlUtils;
 
+import java.io.IOException;
 import java.text.BreakIterator;
 import java.util.Iterator;
 
@@ -92,9 +95,7 @@ public class ReaderPost {
             post.mPseudoId = JSONUtils.getString(json, "global_ID"); // sites/ endpoint
         }
 
-        // remove HTML from the excerpt
-        post.mExcerpt = HtmlUtils.fastStripHtml(JSONUtils.getString(json, "excerpt")).trim();
-
+        post.mExcerpt = JSONUtils.getString(json, "excerpt");
         post.mText = JSONUtils.getString(json, "content");
         post.mTitle = JSONUtils.getStringDecoded(json, "title");
         post.mFormat = JSONUtils.getString(json, "format");
@@ -109,18 +110,8 @@ public class ReaderPost {
         post.isPrivate = JSONUtils.getBool(json, "site_is_private");
         post.isJetpack = JSONUtils.getBool(json, "is_jetpack");
         post.useExcerpt = JSONUtils.getBool(json, "use_excerpt");
-
-        JSONObject jsonDiscussion = json.optJSONObject("discussion");
-        if (jsonDiscussion != null) {
-            post.isCommentsOpen = JSONUtils.getBool(jsonDiscussion, "comments_open");
-            post.numReplies = jsonDiscussion.optInt("comment_count");
-        } else {
-            post.isCommentsOpen = JSONUtils.getBool(json, "comments_open");
-            post.numReplies = json.optInt("comment_count");
-        }
-
-        // parse the author section
-        assignAuthorFromJson(post, json.optJSONObject("author"));
+        post.isCommentsOpen = JSONUtils.getBool(json, "comments_open");
+        post.numReplies = json.optInt("comment_count");
 
         post.mFeaturedImage = JSONUtils.getString(json, "featured_image");
         post.mBlogName = JSONUtils.getStringDecoded(json, "site_name");
@@ -132,84 +123,356 @@ public class ReaderPost {
         // "score" only exists for search results
         post.score = json.optDouble("score");
 
+        NestedJson nested = new NestedJson();
+        nested.mDiscussion = json.optJSONObject("discussion");
+        nested.mAuthor = json.optJSONObject("author");
+        nested.mTags = json.optJSONObject("tags");
+        nested.mAttachments = json.optJSONObject("attachments");
+        nested.mSite = JSONUtils.getJSONChild(json, "meta/data/site");
+        nested.mDiscover = json.optJSONObject("discover_metadata");
+        nested.mMetadata = json.optJSONArray("metadata");
+        nested.mFeaturedMedia = json.optJSONObject("featured_media");
+        nested.mRailcar = json.optJSONObject("railcar");
+        post.assignFromNestedJson(nested);
+
+        return post;
+    }
+
+    /*
+     * same as fromJson() but reads the post straight from a JsonReader positioned at the start of
+     * the post, so the post's content is never held in a JSONObject as well as in the post - only
+     * the small nested objects are read as JSON, since several of them are stored as JSON
+     */
+    static ReaderPost fromJsonReader(JsonReader reader) throws IOException {
+        ReaderPost post = new ReaderPost();
+        NestedJson nested = new NestedJson();
+        String pseudoId = null;
+        String globalId = "";
+        JSONObject jsonMeta = null;
+
+        // missing values are the same as fromJson() gives them
+        post.mExcerpt = "";
+        post.mText = "";
+        post.mTitle = "";
+        post.mFormat = "";
+        post.mUrl = "";
+        post.mShortUrl = "";
+        post.setBlogUrl("");
+        post.mFeaturedImage = "";
+        post.mBlogName = "";
+        post.mDatePublished = "";
+        post.mDateLiked = "";
+        post.mDateTagged = "";
+        post.score = Double.NaN;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "ID":
+                    post.postId = readLong(reader);
+                    break;
+                case "site_ID":
+                    post.blogId = readLong(reader);
+                    break;
+                case "feed_ID":
+                    post.feedId = readLong(reader);
+                    break;
+                case "feed_item_ID":
+                    post.feedItemId = readLong(reader);
+                    break;
+                case "pseudo_ID":
+                    pseudoId = readString(reader);
+                    break;
+                case "global_ID":
+                    globalId = readString(reader);
+                    break;
+                case "excerpt":
+                    post.mExcerpt = readString(reader);
+                    break;
+                case "content":
+                    post.mText = readString(reader);
+                    break;
+                case "title":
+                    post.mTitle = JSONUtils.decodeHtmlEntities(readString(reader));
+                    break;
+                case "format":
+                    post.mFormat = readString(reader);
+                    break;
+                case "URL":
+                    post.mUrl = readString(reader);
+                    break;
+                case "short_URL":
+                    post.mShortUrl = readString(reader);
+                    break;
+                case "site_URL":
+                    post.setBlogUrl(readString(reader));
+                    break;
+                case "like_count":
+                    post.numLikes = (int) readLong(reader);
+                    break;
+                case "i_like":
+                    post.isLikedByCurrentUser = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "is_following":
+                    post.isFollowedByCurrentUser = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "is_external":
+                    post.isExternal = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "site_is_private":
+                    post.isPrivate = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "is_jetpack":
+                    post.isJetpack = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "use_excerpt":
+                    post.useExcerpt = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "comments_open":
+                    post.isCommentsOpen = JSONUtils.stringToBool(readString(reader));
+                    break;
+                case "comment_count":
+                    post.numReplies = (int) readLong(reader);
+                    break;
+                case "featured_image":
+                    post.mFeaturedImage = readString(reader);
+                    break;
+                case "site_name":
+                    post.mBlogName = JSONUtils.decodeHtmlEntities(readString(reader));
+                    break;
+                case "date":
+                    post.mDatePublished = readString(reader);
+                    break;
+                case "date_liked":
+                    post.mDateLiked = readString(reader);
+                    break;
+                case "tagged_on":
+                    post.mDateTagged = readString(reader);
+                    break;
+                case "score":
+                    post.score = readDouble(reader);
+                    break;
+                case "discussion":
+                    nested.mDiscussion = readObject(reader);
+                    break;
+                case "author":
+                    nested.mAuthor = readObject(reader);
+                    break;
+                case "tags":
+                    nested.mTags = readObject(reader);
+                    break;
+                case "attachments":
+                    nested.mAttachments = readObject(reader);
+                    break;
+                case "meta":
+                    jsonMeta = readObject(reader);
+                    break;
+                case "discover_metadata":
+                    nested.mDiscover = readObject(reader);
+                    break;
+                case "metadata":
+                    nested.mMetadata = readArray(reader);
+                    break;
+                case "featured_media":
+                    nested.mFeaturedMedia = readObject(reader);
+                    break;
+                case "railcar":
+                    nested.mRailcar = readObject(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        post.mPseudoId = pseudoId != null ? pseudoId : globalId;
+        nested.mSite = JSONUtils.getJSONChild(jsonMeta, "data/site");
+        post.assignFromNestedJson(nested);
+
+        return post;
+    }
+
+    /*
+     * the following read the next value the way JSONObject's opt methods (and JSONUtils) read it
+     */
+    private static String readString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return "";
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                return ReaderPostStreamParser.readValue(reader).toString();
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static long readLong(JsonReader reader) throws IOException {
+        String value = readNumberString(reader);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            // integers are parsed exactly, since ids may not fit in a double
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException e2) {
+                return 0;
+            }
+        }
+    }
+
+    private static double readDouble(JsonReader reader) throws IOException {
+        String value = readNumberString(reader);
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /*
+     * returns the text of the next value if it's a number or a string, otherwise skips it and
+     * returns null
+     */
+    private static String readNumberString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static JSONObject readObject(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        return ReaderPostStreamParser.readObject(reader);
+    }
+
+    private static JSONArray readArray(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        return ReaderPostStreamParser.readArray(reader);
+    }
+
+    /*
+     * the nested objects of a post's json, which fromJson() and fromJsonReader() both read into
+     * the post the same way
+     */
+    private static class NestedJson {
+        private JSONObject mDiscussion;
+        private JSONObject mAuthor;
+        private JSONObject mTags;
+        private JSONObject mAttachments;
+        private JSONObject mSite;
+        private JSONObject mDiscover;
+        private JSONArray mMetadata;
+        private JSONObject mFeaturedMedia;
+        private JSONObject mRailcar;
+    }
+
+    /*
+     * assigns the values from the post's nested objects, along with those which are derived from
+     * values already assigned - called once the post's top-level values have been read
+     */
+    private void assignFromNestedJson(NestedJson nested) {
+        // remove HTML from the excerpt
+        mExcerpt = HtmlUtils.fastStripHtml(mExcerpt).trim();
+
+        if (nested.mDiscussion != null) {
+            isCommentsOpen = JSONUtils.getBool(nested.mDiscussion, "comments_open");
+            numReplies = nested.mDiscussion.optInt("comment_count");
+        }
+
+        // parse the author section
+        assignAuthorFromJson(this, nested.mAuthor);
+
         // if the post is untitled, make up a title from the excerpt
-        if (!post.hasTitle() && post.hasExcerpt()) {
-            post.mTitle = extractTitle(post.mExcerpt, 50);
+        if (!hasTitle() && hasExcerpt()) {
+            mTitle = extractTitle(mExcerpt, 50);
         }
 
         // remove html from title (rare, but does happen)
-        if (post.hasTitle() && post.mTitle.contains("<") && post.mTitle.contains(">")) {
-            post.mTitle = HtmlUtils.stripHtml(post.mTitle);
+        if (hasTitle() && mTitle.contains("<") && mTitle.contains(">")) {
+            mTitle = HtmlUtils.stripHtml(mTitle);
         }
 
         // parse the tags section
-        assignTagsFromJson(post, json.optJSONObject("tags"));
+        assignTagsFromJson(this, nested.mTags);
 
         // parse the attachments
-        JSONObject jsonAttachments = json.optJSONObject("attachments");
-        if (jsonAttachments != null && jsonAttachments.length() > 0) {
-            post.mAttachmentsJson = jsonAttachments.toString();
+        if (nested.mAttachments != null && nested.mAttachments.length() > 0) {
+            mAttachmentsJson = nested.mAttachments.toString();
         }
 
         // site metadata - returned when ?meta=site was added to the request
-        JSONObject jsonSite = JSONUtils.getJSONChild(json, "meta/data/site");
+        JSONObject jsonSite = nested.mSite;
         if (jsonSite != null) {
-            post.blogId = jsonSite.optInt("ID");
-            post.mBlogName = JSONUtils.getString(jsonSite, "name");
-            post.setBlogUrl(JSONUtils.getString(jsonSite, "URL"));
-            post.isPrivate = JSONUtils.getBool(jsonSite, "is_private");
+            blogId = jsonSite.optInt("ID");
+            mBlogName = JSONUtils.getString(jsonSite, "name");
+            setBlogUrl(JSONUtils.getString(jsonSite, "URL"));
+            isPrivate = JSONUtils.getBool(jsonSite, "is_private");
             JSONObject jsonSiteIcon = jsonSite.optJSONObject("icon");
             if (jsonSiteIcon != null) {
-                post.mBlogImageUrl = JSONUtils.getString(jsonSiteIcon, "img");
+                mBlogImageUrl = JSONUtils.getString(jsonSiteIcon, "img");
             }
             // TODO: as of 29-Sept-2014, this is broken - endpoint returns false when it should be true
-            post.isJetpack = JSONUtils.getBool(jsonSite, "jetpack");
+            isJetpack = JSONUtils.getBool(jsonSite, "jetpack");
         }
 
         // "discover" posts
-        JSONObject jsonDiscover = json.optJSONObject("discover_metadata");
-        if (jsonDiscover != null) {
-            post.setDiscoverJson(jsonDiscover.toString());
+        if (nested.mDiscover != null) {
+            setDiscoverJson(nested.mDiscover.toString());
         }
 
         // xpost info
-        assignXpostIdsFromJson(post, json.optJSONArray("metadata"));
+        assignXpostIdsFromJson(this, nested.mMetadata);
 
         // if there's no featured image, check if featured media has been set to an image
-        if (!post.hasFeaturedImage() && json.has("featured_media")) {
-            JSONObject jsonMedia = json.optJSONObject("featured_media");
-            String type = JSONUtils.getString(jsonMedia, "type");
+        if (!hasFeaturedImage() && nested.mFeaturedMedia != null) {
+            String type = JSONUtils.getString(nested.mFeaturedMedia, "type");
             if (type.equals("image")) {
-                post.mFeaturedImage = JSONUtils.getString(jsonMedia, "uri");
+                mFeaturedImage = JSONUtils.getString(nested.mFeaturedMedia, "uri");
             }
         }
 
         // if the post doesn't have a featured image but it contains an IMG tag, check whether
         // we can find a suitable image from the content
-        if (!post.hasFeaturedImage() && post.hasImages()) {
-            post.mFeaturedImage = new ReaderImageScanner(post.mText, post.isPrivate)
+        if (!hasFeaturedImage() && hasImages()) {
+            mFeaturedImage = new ReaderImageScanner(mText, isPrivate)
                     .getLargestImage(ReaderConstants.MIN_FEATURED_IMAGE_WIDTH);
         }
 
         // if there's no featured image or featured video and the post contains an iframe, scan
         // the content for a suitable featured video
-        if (!post.hasFeaturedImage()
-            && !post.hasFeaturedVideo()
-            && post.getText().contains("<iframe")) {
-            post.setFeaturedVideo(new ReaderIframeScanner(post.getText()).getFirstUsableVideo());
+        if (!hasFeaturedImage()
+            && !hasFeaturedVideo()
+            && getText().contains("<iframe")) {
+            setFeaturedVideo(new ReaderIframeScanner(getText()).getFirstUsableVideo());
         }
 
         // "railcar" data - currently used in search streams, used by TrainTracks
-        JSONObject jsonRailcar = json.optJSONObject("railcar");
-        if (jsonRailcar != null) {
-            post.setRailcarJson(jsonRailcar.toString());
+        if (nested.mRailcar != null) {
+            setRailcarJson(nested.mRailcar.toString());
         }
 
         // set the card type last since it depends on information contained in the post - note
         // that this is stored in the post table rather than calculated on-the-fly
-        post.setCardType(ReaderCardType.fromReaderPost(post));
-
-        return post;
+        setCardType(ReaderCardType.fromReaderPost(this));
     }
 
     public boolean hasImages() {
@@ -672,6 +935,84 @@ public class ReaderPost {
                && post.getText().equals(this.getText());
     }
 
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /*
+     * returns a 64-bit FNV-1a hash of what ReaderPostTable stores for this post, which is kept
+     * with each row so posts can be checked for changes without reading them back - the railcar
+     * is left out since it's different for every request (ReaderPostTable updates it on its own
+     * for unchanged posts), and isBookmarked is left out since it's a local flag which server
+     * posts don't have (ReaderPostTable clears the stored hash when it changes). zero is never
+     * returned since it marks rows whose hash is unknown
+     */
+    public long getContentHash() {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hashLong(hash, postId);
+        hash = hashLong(hash, blogId);
+        hash = hashLong(hash, feedId);
+        hash = hashLong(hash, feedItemId);
+        hash = hashLong(hash, authorId);
+        hash = hashLong(hash, xpostPostId);
+        hash = hashLong(hash, xpostBlogId);
+        hash = hashLong(hash, numReplies);
+        hash = hashLong(hash, numLikes);
+        hash = hashLong(hash, Double.doubleToLongBits(score));
+        hash = hashLong(hash, (isLikedByCurrentUser ? 1 : 0)
+                              | (isFollowedByCurrentUser ? 1 << 1 : 0)
+                              | (isCommentsOpen ? 1 << 2 : 0)
+                              | (isExternal ? 1 << 3 : 0)
+                              | (isPrivate ? 1 << 4 : 0)
+                              | (isVideoPress ? 1 << 5 : 0)
+                              | (isJetpack ? 1 << 6 : 0)
+                              | (useExcerpt ? 1 << 7 : 0));
+        hash = hashString(hash, getPseudoId());
+        hash = hashString(hash, getAuthorName());
+        hash = hashString(hash, getAuthorFirstName());
+        hash = hashString(hash, getTitle());
+        hash = hashString(hash, getText());
+        hash = hashString(hash, getExcerpt());
+        hash = hashString(hash, getFormat());
+        hash = hashString(hash, getUrl());
+        hash = hashString(hash, getShortUrl());
+        hash = hashString(hash, getBlogName());
+        hash = hashString(hash, getBlogUrl());
+        hash = hashString(hash, getBlogImageUrl());
+        hash = hashString(hash, getFeaturedImage());
+        hash = hashString(hash, getFeaturedVideo());
+        hash = hashString(hash, getPostAvatar());
+        hash = hashString(hash, getDatePublished());
+        hash = hashString(hash, getDateLiked());
+        hash = hashString(hash, getDateTagged());
+        hash = hashString(hash, getPrimaryTag());
+        hash = hashString(hash, getSecondaryTag());
+        hash = hashString(hash, getAttachmentsJson());
+        hash = hashString(hash, getDiscoverJson());
+        hash = hashString(hash, ReaderCardType.toString(getCardType()));
+        return hash != 0 ? hash : 1;
+    }
+
+    private static long hashLong(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hashString(long hash, String value) {
+        // include the length so adjacent strings can't run together
+        hash = hashLong(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
     public boolean hasIds(ReaderBlogIdPostId ids) {
         return ids != null
                && ids.getBlogId() == this.blogId
@@ -0,0 +1,164 @@
+package org.wordpress.android.models;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * parses the posts in a read/ response directly from the response stream rather than from a
+ * JSONObject holding the entire response - only the post currently being parsed is held in
+ * memory as JSON, and parsed posts are handed to the listener in batches so they can be saved
+ * and released before the rest of the response is read
+ * <p>
+ * each post is read straight into a ReaderPost by ReaderPost.fromJsonReader(), which maps the
+ * post the same way ReaderPost.fromJson() does, so posts parsed here are identical to those
+ * parsed by ReaderPostList.fromJson()
+ */
+public class ReaderPostStreamParser {
+    public interface BatchListener {
+        void onPostsParsed(@NonNull ReaderPostList posts);
+    }
+
+    private static final String POSTS_KEY = "posts";
+
+    private final int mBatchSize;
+
+    public ReaderPostStreamParser(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be at least one");
+        }
+        mBatchSize = batchSize;
+    }
+
+    /*
+     * parses the passed response stream, passing posts to the listener in batches of up to the
+     * batch size - returns the total number of posts parsed
+     */
+    public int parse(@NonNull InputStream input, @NonNull BatchListener listener) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(input, "UTF-8"));
+        try {
+            return parsePosts(reader, listener);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /*
+     * convenience method which returns all the posts in the passed response stream
+     */
+    public static ReaderPostList parseAll(@NonNull InputStream input) throws IOException {
+        final ReaderPostList allPosts = new ReaderPostList();
+        new ReaderPostStreamParser(Integer.MAX_VALUE).parse(input, new BatchListener() {
+            @Override
+            public void onPostsParsed(@NonNull ReaderPostList posts) {
+                allPosts.addAll(posts);
+            }
+        });
+        return allPosts;
+    }
+
+    private int parsePosts(JsonReader reader, BatchListener listener) throws IOException {
+        int numPosts = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!POSTS_KEY.equals(name) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+
+            ReaderPostList batch = new ReaderPostList();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                batch.add(ReaderPost.fromJsonReader(reader));
+                numPosts++;
+                if (batch.size() >= mBatchSize) {
+                    listener.onPostsParsed(batch);
+                    batch = new ReaderPostList();
+                }
+            }
+            reader.endArray();
+
+            if (!batch.isEmpty()) {
+                listener.onPostsParsed(batch);
+            }
+        }
+        reader.endObject();
+        return numPosts;
+    }
+
+    /*
+     * the following read the next value from the stream into the same objects org.json would
+     * create when parsing the same text - used for the parts of a post which are stored as json
+     */
+    static JSONObject readObject(JsonReader reader) throws IOException {
+        JSONObject json = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            try {
+                json.put(name, readValue(reader));
+            } catch (JSONException e) {
+                throw new IOException(e);
+            }
+        }
+        reader.endObject();
+        return json;
+    }
+
+    static JSONArray readArray(JsonReader reader) throws IOException {
+        JSONArray json = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            json.put(readValue(reader));
+        }
+        reader.endArray();
+        return json;
+    }
+
+    static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                return readNumber(reader.nextString());
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static Object readNumber(String literal) {
+        if (literal.indexOf('.') == -1 && literal.indexOf('e') == -1 && literal.indexOf('E') == -1) {
+            try {
+                long value = Long.parseLong(literal);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                // too large for a long, fall through and treat as a double
+            }
+        }
+        return Double.valueOf(literal);
+    }
+}
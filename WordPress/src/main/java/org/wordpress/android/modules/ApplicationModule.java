@@ -12,7 +12,6 @@ import org.wordpress.android.ui.domains.DomainRegistrationDetailsFragment.Countr
 import org.wordpress.android.ui.domains.DomainRegistrationDetailsFragment.StatePickerDialogFragment;
 import org.wordpress.android.ui.news.LocalNewsService;
 import org.wordpress.android.ui.news.NewsService;
-import org.wordpress.android.ui.reader.ReaderPostWebViewCachingFragment;
 import org.wordpress.android.ui.reader.subfilter.SubfilterPageFragment;
 import org.wordpress.android.ui.sitecreation.SiteCreationStep;
 import org.wordpress.android.ui.sitecreation.SiteCreationStepsProvider;
@@ -92,9 +91,6 @@ public abstract class ApplicationModule {
     @ContributesAndroidInjector
     abstract SettingsUsernameChangerFragment contributeSettingsUsernameChangerFragment();
 
-    @ContributesAndroidInjector
-    abstract ReaderPostWebViewCachingFragment contributeReaderPostWebViewCachingFragment();
-
     @ContributesAndroidInjector
     abstract SubfilterPageFragment contributeSubfilterPageFragment();
 
@@ -0,0 +1,245 @@
+package org.wordpress.android.networking;
+
+import android.content.Context;
+import android.webkit.WebResourceResponse;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.UrlUtils;
+import org.wordpress.android.util.WPUrlUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * loads images on private sites for the WebViews which show them (ReaderWebView and WPWebViewClient),
+ * adding the WP.com authorization header which the WebView can't add itself
+ * <p>
+ * requests share one OkHttp client so connections to the same host are reused, and responses are
+ * stored in a bounded disk cache which follows their cache headers, so reopening a private post
+ * doesn't download its images again. concurrent requests for the same image share one download,
+ * and images can be prefetched (ex: for the next post in the reader) on a small pool of threads
+ * which doesn't hold up the WebView's own requests.
+ */
+public class AuthenticatedWebResourceLoader {
+    private static final String CACHE_DIR = "webview_private_resources";
+    private static final long MAX_CACHE_BYTES = 30 * 1024 * 1024;
+
+    private static final int TIMEOUT_MS = 30000;
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int NUM_PREFETCH_THREADS = 2;
+
+    private static AuthenticatedWebResourceLoader sInstance;
+
+    private final OkHttpClient mClient;
+    private final Cache mCache;
+    private final String mUserAgent;
+    private final ExecutorService mPrefetchExecutor = Executors.newFixedThreadPool(NUM_PREFETCH_THREADS);
+    private final Map<String, FutureTask<Resource>> mInFlight = new HashMap<>();
+
+    /*
+     * a downloaded resource - the body is held in memory so requests waiting on the same download
+     * can each be given their own stream
+     */
+    private static class Resource {
+        private final String mMimeType;
+        private final String mEncoding;
+        private final byte[] mData;
+
+        Resource(@Nullable String mimeType, @Nullable String encoding, @NonNull byte[] data) {
+            mMimeType = mimeType;
+            mEncoding = encoding;
+            mData = data;
+        }
+    }
+
+    public static synchronized AuthenticatedWebResourceLoader getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            File cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR);
+            sInstance = new AuthenticatedWebResourceLoader(cacheDir, MAX_CACHE_BYTES, WordPress.getUserAgent());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AuthenticatedWebResourceLoader(@NonNull File cacheDir, long maxCacheBytes, @Nullable String userAgent) {
+        mCache = new Cache(cacheDir, maxCacheBytes);
+        mUserAgent = userAgent;
+        mClient = new OkHttpClient.Builder()
+                .cache(mCache)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /*
+     * returns the https version of the passed url if it's an image the WP.com token can be sent
+     * with, otherwise null
+     */
+    @Nullable
+    public static String getAuthenticatedImageUrl(@Nullable String url) {
+        if (url == null || !UrlUtils.isImageUrl(url)) {
+            return null;
+        }
+        // force use of HTTPS for the resource, otherwise the request will fail for private sites
+        String httpsUrl = UrlUtils.makeHttps(url);
+        try {
+            return WPUrlUtils.safeToAddWordPressComAuthToken(new URL(httpsUrl)) ? httpsUrl : null;
+        } catch (MalformedURLException e) {
+            AppLog.e(T.API, e);
+            return null;
+        }
+    }
+
+    /*
+     * returns the resource for a WebView to show, or null if it couldn't be loaded - must not be
+     * called on the main thread
+     */
+    @Nullable
+    public WebResourceResponse load(@NonNull String url, @NonNull String token) {
+        FutureTask<Resource> task = getOrCreateTask(url, token);
+        // downloads on this thread unless the download has already started (ex: it was prefetched),
+        // in which case this waits for it to finish
+        task.run();
+        try {
+            Resource resource = task.get();
+            if (resource == null) {
+                return null;
+            }
+            return new WebResourceResponse(resource.mMimeType, resource.mEncoding,
+                                           new ByteArrayInputStream(resource.mData));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            AppLog.e(T.API, "Unable to load private resource " + url + ": " + e.getCause());
+            return null;
+        }
+    }
+
+    /*
+     * downloads the resource into the cache in the background, unless it's already being downloaded
+     */
+    public void prefetch(@NonNull String url, @NonNull String token) {
+        FutureTask<Resource> task;
+        synchronized (mInFlight) {
+            if (mInFlight.containsKey(url)) {
+                return;
+            }
+            task = createTask(url, token);
+            mInFlight.put(url, task);
+        }
+        mPrefetchExecutor.execute(task);
+    }
+
+    /*
+     * removes all cached resources - called on sign-out since they were requested with the user's token
+     */
+    public void clearCache() {
+        mPrefetchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mCache.evictAll();
+                } catch (IOException e) {
+                    AppLog.e(T.API, "Unable to clear private resource cache", e);
+                }
+            }
+        });
+    }
+
+    @VisibleForTesting
+    int getNetworkCount() {
+        return mCache.networkCount();
+    }
+
+    @VisibleForTesting
+    int getHitCount() {
+        return mCache.hitCount();
+    }
+
+    @NonNull
+    private FutureTask<Resource> getOrCreateTask(@NonNull String url, @NonNull String token) {
+        synchronized (mInFlight) {
+            FutureTask<Resource> task = mInFlight.get(url);
+            if (task == null) {
+                task = createTask(url, token);
+                mInFlight.put(url, task);
+            }
+            return task;
+        }
+    }
+
+    @NonNull
+    private FutureTask<Resource> createTask(@NonNull final String url, @NonNull final String token) {
+        return new FutureTask<>(new Callable<Resource>() {
+            @Override
+            public Resource call() throws IOException {
+                try {
+                    return download(url, token);
+                } finally {
+                    synchronized (mInFlight) {
+                        mInFlight.remove(url);
+                    }
+                }
+            }
+        });
+    }
+
+    @Nullable
+    private Resource download(@NonNull String url, @NonNull String token) throws IOException {
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .header("Authorization", "Bearer " + token);
+        if (mUserAgent != null) {
+            builder.header("User-Agent", mUserAgent);
+        }
+
+        Response response = mClient.newCall(builder.build()).execute();
+        try {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                AppLog.w(T.API, "Unable to load private resource " + url + ", response code " + response.code());
+                return null;
+            }
+            // reading the whole body is also what stores it in the cache
+            byte[] data = body.bytes();
+            MediaType mediaType = body.contentType();
+            if (mediaType == null) {
+                return new Resource(null, null, data);
+            }
+            Charset charset = mediaType.charset();
+            return new Resource(mediaType.type() + "/" + mediaType.subtype(),
+                                charset != null ? charset.name() : null, data);
+        } finally {
+            response.close();
+        }
+    }
+}
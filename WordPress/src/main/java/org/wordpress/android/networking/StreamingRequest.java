@@ -1,22 +1,94 @@
 package org.wordpress.android.networking;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.Locale;
 
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okhttp3.internal.Util;
 import okio.BufferedSink;
-import okio.Okio;
-import okio.Source;
 
+/**
+ * request body which streams a file, or a range of it, to the connection
+ * <p>
+ * the file is read in BUFFER_SIZE pieces into buffers shared by all uploads, and written to the
+ * sink without flushing so okio sends complete segments as they fill rather than a packet per
+ * piece. progress is reported as bytes are written. a range of the file can be sent so uploads to
+ * endpoints which accept chunks can resume from the last chunk the server received after a
+ * dropped connection, rather than sending the whole file again.
+ */
 public class StreamingRequest extends RequestBody {
-    public static final int CHUNK_SIZE = 2048;
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    // no more than this many buffers are kept for reuse once uploads finish
+    private static final int MAX_POOLED_BUFFERS = 4;
+    private static final ArrayDeque<byte[]> BUFFER_POOL = new ArrayDeque<>(MAX_POOLED_BUFFERS);
+
+    public interface ProgressListener {
+        /*
+         * called on the thread writing the request - bytesWritten and totalBytes are for the range
+         * being sent, not the whole file
+         */
+        void onProgress(long bytesWritten, long totalBytes);
+    }
 
     private final File mFile;
+    private final long mOffset;
+    private final long mLength;
+    private final ProgressListener mProgressListener;
 
-    public StreamingRequest(File file) {
+    public StreamingRequest(@NonNull File file) {
+        this(file, null);
+    }
+
+    public StreamingRequest(@NonNull File file, @Nullable ProgressListener progressListener) {
+        this(file, 0, file.length(), progressListener);
+    }
+
+    /*
+     * streams length bytes of the file starting at offset
+     */
+    public StreamingRequest(@NonNull File file, long offset, long length,
+                            @Nullable ProgressListener progressListener) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid range " + offset + "+" + length + " of " + file);
+        }
         mFile = file;
+        mOffset = offset;
+        mLength = length;
+        mProgressListener = progressListener;
+    }
+
+    /*
+     * returns the request for the chunk of the file following this one, or null if this is the last
+     */
+    @Nullable
+    public StreamingRequest nextChunk() {
+        long nextOffset = mOffset + mLength;
+        long fileLength = mFile.length();
+        if (mLength == 0 || nextOffset >= fileLength) {
+            return null;
+        }
+        return new StreamingRequest(mFile, nextOffset, Math.min(mLength, fileLength - nextOffset), mProgressListener);
+    }
+
+    public long getOffset() {
+        return mOffset;
+    }
+
+    /*
+     * returns the value of the Content-Range header describing the part of the file sent by this
+     * request (ex: "bytes 0-65535/1048576")
+     */
+    @NonNull
+    public String getContentRange() {
+        return String.format(Locale.ROOT, "bytes %d-%d/%d", mOffset, mOffset + mLength - 1, mFile.length());
     }
 
     @Override
@@ -25,17 +97,57 @@ public class StreamingRequest extends RequestBody {
     }
 
     @Override
-    public void writeTo(BufferedSink sink) throws IOException {
-        Source source = null;
+    public long contentLength() {
+        return mLength;
+    }
+
+    /*
+     * may be called more than once for the same request (ex: when okhttp retries it), so each
+     * call sends the range from the start
+     */
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        RandomAccessFile file = null;
+        byte[] buffer = obtainBuffer();
         try {
-            source = Okio.source(mFile);
+            file = new RandomAccessFile(mFile, "r");
+            file.seek(mOffset);
 
-            while (source.read(sink.buffer(), CHUNK_SIZE) != -1) {
-                sink.flush();
+            long bytesWritten = 0;
+            while (bytesWritten < mLength) {
+                int count = file.read(buffer, 0, (int) Math.min(buffer.length, mLength - bytesWritten));
+                if (count == -1) {
+                    throw new IOException("Unexpected end of " + mFile + " after "
+                                          + (mOffset + bytesWritten) + " bytes");
+                }
+                sink.write(buffer, 0, count);
+                bytesWritten += count;
+                if (mProgressListener != null) {
+                    mProgressListener.onProgress(bytesWritten, mLength);
+                }
             }
         } finally {
-            Util.closeQuietly(source);
+            Util.closeQuietly(file);
+            releaseBuffer(buffer);
         }
     }
-};
 
+    @NonNull
+    private static byte[] obtainBuffer() {
+        synchronized (BUFFER_POOL) {
+            byte[] buffer = BUFFER_POOL.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return new byte[BUFFER_SIZE];
+    }
+
+    private static void releaseBuffer(@NonNull byte[] buffer) {
+        synchronized (BUFFER_POOL) {
+            if (BUFFER_POOL.size() < MAX_POOLED_BUFFERS) {
+                BUFFER_POOL.push(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.wordpress.android.ui;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the frame times of a RecyclerView while it's scrolling and logs a summary each time the
+ * scroll ends, so list binding changes can be checked for dropped frames - frames are only
+ * observed while the list is scrolling so an idle list costs nothing
+ */
+public class ScrollFrameMonitor extends RecyclerView.OnScrollListener implements Choreographer.FrameCallback {
+    // frames which take longer than this have missed at least one vsync at 60fps
+    private static final long SLOW_FRAME_NS = TimeUnit.MICROSECONDS.toNanos(16_700);
+
+    private final String mListName;
+    private final T mLogTag;
+
+    private boolean mIsMonitoring;
+    private long mLastFrameNs;
+    private int mNumFrames;
+    private int mNumSlowFrames;
+    private long mTotalFrameNs;
+    private long mWorstFrameNs;
+
+    public ScrollFrameMonitor(@NonNull String listName, @NonNull T logTag) {
+        mListName = listName;
+        mLogTag = logTag;
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            stop();
+        } else {
+            start();
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mIsMonitoring) {
+            return;
+        }
+        if (mLastFrameNs > 0) {
+            long frameNs = frameTimeNanos - mLastFrameNs;
+            mNumFrames++;
+            mTotalFrameNs += frameNs;
+            if (frameNs > SLOW_FRAME_NS) {
+                mNumSlowFrames++;
+            }
+            mWorstFrameNs = Math.max(mWorstFrameNs, frameNs);
+        }
+        mLastFrameNs = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void start() {
+        if (mIsMonitoring) {
+            return;
+        }
+        mIsMonitoring = true;
+        mLastFrameNs = 0;
+        mNumFrames = 0;
+        mNumSlowFrames = 0;
+        mTotalFrameNs = 0;
+        mWorstFrameNs = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void stop() {
+        if (!mIsMonitoring) {
+            return;
+        }
+        mIsMonitoring = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        if (mNumFrames > 0) {
+            AppLog.d(mLogTag, String.format(Locale.ENGLISH,
+                    "%s scroll > %d frames, %d slow, average %.1fms, worst %.1fms",
+                    mListName, mNumFrames, mNumSlowFrames,
+                    mTotalFrameNs / (double) mNumFrames / 1_000_000, mWorstFrameNs / 1_000_000.0));
+        }
+    }
+}
@@ -26,12 +26,14 @@ import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.GravatarUtils;
+import org.wordpress.android.util.SpannedCache;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.ViewUtilsKt;
 import org.wordpress.android.util.WPHtml;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -59,10 +61,16 @@ public class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         void onCommentLongPressed(int position, View view);
     }
 
+    private static final int MAX_SPANNED_CACHE_CHARS = 256 * 1024;
+    private static final String TITLE_KEY_PREFIX = "title-";
+    private static final String CONTENT_KEY_PREFIX = "content-";
+
     private final LayoutInflater mInflater;
     private final Context mContext;
 
     private final CommentList mComments = new CommentList();
+    // titles and content are converted from HTML when comments are loaded so binding doesn't have to
+    private final SpannedCache mSpannedCache = new SpannedCache(MAX_SPANNED_CACHE_CHARS);
     private final HashSet<Integer> mSelectedPositions = new HashSet<>();
 
     private final int mStatusColorSpam;
@@ -205,6 +213,44 @@ public class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         return WPHtml.fromHtml(content, null, null, mContext, null, 0);
     }
 
+    /*
+     * returns a stamp which changes whenever the text shown for the comment changes
+     */
+    private static long getTextVersion(CommentModel comment) {
+        return Arrays.hashCode(new Object[]{comment.getContent(), comment.getAuthorName(), comment.getPostTitle()});
+    }
+
+    private Spanned getCachedTitle(final CommentModel comment) {
+        return mSpannedCache.getOrBuild(TITLE_KEY_PREFIX + comment.getId(), getTextVersion(comment),
+                new SpannedCache.SpannedBuilder() {
+                    @Override
+                    public Spanned build() {
+                        return Html.fromHtml(getFormattedTitle(comment));
+                    }
+                });
+    }
+
+    private Spanned getCachedContent(final CommentModel comment) {
+        return mSpannedCache.getOrBuild(CONTENT_KEY_PREFIX + comment.getId(), getTextVersion(comment),
+                new SpannedCache.SpannedBuilder() {
+                    @Override
+                    public Spanned build() {
+                        return getSpannedContent(comment);
+                    }
+                });
+    }
+
+    /*
+     * converts the title and content of the passed comments so they're ready to bind - called in
+     * the background when comments are loaded
+     */
+    private void prepareSpannedText(List<CommentModel> comments) {
+        for (CommentModel comment : comments) {
+            getCachedTitle(comment);
+            getCachedContent(comment);
+        }
+    }
+
     private String getFormattedDate(CommentModel comment, Context context) {
         if (comment.getDatePublished() != null) {
             return DateTimeUtils.javaDateToTimeSpan(DateTimeUtils.dateFromIso8601(comment.getDatePublished()), context);
@@ -217,10 +263,9 @@ public class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         CommentModel comment = mComments.get(position);
         CommentHolder holder = (CommentHolder) viewHolder;
 
-        // Note: following operation can take some time, we could maybe cache the calculated objects (title, spanned
-        // content) to make the list scroll smoother.
-        holder.mTxtTitle.setText(Html.fromHtml(getFormattedTitle(comment)));
-        holder.mTxtComment.setText(getSpannedContent(comment));
+        // title and content are normally prepared when comments are loaded, so these are cache hits
+        holder.mTxtTitle.setText(getCachedTitle(comment));
+        holder.mTxtComment.setText(getCachedContent(comment));
         holder.mTxtDate.setText(getFormattedDate(comment, mContext));
 
         // status is only shown for comments that haven't been approved
@@ -439,7 +484,11 @@ public class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
             mTmpComments = new CommentList();
             mTmpComments.addAll(comments);
 
-            return !mComments.isSameList(mTmpComments);
+            if (mComments.isSameList(mTmpComments)) {
+                return false;
+            }
+            prepareSpannedText(mTmpComments);
+            return true;
         }
 
         @Override
@@ -41,6 +41,7 @@ import org.wordpress.android.models.FilterCriteria;
 import org.wordpress.android.ui.ActionableEmptyView;
 import org.wordpress.android.ui.EmptyViewMessageType;
 import org.wordpress.android.ui.FilteredRecyclerView;
+import org.wordpress.android.ui.ScrollFrameMonitor;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.NetworkUtils;
@@ -386,6 +387,8 @@ public class CommentsListFragment extends Fragment {
                 getResources().getDimensionPixelSize(R.dimen.margin_filter_spinner),
                 getResources().getDimensionPixelSize(R.dimen.margin_none));
 
+        mFilteredCommentsView.addOnScrollListener(new ScrollFrameMonitor("comments", AppLog.T.COMMENTS));
+
         return view;
     }
 
@@ -74,6 +74,7 @@ import static org.wordpress.android.util.WPSwipeToRefreshHelper.buildSwipeToRefr
 public class SitePickerActivity extends AppCompatActivity
         implements SitePickerAdapter.OnSiteClickListener,
         SitePickerAdapter.OnSelectedCountChangedListener,
+        SitePickerAdapter.OnSearchCompletedListener,
         SearchView.OnQueryTextListener {
     public static final String KEY_LOCAL_ID = "local_id";
     public static final String KEY_SITE_CREATED_BUT_NOT_FETCHED = "key_site_created_but_not_fetched";
@@ -369,6 +370,7 @@ public class SitePickerActivity extends AppCompatActivity
                 });
         mAdapter.setOnSiteClickListener(this);
         mAdapter.setOnSelectedCountChangedListener(this);
+        mAdapter.setOnSearchCompletedListener(this);
     }
 
     private void saveSiteVisibility(SiteRecord siteRecord) {
@@ -560,10 +562,14 @@ public class SitePickerActivity extends AppCompatActivity
     public boolean onQueryTextChange(String s) {
         getAdapter().setLastSearch(s);
         getAdapter().searchSites(s);
-        updateEmptyViewVisibility();
         return true;
     }
 
+    @Override
+    public void onSearchCompleted() {
+        updateEmptyViewVisibility();
+    }
+
     private void updateEmptyViewVisibility() {
         mActionableEmptyView.setVisibility(getAdapter().getItemCount() > 0 ? View.GONE : View.VISIBLE);
     }
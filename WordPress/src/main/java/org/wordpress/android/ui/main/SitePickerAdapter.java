@@ -5,6 +5,7 @@ import android.graphics.Typeface;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.AsyncTask;
+import android.os.Handler;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -16,6 +17,10 @@ import android.widget.TextView;
 
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.wordpress.android.R;
@@ -29,15 +34,17 @@ import org.wordpress.android.util.ContextExtensionsKt;
 import org.wordpress.android.util.SiteUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.ViewUtilsKt;
+import org.wordpress.android.util.WPExecutors;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -59,6 +66,10 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         void onAfterLoad();
     }
 
+    interface OnSearchCompletedListener {
+        void onSearchCompleted();
+    }
+
     public interface HeaderHandler {
         RecyclerView.ViewHolder onCreateViewHolder(LayoutInflater layoutInflater, ViewGroup parent,
                                                    boolean attachToRoot);
@@ -88,9 +99,17 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     private SiteList mAllSites;
     private ArrayList<Integer> mIgnoreSitesIds;
 
+    // index of mAllSites used when searching, the query mSites was filtered by, and a counter which is
+    // incremented whenever mSites is replaced so results of searches that were overtaken are dropped
+    private SiteSearchIndex mSearchIndex = SiteSearchIndex.EMPTY;
+    private String mSearchedText;
+    private int mSitesGeneration;
+    private final Handler mHandler = new Handler();
+
     private OnSiteClickListener mSiteSelectedListener;
     private OnSelectedCountChangedListener mSelectedCountListener;
     private OnDataLoadedListener mDataLoadedListener;
+    private OnSearchCompletedListener mSearchCompletedListener;
 
     private boolean mIsSingleItemSelectionEnabled;
     private int mSelectedItemPos;
@@ -98,6 +117,9 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     // show recently picked first if there are at least this many blogs
     private static final int RECENTLY_PICKED_THRESHOLD = 11;
 
+    // searching starts once the user has stopped typing for this long
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
     private static final int VIEW_TYPE_HEADER = 0;
     private static final int VIEW_TYPE_ITEM = 1;
 
@@ -211,6 +233,10 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         mSelectedCountListener = listener;
     }
 
+    void setOnSearchCompletedListener(OnSearchCompletedListener listener) {
+        mSearchCompletedListener = listener;
+    }
+
     public void setOnSiteClickListener(OnSiteClickListener listener) {
         mSiteSelectedListener = listener;
         notifyDataSetChanged();
@@ -363,11 +389,128 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         return mIsInSearchMode;
     }
 
+    /*
+     * filters the sites by the passed text in the background once the user stops typing, then
+     * animates the changes to the list
+     */
     public void searchSites(String searchText) {
-        mLastSearch = searchText;
-        mSites = filteredSitesByText(mAllSites);
+        mLastSearch = StringUtils.notNullStr(searchText);
+        mHandler.removeCallbacks(mSearchRunnable);
+        mHandler.postDelayed(mSearchRunnable, SEARCH_DEBOUNCE_MS);
+    }
 
-        notifyDataSetChanged();
+    private final Runnable mSearchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            startSearch();
+        }
+    };
+
+    private void startSearch() {
+        final int generation = mSitesGeneration;
+        final String searchText = mLastSearch;
+        final SiteSearchIndex searchIndex = mSearchIndex;
+        final SiteList previousSites = mSites;
+
+        // typing more text can only remove sites from the results, so only those need to be searched
+        final SiteList sitesToSearch;
+        if (mSearchedText != null && SiteSearchIndex.isNarrowerQuery(mSearchedText, searchText)) {
+            sitesToSearch = mSites;
+        } else {
+            sitesToSearch = mAllSites;
+        }
+
+        WPExecutors.parse(new Runnable() {
+            @Override
+            public void run() {
+                final SiteList filteredSites = searchIndex.search(sitesToSearch, searchText);
+                final DiffUtil.DiffResult diffResult =
+                        DiffUtil.calculateDiff(new SiteListDiffCallback(previousSites, filteredSites));
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mSitesGeneration) {
+                            return;
+                        }
+                        setFilteredSites(filteredSites, searchText);
+                        diffResult.dispatchUpdatesTo(mListUpdateCallback);
+                        if (mHeaderHandler != null) {
+                            notifyItemChanged(0);
+                        }
+                        if (mSearchCompletedListener != null) {
+                            mSearchCompletedListener.onSearchCompleted();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void setFilteredSites(@NonNull SiteList sites, @Nullable String searchedText) {
+        mSites = sites;
+        mSearchedText = searchedText;
+        mSitesGeneration++;
+    }
+
+    /*
+     * applies list updates to the adapter, offsetting them by the header if there is one
+     */
+    private final ListUpdateCallback mListUpdateCallback = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position + getPositionOffset(), count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position + getPositionOffset(), count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition + getPositionOffset(), toPosition + getPositionOffset());
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            notifyItemRangeChanged(position + getPositionOffset(), count, payload);
+        }
+    };
+
+    private static class SiteListDiffCallback extends DiffUtil.Callback {
+        private final SiteList mOldSites;
+        private final SiteList mNewSites;
+
+        SiteListDiffCallback(@NonNull SiteList oldSites, @NonNull SiteList newSites) {
+            mOldSites = oldSites;
+            mNewSites = newSites;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldSites.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewSites.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldSites.get(oldItemPosition).mLocalId == mNewSites.get(newItemPosition).mLocalId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            SiteRecord oldSite = mOldSites.get(oldItemPosition);
+            SiteRecord newSite = mNewSites.get(newItemPosition);
+            return StringUtils.equals(oldSite.mBlogName, newSite.mBlogName)
+                   && StringUtils.equals(oldSite.mHomeURL, newSite.mHomeURL)
+                   && StringUtils.equals(oldSite.mBlavatarUrl, newSite.mBlavatarUrl)
+                   && oldSite.mIsHidden == newSite.mIsHidden
+                   && oldSite.mIsRecentPick == newSite.mIsRecentPick;
+        }
     }
 
     private boolean isValidPosition(int position) {
@@ -534,35 +677,14 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         new LoadSitesTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
-    private SiteList filteredSitesByTextIfInSearchMode(SiteList sites) {
-        if (!mIsInSearchMode) {
-            return sites;
-        } else {
-            return filteredSitesByText(sites);
-        }
-    }
-
-    private SiteList filteredSitesByText(SiteList sites) {
-        SiteList filteredSiteList = new SiteList();
-
-        for (int i = 0; i < sites.size(); i++) {
-            SiteRecord record = sites.get(i);
-            String siteNameLowerCase = record.mBlogName.toLowerCase(Locale.getDefault());
-            String hostNameLowerCase = record.mHomeURL.toLowerCase(Locale.ROOT);
-
-            if (siteNameLowerCase.contains(mLastSearch.toLowerCase(Locale.getDefault())) || hostNameLowerCase
-                    .contains(mLastSearch.toLowerCase(Locale.ROOT))) {
-                filteredSiteList.add(record);
-            }
-        }
-
-        return filteredSiteList;
-    }
-
     /*
      * AsyncTask which loads sites from database and populates the adapter
      */
     private class LoadSitesTask extends AsyncTask<Void, Void, SiteList[]> {
+        private final String mSearchText = mLastSearch;
+        private final SiteSearchIndex mPreviousSearchIndex = mSearchIndex;
+        private SiteSearchIndex mUpdatedSearchIndex;
+
         @Override
         protected void onPreExecute() {
             super.onPreExecute();
@@ -628,9 +750,15 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
                 }
             }
 
-            if (mSites == null || !mSites.isSameList(sites)) {
+            if (mAllSites == null || !mAllSites.isSameList(sites)) {
                 SiteList allSites = (SiteList) sites.clone();
-                SiteList filteredSites = filteredSitesByTextIfInSearchMode(sites);
+                SiteList filteredSites;
+                if (mIsInSearchMode) {
+                    mUpdatedSearchIndex = mPreviousSearchIndex.update(allSites);
+                    filteredSites = mUpdatedSearchIndex.search(allSites, mSearchText);
+                } else {
+                    filteredSites = sites;
+                }
 
                 return new SiteList[]{allSites, filteredSites};
             }
@@ -642,8 +770,16 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         protected void onPostExecute(SiteList[] updatedSiteLists) {
             if (updatedSiteLists != null) {
                 mAllSites = updatedSiteLists[0];
-                mSites = updatedSiteLists[1];
+                if (mUpdatedSearchIndex != null) {
+                    mSearchIndex = mUpdatedSearchIndex;
+                }
+                setFilteredSites(updatedSiteLists[1], mIsInSearchMode ? mSearchText : null);
                 notifyDataSetChanged();
+
+                // the search text may have changed while the sites were loading
+                if (mIsInSearchMode && !mSearchText.equals(mLastSearch)) {
+                    startSearch();
+                }
             }
             if (mDataLoadedListener != null) {
                 mDataLoadedListener.onAfterLoad();
@@ -690,6 +826,15 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             mIsHidden = !siteModel.isVisible();
         }
 
+        @VisibleForTesting
+        SiteRecord(int localId, long siteId, String blogName, String homeURL) {
+            mLocalId = localId;
+            mSiteId = siteId;
+            mBlogName = blogName;
+            mHomeURL = homeURL;
+            mBlavatarUrl = null;
+        }
+
         public String getBlogNameOrHomeURL() {
             if (TextUtils.isEmpty(mBlogName)) {
                 return mHomeURL;
@@ -701,6 +846,10 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             return mLocalId;
         }
 
+        public String getBlogName() {
+            return mBlogName;
+        }
+
         public boolean isHidden() {
             return mIsHidden;
         }
@@ -738,12 +887,18 @@ public class SitePickerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             if (sites == null || sites.size() != this.size()) {
                 return false;
             }
-            int i;
+            // map the sites by id so comparing large lists doesn't search this list for every site
+            Map<Long, SiteRecord> sitesById = new HashMap<>(size());
+            for (SiteRecord site : this) {
+                if (site.mSiteId > 0 && !sitesById.containsKey(site.mSiteId)) {
+                    sitesById.put(site.mSiteId, site);
+                }
+            }
             for (SiteRecord site : sites) {
-                i = indexOfSite(site);
-                if (i == -1
-                    || this.get(i).mIsHidden != site.mIsHidden
-                    || this.get(i).mIsRecentPick != site.mIsRecentPick) {
+                SiteRecord thisSite = site.mSiteId > 0 ? sitesById.get(site.mSiteId) : null;
+                if (thisSite == null
+                    || thisSite.mIsHidden != site.mIsHidden
+                    || thisSite.mIsRecentPick != site.mIsRecentPick) {
                     return false;
                 }
             }
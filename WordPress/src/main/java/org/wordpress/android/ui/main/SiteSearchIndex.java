@@ -0,0 +1,166 @@
+package org.wordpress.android.ui.main;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.ui.main.SitePickerAdapter.SiteList;
+import org.wordpress.android.ui.main.SitePickerAdapter.SiteRecord;
+import org.wordpress.android.util.StringUtils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * immutable search index of the sites shown in the site picker, so searching accounts with hundreds
+ * of sites doesn't normalize every site's name and URL on every keystroke
+ * <p>
+ * each site's name and home URL are stored accent-folded and lower-cased along with their sorted
+ * tokens (words in the name, host name and path parts in the URL). a site matches a query when its
+ * name or URL contains the query, or when every word in the query is a prefix of one of its tokens
+ * (ex: "blog cook" matches "Cooking Blog"). the index is rebuilt when the site list changes,
+ * reusing the entries of sites whose name and URL are unchanged.
+ */
+final class SiteSearchIndex {
+    static final SiteSearchIndex EMPTY = new SiteSearchIndex(Collections.<Integer, Entry>emptyMap());
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<Integer, Entry> mEntries;
+
+    private SiteSearchIndex(@NonNull Map<Integer, Entry> entries) {
+        mEntries = entries;
+    }
+
+    private static class Entry {
+        private final String mBlogName;
+        private final String mHomeUrl;
+        private final String mNormalizedBlogName;
+        private final String mNormalizedHomeUrl;
+        private final String[] mTokens;
+
+        Entry(@NonNull SiteRecord site) {
+            mBlogName = StringUtils.notNullStr(site.getBlogName());
+            mHomeUrl = StringUtils.notNullStr(site.getHomeURL());
+            mNormalizedBlogName = normalize(mBlogName);
+            mNormalizedHomeUrl = normalize(mHomeUrl);
+
+            TreeSet<String> tokens = new TreeSet<>();
+            addTokens(tokens, mNormalizedBlogName);
+            addTokens(tokens, mNormalizedHomeUrl);
+            mTokens = tokens.toArray(new String[0]);
+        }
+
+        boolean isForSite(@NonNull SiteRecord site) {
+            return mBlogName.equals(StringUtils.notNullStr(site.getBlogName()))
+                   && mHomeUrl.equals(StringUtils.notNullStr(site.getHomeURL()));
+        }
+
+        boolean matches(@NonNull String normalizedQuery, @NonNull String[] queryTokens) {
+            if (mNormalizedBlogName.contains(normalizedQuery) || mNormalizedHomeUrl.contains(normalizedQuery)) {
+                return true;
+            }
+            if (queryTokens.length == 0) {
+                return false;
+            }
+            for (String queryToken : queryTokens) {
+                if (!hasTokenWithPrefix(queryToken)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * tokens are sorted, so the first token which isn't less than the prefix is the only
+         * one which needs to be checked
+         */
+        private boolean hasTokenWithPrefix(@NonNull String prefix) {
+            int index = Arrays.binarySearch(mTokens, prefix);
+            if (index >= 0) {
+                return true;
+            }
+            int insertionPoint = -index - 1;
+            return insertionPoint < mTokens.length && mTokens[insertionPoint].startsWith(prefix);
+        }
+    }
+
+    /*
+     * returns an index of the passed sites, reusing this index's entries for sites which haven't changed
+     */
+    @NonNull
+    SiteSearchIndex update(@NonNull List<SiteRecord> sites) {
+        Map<Integer, Entry> entries = new HashMap<>(sites.size());
+        for (SiteRecord site : sites) {
+            Entry entry = mEntries.get(site.getLocalId());
+            if (entry == null || !entry.isForSite(site)) {
+                entry = new Entry(site);
+            }
+            entries.put(site.getLocalId(), entry);
+        }
+        return new SiteSearchIndex(entries);
+    }
+
+    /*
+     * returns the passed sites which match the query, in the same order
+     */
+    @NonNull
+    SiteList search(@NonNull List<SiteRecord> sites, @NonNull String query) {
+        SiteList matches = new SiteList();
+        String normalizedQuery = normalize(query).trim();
+        if (normalizedQuery.isEmpty()) {
+            matches.addAll(sites);
+            return matches;
+        }
+
+        String[] queryTokens = tokenize(normalizedQuery);
+        for (SiteRecord site : sites) {
+            Entry entry = mEntries.get(site.getLocalId());
+            if (entry == null || !entry.isForSite(site)) {
+                entry = new Entry(site);
+            }
+            if (entry.matches(normalizedQuery, queryTokens)) {
+                matches.add(site);
+            }
+        }
+        return matches;
+    }
+
+    /*
+     * returns true if every site matching the new query also matches the previous one, in which case
+     * only the previous results need to be searched - this is the case when text is added to the end
+     * of a previous query which contained at least one word
+     */
+    static boolean isNarrowerQuery(@NonNull String previousQuery, @NonNull String query) {
+        String normalizedPreviousQuery = normalize(previousQuery).trim();
+        return tokenize(normalizedPreviousQuery).length > 0
+               && normalize(query).trim().startsWith(normalizedPreviousQuery);
+    }
+
+    @NonNull
+    static String normalize(@NonNull String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    @NonNull
+    private static String[] tokenize(@NonNull String normalizedText) {
+        TreeSet<String> tokens = new TreeSet<>();
+        addTokens(tokens, normalizedText);
+        return tokens.toArray(new String[0]);
+    }
+
+    private static void addTokens(@NonNull TreeSet<String> tokens, @NonNull String normalizedText) {
+        for (String token : TOKEN_SEPARATORS.split(normalizedText)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+    }
+}
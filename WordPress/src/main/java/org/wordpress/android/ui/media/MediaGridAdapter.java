@@ -4,7 +4,6 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
-import android.os.Handler;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -28,13 +27,13 @@ import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.ColorUtils;
 import org.wordpress.android.util.DisplayUtils;
-import org.wordpress.android.util.ImageUtils;
 import org.wordpress.android.util.MediaUtils;
 import org.wordpress.android.util.PhotoPickerUtils;
 import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.util.SiteUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.UrlUtils;
+import org.wordpress.android.util.VideoThumbnailLoader;
 import org.wordpress.android.util.ViewUtils;
 import org.wordpress.android.util.ViewUtilsKt;
 import org.wordpress.android.util.WPMediaUtils;
@@ -43,6 +42,7 @@ import org.wordpress.android.util.image.ImageType;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -59,7 +59,6 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
     private boolean mInMultiSelect;
     private boolean mLoadThumbnails = true;
 
-    private final Handler mHandler;
     private final LayoutInflater mInflater;
 
     private final Context mContext;
@@ -67,6 +66,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
 
     private final ArrayList<MediaModel> mMediaList = new ArrayList<>();
     private final ArrayList<Integer> mSelectedItems = new ArrayList<>();
+    private final HashSet<VideoThumbnailLoader.Request> mVideoThumbnailRequests = new HashSet<>();
 
     private final int mThumbWidth;
     private final int mThumbHeight;
@@ -99,7 +99,6 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
         mSite = site;
         mBrowserType = browserType;
         mInflater = LayoutInflater.from(context);
-        mHandler = new Handler();
 
         int displayWidth = DisplayUtils.getDisplayPixelWidth(mContext);
         mThumbWidth = displayWidth / getColumnCount(mContext);
@@ -162,6 +161,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
         }
 
         MediaModel media = mMediaList.get(position);
+        cancelVideoThumbnailRequest(holder);
 
         String strState = media.getUploadState();
         MediaUploadState state = MediaUploadState.fromString(strState);
@@ -183,7 +183,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
             }
         } else if (media.isVideo()) {
             holder.mFileContainer.setVisibility(View.GONE);
-            loadVideoThumbnail(position, media, holder.mImageView);
+            loadVideoThumbnail(media, holder);
         } else {
             // not an image or video, so show file name and file type
             String fileName = media.getFileName();
@@ -258,7 +258,8 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
     @Override
     public void onViewRecycled(GridViewHolder holder) {
         super.onViewRecycled(holder);
-        holder.mImageView.setTag(R.id.media_grid_file_path_id, null);
+        // don't decode thumbnails for videos which are no longer on screen
+        cancelVideoThumbnailRequest(holder);
     }
 
     public ArrayList<Integer> getSelectedItems() {
@@ -284,6 +285,7 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
         private final ViewGroup mRetryDeleteContainer;
         private final ImageView mImgRetry;
         private final ImageView mImgTrash;
+        private VideoThumbnailLoader.Request mVideoThumbnailRequest;
 
         GridViewHolder(View view) {
             super(view);
@@ -454,11 +456,10 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
     /*
      * loads the thumbnail for the passed video media item - works with both local and network videos
      */
-    private void loadVideoThumbnail(final int position, final @NonNull MediaModel media,
-                                    @NonNull final ImageView imageView) {
+    private void loadVideoThumbnail(@NonNull MediaModel media, @NonNull final GridViewHolder holder) {
         // if we have a thumbnail url, use it and be done
         if (!TextUtils.isEmpty(media.getThumbnailUrl()) && !MediaUtils.isVideo(media.getThumbnailUrl())) {
-            mImageManager.load(imageView, ImageType.VIDEO, media.getThumbnailUrl(), ScaleType.CENTER_CROP);
+            mImageManager.load(holder.mImageView, ImageType.VIDEO, media.getThumbnailUrl(), ScaleType.CENTER_CROP);
             return;
         }
 
@@ -475,33 +476,51 @@ public class MediaGridAdapter extends RecyclerView.Adapter<MediaGridAdapter.Grid
             AppLog.w(AppLog.T.MEDIA, "MediaGridAdapter > No path to video thumbnail");
             return;
         }
-        imageView.setTag(R.id.media_grid_file_path_id, filePath);
-        // see if we have a cached thumbnail before retrieving it
-        Bitmap bitmap = WordPress.getBitmapCache().get(filePath);
+
+        VideoThumbnailLoader thumbnailLoader = VideoThumbnailLoader.getInstance(mContext);
+        Bitmap bitmap = thumbnailLoader.getFromMemory(filePath, mThumbWidth);
         if (bitmap != null) {
-            mImageManager.load(imageView, bitmap, ScaleType.CENTER_CROP);
+            mImageManager.load(holder.mImageView, bitmap, ScaleType.CENTER_CROP);
             return;
         }
 
-        new Thread() {
-            @Override
-            public void run() {
-                final Bitmap thumb = ImageUtils.getVideoFrameFromVideo(filePath, mThumbWidth);
-                if (thumb != null) {
-                    mHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            WordPress.getBitmapCache().put(filePath, thumb);
-                            if (imageView.getTag(R.id.media_grid_file_path_id) instanceof String
-                                && (imageView.getTag(R.id.media_grid_file_path_id)).equals(filePath)) {
-                                imageView.setTag(R.id.media_grid_file_path_id, null);
-                                notifyItemChanged(position);
-                            }
-                        }
-                    });
-                }
-            }
-        }.start();
+        // clear the previous thumbnail while this one is retrieved, which is shared with any other
+        // request for the same video and is cancelled if the view is recycled first
+        mImageManager.cancelRequestAndClearImageView(holder.mImageView);
+        holder.mVideoThumbnailRequest = thumbnailLoader.load(filePath, mThumbWidth,
+                new VideoThumbnailLoader.Listener() {
+                    @Override
+                    public void onThumbnailLoaded(@NonNull String path, @NonNull Bitmap thumbnail) {
+                        mVideoThumbnailRequests.remove(holder.mVideoThumbnailRequest);
+                        holder.mVideoThumbnailRequest = null;
+                        mImageManager.load(holder.mImageView, thumbnail, ScaleType.CENTER_CROP);
+                    }
+
+                    @Override
+                    public void onThumbnailFailed(@NonNull String path) {
+                        mVideoThumbnailRequests.remove(holder.mVideoThumbnailRequest);
+                        holder.mVideoThumbnailRequest = null;
+                    }
+                });
+        mVideoThumbnailRequests.add(holder.mVideoThumbnailRequest);
+    }
+
+    private void cancelVideoThumbnailRequest(@NonNull GridViewHolder holder) {
+        if (holder.mVideoThumbnailRequest != null) {
+            holder.mVideoThumbnailRequest.cancel();
+            mVideoThumbnailRequests.remove(holder.mVideoThumbnailRequest);
+            holder.mVideoThumbnailRequest = null;
+        }
+    }
+
+    /*
+     * cancels video thumbnails which are still being retrieved, called when the grid is destroyed
+     */
+    public void cancelPendingTasks() {
+        for (VideoThumbnailLoader.Request request : mVideoThumbnailRequests) {
+            request.cancel();
+        }
+        mVideoThumbnailRequests.clear();
     }
 
     public boolean isEmpty() {
@@ -204,6 +204,14 @@ public class MediaGridFragment extends Fragment implements MediaGridAdapterCallb
         super.onStop();
     }
 
+    @Override
+    public void onDestroy() {
+        if (hasAdapter()) {
+            mGridAdapter.cancelPendingTasks();
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -77,7 +77,6 @@ import org.wordpress.android.util.ColorUtils;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.EditTextUtils;
-import org.wordpress.android.util.ImageUtils;
 import org.wordpress.android.util.LocaleManager;
 import org.wordpress.android.util.MediaUtils;
 import org.wordpress.android.util.NetworkUtils;
@@ -86,6 +85,7 @@ import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.util.SiteUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.ToastUtils;
+import org.wordpress.android.util.VideoThumbnailLoader;
 import org.wordpress.android.util.ViewUtilsKt;
 import org.wordpress.android.util.WPMediaUtils;
 import org.wordpress.android.util.WPPermissionUtils;
@@ -113,6 +113,7 @@ public class MediaSettingsActivity extends AppCompatActivity
     private long mDownloadId;
     private String mTitle;
     private boolean mDidRegisterEventBus;
+    private VideoThumbnailLoader.Request mVideoThumbnailRequest;
 
     private SiteModel mSite;
     private MediaModel mMedia;
@@ -473,6 +474,9 @@ public class MediaSettingsActivity extends AppCompatActivity
         if (mDidRegisterEventBus) {
             EventBus.getDefault().unregister(this);
         }
+        if (mVideoThumbnailRequest != null) {
+            mVideoThumbnailRequest.cancel();
+        }
         super.onDestroy();
     }
 
@@ -795,24 +799,21 @@ public class MediaSettingsActivity extends AppCompatActivity
      * often with .org and JP sites)
      */
     private void downloadVideoThumbnail() {
-        new Thread() {
-            @Override
-            public void run() {
-                int width = DisplayUtils.getDisplayPixelWidth(MediaSettingsActivity.this);
-                final Bitmap thumb = ImageUtils.getVideoFrameFromVideo(mMedia.getUrl(), width);
-                if (thumb != null) {
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (!isFinishing()) {
-                                WordPress.getBitmapCache().put(mMedia.getUrl(), thumb);
-                                mImageView.setImageBitmap(thumb);
-                            }
+        int width = DisplayUtils.getDisplayPixelWidth(this);
+        mVideoThumbnailRequest = VideoThumbnailLoader.getInstance(this).load(mMedia.getUrl(), width,
+                new VideoThumbnailLoader.Listener() {
+                    @Override
+                    public void onThumbnailLoaded(@NonNull String path, @NonNull Bitmap thumbnail) {
+                        if (!isFinishing()) {
+                            mImageView.setImageBitmap(thumbnail);
                         }
-                    });
-                }
-            }
-        }.start();
+                    }
+
+                    @Override
+                    public void onThumbnailFailed(@NonNull String path) {
+                        // nothing to do
+                    }
+                });
     }
 
     private void showFullScreen() {
@@ -34,6 +34,7 @@ import org.wordpress.android.ui.ActionableEmptyView;
 import org.wordpress.android.ui.ActivityLauncher;
 import org.wordpress.android.ui.PagePostCreationSourcesDetail;
 import org.wordpress.android.ui.RequestCodes;
+import org.wordpress.android.ui.ScrollFrameMonitor;
 import org.wordpress.android.ui.main.WPMainActivity;
 import org.wordpress.android.ui.main.WPMainActivity.OnScrollToTopListener;
 import org.wordpress.android.ui.notifications.NotificationEvents.NoteLikeOrModerationStatusChanged;
@@ -45,6 +46,7 @@ import org.wordpress.android.ui.notifications.adapters.NotesAdapter;
 import org.wordpress.android.ui.notifications.services.NotificationsUpdateServiceStarter;
 import org.wordpress.android.ui.notifications.utils.NotificationsActions;
 import org.wordpress.android.util.AniUtils;
+import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.CrashLoggingUtils;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.NetworkUtils;
@@ -172,6 +174,7 @@ public class NotificationsListFragmentPage extends Fragment implements
         mLinearLayoutManager = new LinearLayoutManager(getActivity());
         mRecyclerView = view.findViewById(R.id.notifications_list);
         mRecyclerView.setLayoutManager(mLinearLayoutManager);
+        mRecyclerView.addOnScrollListener(new ScrollFrameMonitor("notifications", AppLog.T.NOTIFS));
 
         mSwipeToRefreshHelper = buildSwipeToRefreshHelper(
                 (CustomSwipeRefreshLayout) view.findViewById(R.id.notifications_refresh),
@@ -514,7 +517,7 @@ public class NotificationsListFragmentPage extends Fragment implements
             return;
         }
 
-        mRecyclerView.clearOnScrollListeners();
+        mRecyclerView.removeOnScrollListener(mOnScrollListener);
         mRecyclerView.postDelayed(new Runnable() {
             @Override
             public void run() {
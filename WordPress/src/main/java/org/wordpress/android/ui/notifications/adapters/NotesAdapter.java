@@ -27,6 +27,7 @@ import org.wordpress.android.ui.notifications.blocks.NoteBlockClickableSpan;
 import org.wordpress.android.ui.notifications.utils.NotificationsUtilsWrapper;
 import org.wordpress.android.util.GravatarUtils;
 import org.wordpress.android.util.RtlUtils;
+import org.wordpress.android.util.SpannedCache;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
@@ -37,6 +38,8 @@ import java.util.List;
 import javax.inject.Inject;
 
 public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHolder> {
+    private static final int MAX_SPANNED_CACHE_CHARS = 128 * 1024;
+
     private final int mAvatarSz;
     private final int mColorRead;
     private final int mColorUnread;
@@ -46,6 +49,8 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     private final OnLoadMoreListener mOnLoadMoreListener;
     private final ArrayList<Note> mNotes = new ArrayList<>();
     private final ArrayList<Note> mFilteredNotes = new ArrayList<>();
+    // subjects are built from their ranges when notes are loaded so binding doesn't have to
+    private final SpannedCache mSubjectCache = new SpannedCache(MAX_SPANNED_CACHE_CHARS);
     @Inject protected ImageManager mImageManager;
     @Inject protected NotificationsUtilsWrapper mNotificationsUtilsWrapper;
     @Inject protected NoticonUtils mNoticonUtils;
@@ -244,11 +249,8 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
             commentStatus = CommentStatus.fromString(note.getLocalStatus());
         }
 
-        // Subject is stored in db as html to preserve text formatting
-        Spanned noteSubjectSpanned = note.getFormattedSubject(mNotificationsUtilsWrapper);
-        // Trim the '\n\n' added by Html.fromHtml()
-        noteSubjectSpanned =
-                (Spanned) noteSubjectSpanned.subSequence(0, TextUtils.getTrimmedLength(noteSubjectSpanned));
+        // the subject is normally prepared when notes are loaded, so this is a cache hit
+        Spanned noteSubjectSpanned = getCachedSubject(note);
 
         NoteBlockClickableSpan[] spans =
                 noteSubjectSpanned.getSpans(0, noteSubjectSpanned.length(), NoteBlockClickableSpan.class);
@@ -315,6 +317,40 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         }
     }
 
+    /*
+     * returns a stamp which changes whenever the note changes, matching Note.equalsTimeAndLength()
+     */
+    private static long getSubjectVersion(Note note) {
+        return note.getTimestamp() * 31 + note.getJSONLength();
+    }
+
+    private Spanned getCachedSubject(final Note note) {
+        SpannedCache.SpannedBuilder builder = new SpannedCache.SpannedBuilder() {
+            @Override
+            public Spanned build() {
+                // Subject is stored in db as html to preserve text formatting
+                Spanned subject = note.getFormattedSubject(mNotificationsUtilsWrapper);
+                // Trim the '\n\n' added by Html.fromHtml()
+                return (Spanned) subject.subSequence(0, TextUtils.getTrimmedLength(subject));
+            }
+        };
+        // notes without an id can't be told apart in the cache
+        if (TextUtils.isEmpty(note.getId())) {
+            return builder.build();
+        }
+        return mSubjectCache.getOrBuild(note.getId(), getSubjectVersion(note), builder);
+    }
+
+    /*
+     * builds the subjects of the passed notes so they're ready to bind - called in the background
+     * when notes are loaded
+     */
+    private void prepareSubjects(List<Note> notes) {
+        for (Note note : notes) {
+            getCachedSubject(note);
+        }
+    }
+
     private int getPositionForNoteUnfiltered(String noteId) {
         return getPositionForNoteInArray(noteId, mNotes);
     }
@@ -342,7 +378,9 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     private class ReloadNotesFromDBTask extends AsyncTask<Void, Void, ArrayList<Note>> {
         @Override
         protected ArrayList<Note> doInBackground(Void... voids) {
-            return NotificationsTable.getLatestNotes();
+            ArrayList<Note> notes = NotificationsTable.getLatestNotes();
+            prepareSubjects(notes);
+            return notes;
         }
 
         @Override
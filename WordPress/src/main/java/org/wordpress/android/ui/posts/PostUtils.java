@@ -21,6 +21,7 @@ import org.wordpress.android.fluxc.model.post.PostLocation;
 import org.wordpress.android.fluxc.model.post.PostStatus;
 import org.wordpress.android.fluxc.store.PostStore;
 import org.wordpress.android.ui.posts.RemotePreviewLogicHelper.RemotePreviewType;
+import org.wordpress.android.ui.posts.mediauploadcompletionprocessors.MediaUploadCompletionBatchProcessor;
 import org.wordpress.android.ui.posts.mediauploadcompletionprocessors.MediaUploadCompletionProcessor;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.ui.uploads.PostEvents;
@@ -430,6 +431,20 @@ public class PostUtils {
         return postContent;
     }
 
+    /**
+     * Same as {@link #replaceMediaFileWithUrlInGutenbergPost} for several media at once, processing the post in a
+     * single pass
+     */
+    public static String replaceMediaFilesWithUrlsInGutenbergPost(@NonNull String postContent,
+                                                                  Map<String, MediaFile> mediaFiles, String siteUrl) {
+        if (mediaFiles != null && !mediaFiles.isEmpty() && contentContainsGutenbergBlocks(postContent)) {
+            MediaUploadCompletionBatchProcessor processor = new MediaUploadCompletionBatchProcessor(mediaFiles,
+                    siteUrl);
+            postContent = processor.processPost(postContent);
+        }
+        return postContent;
+    }
+
     public static boolean isMediaInGutenbergPostBody(@NonNull String postContent,
                                             String localMediaId) {
         // check if media is in Gutenberg Post
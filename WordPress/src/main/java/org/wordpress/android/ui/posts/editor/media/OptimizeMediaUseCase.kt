@@ -6,7 +6,7 @@ import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.async
 import kotlinx.coroutines.withContext
 import org.wordpress.android.fluxc.model.SiteModel
-import org.wordpress.android.modules.BG_THREAD
+import org.wordpress.android.modules.IO_THREAD
 import org.wordpress.android.ui.posts.editor.EditorTracker
 import org.wordpress.android.util.MediaUtilsWrapper
 import javax.inject.Inject
@@ -21,14 +21,15 @@ import javax.inject.Named
 class OptimizeMediaUseCase @Inject constructor(
     private val editorTracker: EditorTracker,
     private val mediaUtilsWrapper: MediaUtilsWrapper,
-    @Named(BG_THREAD) private val bgDispatcher: CoroutineDispatcher
+    @Named(IO_THREAD) private val ioDispatcher: CoroutineDispatcher
 ) {
     suspend fun optimizeMediaIfSupportedAsync(
         site: SiteModel,
         freshlyTaken: Boolean,
         uriList: List<Uri>
     ): OptimizeMediaResult {
-        return withContext(bgDispatcher) {
+        // optimizations block while they wait for memory, which ImageOptimizer limits
+        return withContext(ioDispatcher) {
             uriList
                     .map { async { optimizeMediaAndTrackEvent(it, freshlyTaken, site) } }
                     .map { it.await() }
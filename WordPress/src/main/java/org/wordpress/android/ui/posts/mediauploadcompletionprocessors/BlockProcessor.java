@@ -6,6 +6,7 @@ import org.jsoup.nodes.Document.OutputSettings;
 import org.wordpress.android.editor.Utils;
 import org.wordpress.android.util.helpers.MediaFile;
 
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -114,6 +115,58 @@ abstract class BlockProcessor {
          return block;
      }
 
+    /**
+     * Processes a block with several processors at once, e.g. a gallery block containing more than one of the media
+     * whose upload has completed. This gives the same result as passing the block through each processor's
+     * {@link #processBlock(String)} in turn, but the block content is only parsed once.
+     *
+     * @param block The raw block contents
+     * @param processors The processors to apply, in order
+     * @return A string containing content with ids and urls replaced
+     */
+    static String processBlock(String block, List<BlockProcessor> processors) {
+        if (processors.size() == 1) {
+            return processors.get(0).processBlock(block);
+        }
+
+        // the block as it would be after the processors so far, but with its original content - that's enough to
+        // match each processor's header pattern, which is all that depends on earlier processors
+        String splicedBlock = block;
+        String headerComment = null;
+        String closingComment = null;
+        Document document = null;
+
+        for (BlockProcessor processor : processors) {
+            if (!processor.matchAndSpliceBlockHeader(splicedBlock)) {
+                continue;
+            }
+            if (document == null) {
+                document = Jsoup.parse(processor.mBlockContent);
+                document.outputSettings(OUTPUT_SETTINGS);
+            }
+            if (processor.processBlockContentDocument(document)) {
+                headerComment = processor.getHeaderComment();
+                closingComment = processor.mClosingComment;
+                splicedBlock = new StringBuilder()
+                        .append(headerComment)
+                        .append(processor.mBlockContent)
+                        .append(closingComment)
+                        .toString();
+            }
+        }
+
+        if (headerComment == null) {
+            // leave block unchanged
+            return block;
+        }
+
+        return new StringBuilder()
+                .append(headerComment)
+                .append(document.body().html()) // parser output
+                .append(closingComment)
+                .toString();
+    }
+
     /**
      * All concrete implementations must implement this method to return a regex pattern template for the particular
      * block type.<br>
@@ -140,7 +193,8 @@ abstract class BlockProcessor {
      * the html contents of the block to be processed, and is to be mutated in place.<br>
      * <br>
      * This method should return true to indicate success. Returning false will result in the block contents being
-     * unmodified.
+     * unmodified, so the document must not be changed before returning false - the same document may be passed to
+     * other processors (see {@link #processBlock(String, List)}).
      *
      * @param document The document to be mutated to make the necessary replacements
      * @return A boolean value indicating whether or not the block contents should be replaced
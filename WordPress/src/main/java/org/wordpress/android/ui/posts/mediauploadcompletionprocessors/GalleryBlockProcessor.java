@@ -59,36 +59,43 @@ public class GalleryBlockProcessor extends BlockProcessor {
 
         // if a match is found, proceed with replacement
         if (targetImg != null) {
-            // replace attributes
-            targetImg.attr("src", mRemoteUrl);
-            targetImg.attr("data-id", mRemoteId);
-            targetImg.attr("data-full-url", mRemoteUrl);
-            targetImg.attr("data-link", mAttachmentPageUrl);
-
-            // replace class
-            targetImg.removeClass("wp-image-" + mLocalId);
-            targetImg.addClass("wp-image-" + mRemoteId);
-
-            // check for linkTo property
+            // check for linkTo property before making any changes, since the document must be left unchanged if the
+            // parent anchor can't be updated
             Matcher linkToMatcher = PATTERN_GALLERY_LINK_TO.matcher(getHeaderComment());
 
-            // set parent anchor href if necessary
+            // determine parent anchor href if necessary
             Element parent = targetImg.parent();
+            String parentHref = null;
             if (parent != null && parent.is("a") && linkToMatcher.find()) {
                 String linkToValue = linkToMatcher.group(2);
 
                 switch (linkToValue) {
                     case "media":
-                        parent.attr("href", mRemoteUrl);
+                        parentHref = mRemoteUrl;
                         break;
                     case "attachment":
-                        parent.attr("href", mAttachmentPageUrl);
+                        parentHref = mAttachmentPageUrl;
                         break;
                     default:
                         return false;
                 }
             }
 
+            // replace attributes
+            targetImg.attr("src", mRemoteUrl);
+            targetImg.attr("data-id", mRemoteId);
+            targetImg.attr("data-full-url", mRemoteUrl);
+            targetImg.attr("data-link", mAttachmentPageUrl);
+
+            // replace class
+            targetImg.removeClass("wp-image-" + mLocalId);
+            targetImg.addClass("wp-image-" + mRemoteId);
+
+            // set parent anchor href
+            if (parentHref != null) {
+                parent.attr("href", parentHref);
+            }
+
             // return injected block
             return true;
         }
@@ -14,6 +14,12 @@ enum MediaBlockType {
     MEDIA_TEXT("media-text"),
     GALLERY("gallery");
 
+    private static final Pattern PATTERN_BLOCK_TYPE = Pattern.compile(new StringBuilder()
+            .append(PATTERN_BLOCK_PREFIX)
+            .append(MediaBlockType.getMatchingGroup())
+            .append(")")
+            .toString());
+
     private final String mName;
 
     MediaBlockType(String name) {
@@ -48,12 +54,7 @@ enum MediaBlockType {
      * @return The media block type or null if no match is found
      */
     static MediaBlockType detectBlockType(String block) {
-        final Pattern pattern = Pattern.compile(new StringBuilder()
-                .append(PATTERN_BLOCK_PREFIX)
-                .append(MediaBlockType.getMatchingGroup())
-                .append(")")
-                .toString());
-        Matcher matcher = pattern.matcher(block);
+        Matcher matcher = PATTERN_BLOCK_TYPE.matcher(block);
 
         if (matcher.find()) {
             return MediaBlockType.fromString(matcher.group(1));
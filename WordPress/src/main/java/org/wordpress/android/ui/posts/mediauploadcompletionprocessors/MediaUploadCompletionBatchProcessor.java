@@ -0,0 +1,111 @@
+package org.wordpress.android.ui.posts.mediauploadcompletionprocessors;
+
+import org.wordpress.android.util.helpers.MediaFile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.wordpress.android.ui.posts.mediauploadcompletionprocessors.MediaUploadCompletionProcessorPatterns.PATTERN_BLOCK;
+
+public class MediaUploadCompletionBatchProcessor {
+    /**
+     * A {@link Pattern} to find the numbers in a block header, which include any local media ids it refers to
+     */
+    private static final Pattern PATTERN_HEADER_NUMBER = Pattern.compile("\\d+");
+
+    private static final String HEADER_END = "-->";
+
+    private final Map<String, MediaFile> mMediaFiles;
+    private final String mSiteUrl;
+    private final Map<String, BlockProcessorFactory> mBlockProcessorFactories = new HashMap<>();
+
+    /**
+     * Processor used for replacing the local ids and urls of several media with their remote counterparts after their
+     * uploads have completed. Unlike running a {@link MediaUploadCompletionProcessor} for each media, the post is only
+     * scanned once and each block is only parsed once, however many of the media it contains.
+     *
+     * @param mediaFiles The mediaFiles containing the remote ids and remote urls, keyed by the local media id that
+     * needs replacement
+     * @param siteUrl The site url - used to generate the attachmentPage url
+     */
+    public MediaUploadCompletionBatchProcessor(Map<String, MediaFile> mediaFiles, String siteUrl) {
+        mMediaFiles = mediaFiles;
+        mSiteUrl = siteUrl;
+    }
+
+    /**
+     * Processes a post to replace the local ids and local urls of media with remote ids and remote urls. This matches
+     * media-containing blocks and delegates further processing to {@link #processBlock(String)}
+     *
+     * @param postContent The post content to be processed
+     * @return A string containing the processed post, or the original content if no match was found
+     */
+    public String processPost(String postContent) {
+        if (mMediaFiles.isEmpty()) {
+            return postContent;
+        }
+
+        Matcher matcher = PATTERN_BLOCK.matcher(postContent);
+        StringBuilder result = new StringBuilder(postContent.length());
+
+        int position = 0;
+
+        while (matcher.find()) {
+            result.append(postContent, position, matcher.start());
+            result.append(processBlock(matcher.group()));
+            position = matcher.end();
+        }
+
+        result.append(postContent, position, postContent.length());
+
+        return result.toString();
+    }
+
+    /**
+     * Processes a media block with the processors for each of the media it refers to, returning a raw content
+     * replacement string
+     *
+     * @param block The raw block contents
+     * @return A string containing content with ids and urls replaced
+     */
+    private String processBlock(String block) {
+        final MediaBlockType blockType = MediaBlockType.detectBlockType(block);
+        if (blockType == null) {
+            return block;
+        }
+
+        List<BlockProcessor> blockProcessors = new ArrayList<>();
+        int headerEnd = block.indexOf(HEADER_END);
+        Matcher matcher = PATTERN_HEADER_NUMBER.matcher(block);
+        matcher.region(0, headerEnd != -1 ? headerEnd : block.length());
+        while (matcher.find()) {
+            BlockProcessor blockProcessor = getBlockProcessor(matcher.group(), blockType);
+            if (blockProcessor != null && !blockProcessors.contains(blockProcessor)) {
+                blockProcessors.add(blockProcessor);
+            }
+        }
+
+        if (blockProcessors.isEmpty()) {
+            return block;
+        }
+
+        return BlockProcessor.processBlock(block, blockProcessors);
+    }
+
+    private BlockProcessor getBlockProcessor(String localId, MediaBlockType blockType) {
+        BlockProcessorFactory blockProcessorFactory = mBlockProcessorFactories.get(localId);
+        if (blockProcessorFactory == null) {
+            MediaFile mediaFile = mMediaFiles.get(localId);
+            if (mediaFile == null) {
+                return null;
+            }
+            blockProcessorFactory = new BlockProcessorFactory().init(localId, mediaFile, mSiteUrl);
+            mBlockProcessorFactories.put(localId, blockProcessorFactory);
+        }
+        return blockProcessorFactory.getProcessorForMediaBlockType(blockType);
+    }
+}
@@ -4,16 +4,13 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.media.ThumbnailUtils;
-import android.os.AsyncTask;
-import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.util.DisplayMetrics;
 
-import org.wordpress.android.util.ImageUtils;
-import org.wordpress.aztec.Html;
+import androidx.annotation.NonNull;
 
-import java.io.File;
+import org.wordpress.android.util.VideoThumbnailLoader;
+import org.wordpress.aztec.Html;
 
 public class AztecVideoLoader implements Html.VideoThumbnailGetter {
     private Context mContext;
@@ -38,26 +35,18 @@ public class AztecVideoLoader implements Html.VideoThumbnailGetter {
 
         callbacks.onThumbnailLoading(mLoadingInProgress);
 
-        new AsyncTask<Void, Void, Bitmap>() {
-            protected Bitmap doInBackground(Void... params) {
-                // If local file
-                if (new File(url).exists()) {
-                    return ThumbnailUtils.createVideoThumbnail(url, MediaStore.Images.Thumbnails.FULL_SCREEN_KIND);
-                }
-
-                return ImageUtils.getVideoFrameFromVideo(url, maxWidth);
+        VideoThumbnailLoader.getInstance(mContext).load(url, maxWidth, new VideoThumbnailLoader.Listener() {
+            @Override
+            public void onThumbnailLoaded(@NonNull String path, @NonNull Bitmap thumbnail) {
+                thumbnail.setDensity(DisplayMetrics.DENSITY_DEFAULT);
+                BitmapDrawable bitmapDrawable = new BitmapDrawable(mContext.getResources(), thumbnail);
+                callbacks.onThumbnailLoaded(bitmapDrawable);
             }
 
-            protected void onPostExecute(Bitmap thumb) {
-                if (thumb == null) {
-                    callbacks.onThumbnailFailed();
-                    return;
-                }
-                thumb = ImageUtils.getScaledBitmapAtLongestSide(thumb, maxWidth);
-                thumb.setDensity(DisplayMetrics.DENSITY_DEFAULT);
-                BitmapDrawable bitmapDrawable = new BitmapDrawable(mContext.getResources(), thumb);
-                callbacks.onThumbnailLoaded(bitmapDrawable);
+            @Override
+            public void onThumbnailFailed(@NonNull String path) {
+                callbacks.onThumbnailFailed();
             }
-        }.execute();
+        });
     }
 }
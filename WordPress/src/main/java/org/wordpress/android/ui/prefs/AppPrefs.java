@@ -1,6 +1,5 @@
 package org.wordpress.android.ui.prefs;
 
-import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 
@@ -53,6 +52,10 @@ public class AppPrefs {
         READER_TAG_TYPE,
         // last selected subfilter in the reader
         READER_SUBFILTER,
+        // reader tags the user has opened and how often, used to decide which to prefetch
+        READER_TAG_HISTORY,
+        // bytes used by reader prefetching today and how often prefetched posts were used
+        READER_PREFETCH_STATS,
 
         // title of the last active page in ReaderSubsActivity
         READER_SUBS_PAGE_TITLE,
@@ -211,8 +214,17 @@ public class AppPrefs {
         IS_MAIN_FAB_TOOLTIP_DISABLED,
     }
 
-    private static SharedPreferences prefs() {
-        return PreferenceManager.getDefaultSharedPreferences(WordPress.getContext());
+    private static AppPrefsStore sStore;
+
+    /*
+     * values are read from and written to an in-memory snapshot of the default shared preferences,
+     * see AppPrefsStore - values are still stored as strings as they always have been
+     */
+    private static synchronized AppPrefsStore store() {
+        if (sStore == null) {
+            sStore = new AppPrefsStore(PreferenceManager.getDefaultSharedPreferences(WordPress.getContext()));
+        }
+        return sStore;
     }
 
     private static String getString(PrefKey key) {
@@ -220,17 +232,15 @@ public class AppPrefs {
     }
 
     private static String getString(PrefKey key, String defaultValue) {
-        return prefs().getString(key.name(), defaultValue);
+        return store().getString(key.name(), defaultValue);
     }
 
     private static void setString(PrefKey key, String value) {
-        SharedPreferences.Editor editor = prefs().edit();
         if (TextUtils.isEmpty(value)) {
-            editor.remove(key.name());
+            store().remove(key.name());
         } else {
-            editor.putString(key.name(), value);
+            store().putString(key.name(), value);
         }
-        editor.apply();
     }
 
     private static long getLong(PrefKey key) {
@@ -238,12 +248,7 @@ public class AppPrefs {
     }
 
     private static long getLong(PrefKey key, long defaultValue) {
-        try {
-            String value = getString(key);
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return store().getLong(key.name(), defaultValue);
     }
 
     private static void setLong(PrefKey key, long value) {
@@ -251,15 +256,7 @@ public class AppPrefs {
     }
 
     private static int getInt(PrefKey key, int def) {
-        try {
-            String value = getString(key);
-            if (value.isEmpty()) {
-                return def;
-            }
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return def;
-        }
+        return store().getInt(key.name(), def);
     }
 
     public static int getInt(PrefKey key) {
@@ -271,8 +268,7 @@ public class AppPrefs {
     }
 
     public static boolean getBoolean(PrefKey key, boolean def) {
-        String value = getString(key, Boolean.toString(def));
-        return Boolean.parseBoolean(value);
+        return store().getBoolean(key.name(), def);
     }
 
     public static void setBoolean(PrefKey key, boolean value) {
@@ -280,24 +276,29 @@ public class AppPrefs {
     }
 
     private static void remove(PrefKey key) {
-        prefs().edit().remove(key.name()).apply();
+        store().remove(key.name());
     }
 
     public static boolean keyExists(@NonNull PrefKey key) {
-        return prefs().contains(key.name());
+        return store().contains(key.name());
     }
 
     // Exposed methods
 
+    /**
+     * writes changes which haven't been persisted yet, called when the app goes to the background
+     */
+    public static void flush() {
+        store().flush();
+    }
+
     /**
      * remove all user-related preferences
      */
     public static void reset() {
-        SharedPreferences.Editor editor = prefs().edit();
         for (DeletablePrefKey key : DeletablePrefKey.values()) {
-            editor.remove(key.name());
+            store().remove(key.name());
         }
-        editor.apply();
     }
 
     public static ReaderTag getReaderTag() {
@@ -314,13 +315,27 @@ public class AppPrefs {
             setString(DeletablePrefKey.READER_TAG_NAME, tag.getTagSlug());
             setInt(DeletablePrefKey.READER_TAG_TYPE, tag.tagType.toInt());
         } else {
-            prefs().edit()
-                   .remove(DeletablePrefKey.READER_TAG_NAME.name())
-                   .remove(DeletablePrefKey.READER_TAG_TYPE.name())
-                   .apply();
+            remove(DeletablePrefKey.READER_TAG_NAME);
+            remove(DeletablePrefKey.READER_TAG_TYPE);
         }
     }
 
+    public static String getReaderTagHistory() {
+        return getString(DeletablePrefKey.READER_TAG_HISTORY);
+    }
+
+    public static void setReaderTagHistory(String json) {
+        setString(DeletablePrefKey.READER_TAG_HISTORY, json);
+    }
+
+    public static String getReaderPrefetchStats() {
+        return getString(DeletablePrefKey.READER_PREFETCH_STATS);
+    }
+
+    public static void setReaderPrefetchStats(String json) {
+        setString(DeletablePrefKey.READER_PREFETCH_STATS, json);
+    }
+
     public static String getReaderSubfilter() {
         return getString(DeletablePrefKey.READER_SUBFILTER);
     }
@@ -355,9 +370,7 @@ public class AppPrefs {
         if (commentStatus != null) {
             setInt(DeletablePrefKey.COMMENTS_STATUS_TYPE_INDEX, commentStatus.ordinal());
         } else {
-            prefs().edit()
-                   .remove(DeletablePrefKey.COMMENTS_STATUS_TYPE_INDEX.name())
-                   .apply();
+            remove(DeletablePrefKey.COMMENTS_STATUS_TYPE_INDEX);
         }
     }
 
@@ -375,9 +388,7 @@ public class AppPrefs {
         if (peopleListFilter != null) {
             setInt(DeletablePrefKey.PEOPLE_LIST_FILTER_INDEX, peopleListFilter.ordinal());
         } else {
-            prefs().edit()
-                   .remove(DeletablePrefKey.PEOPLE_LIST_FILTER_INDEX.name())
-                   .apply();
+            remove(DeletablePrefKey.PEOPLE_LIST_FILTER_INDEX);
         }
     }
 
@@ -557,14 +568,12 @@ public class AppPrefs {
 
     public static long getPendingDraftsLastNotificationDate(PostModel post) {
         String key = DeletablePrefKey.PENDING_DRAFTS_NOTIFICATION_LAST_NOTIFICATION_DATES.name() + "-" + post.getId();
-        return prefs().getLong(key, 0);
+        return store().getLong(key, 0);
     }
 
     public static void setPendingDraftsLastNotificationDate(PostModel post, long timestamp) {
         String key = DeletablePrefKey.PENDING_DRAFTS_NOTIFICATION_LAST_NOTIFICATION_DATES.name() + "-" + post.getId();
-        SharedPreferences.Editor editor = prefs().edit();
-        editor.putLong(key, timestamp);
-        editor.apply();
+        store().putLong(key, timestamp);
     }
 
     public static boolean isImageOptimize() {
@@ -646,7 +655,7 @@ public class AppPrefs {
 
         Set<String> urls;
         try {
-            urls = prefs().getStringSet(key.name(), null);
+            urls = store().getStringSet(key.name());
         } catch (ClassCastException exp) {
             // no operation - This should not happen.
             return false;
@@ -670,7 +679,7 @@ public class AppPrefs {
         }
         Set<String> urls;
         try {
-            urls = prefs().getStringSet(key.name(), null);
+            urls = store().getStringSet(key.name());
         } catch (ClassCastException exp) {
             // nope - this should never happens
             return;
@@ -688,9 +697,7 @@ public class AppPrefs {
             newUrls.add(siteURL);
         }
 
-        SharedPreferences.Editor editor = prefs().edit();
-        editor.putStringSet(key.name(), newUrls);
-        editor.apply();
+        store().putStringSet(key.name(), newUrls);
     }
 
     public static boolean shouldShowGutenbergInfoPopupPhase2ForNewPosts(String siteURL) {
@@ -720,7 +727,7 @@ public class AppPrefs {
 
         Set<String> urls;
         try {
-            urls = prefs().getStringSet(DeletablePrefKey.GUTENBERG_OPT_IN_DIALOG_SHOWN.name(), null);
+            urls = store().getStringSet(DeletablePrefKey.GUTENBERG_OPT_IN_DIALOG_SHOWN.name());
         } catch (ClassCastException exp) {
             // no operation - This should not happen.
             return false;
@@ -738,7 +745,7 @@ public class AppPrefs {
         }
         Set<String> urls;
         try {
-            urls = prefs().getStringSet(DeletablePrefKey.GUTENBERG_OPT_IN_DIALOG_SHOWN.name(), null);
+            urls = store().getStringSet(DeletablePrefKey.GUTENBERG_OPT_IN_DIALOG_SHOWN.name());
         } catch (ClassCastException exp) {
             // nope - this should never happens
             return;
@@ -754,9 +761,7 @@ public class AppPrefs {
         } else {
             newUrls.remove(siteURL);
         }
-        SharedPreferences.Editor editor = prefs().edit();
-        editor.putStringSet(DeletablePrefKey.GUTENBERG_OPT_IN_DIALOG_SHOWN.name(), newUrls);
-        editor.apply();
+        store().putStringSet(DeletablePrefKey.GUTENBERG_OPT_IN_DIALOG_SHOWN.name(), newUrls);
     }
 
     public static void setVideoOptimizeWidth(int width) {
@@ -967,15 +972,15 @@ public class AppPrefs {
     }
 
     public static void setStatsWidgetSelectedSiteId(long siteId, int appWidgetId) {
-        prefs().edit().putLong(getSiteIdWidgetKey(appWidgetId), siteId).apply();
+        store().putLong(getSiteIdWidgetKey(appWidgetId), siteId);
     }
 
     public static long getStatsWidgetSelectedSiteId(int appWidgetId) {
-        return prefs().getLong(getSiteIdWidgetKey(appWidgetId), -1);
+        return store().getLong(getSiteIdWidgetKey(appWidgetId), -1);
     }
 
     public static void removeStatsWidgetSelectedSiteId(int appWidgetId) {
-        prefs().edit().remove(getSiteIdWidgetKey(appWidgetId)).apply();
+        store().remove(getSiteIdWidgetKey(appWidgetId));
     }
 
     @NonNull private static String getSiteIdWidgetKey(int appWidgetId) {
@@ -983,15 +988,15 @@ public class AppPrefs {
     }
 
     public static void setStatsWidgetColorModeId(int colorModeId, int appWidgetId) {
-        prefs().edit().putInt(getColorModeIdWidgetKey(appWidgetId), colorModeId).apply();
+        store().putInt(getColorModeIdWidgetKey(appWidgetId), colorModeId);
     }
 
     public static int getStatsWidgetColorModeId(int appWidgetId) {
-        return prefs().getInt(getColorModeIdWidgetKey(appWidgetId), -1);
+        return store().getInt(getColorModeIdWidgetKey(appWidgetId), -1);
     }
 
     public static void removeStatsWidgetColorModeId(int appWidgetId) {
-        prefs().edit().remove(getColorModeIdWidgetKey(appWidgetId)).apply();
+        store().remove(getColorModeIdWidgetKey(appWidgetId));
     }
 
     @NonNull private static String getColorModeIdWidgetKey(int appWidgetId) {
@@ -999,15 +1004,15 @@ public class AppPrefs {
     }
 
     public static void setStatsWidgetDataTypeId(int dataTypeId, int appWidgetId) {
-        prefs().edit().putInt(getDataTypeIdWidgetKey(appWidgetId), dataTypeId).apply();
+        store().putInt(getDataTypeIdWidgetKey(appWidgetId), dataTypeId);
     }
 
     public static int getStatsWidgetDataTypeId(int appWidgetId) {
-        return prefs().getInt(getDataTypeIdWidgetKey(appWidgetId), -1);
+        return store().getInt(getDataTypeIdWidgetKey(appWidgetId), -1);
     }
 
     public static void removeStatsWidgetDataTypeId(int appWidgetId) {
-        prefs().edit().remove(getDataTypeIdWidgetKey(appWidgetId)).apply();
+        store().remove(getDataTypeIdWidgetKey(appWidgetId));
     }
 
     @NonNull private static String getDataTypeIdWidgetKey(int appWidgetId) {
@@ -1015,15 +1020,15 @@ public class AppPrefs {
     }
 
     public static void setStatsWidgetHasData(boolean hasData, int appWidgetId) {
-        prefs().edit().putBoolean(getHasDataWidgetKey(appWidgetId), hasData).apply();
+        store().putBoolean(getHasDataWidgetKey(appWidgetId), hasData);
     }
 
     public static boolean getStatsWidgetHasData(int appWidgetId) {
-        return prefs().getBoolean(getHasDataWidgetKey(appWidgetId), false);
+        return store().getBoolean(getHasDataWidgetKey(appWidgetId), false);
     }
 
     public static void removeStatsWidgetHasData(int appWidgetId) {
-        prefs().edit().remove(getHasDataWidgetKey(appWidgetId)).apply();
+        store().remove(getHasDataWidgetKey(appWidgetId));
     }
 
     @NonNull private static String getHasDataWidgetKey(int appWidgetId) {
@@ -0,0 +1,333 @@
+package org.wordpress.android.ui.prefs;
+
+import android.content.SharedPreferences;
+import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * in-memory snapshot of a SharedPreferences file which AppPrefs reads and writes through, so reads
+ * don't go through SharedPreferences or parse the same string each time, and bursts of writes are
+ * persisted together rather than each queueing its own rewrite of the file
+ * <p>
+ * the snapshot is loaded once, and values stored as strings (which is how AppPrefs has always
+ * stored numbers and booleans) are parsed the first time they're read then cached until they're
+ * written again - the file's format is unchanged, so existing values are read as they were.
+ * writes update the snapshot immediately and are applied to SharedPreferences in a single edit
+ * FLUSH_DELAY_MS after the first of them. changes made to the file elsewhere (ex: settings
+ * screens) are picked up through a change listener.
+ */
+class AppPrefsStore {
+    // writes made within this long of the first unsaved write are persisted together
+    private static final long FLUSH_DELAY_MS = 100;
+
+    // stands in for removed values, since neither the snapshot nor pending writes can hold nulls
+    private static final Object REMOVED = new Object();
+
+    private final SharedPreferences mPrefs;
+    private final Map<String, Object> mValues;
+    private final Map<String, ParsedValue> mParsedValues = new ConcurrentHashMap<>();
+    private final Map<String, Object> mPendingWrites = new HashMap<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    // SharedPreferences only holds a weak reference to its listeners, so this must be a field
+    private final OnSharedPreferenceChangeListener mChangeListener = new OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            onExternalChange(key);
+        }
+    };
+
+    /*
+     * the result of parsing a string value, along with the string so a result cached while the
+     * value was being replaced is never returned for the new value
+     */
+    private static class ParsedValue {
+        private final String mString;
+        private final Object mValue;
+
+        ParsedValue(@NonNull String string, @NonNull Object value) {
+            mString = string;
+            mValue = value;
+        }
+    }
+
+    AppPrefsStore(@NonNull SharedPreferences prefs) {
+        long startTime = SystemClock.elapsedRealtime();
+        mPrefs = prefs;
+
+        Map<String, ?> values = prefs.getAll();
+        mValues = new ConcurrentHashMap<>(Math.max(16, values.size() * 2));
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                mValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        prefs.registerOnSharedPreferenceChangeListener(mChangeListener);
+
+        AppLog.d(T.UTILS, "app prefs > loaded " + mValues.size() + " values in "
+                          + (SystemClock.elapsedRealtime() - startTime) + "ms");
+    }
+
+    boolean contains(@NonNull String key) {
+        return mValues.containsKey(key);
+    }
+
+    /*
+     * returns the string stored for the key, or the default if there isn't one - values which
+     * weren't stored as strings are returned as their string representation
+     */
+    @Nullable
+    String getString(@NonNull String key, @Nullable String defaultValue) {
+        Object value = mValues.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof String ? (String) value : String.valueOf(value);
+    }
+
+    int getInt(@NonNull String key, int defaultValue) {
+        Object value = mValues.get(key);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        Object parsed = getParsedValue(key, value);
+        if (parsed instanceof Integer) {
+            return (Integer) parsed;
+        }
+        if (!(value instanceof String)) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt((String) value);
+            mParsedValues.put(key, new ParsedValue((String) value, intValue));
+            return intValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    long getLong(@NonNull String key, long defaultValue) {
+        Object value = mValues.get(key);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        Object parsed = getParsedValue(key, value);
+        if (parsed instanceof Long) {
+            return (Long) parsed;
+        }
+        if (!(value instanceof String)) {
+            return defaultValue;
+        }
+        try {
+            long longValue = Long.parseLong((String) value);
+            mParsedValues.put(key, new ParsedValue((String) value, longValue));
+            return longValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /*
+     * booleans stored as strings are true only if the string is "true", same as Boolean.parseBoolean()
+     */
+    boolean getBoolean(@NonNull String key, boolean defaultValue) {
+        Object value = mValues.get(key);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        Object parsed = getParsedValue(key, value);
+        if (parsed instanceof Boolean) {
+            return (Boolean) parsed;
+        }
+        if (!(value instanceof String)) {
+            return defaultValue;
+        }
+        boolean booleanValue = Boolean.parseBoolean((String) value);
+        mParsedValues.put(key, new ParsedValue((String) value, booleanValue));
+        return booleanValue;
+    }
+
+    /*
+     * returns an unmodifiable copy of the set stored for the key, or null if there isn't one
+     */
+    @Nullable
+    Set<String> getStringSet(@NonNull String key) {
+        Object value = mValues.get(key);
+        if (!(value instanceof Set)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> set = (Set<String>) value;
+        return Collections.unmodifiableSet(set);
+    }
+
+    void putString(@NonNull String key, @NonNull String value) {
+        put(key, value);
+    }
+
+    void putInt(@NonNull String key, int value) {
+        put(key, value);
+    }
+
+    void putLong(@NonNull String key, long value) {
+        put(key, value);
+    }
+
+    void putBoolean(@NonNull String key, boolean value) {
+        put(key, value);
+    }
+
+    void putStringSet(@NonNull String key, @NonNull Set<String> value) {
+        put(key, new HashSet<>(value));
+    }
+
+    void remove(@NonNull String key) {
+        put(key, REMOVED);
+    }
+
+    /*
+     * writes all pending changes to SharedPreferences in a single edit - called automatically after
+     * writes, and when the app goes to the background so changes aren't lost if the process is killed
+     */
+    void flush() {
+        Map<String, Object> writes;
+        synchronized (mPendingWrites) {
+            mHandler.removeCallbacks(mFlushRunnable);
+            if (mPendingWrites.isEmpty()) {
+                return;
+            }
+            writes = new HashMap<>(mPendingWrites);
+            mPendingWrites.clear();
+        }
+
+        SharedPreferences.Editor editor = mPrefs.edit();
+        for (Map.Entry<String, Object> entry : writes.entrySet()) {
+            putInEditor(editor, entry.getKey(), entry.getValue());
+        }
+        editor.apply();
+    }
+
+    int getPendingWriteCount() {
+        synchronized (mPendingWrites) {
+            return mPendingWrites.size();
+        }
+    }
+
+    private void put(@NonNull String key, @NonNull Object value) {
+        synchronized (mPendingWrites) {
+            if (value == REMOVED) {
+                mValues.remove(key);
+            } else {
+                mValues.put(key, value);
+            }
+            mParsedValues.remove(key);
+            if (mPendingWrites.isEmpty()) {
+                mHandler.postDelayed(mFlushRunnable, FLUSH_DELAY_MS);
+            }
+            mPendingWrites.put(key, value);
+        }
+    }
+
+    /*
+     * returns the cached result of parsing the value for the key, if it was parsed from this value
+     */
+    @Nullable
+    private Object getParsedValue(@NonNull String key, @Nullable Object value) {
+        ParsedValue parsed = mParsedValues.get(key);
+        return parsed != null && parsed.mString == value ? parsed.mValue : null;
+    }
+
+    /*
+     * called on the main thread when a value changes in SharedPreferences, including when our own
+     * writes are applied - values with pending writes are ignored since the pending value is newer
+     */
+    private void onExternalChange(@Nullable String key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (mPendingWrites) {
+            if (mPendingWrites.containsKey(key)) {
+                return;
+            }
+            Object value = readValue(key);
+            if (value == null) {
+                mValues.remove(key);
+            } else {
+                mValues.put(key, value);
+            }
+            mParsedValues.remove(key);
+        }
+    }
+
+    /*
+     * reads the value for the key from SharedPreferences, using the type of the value in the snapshot
+     * so the whole file doesn't have to be copied by getAll() unless the key is new or changed type
+     */
+    @Nullable
+    private Object readValue(@NonNull String key) {
+        if (!mPrefs.contains(key)) {
+            return null;
+        }
+        Object current = mValues.get(key);
+        try {
+            if (current instanceof String) {
+                return mPrefs.getString(key, null);
+            } else if (current instanceof Integer) {
+                return mPrefs.getInt(key, 0);
+            } else if (current instanceof Long) {
+                return mPrefs.getLong(key, 0);
+            } else if (current instanceof Boolean) {
+                return mPrefs.getBoolean(key, false);
+            } else if (current instanceof Set) {
+                return mPrefs.getStringSet(key, null);
+            }
+        } catch (ClassCastException e) {
+            // the value's type has changed
+        }
+        return mPrefs.getAll().get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putInEditor(@NonNull SharedPreferences.Editor editor, @NonNull String key,
+                                    @NonNull Object value) {
+        if (value == REMOVED) {
+            editor.remove(key);
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        } else {
+            AppLog.w(T.UTILS, "app prefs > unable to store value of " + key);
+        }
+    }
+}
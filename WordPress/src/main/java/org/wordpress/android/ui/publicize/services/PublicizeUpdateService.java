@@ -104,7 +104,7 @@ public class PublicizeUpdateService extends JobIntentService {
         };
 
         String path = "/meta/external-services?type=publicize";
-        WordPress.getRestClientUtilsV1_1().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_1().getBatched(path, null, listener, errorListener);
     }
 
     /*
@@ -130,6 +130,6 @@ public class PublicizeUpdateService extends JobIntentService {
         };
 
         String path = String.format(Locale.ROOT, "sites/%d/publicize-connections", siteId);
-        WordPress.getRestClientUtilsV1_1().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_1().getBatched(path, null, listener, errorListener);
     }
 }
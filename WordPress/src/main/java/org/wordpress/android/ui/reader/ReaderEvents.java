@@ -107,6 +107,22 @@ public class ReaderEvents {
         }
     }
 
+    /*
+     * posted when cached posts matching a search have been added to its results while the
+     * search request is still in flight
+     */
+    public static class SearchPostsCachedResultsAdded {
+        private final String mQuery;
+
+        public SearchPostsCachedResultsAdded(@NonNull String query) {
+            mQuery = query;
+        }
+
+        public String getQuery() {
+            return mQuery;
+        }
+    }
+
     public static class SearchPostsEnded {
         private final String mQuery;
         private final boolean mDidSucceed;
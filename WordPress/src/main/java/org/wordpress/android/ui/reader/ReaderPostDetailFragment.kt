@@ -100,6 +100,7 @@ import org.wordpress.android.util.WPSwipeToRefreshHelper.buildSwipeToRefreshHelp
 import org.wordpress.android.util.WPUrlUtils
 import org.wordpress.android.util.analytics.AnalyticsUtils
 import org.wordpress.android.util.helpers.SwipeToRefreshHelper
+import org.wordpress.android.util.image.ImageManager
 import org.wordpress.android.util.widgets.CustomSwipeRefreshLayout
 import org.wordpress.android.widgets.WPScrollView
 import org.wordpress.android.widgets.WPScrollView.ScrollDirectionListener
@@ -163,6 +164,7 @@ class ReaderPostDetailFragment : Fragment(),
     @Inject internal lateinit var dispatcher: Dispatcher
     @Inject internal lateinit var readerFileDownloadManager: ReaderFileDownloadManager
     @Inject internal lateinit var featuredImageUtils: FeaturedImageUtils
+    @Inject internal lateinit var imageManager: ImageManager
 
     private val mSignInClickListener = View.OnClickListener {
         EventBus.getDefault()
@@ -527,6 +529,9 @@ class ReaderPostDetailFragment : Fragment(),
         } else {
             ReaderPostActions.addToBookmarked(post)
             AnalyticsTracker.track(READER_POST_SAVED_FROM_DETAILS)
+            ReaderPostRenderer.saveForOfflineAsync(
+                    activity, post.blogId, post.postId, featuredImageUtils, imageManager, accountStore.accessToken
+            )
             if (AppPrefs.shouldShowBookmarksSavedLocallyDialog()) {
                 AppPrefs.setBookmarksSavedLocallyDialogShown()
                 showBookmarksSavedLocallyDialog()
@@ -1220,6 +1225,14 @@ class ReaderPostDetailFragment : Fragment(),
             renderer = ReaderPostRenderer(readerWebView, post, featuredImageUtils)
             renderer!!.beginRender()
 
+            // fill in anything a saved post is missing (ex: it was saved without a network connection)
+            if (post!!.isBookmarked) {
+                ReaderPostRenderer.saveForOfflineAsync(
+                        activity, post!!.blogId, post!!.postId, featuredImageUtils, imageManager,
+                        accountStore.accessToken
+                )
+            }
+
             // if we're showing just the excerpt, also show a footer which links to the full post
             if (post!!.shouldShowExcerpt()) {
                 val excerptFooter = view!!.findViewById<ViewGroup>(R.id.excerpt_footer)
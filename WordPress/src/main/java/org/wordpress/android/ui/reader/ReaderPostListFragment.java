@@ -104,12 +104,14 @@ import org.wordpress.android.ui.reader.adapters.ReaderSiteSearchAdapter;
 import org.wordpress.android.ui.reader.adapters.ReaderSiteSearchAdapter.SiteSearchAdapterListener;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
+import org.wordpress.android.ui.reader.services.prefetch.ReaderPrefetchScheduler;
 import org.wordpress.android.ui.reader.services.search.ReaderSearchServiceStarter;
 import org.wordpress.android.ui.reader.services.update.ReaderUpdateLogic.UpdateTask;
 import org.wordpress.android.ui.reader.services.update.ReaderUpdateServiceStarter;
 import org.wordpress.android.ui.reader.subfilter.SubfilterListItem.Site;
 import org.wordpress.android.ui.reader.tracker.ReaderTracker;
 import org.wordpress.android.ui.reader.tracker.ReaderTrackerType;
+import org.wordpress.android.ui.reader.utils.FeaturedImageUtils;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.ui.reader.viewmodels.ReaderModeInfo;
 import org.wordpress.android.ui.reader.viewmodels.ReaderPostListViewModel;
@@ -125,6 +127,7 @@ import org.wordpress.android.util.QuickStartUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.util.WPActivityUtils;
+import org.wordpress.android.util.WPExecutors;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.widgets.AppRatingDialog;
@@ -225,6 +228,7 @@ public class ReaderPostListFragment extends Fragment
     @Inject QuickStartStore mQuickStartStore;
     @Inject UiHelpers mUiHelpers;
     @Inject ReaderTracker mReaderTracker;
+    @Inject FeaturedImageUtils mFeaturedImageUtils;
 
     private enum ActionableEmptyViewButtonType {
         DISCOVER,
@@ -1404,6 +1408,19 @@ public class ReaderPostListFragment extends Fragment
         setEmptyTitleDescriptionAndButton(false);
     }
 
+    @SuppressWarnings("unused")
+    @Subscribe(threadMode = ThreadMode.MAIN)
+    public void onEventMainThread(ReaderEvents.SearchPostsCachedResultsAdded event) {
+        if (!isAdded()) {
+            return;
+        }
+
+        if (getPostListType() == ReaderPostListType.SEARCH_RESULTS
+            && event.getQuery().equals(mCurrentSearchQuery)) {
+            refreshPosts();
+        }
+    }
+
     @SuppressWarnings("unused")
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEventMainThread(ReaderEvents.SearchPostsEnded event) {
@@ -1766,14 +1783,9 @@ public class ReaderPostListFragment extends Fragment
                         return;
                     }
 
-                    String tag = Long.toString(blogId) + Long.toString(postId);
-
-                    if (NetworkUtils.isNetworkAvailable(getActivity())
-                        && isCachingActionRequired && isBookmarked
-                        && getFragmentManager().findFragmentByTag(tag) == null) {
-                        getFragmentManager().beginTransaction()
-                                            .add(ReaderPostWebViewCachingFragment.newInstance(blogId, postId), tag)
-                                            .commit();
+                    if (isCachingActionRequired && isBookmarked) {
+                        ReaderPostRenderer.saveForOfflineAsync(getActivity(), blogId, postId, mFeaturedImageUtils,
+                                mImageManager, mAccountStore.getAccessToken());
                     }
 
                     if (isBookmarked && !isBookmarksList()) {
@@ -2032,7 +2044,8 @@ public class ReaderPostListFragment extends Fragment
             case TAG_FOLLOWED:
                 // remember this as the current tag if viewing followed tag
                 AppPrefs.setReaderTag(validTag);
-
+                // and learn that it's a stream the user reads, so it can be prefetched
+                ReaderPrefetchScheduler.onTagOpened(getActivity(), tag);
                 break;
             case TAG_PREVIEW:
                 mTagPreviewHistory.push(tag.getTagSlug());
@@ -2172,6 +2185,11 @@ public class ReaderPostListFragment extends Fragment
             return;
         }
 
+        // let the adapter know the gap fill is over, even if it started it and the posts won't be shown yet
+        if (event.getAction() == UpdateAction.REQUEST_OLDER_THAN_GAP && hasPostAdapter()) {
+            getPostAdapter().onFillGapEnded(event.getResult() == ReaderActions.UpdateResult.FAILED);
+        }
+
         // don't show new posts if user is searching - posts will automatically
         // appear when search is exited
         if (isSearchViewExpanded()
@@ -2238,7 +2256,7 @@ public class ReaderPostListFragment extends Fragment
         if (!isAdded() || !hasCurrentTag()) {
             return;
         }
-        new Thread() {
+        WPExecutors.io(new Runnable() {
             @Override
             public void run() {
                 if (ReaderTagTable.shouldAutoUpdateTag(getCurrentTag()) && isAdded()) {
@@ -2250,7 +2268,7 @@ public class ReaderPostListFragment extends Fragment
                     });
                 }
             }
-        }.start();
+        });
     }
 
     private boolean isUpdating() {
@@ -30,6 +30,7 @@ import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.fluxc.store.AccountStore;
 import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderTag;
@@ -46,6 +47,7 @@ import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter;
 import org.wordpress.android.ui.reader.tracker.ReaderTracker;
 import org.wordpress.android.ui.reader.tracker.ReaderTrackerType;
+import org.wordpress.android.ui.reader.utils.FeaturedImageUtils;
 import org.wordpress.android.util.ActivityUtils;
 import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
@@ -53,6 +55,7 @@ import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.LocaleManager;
 import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.ToastUtils;
+import org.wordpress.android.util.WPExecutors;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
 import org.wordpress.android.widgets.WPSwipeSnackbar;
 import org.wordpress.android.widgets.WPViewPager;
@@ -126,8 +129,10 @@ public class ReaderPostPagerActivity extends AppCompatActivity
 
     private final HashSet<Integer> mTrackedPositions = new HashSet<>();
 
+    @Inject AccountStore mAccountStore;
     @Inject SiteStore mSiteStore;
     @Inject ReaderTracker mReaderTracker;
+    @Inject FeaturedImageUtils mFeaturedImageUtils;
 
     @Override
     protected void attachBaseContext(Context newBase) {
@@ -237,6 +242,7 @@ public class ReaderPostPagerActivity extends AppCompatActivity
 
                 mLastSelectedPosition = position;
                 updateTitle(position);
+                prerenderAdjacentPosts(position);
             }
         });
 
@@ -611,6 +617,23 @@ public class ReaderPostPagerActivity extends AppCompatActivity
         return adapter.getCurrentBlogIdPostId();
     }
 
+    /*
+     * prerenders the posts on either side of the passed position - images in the next post are also
+     * prefetched if it's private, since the WebView can't cache those itself
+     */
+    private void prerenderAdjacentPosts(int position) {
+        ReaderBlogIdPostId previousIds = getAdapterBlogIdPostIdAtPosition(position - 1);
+        if (previousIds != null) {
+            ReaderPostRenderer.prerenderAsync(this, previousIds.getBlogId(), previousIds.getPostId(),
+                    mFeaturedImageUtils);
+        }
+        ReaderBlogIdPostId nextIds = getAdapterBlogIdPostIdAtPosition(position + 1);
+        if (nextIds != null) {
+            ReaderPostRenderer.prerenderAsync(this, nextIds.getBlogId(), nextIds.getPostId(), mFeaturedImageUtils,
+                    mAccountStore.getAccessToken());
+        }
+    }
+
     private ReaderBlogIdPostId getAdapterBlogIdPostIdAtPosition(int position) {
         PostPagerAdapter adapter = getPagerAdapter();
         if (adapter == null) {
@@ -672,7 +695,7 @@ public class ReaderPostPagerActivity extends AppCompatActivity
      * one will be made active
      */
     private void loadPosts(final long blogId, final long postId) {
-        new Thread() {
+        WPExecutors.io(new Runnable() {
             @Override
             public void run() {
                 final ReaderBlogIdPostIdList idList;
@@ -727,7 +750,7 @@ public class ReaderPostPagerActivity extends AppCompatActivity
                     }
                 });
             }
-        }.start();
+        });
     }
 
     private ReaderTag getCurrentTag() {
@@ -1,31 +1,45 @@
 package org.wordpress.android.ui.reader;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.net.Uri;
 import android.os.Handler;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.datasets.ReaderPostTable;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostDiscoverData;
+import org.wordpress.android.networking.AuthenticatedWebResourceLoader;
 import org.wordpress.android.ui.reader.utils.FeaturedImageUtils;
 import org.wordpress.android.ui.reader.utils.ImageSizeMap;
 import org.wordpress.android.ui.reader.utils.ImageSizeMap.ImageSize;
 import org.wordpress.android.ui.reader.utils.ReaderEmbedScanner;
 import org.wordpress.android.ui.reader.utils.ReaderHtmlUtils;
-import org.wordpress.android.ui.reader.utils.ReaderIframeScanner;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
+import org.wordpress.android.ui.reader.utils.ReaderPostContentRewriter;
+import org.wordpress.android.ui.reader.utils.ReaderPostHtmlCache;
+import org.wordpress.android.ui.reader.utils.ReaderResourceScanner;
+import org.wordpress.android.ui.reader.utils.ReaderSavedPostAssets;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
+import org.wordpress.android.ui.reader.views.ReaderPostDetailHeaderView;
 import org.wordpress.android.ui.reader.views.ReaderWebView;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DisplayUtils;
+import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.util.StringUtils;
+import org.wordpress.android.util.UrlUtils;
+import org.wordpress.android.util.WPExecutors;
+import org.wordpress.android.util.image.ImageManager;
 
 import java.lang.ref.WeakReference;
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Random;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -40,20 +54,34 @@ import java.util.regex.Pattern;
  * http://developer.android.com/guide/webapps/targeting.html
  */
 public class ReaderPostRenderer {
+    private static final Pattern TILED_GALLERY_PATTERN = Pattern.compile("tiled-gallery[\\s\"']");
+
+    // the most images prefetched for a private post
+    private static final int MAX_PREFETCH_IMAGES = 10;
+
     private final ReaderResourceVars mResourceVars;
     private final ReaderPost mPost;
     private final int mMinFullSizeWidthDp;
     private final int mMinMidSizeWidthDp;
     private final WeakReference<ReaderWebView> mWeakWebView;
 
-    private StringBuilder mRenderBuilder;
     private String mRenderedHtml;
     private ImageSizeMap mAttachmentSizes;
     private FeaturedImageUtils mFeaturedImageUtils;
 
     @SuppressLint("SetJavaScriptEnabled")
     public ReaderPostRenderer(ReaderWebView webView, ReaderPost post, FeaturedImageUtils featuredImageUtils) {
-        if (webView == null) {
+        this(webView, post, featuredImageUtils,
+                webView != null ? new ReaderResourceVars(webView.getContext()) : null);
+
+        // enable JavaScript in the webView, otherwise videos and other embedded content won't
+        // work - note that the content is scrubbed on the backend so this is considered safe
+        webView.getSettings().setJavaScriptEnabled(true);
+    }
+
+    private ReaderPostRenderer(ReaderWebView webView, ReaderPost post, FeaturedImageUtils featuredImageUtils,
+                               ReaderResourceVars resourceVars) {
+        if (resourceVars == null) {
             throw new IllegalArgumentException("ReaderPostRenderer requires a webView");
         }
         if (post == null) {
@@ -62,43 +90,132 @@ public class ReaderPostRenderer {
 
         mPost = post;
         mWeakWebView = new WeakReference<>(webView);
-        mResourceVars = new ReaderResourceVars(webView.getContext());
+        mResourceVars = resourceVars;
         mFeaturedImageUtils = featuredImageUtils;
 
         mMinFullSizeWidthDp = pxToDp(mResourceVars.mFullSizeImageWidthPx / 3);
         mMinMidSizeWidthDp = mMinFullSizeWidthDp / 2;
+    }
 
-        // enable JavaScript in the webView, otherwise videos and other embedded content won't
-        // work - note that the content is scrubbed on the backend so this is considered safe
-        webView.getSettings().setJavaScriptEnabled(true);
+    /*
+     * renders the passed post into the HTML cache in the background without displaying it, used
+     * to prepare posts the user is likely to open next (ex: adjacent posts in the pager)
+     */
+    public static void prerenderAsync(Context context, final long blogId, final long postId,
+                                      final FeaturedImageUtils featuredImageUtils) {
+        prerenderAsync(context, blogId, postId, featuredImageUtils, null);
     }
 
-    public void beginRender() {
-        final Handler handler = new Handler();
-        mRenderBuilder = new StringBuilder(getPostContent());
+    /*
+     * same as above, but when an access token is passed the images in a private post are also
+     * downloaded into the private resource cache, since the WebView can't cache them itself
+     */
+    public static void prerenderAsync(Context context, final long blogId, final long postId,
+                                      final FeaturedImageUtils featuredImageUtils,
+                                      @Nullable final String accessToken) {
+        final ReaderResourceVars resourceVars = new ReaderResourceVars(context);
+        final Context appContext = context.getApplicationContext();
 
-        new Thread() {
+        WPExecutors.parse(new Runnable() {
             @Override
             public void run() {
-                final boolean hasTiledGallery = hasTiledGallery(mRenderBuilder.toString());
+                ReaderPost post = ReaderPostTable.getBlogPost(blogId, postId, false);
+                if (post == null) {
+                    return;
+                }
+
+                String html = prerender(post, featuredImageUtils, resourceVars);
+                if (!TextUtils.isEmpty(accessToken) && post.isPrivate && UrlUtils.isHttps(post.getBlogUrl())) {
+                    prefetchPrivateImages(appContext, html, accessToken);
+                }
+            }
+        });
+    }
 
-                if (!(hasTiledGallery && mResourceVars.mIsWideDisplay)) {
-                    resizeImages();
+    /*
+     * renders a post which was just saved (or a saved post being opened) into the HTML cache and
+     * stores everything it requests in ReaderSavedPostAssets, so it can be opened instantly and
+     * without a network connection - the blavatar and avatar in its header are native views, so
+     * they're preloaded into the image cache instead. the html is rendered even when there's no
+     * network, and assets which are already stored aren't downloaded again.
+     */
+    public static void saveForOfflineAsync(Context context, final long blogId, final long postId,
+                                           final FeaturedImageUtils featuredImageUtils,
+                                           final ImageManager imageManager,
+                                           @Nullable final String accessToken) {
+        final ReaderResourceVars resourceVars = new ReaderResourceVars(context);
+        final Context appContext = context.getApplicationContext();
+
+        WPExecutors.parse(new Runnable() {
+            @Override
+            public void run() {
+                ReaderPost post = ReaderPostTable.getBlogPost(blogId, postId, false);
+                if (post == null || !post.isBookmarked) {
+                    return;
                 }
 
-                resizeIframes();
+                String html = prerender(post, featuredImageUtils, resourceVars);
+                if (!NetworkUtils.isNetworkAvailable(appContext)) {
+                    return;
+                }
+                boolean isPrivate = post.isPrivate && UrlUtils.isHttps(post.getBlogUrl());
+                ReaderSavedPostAssets.getInstance().saveAsync(post, html, isPrivate ? accessToken : null);
+                for (String url : ReaderPostDetailHeaderView.getBlavatarAndAvatarUrls(appContext, post)) {
+                    imageManager.preload(appContext, url);
+                }
+            }
+        });
+    }
 
-                // Get the set of JS scripts to inject in our Webview to support some specific Embeds.
-                Set<String> jsToInject = injectJSForSpecificEmbedSupport();
+    /*
+     * renders the passed post into the HTML cache if it's not already there, and returns its html -
+     * must be called in the background
+     */
+    @VisibleForTesting
+    static String prerender(ReaderPost post, FeaturedImageUtils featuredImageUtils,
+                            ReaderResourceVars resourceVars) {
+        ReaderPostRenderer renderer = new ReaderPostRenderer(null, post, featuredImageUtils, resourceVars);
+        return renderer.getCachedOrRenderHtml(renderer.getPostContent());
+    }
 
-                final String htmlContent =
-                        formatPostContentForWebView(
-                                mRenderBuilder.toString(),
-                                jsToInject,
-                                hasTiledGallery,
-                                mResourceVars.mIsWideDisplay);
+    /*
+     * prefetches the images the WebView will request when the rendered html is shown
+     */
+    private static void prefetchPrivateImages(Context context, @NonNull String html, @NonNull String token) {
+        AuthenticatedWebResourceLoader loader = AuthenticatedWebResourceLoader.getInstance(context);
+        for (String imageUrl : getPrivateImageUrls(html)) {
+            loader.prefetch(imageUrl, token);
+        }
+    }
+
+    /*
+     * returns the authenticated urls of up to MAX_PREFETCH_IMAGES images in the passed rendered
+     * html - the renderer writes single-quoted image tags, which ReaderImageScanner doesn't match
+     */
+    @VisibleForTesting
+    static Set<String> getPrivateImageUrls(@NonNull String html) {
+        final Set<String> imageUrls = new LinkedHashSet<>();
+        new ReaderResourceScanner(html).beginScan(new ReaderHtmlUtils.HtmlScannerListener() {
+            @Override
+            public void onTagFound(String tag, String src) {
+                String imageUrl = AuthenticatedWebResourceLoader.getAuthenticatedImageUrl(src);
+                if (imageUrl != null && imageUrls.size() < MAX_PREFETCH_IMAGES) {
+                    imageUrls.add(imageUrl);
+                }
+            }
+        });
+        return imageUrls;
+    }
+
+    public void beginRender() {
+        final Handler handler = new Handler();
+        final String content = getPostContent();
+
+        WPExecutors.parse(new Runnable() {
+            @Override
+            public void run() {
+                final String htmlContent = getCachedOrRenderHtml(content);
 
-                mRenderBuilder = null;
                 handler.post(new Runnable() {
                     @Override
                     public void run() {
@@ -106,47 +223,74 @@ public class ReaderPostRenderer {
                     }
                 });
             }
-        }.start();
+        });
+    }
+
+    /*
+     * returns the previously rendered HTML for this post's content if it's cached, otherwise
+     * renders it and adds it to the cache
+     */
+    private String getCachedOrRenderHtml(final String content) {
+        String cacheKey = getCacheKey(content);
+        String htmlContent = ReaderPostHtmlCache.get(cacheKey);
+        if (htmlContent != null) {
+            AppLog.d(AppLog.T.READER, "reader renderer > using cached html");
+            return htmlContent;
+        }
+
+        htmlContent = renderHtml(content);
+        ReaderPostHtmlCache.put(cacheKey, htmlContent);
+        return htmlContent;
+    }
+
+    private String getCacheKey(final String content) {
+        // attachments affect image sizes, so they're part of what's being rendered
+        return ReaderPostHtmlCache.makeKey(
+                mPost.blogId,
+                mPost.postId,
+                content + mPost.getAttachmentsJson(),
+                mResourceVars.mFullSizeImageWidthPx,
+                mResourceVars.mIsNightMode);
+    }
+
+    private String renderHtml(final String content) {
+        final boolean hasTiledGallery = hasTiledGallery(content);
+
+        // Get the set of JS scripts to inject in our Webview to support some specific Embeds.
+        Set<String> jsToInject = injectJSForSpecificEmbedSupport(content);
+
+        return formatPostContentForWebView(
+                content,
+                jsToInject,
+                hasTiledGallery,
+                mResourceVars.mIsWideDisplay);
     }
 
     public static boolean hasTiledGallery(String text) {
         // determine whether a tiled-gallery exists in the content
-        return Pattern.compile("tiled-gallery[\\s\"']").matcher(text).find();
+        return TILED_GALLERY_PATTERN.matcher(text).find();
     }
 
     /*
-     * scan the content for images and make sure they're correctly sized for the device
+     * rewrites images and iframes so they're correctly sized for the device, called by the content
+     * rewriter for each tag it finds while writing the content into the final document
      */
-    private void resizeImages() {
-        ReaderHtmlUtils.HtmlScannerListener imageListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String imageTag, String imageUrl) {
-                if (!imageUrl.contains("wpcom-smileys")) {
-                    replaceImageTag(imageTag, imageUrl);
-                }
+    private final ReaderPostContentRewriter.TagRewriter mTagRewriter = new ReaderPostContentRewriter.TagRewriter() {
+        @Override
+        public String rewriteImageTag(@NonNull String imageTag, @NonNull String imageUrl) {
+            if (imageUrl.contains("wpcom-smileys")) {
+                return null;
             }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderImageScanner scanner = new ReaderImageScanner(content, mPost.isPrivate);
-        scanner.beginScan(imageListener);
-    }
+            return makeResizedImageTag(imageTag, imageUrl);
+        }
 
-    /*
-     * scan the content for iframes and make sure they're correctly sized for the device
-     */
-    private void resizeIframes() {
-        ReaderHtmlUtils.HtmlScannerListener iframeListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String tag, String src) {
-                replaceIframeTag(tag, src);
-            }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderIframeScanner scanner = new ReaderIframeScanner(content);
-        scanner.beginScan(iframeListener);
-    }
+        @Override
+        public String rewriteIframeTag(@NonNull String iframeTag, @NonNull String src) {
+            return makeResizedIframeTag(iframeTag, src);
+        }
+    };
 
-    private Set<String> injectJSForSpecificEmbedSupport() {
+    private Set<String> injectJSForSpecificEmbedSupport(final String content) {
         final Set<String> jsToInject = new HashSet<>();
         ReaderHtmlUtils.HtmlScannerListener embedListener = new ReaderHtmlUtils.HtmlScannerListener() {
             @Override
@@ -154,7 +298,6 @@ public class ReaderPostRenderer {
                 jsToInject.add(src);
             }
         };
-        String content = mRenderBuilder.toString();
         ReaderEmbedScanner scanner = new ReaderEmbedScanner(content);
         scanner.beginScan(embedListener);
         return jsToInject;
@@ -181,11 +324,11 @@ public class ReaderPostRenderer {
     }
 
     /*
-     * called when image scanner finds an image, tries to replace the image tag with one that
-     * has height & width attributes set correctly for the current display, if that fails
-     * replaces it with one that has our 'size-none' class
+     * called when the rewriter finds an image, returns an image tag that has height & width
+     * attributes set correctly for the current display, if that fails returns one that has
+     * our 'size-none' class
      */
-    private void replaceImageTag(final String imageTag, final String imageUrl) {
+    private String makeResizedImageTag(final String imageTag, final String imageUrl) {
         ImageSize origSize = getImageSize(imageTag, imageUrl);
         boolean hasWidth = (origSize != null && origSize.width > 0);
         boolean isFullSize = hasWidth && (origSize.width >= mMinFullSizeWidthDp);
@@ -193,24 +336,15 @@ public class ReaderPostRenderer {
                             && (origSize.width >= mMinMidSizeWidthDp)
                             && (origSize.width < mMinFullSizeWidthDp);
 
-        final String newImageTag;
         if (isFullSize) {
-            newImageTag = makeFullSizeImageTag(imageUrl, origSize.width, origSize.height);
+            return makeFullSizeImageTag(imageUrl, origSize.width, origSize.height);
         } else if (isMidSize) {
-            newImageTag = makeImageTag(imageUrl, origSize.width, origSize.height, "size-medium");
+            return makeImageTag(imageUrl, origSize.width, origSize.height, "size-medium");
         } else if (hasWidth) {
-            newImageTag = makeImageTag(imageUrl, origSize.width, origSize.height, "size-none");
+            return makeImageTag(imageUrl, origSize.width, origSize.height, "size-none");
         } else {
-            newImageTag = "<img class='size-none' src='" + imageUrl + "' />";
-        }
-
-        int start = mRenderBuilder.indexOf(imageTag);
-        if (start == -1) {
-            AppLog.w(AppLog.T.READER, "reader renderer > image not found in builder");
-            return;
+            return "<img class='size-none' src='" + imageUrl + "' />";
         }
-
-        mRenderBuilder.replace(start, start + imageTag.length(), newImageTag);
     }
 
     private String makeImageTag(final String imageUrl, int width, int height, final String imageClass) {
@@ -313,9 +447,9 @@ public class ReaderPostRenderer {
     }
 
     /*
-     * replace the passed iframe tag with one that's correctly sized for the device
+     * returns an iframe tag to use in place of the passed one that's correctly sized for the device
      */
-    private void replaceIframeTag(final String tag, final String src) {
+    private String makeResizedIframeTag(final String tag, final String src) {
         int width = ReaderHtmlUtils.getWidthAttrValue(tag);
         int height = ReaderHtmlUtils.getHeightAttrValue(tag);
 
@@ -330,18 +464,10 @@ public class ReaderPostRenderer {
             newHeight = mResourceVars.mVideoHeightPx;
         }
 
-        String newTag = "<iframe src='" + src + "'"
-                        + " frameborder='0' allowfullscreen='true' allowtransparency='true'"
-                        + " width='" + pxToDp(newWidth) + "'"
-                        + " height='" + pxToDp(newHeight) + "' />";
-
-        int start = mRenderBuilder.indexOf(tag);
-        if (start == -1) {
-            AppLog.w(AppLog.T.READER, "reader renderer > iframe not found in builder");
-            return;
-        }
-
-        mRenderBuilder.replace(start, start + tag.length(), newTag);
+        return "<iframe src='" + src + "'"
+               + " frameborder='0' allowfullscreen='true' allowtransparency='true'"
+               + " width='" + pxToDp(newWidth) + "'"
+               + " height='" + pxToDp(newHeight) + "' />";
     }
 
     /*
@@ -516,24 +642,20 @@ public class ReaderPostRenderer {
                 .append(" .OUTBRAIN, .adsbygoogle { display: none; }")
                 .append("</style>");
 
-        // add a custom CSS class to (any) tiled gallery elements to make them easier selectable for various rules
-        final List<String> classAmendRegexes = Arrays.asList(
-                "(tiled-gallery) ([\\s\"\'])",
-                "(gallery-row) ([\\s\"'])",
-                "(gallery-group) ([\\s\"'])",
-                "(tiled-gallery-item) ([\\s\"'])");
-        String contentCustomised = content;
-        for (String classToAmend : classAmendRegexes) {
-            contentCustomised = contentCustomised.replaceAll(classToAmend, "$1 " + galleryOnlyClass + "$2");
-        }
-
         for (String jsUrl : jsToInject) {
             sbHtml.append("<script src=\"").append(jsUrl).append("\" type=\"text/javascript\" async></script>");
         }
 
-        sbHtml.append("</head><body>")
-              .append(contentCustomised)
-              .append("</body></html>");
+        sbHtml.append("</head><body>");
+
+        // resize images & iframes and add a custom CSS class to (any) tiled gallery elements to make them
+        // easier selectable for various rules, all in a single pass that writes directly into the document.
+        // images aren't resized when rendering as a tiled gallery since the gallery handles their layout.
+        sbHtml.ensureCapacity(sbHtml.length() + content.length());
+        new ReaderPostContentRewriter(!renderAsTiledGallery, galleryOnlyClass)
+                .rewrite(content, mTagRewriter, sbHtml);
+
+        sbHtml.append("</body></html>");
 
         return sbHtml.toString();
     }
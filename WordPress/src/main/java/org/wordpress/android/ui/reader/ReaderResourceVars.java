@@ -1,6 +1,7 @@
 package org.wordpress.android.ui.reader;
 
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 
 import org.wordpress.android.R;
@@ -14,6 +15,7 @@ class ReaderResourceVars {
     final int mMarginMediumPx;
 
     final boolean mIsWideDisplay;
+    final boolean mIsNightMode;
 
     final int mFullSizeImageWidthPx;
     final int mFeaturedImageHeightPx;
@@ -32,6 +34,8 @@ class ReaderResourceVars {
         int displayWidthPx = DisplayUtils.getDisplayPixelWidth(context);
 
         mIsWideDisplay = DisplayUtils.pxToDp(context, displayWidthPx) > 640;
+        mIsNightMode = (resources.getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK)
+                       == Configuration.UI_MODE_NIGHT_YES;
 
         int marginLargePx = resources.getDimensionPixelSize(R.dimen.margin_large);
         int detailMarginWidthPx = resources.getDimensionPixelOffset(R.dimen.reader_detail_margin);
@@ -19,6 +19,7 @@ import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.ui.reader.views.ReaderRecyclerView;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.LocaleManager;
+import org.wordpress.android.util.WPExecutors;
 import org.wordpress.android.widgets.RecyclerItemDecoration;
 
 /*
@@ -102,7 +103,7 @@ public class ReaderUserListActivity extends AppCompatActivity {
     private void loadUsers(final long blogId,
                            final long postId,
                            final long commentId) {
-        new Thread() {
+        WPExecutors.io(new Runnable() {
             @Override
             public void run() {
                 final String title = getTitleString(blogId, postId, commentId);
@@ -132,7 +133,7 @@ public class ReaderUserListActivity extends AppCompatActivity {
                     }
                 });
             }
-        }.start();
+        });
     }
 
     private String getTitleString(final long blogId,
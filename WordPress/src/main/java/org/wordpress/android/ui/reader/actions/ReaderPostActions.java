@@ -35,12 +35,14 @@ import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
 import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResultListener;
 import org.wordpress.android.ui.reader.models.ReaderSimplePost;
 import org.wordpress.android.ui.reader.models.ReaderSimplePostList;
+import org.wordpress.android.ui.reader.utils.ReaderSavedPostAssets;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.JSONUtils;
 import org.wordpress.android.util.UrlUtils;
 import org.wordpress.android.util.VolleyUtils;
+import org.wordpress.android.util.WPExecutors;
 
 import java.util.Date;
 import java.util.HashMap;
@@ -152,59 +154,63 @@ public class ReaderPostActions {
 
         final Handler handler = new Handler();
 
-        new Thread() {
+        WPExecutors.parse(new Runnable() {
             @Override
             public void run() {
-                ReaderPost serverPost = ReaderPost.fromJson(jsonObject);
-
-                // TODO: this temporary fix was added 25-Apr-2016 as a workaround for the fact that
-                // the read/sites/{blogId}/posts/{postId} endpoint doesn't contain the feedId or
-                // feedItemId of the post. because of this, we need to copy them from the local post
-                // before calling isSamePost (since the difference in those IDs causes it to return false)
-                if (serverPost.feedId == 0 && localPost.feedId != 0) {
-                    serverPost.feedId = localPost.feedId;
-                }
+                final ReaderPost serverPost = ReaderPost.fromJson(jsonObject);
+                WPExecutors.dbWrite(new Runnable() {
+                    @Override
+                    public void run() {
+                        // TODO: this temporary fix was added 25-Apr-2016 as a workaround for the fact that
+                        // the read/sites/{blogId}/posts/{postId} endpoint doesn't contain the feedId or
+                        // feedItemId of the post. because of this, we need to copy them from the local post
+                        // before calling isSamePost (since the difference in those IDs causes it to return false)
+                        if (serverPost.feedId == 0 && localPost.feedId != 0) {
+                            serverPost.feedId = localPost.feedId;
+                        }
 
-                if (serverPost.feedItemId == 0 && localPost.feedItemId != 0) {
-                    serverPost.feedItemId = localPost.feedItemId;
-                }
+                        if (serverPost.feedItemId == 0 && localPost.feedItemId != 0) {
+                            serverPost.feedItemId = localPost.feedItemId;
+                        }
 
-                boolean hasChanges = !serverPost.isSamePost(localPost);
-
-                if (hasChanges) {
-                    AppLog.d(T.READER, "post updated");
-                    // copy changes over to the local post - this is done instead of simply overwriting
-                    // the local post with the server post because the server post was retrieved using
-                    // the read/sites/$siteId/posts/$postId endpoint which is missing some information
-                    // https://github.com/wordpress-mobile/WordPress-Android/issues/3164
-                    localPost.numReplies = serverPost.numReplies;
-                    localPost.numLikes = serverPost.numLikes;
-                    localPost.isFollowedByCurrentUser = serverPost.isFollowedByCurrentUser;
-                    localPost.isLikedByCurrentUser = serverPost.isLikedByCurrentUser;
-                    localPost.isCommentsOpen = serverPost.isCommentsOpen;
-                    localPost.useExcerpt = serverPost.useExcerpt;
-                    localPost.setTitle(serverPost.getTitle());
-                    localPost.setText(serverPost.getText());
-                    localPost.setExcerpt(serverPost.getExcerpt());
-                    ReaderPostTable.updatePost(localPost);
-                }
+                        boolean hasChanges = !serverPost.isSamePost(localPost);
+
+                        if (hasChanges) {
+                            AppLog.d(T.READER, "post updated");
+                            // copy changes over to the local post - this is done instead of simply overwriting
+                            // the local post with the server post because the server post was retrieved using
+                            // the read/sites/$siteId/posts/$postId endpoint which is missing some information
+                            // https://github.com/wordpress-mobile/WordPress-Android/issues/3164
+                            localPost.numReplies = serverPost.numReplies;
+                            localPost.numLikes = serverPost.numLikes;
+                            localPost.isFollowedByCurrentUser = serverPost.isFollowedByCurrentUser;
+                            localPost.isLikedByCurrentUser = serverPost.isLikedByCurrentUser;
+                            localPost.isCommentsOpen = serverPost.isCommentsOpen;
+                            localPost.useExcerpt = serverPost.useExcerpt;
+                            localPost.setTitle(serverPost.getTitle());
+                            localPost.setText(serverPost.getText());
+                            localPost.setExcerpt(serverPost.getExcerpt());
+                            ReaderPostTable.updatePost(localPost);
+                        }
 
-                // always update liking users regardless of whether changes were detected - this
-                // ensures that the liking avatars are immediately available to post detail
-                if (handlePostLikes(serverPost, jsonObject)) {
-                    hasChanges = true;
-                }
+                        // always update liking users regardless of whether changes were detected - this
+                        // ensures that the liking avatars are immediately available to post detail
+                        if (handlePostLikes(serverPost, jsonObject)) {
+                            hasChanges = true;
+                        }
 
-                if (resultListener != null) {
-                    final UpdateResult result = (hasChanges ? UpdateResult.CHANGED : UpdateResult.UNCHANGED);
-                    handler.post(new Runnable() {
-                        public void run() {
-                            resultListener.onUpdateResult(result);
+                        if (resultListener != null) {
+                            final UpdateResult result = (hasChanges ? UpdateResult.CHANGED : UpdateResult.UNCHANGED);
+                            handler.post(new Runnable() {
+                                public void run() {
+                                    resultListener.onUpdateResult(result);
+                                }
+                            });
                         }
-                    });
-                }
+                    }
+                });
             }
-        }.start();
+        });
     }
 
     /*
@@ -397,7 +403,7 @@ public class ReaderPostActions {
             return;
         }
 
-        new Thread() {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
                 JSONArray jsonPosts = jsonObject.optJSONArray("posts");
@@ -417,7 +423,7 @@ public class ReaderPostActions {
                                                                                     globalRelatedPosts));
                 }
             }
-        }.start();
+        });
     }
 
     public static void addToBookmarked(@NonNull final ReaderPost post) {
@@ -443,6 +449,7 @@ public class ReaderPostActions {
     public static void removeFromBookmarked(@NonNull final ReaderPost post) {
         if (post.isBookmarked) {
             ReaderPostTable.setBookmarkFlag(post.blogId, post.postId, false);
+            ReaderSavedPostAssets.getInstance().removeAsync(post.blogId, post.postId);
         } else {
             String msg = "removeFromBookmarked called on a post which wasn't bookmarked.";
             AppLog.w(T.READER, msg);
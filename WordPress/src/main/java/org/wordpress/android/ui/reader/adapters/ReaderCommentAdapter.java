@@ -11,6 +11,7 @@ import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -48,6 +49,8 @@ import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -538,8 +541,22 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
             int numLocalComments = ReaderCommentTable.getNumCommentsForPost(mPost);
             mTmpMoreCommentsExist = (numServerComments > numLocalComments);
 
-            mTmpComments = ReaderCommentTable.getCommentsForPost(mPost);
-            return !mComments.isSameList(mTmpComments);
+            ReaderCommentList comments = ReaderCommentTable.getCommentsForPost(mPost);
+            ReaderCommentList currentComments = mComments;
+
+            // when the only change is newer comments (ex: another page was fetched) they can be
+            // threaded into the current list, otherwise the whole list is leveled again
+            ReaderCommentList newComments = getNewerComments(currentComments, comments);
+            if (newComments == null) {
+                // assign the comments with children sorted under their parents and indent levels applied
+                mTmpComments = new ReaderCommentLeveler(comments).createLevelList();
+                return true;
+            } else if (newComments.isEmpty()) {
+                return false;
+            } else {
+                mTmpComments = ReaderCommentLeveler.addToLevelList(currentComments, newComments);
+                return true;
+            }
         }
 
         @Override
@@ -547,8 +564,7 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
             mMoreCommentsExist = mTmpMoreCommentsExist;
 
             if (result) {
-                // assign the comments with children sorted under their parents and indent levels applied
-                mComments = new ReaderCommentLeveler(mTmpComments).createLevelList();
+                mComments = mTmpComments;
                 notifyDataSetChanged();
             }
             if (mDataLoadedListener != null) {
@@ -558,6 +574,47 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
         }
     }
 
+    /*
+     * returns the comments in the passed list which aren't in the current list, provided every
+     * current comment is unchanged and the new comments are all newer than the current ones -
+     * returns null if the current list can't simply be added to
+     */
+    private static ReaderCommentList getNewerComments(@NonNull ReaderCommentList currentComments,
+                                                      @NonNull ReaderCommentList comments) {
+        if (currentComments.isEmpty()) {
+            return comments.isEmpty() ? new ReaderCommentList() : null;
+        }
+        if (comments.size() < currentComments.size()) {
+            return null;
+        }
+
+        Map<Long, ReaderComment> currentById = new HashMap<>(currentComments.size());
+        long newestTimestamp = 0;
+        for (ReaderComment comment : currentComments) {
+            currentById.put(comment.commentId, comment);
+            newestTimestamp = Math.max(newestTimestamp, comment.timestamp);
+        }
+
+        ReaderCommentList newComments = new ReaderCommentList();
+        int numUnchanged = 0;
+        for (ReaderComment comment : comments) {
+            ReaderComment currentComment = currentById.get(comment.commentId);
+            if (currentComment == null) {
+                if (comment.timestamp < newestTimestamp) {
+                    return null;
+                }
+                newComments.add(comment);
+            } else if (currentComment.equals(comment)) {
+                numUnchanged++;
+            } else {
+                return null;
+            }
+        }
+
+        // if any current comments are missing (ex: deleted) the list needs to be rebuilt
+        return numUnchanged == currentComments.size() ? newComments : null;
+    }
+
     /*
     * Set a post to adapter and update relevant information in the post header
     */
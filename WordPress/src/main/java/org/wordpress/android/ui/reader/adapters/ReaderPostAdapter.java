@@ -4,8 +4,12 @@ import android.content.Context;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.text.Spannable;
 import android.text.SpannableStringBuilder;
+import android.text.format.DateUtils;
 import android.text.style.StyleSpan;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -19,6 +23,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.wordpress.android.R;
@@ -48,6 +54,10 @@ import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.actions.ReaderBlogActions;
 import org.wordpress.android.ui.reader.actions.ReaderPostActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
+import org.wordpress.android.ui.reader.models.ReaderPostPage;
+import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter;
+import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
+import org.wordpress.android.ui.reader.services.prefetch.ReaderPrefetchStats;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.ui.reader.utils.ReaderVideoUtils;
 import org.wordpress.android.ui.reader.utils.ReaderVideoUtils.VideoThumbnailUrlListener;
@@ -90,8 +100,24 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     private final int mMarginLarge;
 
     private boolean mCanRequestMorePosts;
+    private boolean mRequestedMoreFromServer;
+    // number of items when more posts were last requested ahead of the end of the list, so they're
+    // only requested once for each length of the list, and whether the user then reached the end
+    // before they arrived
+    private int mRequestedMoreItemCount = -1;
+    private boolean mReachedEndWhileRequesting;
+    // whether the gap is being filled because the user is nearing it, and the post the gap follows
+    // so a gap is only filled that way once
+    private boolean mIsFillingGap;
+    private String mFilledGapPostKey;
+    private long mFillGapRetryTime;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
     private final boolean mIsLoggedOutReader;
 
+    // key of the last page of posts read from the db, and whether there are more stored after it
+    private ReaderPostPage mLastPage;
+    private boolean mHasMoreLocalPosts;
+
     private final ReaderTypes.ReaderPostListType mPostListType;
     private final ReaderPostList mPosts = new ReaderPostList();
     private final HashSet<String> mRenderedIds = new HashSet<>();
@@ -108,6 +134,12 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     // the large "tbl_posts.text" column is unused here, so skip it when querying
     private static final boolean EXCLUDE_TEXT_COLUMN = true;
     private static final int MAX_ROWS = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY;
+    private static final int PAGE_SIZE = 40;
+    // how many items before the end of the list, or before the gap marker, older posts are
+    // requested so they're usually in place by the time the user scrolls to them
+    private static final int LOAD_AHEAD_DISTANCE = 5;
+    // how long to wait before filling a gap again after a request to fill it failed
+    private static final long FILL_GAP_RETRY_DELAY_MS = 30 * DateUtils.SECOND_IN_MILLIS;
 
     private static final int VIEW_TYPE_POST = 0;
     private static final int VIEW_TYPE_XPOST = 1;
@@ -399,6 +431,9 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         } else if (holder instanceof GapMarkerViewHolder) {
             GapMarkerViewHolder gapHolder = (GapMarkerViewHolder) holder;
             gapHolder.mGapMarkerView.setCurrentTag(mCurrentTag);
+            if (mIsFillingGap) {
+                gapHolder.mGapMarkerView.showProgress();
+            }
         } else if (holder instanceof NewsViewHolder) {
             ((NewsViewHolder) holder).bind(mNewsItem);
         }
@@ -420,7 +455,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         holder.mTxtTitle.setText(ReaderXPostUtils.getXPostTitle(post));
         holder.mTxtSubtitle.setText(ReaderXPostUtils.getXPostSubtitleHtml(post));
 
-        checkLoadMore(position);
+        checkLoadMore(holder.itemView.getContext(), position);
     }
 
     private void renderRemovedPost(final int position, final ReaderRemovedPostViewHolder holder) {
@@ -600,7 +635,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             }
         });
 
-        checkLoadMore(position);
+        checkLoadMore(holder.itemView.getContext(), position);
 
         // if we haven't already rendered this post and it has a "railcar" attached to it, add it
         // to the rendered list and record the TrainTracks render event
@@ -621,16 +656,95 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     /*
-     * if we're nearing the end of the posts, fire request to load more
+     * if we're nearing the end of the posts, load the next page of posts stored locally, or fire
+     * request to load more from the server if they've all been loaded - the request is made a few
+     * items before the end, and again at the end in case the earlier request failed
      */
-    private void checkLoadMore(int position) {
-        if (mCanRequestMorePosts
-            && mDataRequestedListener != null
-            && (position >= getItemCount() - 1)) {
+    private void checkLoadMore(Context context, int position) {
+        checkFillGap(context, position);
+
+        int itemCount = getItemCount();
+        if (position < itemCount - 1 - LOAD_AHEAD_DISTANCE) {
+            return;
+        }
+        boolean isLastItem = position == itemCount - 1;
+        if (mHasMoreLocalPosts) {
+            loadNextPage();
+        } else if (mCanRequestMorePosts && mDataRequestedListener != null) {
+            if (isLastItem) {
+                mReachedEndWhileRequesting = true;
+            } else if (mRequestedMoreItemCount == itemCount) {
+                return;
+            }
+            mRequestedMoreItemCount = itemCount;
+            mRequestedMoreFromServer = true;
             mDataRequestedListener.onRequestData();
         }
     }
 
+    /*
+     * starts filling the gap as the user nears the gap marker rather than waiting for them to tap
+     * it, so the older posts are usually in place by the time they scroll to it
+     */
+    private void checkFillGap(Context context, int position) {
+        if (mGapMarkerPosition < 1
+            || mIsFillingGap
+            || mCurrentTag == null
+            || position >= mGapMarkerPosition
+            || position < mGapMarkerPosition - LOAD_AHEAD_DISTANCE
+            || SystemClock.elapsedRealtime() < mFillGapRetryTime
+            || !NetworkUtils.isNetworkAvailable(context)) {
+            return;
+        }
+        ReaderPost gapPost = getItem(mGapMarkerPosition - 1);
+        if (gapPost == null) {
+            return;
+        }
+        String gapPostKey = gapPost.blogId + ":" + gapPost.postId;
+        if (gapPostKey.equals(mFilledGapPostKey)) {
+            return;
+        }
+
+        AppLog.d(AppLog.T.READER, "reader post adapter > filling gap ahead of the user");
+        mFilledGapPostKey = gapPostKey;
+        mIsFillingGap = true;
+        ReaderPostServiceStarter.startServiceForTag(context, mCurrentTag, UpdateAction.REQUEST_OLDER_THAN_GAP);
+
+        // the marker may already be on screen, and items can't be changed while they're being bound
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mIsFillingGap && mGapMarkerPosition > -1 && mGapMarkerPosition < getItemCount()) {
+                    notifyItemChanged(mGapMarkerPosition);
+                }
+            }
+        });
+    }
+
+    /*
+     * called when a request to fill the gap completes, whether or not the adapter made it - hides
+     * the progress shown while the adapter was filling the gap so the marker can be tapped again,
+     * and if the request failed lets the adapter retry it after a delay
+     */
+    public void onFillGapEnded(boolean failed) {
+        boolean wasFilling = mIsFillingGap;
+        mIsFillingGap = false;
+        if (failed) {
+            mFilledGapPostKey = null;
+            mFillGapRetryTime = SystemClock.elapsedRealtime() + FILL_GAP_RETRY_DELAY_MS;
+        }
+        if (wasFilling && mGapMarkerPosition > -1 && mGapMarkerPosition < getItemCount()) {
+            notifyItemChanged(mGapMarkerPosition);
+        }
+    }
+
+    private void setGapMarkerPosition(int position) {
+        if (position != mGapMarkerPosition) {
+            mIsFillingGap = false;
+        }
+        mGapMarkerPosition = position;
+    }
+
     private void showDiscoverData(final ReaderPostViewHolder postHolder,
                                   final ReaderPost post) {
         final ReaderPostDiscoverData discoverData = post.getDiscoverData();
@@ -788,6 +902,10 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
     public void clear() {
         mGapMarkerPosition = -1;
+        mIsFillingGap = false;
+        mRequestedMoreItemCount = -1;
+        mLastPage = null;
+        mHasMoreLocalPosts = false;
         if (!mPosts.isEmpty()) {
             mPosts.clear();
             notifyDataSetChanged();
@@ -821,12 +939,97 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         }
     }
 
+    /*
+     * reloads the posts that are currently displayed - if more posts were just requested from the
+     * server the next page is included so they appear below the existing ones
+     */
     private void loadPosts() {
         if (mIsTaskRunning) {
             AppLog.w(AppLog.T.READER, "reader posts task already running");
+            mIsRefreshPending = true;
+            return;
+        }
+        int numToLoad = Math.max(PAGE_SIZE, mPosts.size());
+        if (mRequestedMoreFromServer) {
+            numToLoad += PAGE_SIZE;
+            mRequestedMoreFromServer = false;
+            ReaderPrefetchStats.recordPageLoaded(!mReachedEndWhileRequesting);
+            mReachedEndWhileRequesting = false;
+        }
+        new LoadPostsTask(Math.min(numToLoad, MAX_ROWS)).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    private void loadNextPage() {
+        if (mIsTaskRunning || mLastPage == null || mPosts.size() >= MAX_ROWS) {
             return;
         }
-        new LoadPostsTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        new LoadNextPageTask(mLastPage, Math.min(PAGE_SIZE, MAX_ROWS - mPosts.size()))
+                .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /*
+     * returns the page of posts in the current stream which follows the passed one
+     */
+    private ReaderPostPage loadPostPage(ReaderPostPage afterPage, int numToLoad) {
+        switch (getPostListType()) {
+            case TAG_PREVIEW:
+            case TAG_FOLLOWED:
+            case SEARCH_RESULTS:
+                return ReaderPostTable.getPostPageWithTag(mCurrentTag, afterPage, numToLoad, EXCLUDE_TEXT_COLUMN);
+            case BLOG_PREVIEW:
+                if (mCurrentFeedId != 0) {
+                    return ReaderPostTable.getPostPageInFeed(mCurrentFeedId, afterPage, numToLoad, EXCLUDE_TEXT_COLUMN);
+                } else {
+                    return ReaderPostTable.getPostPageInBlog(mCurrentBlogId, afterPage, numToLoad, EXCLUDE_TEXT_COLUMN);
+                }
+            default:
+                return null;
+        }
+    }
+
+    private int getNumExistingPosts() {
+        if (getPostListType() == ReaderPostListType.BLOG_PREVIEW) {
+            return mCurrentFeedId != 0
+                    ? ReaderPostTable.getNumPostsInFeed(mCurrentFeedId)
+                    : ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
+        }
+        return ReaderPostTable.getNumPostsWithTag(mCurrentTag);
+    }
+
+    /*
+     * returns the adapter position of the gap marker in the passed list of posts, or -1 if there
+     * isn't one - the gap marker isn't shown on the last post since it may be followed by posts
+     * that haven't been loaded yet
+     */
+    private int getGapMarkerPosition(ReaderPostList posts, boolean hasMorePosts) {
+        if (!getPostListType().isTagType()) {
+            return -1;
+        }
+
+        ReaderBlogIdPostId gapMarkerIds = ReaderPostTable.getGapMarkerIdsForTag(mCurrentTag);
+        if (gapMarkerIds == null) {
+            return -1;
+        }
+
+        int gapMarkerPostPosition = posts.indexOfIds(gapMarkerIds);
+        int gapMarkerPosition = -1;
+        if (gapMarkerPostPosition > -1) {
+            if (gapMarkerPostPosition == posts.size() - 1) {
+                // remove the gap marker if it's on the last post (edge case but
+                // it can happen following a purge)
+                if (!hasMorePosts) {
+                    AppLog.w(AppLog.T.READER, "gap marker at/after last post, removed");
+                    ReaderPostTable.removeGapMarkerForTag(mCurrentTag);
+                }
+            } else {
+                // we want the gap marker to appear *below* this post
+                gapMarkerPosition = gapMarkerPostPosition + 1;
+                // increment it if there are custom items at the top of the list (header or newsCard)
+                gapMarkerPosition += getItemPositionOffset();
+                AppLog.d(AppLog.T.READER, "gap marker at position " + gapMarkerPostPosition);
+            }
+        }
+        return gapMarkerPosition;
     }
 
     private ReaderPost getItem(int position) {
@@ -1132,7 +1335,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         }
 
         int position = mGapMarkerPosition;
-        mGapMarkerPosition = -1;
+        setGapMarkerPosition(-1);
         if (position < getItemCount()) {
             notifyItemRemoved(position);
         }
@@ -1161,19 +1364,42 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     /*
-     * AsyncTask to load posts in the current tag
+     * AsyncTask to (re)load the posts in the current tag - rather than rebuilding the list, the
+     * changes between the existing and reloaded posts are calculated in the background and only
+     * the inserted, removed, moved or changed posts are updated
      */
     private boolean mIsTaskRunning = false;
+    private boolean mIsRefreshPending = false;
+
+    private void onTaskFinished() {
+        mIsTaskRunning = false;
+        if (mIsRefreshPending) {
+            mIsRefreshPending = false;
+            loadPosts();
+        }
+    }
 
     private class LoadPostsTask extends AsyncTask<Void, Void, Boolean> {
+        private final int mNumToLoad;
+        private final ReaderPostList mOldPosts = new ReaderPostList();
+        private int mOldGapMarkerPosition;
+
+        private ReaderPostPage mPage;
         private ReaderPostList mAllPosts;
+        private DiffUtil.DiffResult mDiffResult;
 
         private boolean mCanRequestMorePostsTemp;
         private int mGapMarkerPositionTemp;
 
+        LoadPostsTask(int numToLoad) {
+            mNumToLoad = numToLoad;
+        }
+
         @Override
         protected void onPreExecute() {
             mIsTaskRunning = true;
+            mOldPosts.addAll(mPosts);
+            mOldGapMarkerPosition = mGapMarkerPosition;
         }
 
         @Override
@@ -1183,85 +1409,152 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
         @Override
         protected Boolean doInBackground(Void... params) {
-            int numExisting;
-            switch (getPostListType()) {
-                case TAG_PREVIEW:
-                case TAG_FOLLOWED:
-                case SEARCH_RESULTS:
-                    mAllPosts = ReaderPostTable.getPostsWithTag(mCurrentTag, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                    numExisting = ReaderPostTable.getNumPostsWithTag(mCurrentTag);
-                    break;
-                case BLOG_PREVIEW:
-                    if (mCurrentFeedId != 0) {
-                        mAllPosts = ReaderPostTable.getPostsInFeed(mCurrentFeedId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                        numExisting = ReaderPostTable.getNumPostsInFeed(mCurrentFeedId);
-                    } else {
-                        mAllPosts = ReaderPostTable.getPostsInBlog(mCurrentBlogId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                        numExisting = ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
-                    }
-                    break;
-                default:
-                    return false;
+            mPage = loadPostPage(null, mNumToLoad);
+            if (mPage == null) {
+                return false;
             }
+            mAllPosts = mPage.getPosts();
 
-            if (mPosts.isSameListWithBookmark(mAllPosts)) {
+            if (mOldPosts.isSameListWithBookmark(mAllPosts)) {
                 return false;
             }
 
             // if we're not already displaying the max # posts, enable requesting more when
             // the user scrolls to the end of the list
-            mCanRequestMorePostsTemp = (numExisting < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
+            mCanRequestMorePostsTemp = (getNumExistingPosts() < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
 
             // determine whether a gap marker exists - only applies to tagged posts
-            mGapMarkerPositionTemp = getGapMarkerPosition();
-
-            return true;
-        }
+            mGapMarkerPositionTemp = getGapMarkerPosition(mAllPosts, mPage.hasMore());
 
-        private int getGapMarkerPosition() {
-            if (!getPostListType().isTagType()) {
-                return -1;
+            // the gap marker and the header/news card aren't part of the diff, so the list is only
+            // diffed when neither of them will change
+            if (!mOldPosts.isEmpty() && !mAllPosts.isEmpty()
+                && mOldGapMarkerPosition == -1 && mGapMarkerPositionTemp == -1) {
+                mDiffResult = DiffUtil.calculateDiff(new ReaderPostDiffCallback(mOldPosts, mAllPosts));
             }
 
-            ReaderBlogIdPostId gapMarkerIds = ReaderPostTable.getGapMarkerIdsForTag(mCurrentTag);
-            if (gapMarkerIds == null) {
-                return -1;
-            }
-
-            int gapMarkerPostPosition = mAllPosts.indexOfIds(gapMarkerIds);
-            int gapMarkerPosition = -1;
-            if (gapMarkerPostPosition > -1) {
-                // remove the gap marker if it's on the last post (edge case but
-                // it can happen following a purge)
-                if (gapMarkerPostPosition == mAllPosts.size() - 1) {
-                    AppLog.w(AppLog.T.READER, "gap marker at/after last post, removed");
-                    ReaderPostTable.removeGapMarkerForTag(mCurrentTag);
-                } else {
-                    // we want the gap marker to appear *below* this post
-                    gapMarkerPosition = gapMarkerPostPosition + 1;
-                    // increment it if there are custom items at the top of the list (header or newsCard)
-                    gapMarkerPosition += getItemPositionOffset();
-                    AppLog.d(AppLog.T.READER, "gap marker at position " + gapMarkerPostPosition);
-                }
-            }
-            return gapMarkerPosition;
+            return true;
         }
 
         @Override
         protected void onPostExecute(Boolean result) {
+            if (mPage != null) {
+                mLastPage = mPage;
+                mHasMoreLocalPosts = mPage.hasMore() && mPage.getPosts().size() < MAX_ROWS;
+            }
+
             if (result) {
-                ReaderPostAdapter.this.mGapMarkerPosition = mGapMarkerPositionTemp;
+                // the diff can't be used if the posts were changed while it was being calculated
+                boolean canDispatchDiff = mDiffResult != null && mPosts.size() == mOldPosts.size();
+                setGapMarkerPosition(mGapMarkerPositionTemp);
                 ReaderPostAdapter.this.mCanRequestMorePosts = mCanRequestMorePostsTemp;
                 mPosts.clear();
                 mPosts.addAll(mAllPosts);
-                notifyDataSetChanged();
+                if (canDispatchDiff) {
+                    mDiffResult.dispatchUpdatesTo(new PostListUpdateCallback());
+                } else {
+                    notifyDataSetChanged();
+                }
             }
 
             if (mDataLoadedListener != null) {
                 mDataLoadedListener.onDataLoaded(isEmpty());
             }
 
+            onTaskFinished();
+        }
+    }
+
+    /*
+     * AsyncTask to append the next page of locally stored posts as the user scrolls
+     */
+    private class LoadNextPageTask extends AsyncTask<Void, Void, Boolean> {
+        private final ReaderPostPage mAfterPage;
+        private final int mNumToLoad;
+        private final ReaderPostList mOldPosts = new ReaderPostList();
+
+        private ReaderPostPage mPage;
+        private int mGapMarkerPositionTemp;
+
+        LoadNextPageTask(@NonNull ReaderPostPage afterPage, int numToLoad) {
+            mAfterPage = afterPage;
+            mNumToLoad = numToLoad;
+        }
+
+        @Override
+        protected void onPreExecute() {
+            mIsTaskRunning = true;
+            mOldPosts.addAll(mPosts);
+        }
+
+        @Override
+        protected void onCancelled() {
             mIsTaskRunning = false;
         }
+
+        @Override
+        protected Boolean doInBackground(Void... params) {
+            mPage = loadPostPage(mAfterPage, mNumToLoad);
+            if (mPage == null || mPage.getPosts().isEmpty()) {
+                return false;
+            }
+
+            ReaderPostList allPosts = new ReaderPostList();
+            allPosts.addAll(mOldPosts);
+            allPosts.addAll(mPage.getPosts());
+            mGapMarkerPositionTemp = getGapMarkerPosition(allPosts, mPage.hasMore());
+
+            return true;
+        }
+
+        @Override
+        protected void onPostExecute(Boolean result) {
+            // skip this page if the list was cleared or reloaded while it was being read
+            if (mPage == null || mLastPage != mAfterPage) {
+                onTaskFinished();
+                return;
+            }
+
+            mLastPage = mPage;
+            if (result) {
+                int positionStart = getItemCount();
+                boolean hasGapMarkerChanged = mGapMarkerPosition != mGapMarkerPositionTemp;
+                setGapMarkerPosition(mGapMarkerPositionTemp);
+                mPosts.addAll(mPage.getPosts());
+                if (hasGapMarkerChanged || mPosts.size() != mOldPosts.size() + mPage.getPosts().size()) {
+                    notifyDataSetChanged();
+                } else {
+                    notifyItemRangeInserted(positionStart, mPage.getPosts().size());
+                }
+            }
+            mHasMoreLocalPosts = mPage.hasMore() && mPosts.size() < MAX_ROWS;
+
+            onTaskFinished();
+        }
+    }
+
+    /*
+     * applies post list changes to the adapter, offsetting them by the header and news card
+     */
+    private class PostListUpdateCallback implements ListUpdateCallback {
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position + getItemPositionOffset(), count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position + getItemPositionOffset(), count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition + getItemPositionOffset(), toPosition + getItemPositionOffset());
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position + getItemPositionOffset(), count, payload);
+        }
     }
 }
@@ -0,0 +1,43 @@
+package org.wordpress.android.ui.reader.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+
+/**
+ * calculates the changes between two lists of reader posts - posts are the same item when they
+ * have the same pseudo_id, and have the same contents when nothing displayed in their card differs
+ */
+class ReaderPostDiffCallback extends DiffUtil.Callback {
+    private final ReaderPostList mOldPosts;
+    private final ReaderPostList mNewPosts;
+
+    ReaderPostDiffCallback(@NonNull ReaderPostList oldPosts, @NonNull ReaderPostList newPosts) {
+        mOldPosts = oldPosts;
+        mNewPosts = newPosts;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return mOldPosts.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return mNewPosts.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        return mOldPosts.get(oldItemPosition).getPseudoId().equals(mNewPosts.get(newItemPosition).getPseudoId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        ReaderPost oldPost = mOldPosts.get(oldItemPosition);
+        ReaderPost newPost = mNewPosts.get(newItemPosition);
+        return oldPost.isSamePost(newPost) && oldPost.isBookmarked == newPost.isBookmarked;
+    }
+}
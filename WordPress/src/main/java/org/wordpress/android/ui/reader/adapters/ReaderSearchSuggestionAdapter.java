@@ -5,6 +5,8 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.database.Cursor;
 import android.database.MatrixCursor;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
@@ -17,17 +19,34 @@ import androidx.core.content.ContextCompat;
 import androidx.cursoradapter.widget.CursorAdapter;
 
 import org.wordpress.android.R;
+import org.wordpress.android.datasets.ReaderPostSearchTable;
 import org.wordpress.android.datasets.ReaderSearchTable;
+import org.wordpress.android.util.WPExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class ReaderSearchSuggestionAdapter extends CursorAdapter {
     private static final int MAX_SUGGESTIONS = 5;
     private static final int CLEAR_ALL_ROW_ID = -1;
 
+    // words from cached posts are suggested after the user's previous searches once this many
+    // characters have been typed, and their rows are given ids counting down from this one
+    private static final int MIN_TERM_SUGGESTION_LEN = 2;
+    private static final int FIRST_TERM_ROW_ID = -2;
+    private static final long TERM_SUGGESTION_DELAY_MS = 250;
+
     private static final int NUM_VIEW_TYPES = 2;
     private static final int VIEW_TYPE_QUERY = 0;
     private static final int VIEW_TYPE_CLEAR = 1;
 
     private String mCurrentFilter;
+    private int mFilterId;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
     private final Object[] mClearAllRow;
     private final int mClearAllBgColor;
     private final int mSuggestionBgColor;
@@ -40,35 +59,97 @@ public class ReaderSearchSuggestionAdapter extends CursorAdapter {
         mSuggestionBgColor = ContextCompat.getColor(context, R.color.neutral_0);
     }
 
-    public synchronized void setFilter(String filter) {
+    public synchronized void setFilter(final String filter) {
         // skip if unchanged
         if (isCurrentFilter(filter) && getCursor() != null) {
             return;
         }
 
-        // get db cursor containing matching query strings
+        mCurrentFilter = filter;
+        final int filterId = ++mFilterId;
+        mHandler.removeCallbacksAndMessages(null);
+
+        // the user's previous searches are shown straight away...
+        final List<Object[]> savedSearchRows = getSavedSearchRows(filter);
+        swapCursor(buildCursor(savedSearchRows, Collections.<String>emptyList()));
+
+        // ...and words from cached posts are looked up in the background once the user pauses
+        // typing, since searching the index on each keystroke would hold up the keyboard
+        final int maxTerms = MAX_SUGGESTIONS - savedSearchRows.size();
+        if (filter == null || filter.trim().length() < MIN_TERM_SUGGESTION_LEN || maxTerms <= 0) {
+            return;
+        }
+        final String prefix = filter.trim();
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                WPExecutors.io(new Runnable() {
+                    @Override
+                    public void run() {
+                        final List<String> terms = ReaderPostSearchTable.getTermSuggestions(prefix, maxTerms);
+                        mHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                // skip if the filter has changed since the lookup started
+                                if (filterId == mFilterId && !terms.isEmpty()) {
+                                    swapCursor(buildCursor(savedSearchRows, terms));
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+        }, TERM_SUGGESTION_DELAY_MS);
+    }
+
+    /*
+     * returns the id and query of the user's previous searches which match the passed filter
+     */
+    private static List<Object[]> getSavedSearchRows(String filter) {
+        List<Object[]> rows = new ArrayList<>();
         Cursor sqlCursor = ReaderSearchTable.getQueryStringCursor(filter, MAX_SUGGESTIONS);
+        try {
+            while (sqlCursor.moveToNext()) {
+                long id = sqlCursor.getLong(sqlCursor.getColumnIndex(ReaderSearchTable.COL_ID));
+                String query = sqlCursor.getString(sqlCursor.getColumnIndex(ReaderSearchTable.COL_QUERY));
+                rows.add(new Object[]{id, query});
+            }
+        } finally {
+            sqlCursor.close();
+        }
+        return rows;
+    }
 
-        // create a MatrixCursor which will be the actual cursor behind this adapter
+    /*
+     * creates the MatrixCursor which will be the actual cursor behind this adapter
+     */
+    private Cursor buildCursor(List<Object[]> savedSearchRows, List<String> terms) {
         MatrixCursor matrixCursor = new MatrixCursor(
                 new String[]{
                         ReaderSearchTable.COL_ID,
                         ReaderSearchTable.COL_QUERY});
 
-        if (sqlCursor.moveToFirst()) {
-            // first populate the matrix from the db cursor...
-            do {
-                long id = sqlCursor.getLong(sqlCursor.getColumnIndex(ReaderSearchTable.COL_ID));
-                String query = sqlCursor.getString(sqlCursor.getColumnIndex(ReaderSearchTable.COL_QUERY));
-                matrixCursor.addRow(new Object[]{id, query});
-            } while (sqlCursor.moveToNext());
+        // first populate the matrix with the previous searches...
+        Set<String> suggestions = new HashSet<>();
+        for (Object[] row : savedSearchRows) {
+            matrixCursor.addRow(row);
+            suggestions.add(((String) row[1]).toLowerCase(Locale.ROOT));
+        }
 
-            // ...then add our custom item
+        // ...then fill any remaining rows with words from cached posts, most common first...
+        long termId = FIRST_TERM_ROW_ID;
+        for (String term : terms) {
+            if (suggestions.add(term)) {
+                matrixCursor.addRow(new Object[]{termId--, term});
+            }
+        }
+
+        // ...then add our custom item
+        if (!savedSearchRows.isEmpty()) {
             matrixCursor.addRow(mClearAllRow);
         }
 
-        mCurrentFilter = filter;
-        swapCursor(matrixCursor);
+        return matrixCursor;
     }
 
     /*
@@ -153,7 +234,12 @@ public class ReaderSearchSuggestionAdapter extends CursorAdapter {
         holder.mTxtSuggestion.setText(query);
 
         long id = cursor.getLong(cursor.getColumnIndex(ReaderSearchTable.COL_ID));
-        if (id != CLEAR_ALL_ROW_ID) {
+        if (isTermRowId(id)) {
+            // words from cached posts aren't saved searches so they can't be deleted
+            holder.mImgDelete.setVisibility(View.GONE);
+            holder.mImgDelete.setOnClickListener(null);
+        } else if (id != CLEAR_ALL_ROW_ID) {
+            holder.mImgDelete.setVisibility(View.VISIBLE);
             holder.mImgDelete.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
@@ -164,6 +250,10 @@ public class ReaderSearchSuggestionAdapter extends CursorAdapter {
         }
     }
 
+    private static boolean isTermRowId(long id) {
+        return id <= FIRST_TERM_ROW_ID;
+    }
+
     private void confirmClearSavedSearches(Context context) {
         AlertDialog.Builder builder = new AlertDialog.Builder(
                 new ContextThemeWrapper(context, R.style.Calypso_Dialog_Alert));
@@ -182,6 +272,8 @@ public class ReaderSearchSuggestionAdapter extends CursorAdapter {
 
     private synchronized void clearSavedSearches() {
         ReaderSearchTable.deleteAllQueries();
+        mFilterId++;
+        mHandler.removeCallbacksAndMessages(null);
         swapCursor(null);
     }
 }
@@ -0,0 +1,59 @@
+package org.wordpress.android.ui.reader.models;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.ui.reader.actions.ReaderActions;
+
+/**
+ * the result of comparing a list of posts retrieved from the server with those in tbl_posts - each
+ * post is new (not stored at all), changed (stored, but with a different content hash) or unchanged
+ */
+public class ReaderPostChanges {
+    private final ReaderPostList mNewPosts;
+    private final ReaderPostList mChangedPosts;
+    private final ReaderPostList mUnchangedPosts;
+    private final boolean mHasOverlapWithTag;
+
+    public ReaderPostChanges(@NonNull ReaderPostList newPosts,
+                             @NonNull ReaderPostList changedPosts,
+                             @NonNull ReaderPostList unchangedPosts,
+                             boolean hasOverlapWithTag) {
+        mNewPosts = newPosts;
+        mChangedPosts = changedPosts;
+        mUnchangedPosts = unchangedPosts;
+        mHasOverlapWithTag = hasOverlapWithTag;
+    }
+
+    @NonNull
+    public ReaderPostList getNewPosts() {
+        return mNewPosts;
+    }
+
+    @NonNull
+    public ReaderPostList getChangedPosts() {
+        return mChangedPosts;
+    }
+
+    @NonNull
+    public ReaderPostList getUnchangedPosts() {
+        return mUnchangedPosts;
+    }
+
+    /*
+     * true if any of the posts are already stored with the tag they were compared against
+     */
+    public boolean hasOverlapWithTag() {
+        return mHasOverlapWithTag;
+    }
+
+    public ReaderActions.UpdateResult getUpdateResult() {
+        if (!mNewPosts.isEmpty()) {
+            return ReaderActions.UpdateResult.HAS_NEW;
+        } else if (!mChangedPosts.isEmpty()) {
+            return ReaderActions.UpdateResult.CHANGED;
+        } else {
+            return ReaderActions.UpdateResult.UNCHANGED;
+        }
+    }
+}
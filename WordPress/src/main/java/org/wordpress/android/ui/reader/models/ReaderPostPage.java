@@ -0,0 +1,52 @@
+package org.wordpress.android.ui.reader.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.models.ReaderPostList;
+
+/**
+ * a single page of posts read from tbl_posts using keyset pagination - the key is the sort value
+ * (timestamp or score) and pseudo_id of the last post in the page, which is passed back to
+ * ReaderPostTable to read the page that follows it
+ */
+public class ReaderPostPage {
+    private final ReaderPostList mPosts;
+    private final double mLastSortValue;
+    private final String mLastPseudoId;
+    private final boolean mHasMore;
+
+    public ReaderPostPage(@NonNull ReaderPostList posts,
+                          double lastSortValue,
+                          @Nullable String lastPseudoId,
+                          boolean hasMore) {
+        mPosts = posts;
+        mLastSortValue = lastSortValue;
+        mLastPseudoId = lastPseudoId;
+        mHasMore = hasMore;
+    }
+
+    @NonNull
+    public ReaderPostList getPosts() {
+        return mPosts;
+    }
+
+    /*
+     * the sort value of the last post in the page - only meaningful if getLastPseudoId() isn't null
+     */
+    public double getLastSortValue() {
+        return mLastSortValue;
+    }
+
+    @Nullable
+    public String getLastPseudoId() {
+        return mLastPseudoId;
+    }
+
+    /*
+     * true if there are more posts stored locally after this page
+     */
+    public boolean hasMore() {
+        return mHasMore;
+    }
+}
@@ -26,6 +26,7 @@ import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
 import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResultListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.JSONUtils;
+import org.wordpress.android.util.WPExecutors;
 
 public class ReaderCommentService extends Service {
     private static final String ARG_POST_ID = "post_id";
@@ -167,7 +168,7 @@ public class ReaderCommentService extends Service {
             return;
         }
 
-        new Thread() {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
                 final boolean hasNewComments;
@@ -213,6 +214,6 @@ public class ReaderCommentService extends Service {
                         (hasNewComments ? ReaderActions.UpdateResult.HAS_NEW : ReaderActions.UpdateResult.UNCHANGED);
                 resultListener.onUpdateResult(result);
             }
-        }.start();
+        });
     }
 }
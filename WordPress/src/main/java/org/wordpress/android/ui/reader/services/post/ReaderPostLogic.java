@@ -2,30 +2,46 @@ package org.wordpress.android.ui.reader.services.post;
 
 import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
+
 import com.android.volley.VolleyError;
 import com.wordpress.rest.RestRequest;
 
 import org.greenrobot.eventbus.EventBus;
-import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.ReaderPostTable;
 import org.wordpress.android.datasets.ReaderTagTable;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderPostStreamParser;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.networking.ParsedRestRequest;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
+import org.wordpress.android.ui.reader.models.ReaderPostChanges;
 import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.UrlUtils;
+import org.wordpress.android.util.WPExecutors;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 public class ReaderPostLogic {
+    /*
+     * told the size of each response handled when requesting posts with a tag, so callers which
+     * request posts in the background can keep track of how much data they use
+     */
+    public interface ResponseSizeListener {
+        void onResponseSize(long bytes);
+    }
+
     private ServiceCompletionListener mCompletionListener;
     private Object mListenerCompanion;
 
@@ -59,7 +75,8 @@ public class ReaderPostLogic {
                         EventBus.getDefault().post(new ReaderEvents.UpdatePostsEnded(tag, result, action));
                         mCompletionListener.onCompleted(mListenerCompanion);
                     }
-                });
+                },
+                null);
     }
 
     private void updatePostsInBlog(long blogId, final UpdateAction action) {
@@ -84,9 +101,10 @@ public class ReaderPostLogic {
         requestPostsForFeed(feedId, action, listener);
     }
 
-    private static void requestPostsWithTag(final ReaderTag tag,
-                                            final UpdateAction updateAction,
-                                            final ReaderActions.UpdateResultListener resultListener) {
+    public static void requestPostsWithTag(final ReaderTag tag,
+                                           final UpdateAction updateAction,
+                                           final ReaderActions.UpdateResultListener resultListener,
+                                           @Nullable final ResponseSizeListener sizeListener) {
         String path = getRelativeEndpointForTag(tag);
         if (TextUtils.isEmpty(path)) {
             resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
@@ -123,14 +141,14 @@ public class ReaderPostLogic {
 
         sb.append("&meta=site,likes");
 
-        com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
+        ParsedRestRequest.Listener<ReaderPostList> listener = new ParsedRestRequest.Listener<ReaderPostList>() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
+            public void onResponse(ReaderPostList serverPosts) {
                 // remember when this tag was updated if newer posts were requested
                 if (updateAction == UpdateAction.REQUEST_NEWER || updateAction == UpdateAction.REQUEST_REFRESH) {
                     ReaderTagTable.setTagLastUpdated(tag);
                 }
-                handleUpdatePostsResponse(tag, jsonObject, updateAction, resultListener);
+                handleUpdatePostsResponse(tag, serverPosts, updateAction, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -141,7 +159,8 @@ public class ReaderPostLogic {
             }
         };
 
-        WordPress.getRestClientUtilsV1_2().get(sb.toString(), null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getParsed(sb.toString(), null, getPostsParser(sizeListener), listener,
+                errorListener);
     }
 
     private static void requestPostsForBlog(final long blogId,
@@ -157,10 +176,10 @@ public class ReaderPostLogic {
             }
         }
 
-        com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
+        ParsedRestRequest.Listener<ReaderPostList> listener = new ParsedRestRequest.Listener<ReaderPostList>() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
-                handleUpdatePostsResponse(null, jsonObject, updateAction, resultListener);
+            public void onResponse(ReaderPostList serverPosts) {
+                handleUpdatePostsResponse(null, serverPosts, updateAction, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -171,7 +190,7 @@ public class ReaderPostLogic {
             }
         };
         AppLog.d(AppLog.T.READER, "updating posts in blog " + blogId);
-        WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getParsed(path, null, getPostsParser(null), listener, errorListener);
     }
 
     private static void requestPostsForFeed(final long feedId,
@@ -185,10 +204,10 @@ public class ReaderPostLogic {
             }
         }
 
-        com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
+        ParsedRestRequest.Listener<ReaderPostList> listener = new ParsedRestRequest.Listener<ReaderPostList>() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
-                handleUpdatePostsResponse(null, jsonObject, updateAction, resultListener);
+            public void onResponse(ReaderPostList serverPosts) {
+                handleUpdatePostsResponse(null, serverPosts, updateAction, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -200,84 +219,120 @@ public class ReaderPostLogic {
         };
 
         AppLog.d(AppLog.T.READER, "updating posts in feed " + feedId);
-        WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getParsed(path, null, getPostsParser(null), listener, errorListener);
+    }
+
+    /*
+     * returns a parser which reads the posts in a response straight from its bytes on the network
+     * thread, so neither the response string nor a JSONObject holding every post is created
+     */
+    private static ParsedRestRequest.Parser<ReaderPostList> getPostsParser(
+            @Nullable final ResponseSizeListener sizeListener) {
+        return new ParsedRestRequest.Parser<ReaderPostList>() {
+            @Override
+            public ReaderPostList parse(byte[] data) throws IOException {
+                if (sizeListener != null) {
+                    sizeListener.onResponseSize(data.length);
+                }
+                return ReaderPostStreamParser.parseAll(new ByteArrayInputStream(data));
+            }
+        };
     }
 
     /*
      * called after requesting posts with a specific tag or in a specific blog/feed
      */
     private static void handleUpdatePostsResponse(final ReaderTag tag,
-                                                  final JSONObject jsonObject,
+                                                  final ReaderPostList serverPosts,
                                                   final UpdateAction updateAction,
                                                   final ReaderActions.UpdateResultListener resultListener) {
-        if (jsonObject == null) {
+        if (serverPosts == null) {
             resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
             return;
         }
 
-        new Thread() {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
-                ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
-                ReaderActions.UpdateResult updateResult = ReaderPostTable.comparePosts(serverPosts);
-                if (updateResult.isNewOrChanged()) {
-                    // gap detection - only applies to posts with a specific tag
-                    ReaderPost postWithGap = null;
-                    if (tag != null) {
-                        switch (updateAction) {
-                            case REQUEST_NEWER:
-                                // if there's no overlap between server and local (ie: all server
-                                // posts are new), assume there's a gap between server and local
-                                // provided that local posts exist
-                                int numServerPosts = serverPosts.size();
-                                if (numServerPosts >= 2
-                                    && ReaderPostTable.getNumPostsWithTag(tag) > 0
-                                    && !ReaderPostTable.hasOverlap(serverPosts, tag)) {
-                                    // treat the second to last server post as having a gap
-                                    postWithGap = serverPosts.get(numServerPosts - 2);
-                                    // remove the last server post to deal with the edge case of
-                                    // there actually not being a gap between local & server
-                                    serverPosts.remove(numServerPosts - 1);
-                                    ReaderBlogIdPostId gapMarker = ReaderPostTable.getGapMarkerIdsForTag(tag);
-                                    if (gapMarker != null) {
-                                        // We mustn't have two gapMarkers at the same time. Therefor we need to
-                                        // delete all posts before the current gapMarker and clear the gapMarker flag.
-                                        ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
-                                        ReaderPostTable.removeGapMarkerForTag(tag);
-                                    }
-                                }
-                                break;
-                            case REQUEST_OLDER_THAN_GAP:
-                                // if service was started as a request to fill a gap, delete existing posts
-                                // before the one with the gap marker, then remove the existing gap marker
+                // the listener is always told the result, even if saving the posts fails, so the
+                // stream doesn't wait for it forever - the failure itself is reported by WPExecutors
+                ReaderActions.UpdateResult updateResult = ReaderActions.UpdateResult.FAILED;
+                try {
+                    updateResult = savePosts(tag, serverPosts, updateAction);
+                } finally {
+                    resultListener.onUpdateResult(updateResult);
+                }
+            }
+        });
+    }
+
+    /*
+     * saves the posts returned by the server, along with any gap marker they need - must be called
+     * on the db write executor
+     */
+    private static ReaderActions.UpdateResult savePosts(final ReaderTag tag,
+                                                        final ReaderPostList serverPosts,
+                                                        final UpdateAction updateAction) {
+        // compare with stored posts once, up front, since the overlap check needs the
+        // posts as they were before any are written
+        ReaderPostChanges changes = ReaderPostTable.getPostChanges(serverPosts, tag);
+        ReaderActions.UpdateResult updateResult = changes.getUpdateResult();
+        if (updateResult.isNewOrChanged()) {
+            // gap detection - only applies to posts with a specific tag
+            ReaderPost postWithGap = null;
+            if (tag != null) {
+                switch (updateAction) {
+                    case REQUEST_NEWER:
+                        // if there's no overlap between server and local (ie: all server
+                        // posts are new), assume there's a gap between server and local
+                        // provided that local posts exist
+                        int numServerPosts = serverPosts.size();
+                        if (numServerPosts >= 2
+                            && ReaderPostTable.getNumPostsWithTag(tag) > 0
+                            && !changes.hasOverlapWithTag()) {
+                            // treat the second to last server post as having a gap
+                            postWithGap = serverPosts.get(numServerPosts - 2);
+                            // remove the last server post to deal with the edge case of
+                            // there actually not being a gap between local & server
+                            serverPosts.remove(numServerPosts - 1);
+                            ReaderBlogIdPostId gapMarker = ReaderPostTable.getGapMarkerIdsForTag(tag);
+                            if (gapMarker != null) {
+                                // We mustn't have two gapMarkers at the same time. Therefor we need to
+                                // delete all posts before the current gapMarker and clear the gapMarker flag.
                                 ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
                                 ReaderPostTable.removeGapMarkerForTag(tag);
-                                break;
-                            case REQUEST_REFRESH:
-                                ReaderPostTable.deletePostsWithTag(tag);
-                                break;
-                            case REQUEST_OLDER:
-                                // no-op
-                                break;
+                            }
                         }
-                    }
-                    ReaderPostTable.addOrUpdatePosts(tag, serverPosts);
-
-                    // gap marker must be set after saving server posts
-                    if (postWithGap != null) {
-                        ReaderPostTable.setGapMarkerForTag(postWithGap.blogId, postWithGap.postId, tag);
-                        AppLog.d(AppLog.T.READER, "added gap marker to tag " + tag.getTagNameForLog());
-                    }
-                } else if (updateResult == ReaderActions.UpdateResult.UNCHANGED
-                           && updateAction == UpdateAction.REQUEST_OLDER_THAN_GAP) {
-                    // edge case - request to fill gap returned nothing new, so remove the gap marker
-                    ReaderPostTable.removeGapMarkerForTag(tag);
-                    AppLog.w(AppLog.T.READER, "attempt to fill gap returned nothing new");
+                        break;
+                    case REQUEST_OLDER_THAN_GAP:
+                        // if service was started as a request to fill a gap, delete existing posts
+                        // before the one with the gap marker, then remove the existing gap marker
+                        ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
+                        ReaderPostTable.removeGapMarkerForTag(tag);
+                        break;
+                    case REQUEST_REFRESH:
+                        ReaderPostTable.deletePostsWithTag(tag);
+                        break;
+                    case REQUEST_OLDER:
+                        // no-op
+                        break;
                 }
-                AppLog.d(AppLog.T.READER, "requested posts response = " + updateResult.toString());
-                resultListener.onUpdateResult(updateResult);
             }
-        }.start();
+            ReaderPostTable.addOrUpdatePosts(tag, serverPosts);
+
+            // gap marker must be set after saving server posts
+            if (postWithGap != null) {
+                ReaderPostTable.setGapMarkerForTag(postWithGap.blogId, postWithGap.postId, tag);
+                AppLog.d(AppLog.T.READER, "added gap marker to tag " + tag.getTagNameForLog());
+            }
+        } else if (updateResult == ReaderActions.UpdateResult.UNCHANGED
+                   && updateAction == UpdateAction.REQUEST_OLDER_THAN_GAP) {
+            // edge case - request to fill gap returned nothing new, so remove the gap marker
+            ReaderPostTable.removeGapMarkerForTag(tag);
+            AppLog.w(AppLog.T.READER, "attempt to fill gap returned nothing new");
+        }
+        AppLog.d(AppLog.T.READER, "requested posts response = " + updateResult.toString());
+        return updateResult;
     }
 
     /*
@@ -0,0 +1,46 @@
+package org.wordpress.android.ui.reader.services.prefetch;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+
+import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
+import org.wordpress.android.util.AppLog;
+
+/**
+ * service which prefetches posts in the streams the user is likely to open, scheduled by
+ * ReaderPrefetchScheduler to run while the device is charging on an unmetered network
+ */
+public class ReaderPrefetchJobService extends JobService implements ServiceCompletionListener {
+    private ReaderPrefetchLogic mReaderPrefetchLogic;
+
+    @Override public boolean onStartJob(JobParameters params) {
+        AppLog.i(AppLog.T.READER, "reader prefetch job service > started");
+        mReaderPrefetchLogic.performTask(params);
+        return true;
+    }
+
+    @Override public boolean onStopJob(JobParameters params) {
+        AppLog.i(AppLog.T.READER, "reader prefetch job service > stopped");
+        mReaderPrefetchLogic.cancel();
+        return false;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        mReaderPrefetchLogic = new ReaderPrefetchLogic(this);
+        AppLog.i(AppLog.T.READER, "reader prefetch job service > created");
+    }
+
+    @Override
+    public void onDestroy() {
+        AppLog.i(AppLog.T.READER, "reader prefetch job service > destroyed");
+        super.onDestroy();
+    }
+
+    @Override
+    public void onCompleted(Object companion) {
+        AppLog.i(AppLog.T.READER, "reader prefetch job service > all tasks completed");
+        jobFinished((JobParameters) companion, false);
+    }
+}
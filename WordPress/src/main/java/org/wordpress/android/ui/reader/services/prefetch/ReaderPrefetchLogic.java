@@ -0,0 +1,115 @@
+package org.wordpress.android.ui.reader.services.prefetch;
+
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.datasets.ReaderTagTable;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResultListener;
+import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
+import org.wordpress.android.ui.reader.services.post.ReaderPostLogic;
+import org.wordpress.android.ui.reader.services.post.ReaderPostLogic.ResponseSizeListener;
+import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.WPExecutors;
+
+import java.util.Iterator;
+
+/**
+ * Refreshes the streams the user is most likely to open next, and fills any gap in them, one
+ * request at a time while the day's prefetch budget lasts. Unlike ReaderPostLogic it doesn't post
+ * update events, since nothing on screen is waiting for these posts.
+ */
+public class ReaderPrefetchLogic {
+    private static final int MAX_TAGS_TO_PREFETCH = 3;
+
+    private final ServiceCompletionListener mCompletionListener;
+    private Object mListenerCompanion;
+    private volatile boolean mIsCancelled;
+
+    private final ResponseSizeListener mSizeListener = new ResponseSizeListener() {
+        @Override
+        public void onResponseSize(long bytes) {
+            ReaderPrefetchStats.addBytes(bytes);
+        }
+    };
+
+    public ReaderPrefetchLogic(ServiceCompletionListener listener) {
+        mCompletionListener = listener;
+    }
+
+    public void performTask(Object companion) {
+        mListenerCompanion = companion;
+        mIsCancelled = false;
+        WPExecutors.io(new Runnable() {
+            @Override
+            public void run() {
+                prefetchNext(ReaderTagHistory.getLikelyTags(MAX_TAGS_TO_PREFETCH).iterator());
+            }
+        });
+    }
+
+    /*
+     * stops prefetching once the current request completes
+     */
+    public void cancel() {
+        mIsCancelled = true;
+    }
+
+    private boolean canContinue() {
+        if (mIsCancelled) {
+            AppLog.i(AppLog.T.READER, "reader prefetch > cancelled");
+            return false;
+        }
+        if (ReaderPrefetchStats.getBytesRemaining() <= 0) {
+            AppLog.i(AppLog.T.READER, "reader prefetch > daily budget used");
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * must be called in the background since it queries the db
+     */
+    private void prefetchNext(Iterator<ReaderTag> tags) {
+        while (canContinue() && tags.hasNext()) {
+            ReaderTag tag = tags.next();
+            if (ReaderTagTable.shouldAutoUpdateTag(tag)) {
+                requestPosts(tag, UpdateAction.REQUEST_NEWER, tags);
+                return;
+            } else if (ReaderPostTable.getGapMarkerIdsForTag(tag) != null) {
+                requestPosts(tag, UpdateAction.REQUEST_OLDER_THAN_GAP, tags);
+                return;
+            }
+        }
+        mCompletionListener.onCompleted(mListenerCompanion);
+    }
+
+    private void requestPosts(final ReaderTag tag, final UpdateAction action, final Iterator<ReaderTag> tags) {
+        AppLog.d(AppLog.T.READER, "reader prefetch > " + action.name() + " for " + tag.getTagNameForLog());
+        UpdateResultListener resultListener = new UpdateResultListener() {
+            @Override
+            public void onUpdateResult(final UpdateResult result) {
+                // failures are reported on the main thread, so move back to the background
+                WPExecutors.io(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (result != UpdateResult.FAILED) {
+                            ReaderPrefetchStats.recordStreamPrefetched(tag);
+                        }
+                        // refreshing a stream which hasn't been opened for a while usually leaves
+                        // a gap between the new posts and the stored ones, so fill that as well
+                        if (action == UpdateAction.REQUEST_NEWER
+                            && result.isNewOrChanged()
+                            && ReaderPostTable.getGapMarkerIdsForTag(tag) != null
+                            && canContinue()) {
+                            requestPosts(tag, UpdateAction.REQUEST_OLDER_THAN_GAP, tags);
+                        } else {
+                            prefetchNext(tags);
+                        }
+                    }
+                });
+            }
+        };
+        ReaderPostLogic.requestPostsWithTag(tag, action, resultListener, mSizeListener);
+    }
+}
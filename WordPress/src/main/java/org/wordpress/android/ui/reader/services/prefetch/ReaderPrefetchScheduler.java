@@ -0,0 +1,65 @@
+package org.wordpress.android.ui.reader.services.prefetch;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.text.format.DateUtils;
+
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.util.AppLog;
+
+import java.util.List;
+
+import static org.wordpress.android.JobServiceId.JOB_READER_PREFETCH_SERVICE_ID;
+
+/*
+ * records the reader streams the user opens and schedules the periodic job which prefetches the
+ * ones they're likely to open next - the job only runs while the device is charging on an
+ * unmetered network, so prefetching never costs the user data or battery
+ */
+public class ReaderPrefetchScheduler {
+    private static final long PREFETCH_INTERVAL_MS = 6 * DateUtils.HOUR_IN_MILLIS;
+
+    public static void onTagOpened(Context context, ReaderTag tag) {
+        if (context == null || !ReaderTagHistory.canPrefetch(tag)) {
+            return;
+        }
+        ReaderPrefetchStats.recordStreamOpened(tag);
+        ReaderTagHistory.recordOpened(tag);
+        schedulePrefetch(context);
+    }
+
+    private static void schedulePrefetch(Context context) {
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (isPrefetchScheduled(jobScheduler)) {
+            return;
+        }
+
+        ComponentName componentName = new ComponentName(context, ReaderPrefetchJobService.class);
+        JobInfo jobInfo = new JobInfo.Builder(JOB_READER_PREFETCH_SERVICE_ID, componentName)
+                .setRequiresCharging(true)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setPeriodic(PREFETCH_INTERVAL_MS)
+                .build();
+
+        int resultCode = jobScheduler.schedule(jobInfo);
+        if (resultCode == JobScheduler.RESULT_SUCCESS) {
+            AppLog.i(AppLog.T.READER, "reader prefetch > job scheduled");
+        } else {
+            AppLog.e(AppLog.T.READER, "reader prefetch > job could not be scheduled");
+        }
+    }
+
+    private static boolean isPrefetchScheduled(JobScheduler jobScheduler) {
+        List<JobInfo> jobs = jobScheduler.getAllPendingJobs();
+        if (jobs != null) {
+            for (JobInfo jobInfo : jobs) {
+                if (jobInfo.getId() == JOB_READER_PREFETCH_SERVICE_ID) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,198 @@
+package org.wordpress.android.ui.reader.services.prefetch;
+
+import android.text.TextUtils;
+import android.text.format.DateUtils;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.ui.prefs.AppPrefs;
+import org.wordpress.android.util.AppLog;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Keeps track of how much data reader prefetching uses each day, so it stays within its budget,
+ * and of how often what it fetches turns out to be used:
+ * - a stream hit is the user opening a stream which was prefetched since they last opened it
+ * - a page hit is the next page of a stream arriving before the user scrolls to the end of it
+ */
+public class ReaderPrefetchStats {
+    @VisibleForTesting
+    static final long DAILY_BUDGET_BYTES = 10 * 1024 * 1024;
+
+    private static final String KEY_DAY = "day";
+    private static final String KEY_BYTES = "bytes";
+    private static final String KEY_PREFETCHED_TAGS = "prefetched_tags";
+    private static final String KEY_STREAM_PREFETCHES = "stream_prefetches";
+    private static final String KEY_STREAM_HITS = "stream_hits";
+    private static final String KEY_PAGE_LOADS = "page_loads";
+    private static final String KEY_PAGE_HITS = "page_hits";
+
+    private long mDay;
+    private long mBytes;
+    private final Set<String> mPrefetchedTags = new HashSet<>();
+    private int mStreamPrefetches;
+    private int mStreamHits;
+    private int mPageLoads;
+    private int mPageHits;
+
+    @VisibleForTesting
+    ReaderPrefetchStats(String json) {
+        if (TextUtils.isEmpty(json)) {
+            return;
+        }
+        try {
+            JSONObject jsonStats = new JSONObject(json);
+            mDay = jsonStats.optLong(KEY_DAY);
+            mBytes = jsonStats.optLong(KEY_BYTES);
+            JSONArray jsonTags = jsonStats.optJSONArray(KEY_PREFETCHED_TAGS);
+            if (jsonTags != null) {
+                for (int i = 0; i < jsonTags.length(); i++) {
+                    mPrefetchedTags.add(jsonTags.getString(i));
+                }
+            }
+            mStreamPrefetches = jsonStats.optInt(KEY_STREAM_PREFETCHES);
+            mStreamHits = jsonStats.optInt(KEY_STREAM_HITS);
+            mPageLoads = jsonStats.optInt(KEY_PAGE_LOADS);
+            mPageHits = jsonStats.optInt(KEY_PAGE_HITS);
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.READER, "reader prefetch stats > unable to parse stats", e);
+        }
+    }
+
+    private static ReaderPrefetchStats load() {
+        return new ReaderPrefetchStats(AppPrefs.getReaderPrefetchStats());
+    }
+
+    private void save() {
+        AppPrefs.setReaderPrefetchStats(toJson());
+    }
+
+    public static synchronized void addBytes(long bytes) {
+        ReaderPrefetchStats stats = load();
+        stats.onBytesUsed(bytes, System.currentTimeMillis());
+        stats.save();
+    }
+
+    public static synchronized long getBytesRemaining() {
+        return load().getBytesRemaining(System.currentTimeMillis());
+    }
+
+    public static synchronized void recordStreamPrefetched(ReaderTag tag) {
+        ReaderPrefetchStats stats = load();
+        stats.onStreamPrefetched(getTagKey(tag));
+        stats.save();
+    }
+
+    public static synchronized void recordStreamOpened(ReaderTag tag) {
+        ReaderPrefetchStats stats = load();
+        stats.onStreamOpened(getTagKey(tag));
+        stats.save();
+        stats.log();
+    }
+
+    /*
+     * called when a page of posts requested from the server is shown, `beforeReachingEnd` being
+     * true when it arrived before the user scrolled to the end of the list
+     */
+    public static synchronized void recordPageLoaded(boolean beforeReachingEnd) {
+        ReaderPrefetchStats stats = load();
+        stats.onPageLoaded(beforeReachingEnd);
+        stats.save();
+        stats.log();
+    }
+
+    private static String getTagKey(ReaderTag tag) {
+        return tag.tagType.toInt() + ":" + tag.getTagSlug();
+    }
+
+    /*
+     * days are counted in UTC, which is close enough for a budget
+     */
+    private static long getDay(long now) {
+        return now / DateUtils.DAY_IN_MILLIS;
+    }
+
+    @VisibleForTesting
+    void onBytesUsed(long bytes, long now) {
+        long today = getDay(now);
+        if (mDay != today) {
+            mDay = today;
+            mBytes = 0;
+        }
+        mBytes += bytes;
+    }
+
+    @VisibleForTesting
+    long getBytesRemaining(long now) {
+        long bytesToday = mDay == getDay(now) ? mBytes : 0;
+        return Math.max(0, DAILY_BUDGET_BYTES - bytesToday);
+    }
+
+    @VisibleForTesting
+    void onStreamPrefetched(String tagKey) {
+        // a stream prefetched again before it's opened is still a single chance of a hit
+        if (mPrefetchedTags.add(tagKey)) {
+            mStreamPrefetches++;
+        }
+    }
+
+    @VisibleForTesting
+    void onStreamOpened(String tagKey) {
+        if (mPrefetchedTags.remove(tagKey)) {
+            mStreamHits++;
+        }
+    }
+
+    @VisibleForTesting
+    void onPageLoaded(boolean beforeReachingEnd) {
+        mPageLoads++;
+        if (beforeReachingEnd) {
+            mPageHits++;
+        }
+    }
+
+    @VisibleForTesting
+    float getStreamHitRate() {
+        return mStreamPrefetches > 0 ? (float) mStreamHits / mStreamPrefetches : 0;
+    }
+
+    @VisibleForTesting
+    float getPageHitRate() {
+        return mPageLoads > 0 ? (float) mPageHits / mPageLoads : 0;
+    }
+
+    private void log() {
+        AppLog.d(AppLog.T.READER, String.format(Locale.US,
+                "reader prefetch > stream hits %d/%d (%.0f%%), page hits %d/%d (%.0f%%), %d bytes used today",
+                mStreamHits, mStreamPrefetches, getStreamHitRate() * 100,
+                mPageHits, mPageLoads, getPageHitRate() * 100, mBytes));
+    }
+
+    @VisibleForTesting
+    String toJson() {
+        JSONObject jsonStats = new JSONObject();
+        try {
+            jsonStats.put(KEY_DAY, mDay);
+            jsonStats.put(KEY_BYTES, mBytes);
+            JSONArray jsonTags = new JSONArray();
+            for (String tagKey : mPrefetchedTags) {
+                jsonTags.put(tagKey);
+            }
+            jsonStats.put(KEY_PREFETCHED_TAGS, jsonTags);
+            jsonStats.put(KEY_STREAM_PREFETCHES, mStreamPrefetches);
+            jsonStats.put(KEY_STREAM_HITS, mStreamHits);
+            jsonStats.put(KEY_PAGE_LOADS, mPageLoads);
+            jsonStats.put(KEY_PAGE_HITS, mPageHits);
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.READER, "reader prefetch stats > unable to save stats", e);
+        }
+        return jsonStats.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package org.wordpress.android.ui.reader.services.prefetch;
+
+import android.text.TextUtils;
+import android.text.format.DateUtils;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagList;
+import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.prefs.AppPrefs;
+import org.wordpress.android.ui.reader.utils.ReaderUtils;
+import org.wordpress.android.util.AppLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Remembers which reader streams the user opens so the ones they're likely to open next can be
+ * prefetched. Each stream is scored by how often it's opened, with older opens counting for less -
+ * a stream's score halves for every week it isn't opened - so streams the user has moved on from
+ * eventually drop out of the history.
+ */
+public class ReaderTagHistory {
+    private static final int MAX_TAGS = 20;
+    private static final long SCORE_HALF_LIFE_MS = 7 * DateUtils.DAY_IN_MILLIS;
+
+    private static final String KEY_SLUG = "slug";
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_SCORE = "score";
+    private static final String KEY_LAST_OPENED = "last_opened";
+
+    private final List<Entry> mEntries = new ArrayList<>();
+
+    @VisibleForTesting
+    ReaderTagHistory(String json) {
+        if (TextUtils.isEmpty(json)) {
+            return;
+        }
+        try {
+            JSONArray jsonEntries = new JSONArray(json);
+            for (int i = 0; i < jsonEntries.length(); i++) {
+                JSONObject jsonEntry = jsonEntries.getJSONObject(i);
+                mEntries.add(new Entry(
+                        jsonEntry.getString(KEY_SLUG),
+                        ReaderTagType.fromInt(jsonEntry.getInt(KEY_TYPE)),
+                        jsonEntry.getDouble(KEY_SCORE),
+                        jsonEntry.getLong(KEY_LAST_OPENED)));
+            }
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.READER, "reader tag history > unable to parse history", e);
+            mEntries.clear();
+        }
+    }
+
+    public static synchronized void recordOpened(ReaderTag tag) {
+        if (!canPrefetch(tag)) {
+            return;
+        }
+        ReaderTagHistory history = new ReaderTagHistory(AppPrefs.getReaderTagHistory());
+        history.add(tag.getTagSlug(), tag.tagType, System.currentTimeMillis());
+        AppPrefs.setReaderTagHistory(history.toJson());
+    }
+
+    /*
+     * returns up to `limit` tags the user is most likely to open, most likely first - note that
+     * this reads the tags from the db so it shouldn't be called on the main thread
+     */
+    public static synchronized ReaderTagList getLikelyTags(int limit) {
+        ReaderTagHistory history = new ReaderTagHistory(AppPrefs.getReaderTagHistory());
+        ReaderTagList tags = new ReaderTagList();
+        for (Entry entry : history.getRanked(System.currentTimeMillis(), limit)) {
+            tags.add(ReaderUtils.getTagFromTagName(entry.mSlug, entry.mType));
+        }
+        return tags;
+    }
+
+    /*
+     * search results and bookmarks aren't streams which can be refreshed from the server
+     */
+    static boolean canPrefetch(ReaderTag tag) {
+        return tag != null
+               && !TextUtils.isEmpty(tag.getTagSlug())
+               && tag.tagType != ReaderTagType.SEARCH
+               && tag.tagType != ReaderTagType.BOOKMARKED;
+    }
+
+    @VisibleForTesting
+    void add(String slug, ReaderTagType type, long now) {
+        double score = 0;
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry entry = mEntries.get(i);
+            if (entry.mSlug.equals(slug) && entry.mType == type) {
+                score = entry.getScore(now);
+                mEntries.remove(i);
+                break;
+            }
+        }
+        mEntries.add(new Entry(slug, type, score + 1, now));
+
+        // drop the least likely tags once the history is full
+        List<Entry> ranked = getRanked(now, MAX_TAGS);
+        mEntries.retainAll(ranked);
+    }
+
+    @VisibleForTesting
+    List<Entry> getRanked(final long now, int limit) {
+        List<Entry> ranked = new ArrayList<>(mEntries);
+        Collections.sort(ranked, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry entry1, Entry entry2) {
+                return Double.compare(entry2.getScore(now), entry1.getScore(now));
+            }
+        });
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    @VisibleForTesting
+    String toJson() {
+        JSONArray jsonEntries = new JSONArray();
+        try {
+            for (Entry entry : mEntries) {
+                JSONObject jsonEntry = new JSONObject();
+                jsonEntry.put(KEY_SLUG, entry.mSlug);
+                jsonEntry.put(KEY_TYPE, entry.mType.toInt());
+                jsonEntry.put(KEY_SCORE, entry.mScore);
+                jsonEntry.put(KEY_LAST_OPENED, entry.mLastOpened);
+                jsonEntries.put(jsonEntry);
+            }
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.READER, "reader tag history > unable to save history", e);
+        }
+        return jsonEntries.toString();
+    }
+
+    static class Entry {
+        final String mSlug;
+        final ReaderTagType mType;
+        private final double mScore;
+        private final long mLastOpened;
+
+        Entry(String slug, ReaderTagType type, double score, long lastOpened) {
+            mSlug = slug;
+            mType = type;
+            mScore = score;
+            mLastOpened = lastOpened;
+        }
+
+        /*
+         * the score as of `now`, decayed by how long it's been since the tag was last opened
+         */
+        double getScore(long now) {
+            long age = Math.max(0, now - mLastOpened);
+            return mScore * Math.pow(0.5, (double) age / SCORE_HALF_LIFE_MS);
+        }
+    }
+}
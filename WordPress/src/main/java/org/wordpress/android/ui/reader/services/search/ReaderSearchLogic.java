@@ -4,15 +4,22 @@ import com.android.volley.VolleyError;
 import com.wordpress.rest.RestRequest;
 
 import org.greenrobot.eventbus.EventBus;
-import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderPostStreamParser;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.networking.ParsedRestRequest;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
 import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.UrlUtils;
+import org.wordpress.android.util.WPExecutors;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import static org.wordpress.android.ui.reader.utils.ReaderUtils.getTagForSearchQuery;
 
@@ -32,16 +39,24 @@ public class ReaderSearchLogic {
                       + "&offset=" + offset
                       + "&meta=site,likes";
 
-        RestRequest.Listener listener = new RestRequest.Listener() {
+        ParsedRestRequest.Listener<ReaderPostList> listener = new ParsedRestRequest.Listener<ReaderPostList>() {
             @Override
-            public void onResponse(JSONObject jsonObject) {
-                if (jsonObject != null) {
-                    handleSearchResponse(query, offset, jsonObject);
+            public void onResponse(ReaderPostList serverPosts) {
+                if (serverPosts != null) {
+                    handleSearchResponse(query, offset, serverPosts);
                 } else {
                     EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, false));
                 }
             }
         };
+        // the results are parsed on the network thread, so only saving them is left for the db
+        // write executor
+        ParsedRestRequest.Parser<ReaderPostList> parser = new ParsedRestRequest.Parser<ReaderPostList>() {
+            @Override
+            public ReaderPostList parse(byte[] data) throws IOException {
+                return ReaderPostStreamParser.parseAll(new ByteArrayInputStream(data));
+            }
+        };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
             @Override
             public void onErrorResponse(VolleyError volleyError) {
@@ -53,18 +68,50 @@ public class ReaderSearchLogic {
 
         AppLog.d(AppLog.T.READER, "reader search service > starting search for " + query);
         EventBus.getDefault().post(new ReaderEvents.SearchPostsStarted(query, offset));
-        WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
+        WordPress.getRestClientUtilsV1_2().getParsed(path, null, parser, listener, errorListener);
+        if (offset == 0) {
+            addCachedResults(query);
+        }
+    }
+
+    /*
+     * shows matching posts we already have while the search request is in flight (or if it fails
+     * because we're offline) - these are given the lowest score so any results returned by the
+     * server are shown above them
+     */
+    private void addCachedResults(final String query) {
+        WPExecutors.dbWrite(new Runnable() {
+            @Override
+            public void run() {
+                ReaderTag searchTag = getTagForSearchQuery(query);
+                // skip if the server has already returned results
+                if (ReaderPostTable.getNumPostsWithTag(searchTag) > 0) {
+                    return;
+                }
+                ReaderPostList cachedPosts = ReaderPostTable.getPostsMatchingQuery(
+                        query, ReaderConstants.READER_MAX_SEARCH_RESULTS_TO_REQUEST);
+                if (cachedPosts.isEmpty()) {
+                    return;
+                }
+                for (ReaderPost post : cachedPosts) {
+                    post.score = 0;
+                }
+                ReaderPostTable.addOrUpdatePosts(searchTag, cachedPosts);
+                AppLog.d(AppLog.T.READER, "reader search service > added " + cachedPosts.size()
+                                          + " cached results for " + query);
+                EventBus.getDefault().post(new ReaderEvents.SearchPostsCachedResultsAdded(query));
+            }
+        });
     }
 
-    private void handleSearchResponse(final String query, final int offset, final JSONObject jsonObject) {
-        new Thread() {
+    private void handleSearchResponse(final String query, final int offset, final ReaderPostList serverPosts) {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
-                ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
                 ReaderPostTable.addOrUpdatePosts(getTagForSearchQuery(query), serverPosts);
                 EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, true));
                 mCompletionListener.onCompleted(mListenerCompanion);
             }
-        }.start();
+        });
     }
 }
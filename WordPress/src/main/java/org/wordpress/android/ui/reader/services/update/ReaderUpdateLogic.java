@@ -27,6 +27,7 @@ import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.JSONUtils;
 import org.wordpress.android.util.LocaleManager;
+import org.wordpress.android.util.WPExecutors;
 
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -159,7 +160,7 @@ public class ReaderUpdateLogic {
     }
 
     private void handleUpdateTagsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
                 // get server topics, both default & followed - but use "recommended" for logged-out
@@ -231,7 +232,7 @@ public class ReaderUpdateLogic {
 
                 taskCompleted(UpdateTask.TAGS);
             }
-        }.start();
+        });
     }
 
     /*
@@ -315,29 +316,35 @@ public class ReaderUpdateLogic {
     }
 
     private void handleFollowedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        // parse on the parse executor so the single db write thread is only used for the write
+        WPExecutors.parse(new Runnable() {
             @Override
             public void run() {
-                ReaderBlogList serverBlogs = ReaderBlogList.fromJson(jsonObject);
-                ReaderBlogList localBlogs = ReaderBlogTable.getFollowedBlogs();
-
-                if (!localBlogs.isSameList(serverBlogs)) {
-                    // always update the list of followed blogs if there are *any* changes between
-                    // server and local (including subscription count, description, etc.)
-                    ReaderBlogTable.setFollowedBlogs(serverBlogs);
-                    // ...but only update the follow status and alert that followed blogs have
-                    // changed if the server list doesn't have the same blogs as the local list
-                    // (ie: a blog has been followed/unfollowed since local was last updated)
-                    if (!localBlogs.hasSameBlogs(serverBlogs)) {
-                        ReaderPostTable.updateFollowedStatus();
-                        AppLog.i(AppLog.T.READER, "reader blogs service > followed blogs changed");
-                        EventBus.getDefault().post(new ReaderEvents.FollowedBlogsChanged());
+                final ReaderBlogList serverBlogs = ReaderBlogList.fromJson(jsonObject);
+                WPExecutors.dbWrite(new Runnable() {
+                    @Override
+                    public void run() {
+                        ReaderBlogList localBlogs = ReaderBlogTable.getFollowedBlogs();
+
+                        if (!localBlogs.isSameList(serverBlogs)) {
+                            // always update the list of followed blogs if there are *any* changes between
+                            // server and local (including subscription count, description, etc.)
+                            ReaderBlogTable.setFollowedBlogs(serverBlogs);
+                            // ...but only update the follow status and alert that followed blogs have
+                            // changed if the server list doesn't have the same blogs as the local list
+                            // (ie: a blog has been followed/unfollowed since local was last updated)
+                            if (!localBlogs.hasSameBlogs(serverBlogs)) {
+                                ReaderPostTable.updateFollowedStatus();
+                                AppLog.i(AppLog.T.READER, "reader blogs service > followed blogs changed");
+                                EventBus.getDefault().post(new ReaderEvents.FollowedBlogsChanged());
+                            }
+                        }
+
+                        taskCompleted(UpdateTask.FOLLOWED_BLOGS);
                     }
-                }
-
-                taskCompleted(UpdateTask.FOLLOWED_BLOGS);
+                });
             }
-        }.start();
+        });
     }
 
     /***
@@ -366,19 +373,24 @@ public class ReaderUpdateLogic {
     }
 
     private void handleRecommendedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        WPExecutors.parse(new Runnable() {
             @Override
             public void run() {
-                ReaderRecommendBlogList serverBlogs = ReaderRecommendBlogList.fromJson(jsonObject);
-                ReaderRecommendBlogList localBlogs = ReaderBlogTable.getRecommendedBlogs();
-
-                if (!localBlogs.isSameList(serverBlogs)) {
-                    ReaderBlogTable.setRecommendedBlogs(serverBlogs);
-                    EventBus.getDefault().post(new ReaderEvents.RecommendedBlogsChanged());
-                }
-
-                taskCompleted(UpdateTask.RECOMMENDED_BLOGS);
+                final ReaderRecommendBlogList serverBlogs = ReaderRecommendBlogList.fromJson(jsonObject);
+                WPExecutors.dbWrite(new Runnable() {
+                    @Override
+                    public void run() {
+                        ReaderRecommendBlogList localBlogs = ReaderBlogTable.getRecommendedBlogs();
+
+                        if (!localBlogs.isSameList(serverBlogs)) {
+                            ReaderBlogTable.setRecommendedBlogs(serverBlogs);
+                            EventBus.getDefault().post(new ReaderEvents.RecommendedBlogsChanged());
+                        }
+
+                        taskCompleted(UpdateTask.RECOMMENDED_BLOGS);
+                    }
+                });
             }
-        }.start();
+        });
     }
 }
@@ -0,0 +1,37 @@
+package org.wordpress.android.ui.reader.services.vacuum;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+
+import org.wordpress.android.datasets.ReaderDatabase;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.WPExecutors;
+
+/**
+ * service which vacuums a reader database created before auto_vacuum was enabled in full, once,
+ * so the purger can release its free pages incrementally from then on - scheduled by
+ * ReaderVacuumScheduler to run while the device is idle and charging
+ */
+public class ReaderVacuumJobService extends JobService {
+    @Override public boolean onStartJob(final JobParameters params) {
+        AppLog.i(AppLog.T.READER, "reader vacuum job service > started");
+        // runs on the db write executor so it doesn't overlap a purge
+        WPExecutors.dbWrite(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ReaderDatabase.vacuumToIncremental();
+                } finally {
+                    jobFinished(params, false);
+                }
+            }
+        });
+        return true;
+    }
+
+    @Override public boolean onStopJob(JobParameters params) {
+        // a vacuum can't be interrupted, and if it hasn't started the next purge schedules it again
+        AppLog.i(AppLog.T.READER, "reader vacuum job service > stopped");
+        return false;
+    }
+}
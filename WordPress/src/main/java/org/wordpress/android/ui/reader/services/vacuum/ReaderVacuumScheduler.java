@@ -0,0 +1,54 @@
+package org.wordpress.android.ui.reader.services.vacuum;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+
+import org.wordpress.android.util.AppLog;
+
+import java.util.List;
+
+import static org.wordpress.android.JobServiceId.JOB_READER_VACUUM_SERVICE_ID;
+
+/*
+ * schedules the one-time full vacuum of a reader database created before auto_vacuum was enabled -
+ * the job only runs while the device is idle and charging, since the vacuum rewrites the whole
+ * file and no other reader data can be written until it's done
+ */
+public class ReaderVacuumScheduler {
+    public static void scheduleFullVacuum(Context context) {
+        if (context == null) {
+            return;
+        }
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (isVacuumScheduled(jobScheduler)) {
+            return;
+        }
+
+        ComponentName componentName = new ComponentName(context, ReaderVacuumJobService.class);
+        JobInfo jobInfo = new JobInfo.Builder(JOB_READER_VACUUM_SERVICE_ID, componentName)
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .build();
+
+        int resultCode = jobScheduler.schedule(jobInfo);
+        if (resultCode == JobScheduler.RESULT_SUCCESS) {
+            AppLog.i(AppLog.T.READER, "reader vacuum > job scheduled");
+        } else {
+            AppLog.e(AppLog.T.READER, "reader vacuum > job could not be scheduled");
+        }
+    }
+
+    private static boolean isVacuumScheduled(JobScheduler jobScheduler) {
+        List<JobInfo> jobs = jobScheduler.getAllPendingJobs();
+        if (jobs != null) {
+            for (JobInfo jobInfo : jobs) {
+                if (jobInfo.getId() == JOB_READER_VACUUM_SERVICE_ID) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
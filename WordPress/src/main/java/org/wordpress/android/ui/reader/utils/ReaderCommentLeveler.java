@@ -6,9 +6,20 @@ import org.wordpress.android.models.ReaderComment;
 import org.wordpress.android.models.ReaderCommentList;
 import org.wordpress.android.util.AppLog;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /*
  * utility class which accepts a list of comments and then creates a "level list" from it
  * which places child comments below their parents with indentation levels applied
+ *
+ * children are looked up in an index of comments by parent id, so leveling is a single
+ * depth-first walk of each thread rather than a pass over every comment for each parent
  */
 
 public class ReaderCommentLeveler {
@@ -20,28 +31,30 @@ public class ReaderCommentLeveler {
 
     public ReaderCommentList createLevelList() {
         ReaderCommentList result = new ReaderCommentList();
+        result.ensureCapacity(mComments.size());
 
-        // reset all levels, and add root comments to result
+        Set<Long> commentIds = new HashSet<>();
         for (ReaderComment comment : mComments) {
             comment.level = 0;
-            if (comment.parentId == 0) {
-                result.add(comment);
-            }
+            commentIds.add(comment.commentId);
         }
 
-        // add children at each level
-        int level = 0;
-        while (walkCommentsAtLevel(result, level)) {
-            level++;
+        Map<Long, List<ReaderComment>> children = indexChildren(mComments);
+        Set<Long> addedIds = new HashSet<>();
+
+        // add each root comment followed by its children
+        for (ReaderComment comment : mComments) {
+            if (comment.parentId == 0) {
+                addThread(result, comment, 0, children, addedIds);
+            }
         }
 
-        // check for orphans (child comments whose parents weren't found above) and give them
+        // add orphans (child comments whose parents weren't found above) last, and give them
         // a non-zero level so they're indented by ReaderCommentAdapter
-        for (ReaderComment comment : result) {
-            if (comment.level == 0 && comment.parentId != 0) {
-                comment.level = 1;
-                result.add(comment);
+        for (ReaderComment comment : mComments) {
+            if (comment.parentId != 0 && !commentIds.contains(comment.parentId)) {
                 AppLog.d(AppLog.T.READER, "Orphan comment encountered");
+                addThread(result, comment, 1, children, addedIds);
             }
         }
 
@@ -49,48 +62,148 @@ public class ReaderCommentLeveler {
     }
 
     /*
-     * walk comments in the passed list that have the passed level and add their children
-     * beneath them
+     * threads the passed comments into a list previously returned by createLevelList() without
+     * leveling the existing comments again, and returns the result as a new list - existing
+     * comments keep their positions, so new comments are placed after their existing siblings,
+     * which matches createLevelList() when the new comments follow the existing ones (as later
+     * pages of comments do)
      */
-    private boolean walkCommentsAtLevel(@NonNull ReaderCommentList comments, int level) {
-        boolean hasChanges = false;
-        for (int index = 0; index < comments.size(); index++) {
-            ReaderComment parent = comments.get(index);
-            if (parent.level == level && hasChildren(parent.commentId)) {
-                // get children for this comment, set their level, then add them below the parent
-                ReaderCommentList children = getChildren(parent.commentId);
-                setLevel(children, level + 1);
-                comments.addAll(index + 1, children);
-                hasChanges = true;
-                // skip past the children we just added
-                index += children.size();
+    public static ReaderCommentList addToLevelList(@NonNull ReaderCommentList levelList,
+                                                   @NonNull ReaderCommentList newComments) {
+        Set<Long> existingIds = new HashSet<>();
+        for (ReaderComment comment : levelList) {
+            existingIds.add(comment.commentId);
+        }
+
+        ReaderCommentList commentsToAdd = new ReaderCommentList();
+        Set<Long> newIds = new HashSet<>();
+        for (ReaderComment comment : newComments) {
+            if (!existingIds.contains(comment.commentId)) {
+                comment.level = 0;
+                commentsToAdd.add(comment);
+                newIds.add(comment.commentId);
             }
         }
-        return hasChanges;
-    }
 
-    private boolean hasChildren(long commentId) {
-        for (ReaderComment comment : mComments) {
-            if (comment.parentId == commentId) {
-                return true;
+        ReaderCommentList newRoots = new ReaderCommentList();
+        ReaderCommentList newOrphans = new ReaderCommentList();
+        for (ReaderComment comment : commentsToAdd) {
+            if (comment.parentId == 0) {
+                newRoots.add(comment);
+            } else if (!existingIds.contains(comment.parentId) && !newIds.contains(comment.parentId)) {
+                newOrphans.add(comment);
+            }
+        }
+        Map<Long, List<ReaderComment>> newChildren = indexChildren(commentsToAdd);
+
+        ReaderCommentList result = new ReaderCommentList();
+        result.ensureCapacity(levelList.size() + commentsToAdd.size());
+        Set<Long> addedIds = new HashSet<>();
+
+        // walk the existing list keeping track of the current comment's ancestors, and add the new
+        // children of each comment once we've passed the last of its existing descendants
+        ArrayDeque<ReaderComment> ancestors = new ArrayDeque<>();
+        boolean hasAddedNewRoots = false;
+        for (ReaderComment comment : levelList) {
+            while (!ancestors.isEmpty() && ancestors.peek().commentId != comment.parentId) {
+                addChildThreads(result, ancestors.pop(), newChildren, addedIds);
+            }
+            // existing orphans are at the end of the list, and new root comments go before them
+            if (ancestors.isEmpty() && comment.parentId != 0 && !hasAddedNewRoots) {
+                addThreads(result, newRoots, 0, newChildren, addedIds);
+                hasAddedNewRoots = true;
             }
+            result.add(comment);
+            addedIds.add(comment.commentId);
+            ancestors.push(comment);
+        }
+        while (!ancestors.isEmpty()) {
+            addChildThreads(result, ancestors.pop(), newChildren, addedIds);
+        }
+        if (!hasAddedNewRoots) {
+            addThreads(result, newRoots, 0, newChildren, addedIds);
         }
-        return false;
+
+        if (!newOrphans.isEmpty()) {
+            AppLog.d(AppLog.T.READER, "Orphan comment encountered");
+            addThreads(result, newOrphans, 1, newChildren, addedIds);
+        }
+
+        return result;
     }
 
-    private ReaderCommentList getChildren(long commentId) {
-        ReaderCommentList children = new ReaderCommentList();
-        for (ReaderComment comment : mComments) {
-            if (comment.parentId == commentId) {
-                children.add(comment);
+    /*
+     * returns the passed comments' children keyed by parent id, in the order they appear in the list
+     */
+    private static Map<Long, List<ReaderComment>> indexChildren(@NonNull ReaderCommentList comments) {
+        Map<Long, List<ReaderComment>> children = new HashMap<>();
+        for (ReaderComment comment : comments) {
+            if (comment.parentId != 0) {
+                List<ReaderComment> siblings = children.get(comment.parentId);
+                if (siblings == null) {
+                    siblings = new ArrayList<>();
+                    children.put(comment.parentId, siblings);
+                }
+                siblings.add(comment);
             }
         }
         return children;
     }
 
-    private void setLevel(@NonNull ReaderCommentList comments, int level) {
+    private static void addChildThreads(@NonNull ReaderCommentList result,
+                                        @NonNull ReaderComment parent,
+                                        @NonNull Map<Long, List<ReaderComment>> children,
+                                        @NonNull Set<Long> addedIds) {
+        List<ReaderComment> parentChildren = children.get(parent.commentId);
+        if (parentChildren != null) {
+            addThreads(result, parentChildren, parent.level + 1, children, addedIds);
+        }
+    }
+
+    private static void addThreads(@NonNull ReaderCommentList result,
+                                   @NonNull List<ReaderComment> comments,
+                                   int level,
+                                   @NonNull Map<Long, List<ReaderComment>> children,
+                                   @NonNull Set<Long> addedIds) {
         for (ReaderComment comment : comments) {
-            comment.level = level;
+            addThread(result, comment, level, children, addedIds);
+        }
+    }
+
+    /*
+     * adds the passed comment followed by all of its descendants - this uses a stack rather than
+     * recursion so very deep threads can't overflow the call stack, and skips comments which have
+     * already been added so a reply cycle in bad data can't loop forever
+     */
+    private static void addThread(@NonNull ReaderCommentList result,
+                                  @NonNull ReaderComment root,
+                                  int level,
+                                  @NonNull Map<Long, List<ReaderComment>> children,
+                                  @NonNull Set<Long> addedIds) {
+        if (addedIds.contains(root.commentId)) {
+            return;
+        }
+        ArrayDeque<ReaderComment> stack = new ArrayDeque<>();
+        root.level = level;
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ReaderComment comment = stack.pop();
+            if (!addedIds.add(comment.commentId)) {
+                continue;
+            }
+            result.add(comment);
+
+            List<ReaderComment> commentChildren = children.get(comment.commentId);
+            if (commentChildren != null) {
+                // push in reverse so children are popped in their original order
+                for (int i = commentChildren.size() - 1; i >= 0; i--) {
+                    ReaderComment child = commentChildren.get(i);
+                    if (!addedIds.contains(child.commentId)) {
+                        child.level = comment.level + 1;
+                        stack.push(child);
+                    }
+                }
+            }
         }
     }
 }
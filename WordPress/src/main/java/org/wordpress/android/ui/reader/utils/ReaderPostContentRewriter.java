@@ -0,0 +1,115 @@
+package org.wordpress.android.ui.reader.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * rewrites the image and iframe tags in post content in a single pass over the content, writing
+ * the result straight into the passed output builder - this avoids the repeated indexOf/replace
+ * on a StringBuilder that made rendering long posts with large galleries quadratic
+ * <p>
+ * also tags any tiled gallery elements with a unique CSS class so the renderer can style them
+ */
+public class ReaderPostContentRewriter {
+    public interface TagRewriter {
+        /*
+         * return the tag to use in place of the passed image tag, or null to keep the original
+         */
+        @Nullable String rewriteImageTag(@NonNull String imageTag, @NonNull String imageUrl);
+
+        /*
+         * return the tag to use in place of the passed iframe tag, or null to keep the original
+         */
+        @Nullable String rewriteIframeTag(@NonNull String iframeTag, @NonNull String src);
+    }
+
+    // these must match the patterns used by ReaderImageScanner and ReaderIframeScanner
+    private static final String IMG_TAG_REGEX = "<img[^>]* src=\\\"([^\\\"]*)\\\"[^>]*>";
+    private static final String IFRAME_TAG_REGEX = "<iframe[^>]* src=\\\'([^\\\']*)\\\'[^>]*>";
+    private static final String GALLERY_CLASS_REGEX =
+            "(tiled-gallery|gallery-row|gallery-group|tiled-gallery-item) ([\\s\"\'])";
+
+    private static final int GROUP_IMG_URL = 1;
+    private static final int GROUP_IFRAME_SRC = 2;
+    private static final int GROUP_GALLERY_CLASS = 3;
+    private static final int GROUP_GALLERY_SUFFIX = 4;
+
+    // image and iframe tags are matched case-insensitively, gallery classes are not
+    private static final Pattern CONTENT_TAG_PATTERN = Pattern.compile(
+            "(?i:" + IMG_TAG_REGEX + ")|(?i:" + IFRAME_TAG_REGEX + ")|" + GALLERY_CLASS_REGEX);
+
+    private static final Pattern GALLERY_CLASS_PATTERN = Pattern.compile(GALLERY_CLASS_REGEX);
+
+    private final boolean mRewriteImages;
+    private final String mGalleryOnlyClass;
+
+    /*
+     * pass rewriteImages=false to leave image tags untouched (ex: tiled galleries on wide displays),
+     * galleryOnlyClass is the CSS class added to tiled gallery elements
+     */
+    public ReaderPostContentRewriter(boolean rewriteImages, @NonNull String galleryOnlyClass) {
+        mRewriteImages = rewriteImages;
+        mGalleryOnlyClass = galleryOnlyClass;
+    }
+
+    /*
+     * scans the passed content once, appending it to the output with each image and iframe tag
+     * replaced by the tag returned from the passed rewriter
+     */
+    public void rewrite(@Nullable String content, @NonNull TagRewriter rewriter, @NonNull StringBuilder output) {
+        if (content == null) {
+            return;
+        }
+
+        Matcher matcher = CONTENT_TAG_PATTERN.matcher(content);
+        int lastEnd = 0;
+        while (matcher.find()) {
+            output.append(content, lastEnd, matcher.start());
+            lastEnd = matcher.end();
+
+            String tag = matcher.group(0);
+            if (matcher.group(GROUP_GALLERY_CLASS) != null) {
+                appendGalleryClass(output, matcher.group(GROUP_GALLERY_CLASS), matcher.group(GROUP_GALLERY_SUFFIX));
+                continue;
+            }
+
+            String newTag = null;
+            String imageUrl = matcher.group(GROUP_IMG_URL);
+            if (imageUrl != null) {
+                if (mRewriteImages) {
+                    newTag = rewriter.rewriteImageTag(tag, imageUrl);
+                }
+            } else {
+                newTag = rewriter.rewriteIframeTag(tag, matcher.group(GROUP_IFRAME_SRC));
+            }
+
+            if (newTag != null) {
+                output.append(newTag);
+            } else {
+                appendWithGalleryClasses(output, tag);
+            }
+        }
+        output.append(content, lastEnd, content.length());
+    }
+
+    /*
+     * tags that are left untouched may still contain gallery classes
+     */
+    private void appendWithGalleryClasses(@NonNull StringBuilder output, @NonNull String tag) {
+        Matcher matcher = GALLERY_CLASS_PATTERN.matcher(tag);
+        int lastEnd = 0;
+        while (matcher.find()) {
+            output.append(tag, lastEnd, matcher.start());
+            appendGalleryClass(output, matcher.group(1), matcher.group(2));
+            lastEnd = matcher.end();
+        }
+        output.append(tag, lastEnd, tag.length());
+    }
+
+    private void appendGalleryClass(@NonNull StringBuilder output, String galleryClass, String suffix) {
+        output.append(galleryClass).append(' ').append(mGalleryOnlyClass).append(suffix);
+    }
+}
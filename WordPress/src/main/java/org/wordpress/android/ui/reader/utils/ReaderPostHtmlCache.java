@@ -0,0 +1,286 @@
+package org.wordpress.android.ui.reader.utils;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.StringUtils;
+import org.wordpress.android.util.WPExecutors;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * two-tier (memory LRU + disk) cache of the final HTML rendered for post detail, so reopening a
+ * post or paging back to it doesn't require scanning and rebuilding its content again
+ * <p>
+ * entries are keyed by blog/post id, a hash of the content being rendered, a display width
+ * bucket and the current theme, so stale entries are simply never looked up again and age out
+ * of the cache - disk access should be done off the main thread
+ */
+public class ReaderPostHtmlCache {
+    private static final String DISK_CACHE_DIR = "reader_post_html";
+    private static final String DISK_FILE_EXTENSION = ".html";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // memory cache size is measured in kilobytes rather than number of items
+    private static final int MAX_MEMORY_CACHE_KB = 4 * 1024;
+    private static final long MAX_DISK_CACHE_BYTES = 20 * 1024 * 1024;
+    // the disk cache is trimmed to this size once it exceeds the max, so it isn't trimmed on every put
+    private static final long TRIMMED_DISK_CACHE_BYTES = MAX_DISK_CACHE_BYTES * 3 / 4;
+
+    // display widths are bucketed so small differences (ex: rotation on square-ish devices) share entries
+    private static final int WIDTH_BUCKET_PX = 64;
+
+    private static final LruCache<String, String> MEMORY_CACHE = new LruCache<String, String>(MAX_MEMORY_CACHE_KB) {
+        @Override
+        protected int sizeOf(@NonNull String key, @NonNull String value) {
+            // two bytes per char
+            return (value.length() / 512) + 1;
+        }
+    };
+
+    private static final Object DISK_LOCK = new Object();
+    // total size of the files in the disk cache, or -1 until it's been calculated
+    private static long sDiskCacheBytes = -1;
+
+    private ReaderPostHtmlCache() {
+        throw new AssertionError();
+    }
+
+    /*
+     * returns the cache key for the passed post content rendered at the passed width & theme
+     */
+    public static String makeKey(long blogId, long postId, @NonNull String content, int displayWidthPx,
+                                 boolean isNightMode) {
+        return String.format(Locale.ENGLISH, "%d_%d_%s_%d_%s",
+                blogId,
+                postId,
+                StringUtils.getMd5Hash(content),
+                displayWidthPx / WIDTH_BUCKET_PX,
+                isNightMode ? "dark" : "light");
+    }
+
+    /*
+     * returns the cached HTML for the passed key, checking memory first then disk, or null if
+     * it's not cached
+     */
+    @Nullable
+    public static String get(@NonNull String key) {
+        String html = MEMORY_CACHE.get(key);
+        if (html != null) {
+            return html;
+        }
+
+        synchronized (DISK_LOCK) {
+            File file = getCacheFile(key);
+            if (file == null || !file.exists()) {
+                return null;
+            }
+            html = readFile(file);
+            if (html != null) {
+                // touch the file so disk eviction is least-recently-used
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+            }
+        }
+
+        if (html != null) {
+            MEMORY_CACHE.put(key, html);
+        }
+        return html;
+    }
+
+    public static boolean contains(@NonNull String key) {
+        if (MEMORY_CACHE.get(key) != null) {
+            return true;
+        }
+        synchronized (DISK_LOCK) {
+            File file = getCacheFile(key);
+            return file != null && file.exists();
+        }
+    }
+
+    public static void put(@NonNull String key, @NonNull String html) {
+        MEMORY_CACHE.put(key, html);
+
+        synchronized (DISK_LOCK) {
+            File dir = getCacheDir();
+            if (dir == null) {
+                return;
+            }
+            if (sDiskCacheBytes == -1) {
+                sDiskCacheBytes = getTotalBytes(dir.listFiles());
+            }
+
+            File file = new File(dir, key + DISK_FILE_EXTENSION);
+            // zero if it's not already cached
+            long previousLength = file.length();
+            byte[] bytes = html.getBytes(UTF8);
+            if (writeFile(file, bytes)) {
+                sDiskCacheBytes += bytes.length - previousLength;
+                if (sDiskCacheBytes > MAX_DISK_CACHE_BYTES) {
+                    sDiskCacheBytes = trimDiskCache(dir, TRIMMED_DISK_CACHE_BYTES);
+                }
+            }
+        }
+    }
+
+    /*
+     * removes all cached HTML, called when the reader database is reset - the files are deleted
+     * in the background
+     */
+    public static void clear() {
+        MEMORY_CACHE.evictAll();
+
+        WPExecutors.io(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (DISK_LOCK) {
+                    File[] files = listCacheFiles();
+                    if (files != null) {
+                        for (File file : files) {
+                            //noinspection ResultOfMethodCallIgnored
+                            file.delete();
+                        }
+                    }
+                    sDiskCacheBytes = -1;
+                }
+            }
+        });
+    }
+
+    /*
+     * deletes the least-recently-used files in the passed directory until they take up no more
+     * than maxBytes, returns the size of the files which are left
+     */
+    @VisibleForTesting
+    static long trimDiskCache(@NonNull File dir, long maxBytes) {
+        File[] files = dir.listFiles();
+        long totalBytes = getTotalBytes(files);
+        if (files == null || totalBytes <= maxBytes) {
+            return totalBytes;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Long.compare(file1.lastModified(), file2.lastModified());
+            }
+        });
+
+        int numDeleted = 0;
+        for (File file : files) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                totalBytes -= length;
+                numDeleted++;
+            }
+        }
+        AppLog.d(AppLog.T.READER, "reader html cache > trimmed " + numDeleted + " files");
+        return totalBytes;
+    }
+
+    private static long getTotalBytes(@Nullable File[] files) {
+        long totalBytes = 0;
+        if (files != null) {
+            for (File file : files) {
+                totalBytes += file.length();
+            }
+        }
+        return totalBytes;
+    }
+
+    @Nullable
+    private static File getCacheDir() {
+        Context context = WordPress.getContext();
+        if (context == null) {
+            return null;
+        }
+        File dir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            AppLog.w(AppLog.T.READER, "reader html cache > unable to create cache directory");
+            return null;
+        }
+        return dir;
+    }
+
+    @Nullable
+    private static File getCacheFile(@NonNull String key) {
+        File dir = getCacheDir();
+        return dir != null ? new File(dir, key + DISK_FILE_EXTENSION) : null;
+    }
+
+    @Nullable
+    private static File[] listCacheFiles() {
+        File dir = getCacheDir();
+        return dir != null ? dir.listFiles() : null;
+    }
+
+    @Nullable
+    private static String readFile(@NonNull File file) {
+        InputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            int numRead;
+            while (offset < bytes.length && (numRead = input.read(bytes, offset, bytes.length - offset)) != -1) {
+                offset += numRead;
+            }
+            return new String(bytes, 0, offset, UTF8);
+        } catch (IOException e) {
+            AppLog.e(AppLog.T.READER, e);
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    private static boolean writeFile(@NonNull File file, @NonNull byte[] bytes) {
+        // write to a temp file first so a partially written file is never read back
+        File tempFile = new File(file.getPath() + ".tmp");
+        OutputStream output = null;
+        try {
+            output = new FileOutputStream(tempFile);
+            output.write(bytes);
+            output.close();
+            output = null;
+            return tempFile.renameTo(file);
+        } catch (IOException e) {
+            AppLog.e(AppLog.T.READER, e);
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            return false;
+        } finally {
+            closeQuietly(output);
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.wordpress.android.ui.reader.utils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * scans rendered post html for the resources a WebView requests when it's shown - images, scripts
+ * and stylesheets. unlike ReaderImageScanner, attributes may use either quote style since the
+ * renderer writes single-quoted image tags. only absolute http(s) urls are reported, with their
+ * entities decoded so they match the urls the WebView requests.
+ */
+public class ReaderResourceScanner {
+    private final String mContent;
+
+    private static final Pattern RESOURCE_TAG_PATTERN = Pattern.compile(
+            "<(?:img|script|link)\\b[^>]*>",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SRC_ATTR_PATTERN = Pattern.compile(
+            "[\\s'\"]src\\s*=\\s*(['\"])(.*?)\\1",
+            Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern HREF_ATTR_PATTERN = Pattern.compile(
+            "[\\s'\"]href\\s*=\\s*(['\"])(.*?)\\1",
+            Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern STYLESHEET_ATTR_PATTERN = Pattern.compile(
+            "rel\\s*=\\s*['\"]?stylesheet",
+            Pattern.CASE_INSENSITIVE);
+
+    public ReaderResourceScanner(String content) {
+        mContent = content;
+    }
+
+    /*
+     * start scanning the content for resources and notify the passed listener about each one
+     */
+    public void beginScan(ReaderHtmlUtils.HtmlScannerListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("HtmlScannerListener is required");
+        }
+        if (mContent == null) {
+            return;
+        }
+
+        Matcher tagMatcher = RESOURCE_TAG_PATTERN.matcher(mContent);
+        while (tagMatcher.find()) {
+            String tag = tagMatcher.group(0);
+            Matcher urlMatcher;
+            if (tag.regionMatches(true, 1, "link", 0, 4)) {
+                if (!STYLESHEET_ATTR_PATTERN.matcher(tag).find()) {
+                    continue;
+                }
+                urlMatcher = HREF_ATTR_PATTERN.matcher(tag);
+            } else {
+                urlMatcher = SRC_ATTR_PATTERN.matcher(tag);
+            }
+
+            if (urlMatcher.find()) {
+                String url = urlMatcher.group(2).trim().replace("&amp;", "&");
+                if (isHttpUrl(url)) {
+                    listener.onTagFound(tag, url);
+                }
+            }
+        }
+    }
+
+    private static boolean isHttpUrl(String url) {
+        return url.regionMatches(true, 0, "http://", 0, 7) || url.regionMatches(true, 0, "https://", 0, 8);
+    }
+}
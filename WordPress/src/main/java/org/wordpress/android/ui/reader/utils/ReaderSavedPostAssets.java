@@ -0,0 +1,394 @@
+package org.wordpress.android.ui.reader.utils;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+import android.webkit.WebResourceResponse;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.datasets.ReaderDatabase;
+import org.wordpress.android.datasets.ReaderPostAssetTable;
+import org.wordpress.android.datasets.ReaderPostAssetTable.Asset;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.networking.AuthenticatedWebResourceLoader;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.Util;
+
+/**
+ * stores everything a saved post's rendered html requests - its featured and inline images,
+ * embed scripts and stylesheets - so ReaderWebView can show the post without a network connection
+ * <p>
+ * files are named by a hash of their content, so an asset shared by several posts is stored once,
+ * and tbl_post_assets maps each url a saved post requests to its file. assets are downloaded in the
+ * background when a post is saved, deleted when it's unsaved, and the least-recently-used files are
+ * evicted once the store is over its size budget, after which those posts fall back to the network.
+ * downloads and deletes run one at a time on the store's own thread, while reads may happen on any
+ * thread (ex: the WebView's) since a file is never changed once it's written.
+ */
+public class ReaderSavedPostAssets {
+    private static final String STORE_DIR = "reader_saved_post_assets";
+    private static final String TEMP_FILE_PREFIX = "download_";
+    private static final long MAX_STORE_BYTES = 100 * 1024 * 1024;
+
+    // posts with more than this many resources store the first ones, which are what's seen first
+    private static final int MAX_ASSETS_PER_POST = 50;
+    // individual files larger than this (ex: animated gifs) are left to the network
+    private static final long MAX_ASSET_BYTES = 8 * 1024 * 1024;
+
+    private static final int TIMEOUT_MS = 30000;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static ReaderSavedPostAssets sInstance;
+
+    private final File mStoreDir;
+    private final long mMaxStoreBytes;
+    private final SQLiteDatabase mDb;
+    private final String mUserAgent;
+    private final OkHttpClient mClient;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+
+    public static synchronized ReaderSavedPostAssets getInstance() {
+        if (sInstance == null) {
+            Context context = WordPress.getContext();
+            sInstance = new ReaderSavedPostAssets(new File(context.getFilesDir(), STORE_DIR), MAX_STORE_BYTES,
+                    ReaderDatabase.getWritableDb(), WordPress.getUserAgent());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    ReaderSavedPostAssets(@NonNull File storeDir, long maxStoreBytes, @NonNull SQLiteDatabase db,
+                          @Nullable String userAgent) {
+        mStoreDir = storeDir;
+        mMaxStoreBytes = maxStoreBytes;
+        mDb = db;
+        mUserAgent = userAgent;
+        mClient = new OkHttpClient.Builder()
+                .connectTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /*
+     * downloads the resources requested by the passed post's rendered html - the access token is
+     * required for the images in private posts
+     */
+    public Future<?> saveAsync(@NonNull final ReaderPost post, @NonNull final String html,
+                               @Nullable final String accessToken) {
+        return mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                savePostAssets(post.blogId, post.postId, html, post.isPrivate, accessToken);
+            }
+        });
+    }
+
+    public Future<?> removeAsync(final long blogId, final long postId) {
+        return mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                ReaderPostAssetTable.deleteAssetsForPost(mDb, blogId, postId);
+                deleteUnusedFiles();
+            }
+        });
+    }
+
+    /*
+     * returns the stored copy of the passed url for a WebView to show, or null if no saved post
+     * requested it - must not be called on the main thread
+     */
+    @Nullable
+    public WebResourceResponse getResponse(@Nullable String url) {
+        if (TextUtils.isEmpty(url)) {
+            return null;
+        }
+        Asset asset = ReaderPostAssetTable.getAsset(mDb, url);
+        if (asset == null) {
+            return null;
+        }
+
+        File file = new File(mStoreDir, asset.hash);
+        InputStream input;
+        try {
+            input = new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            // evicted since the lookup
+            return null;
+        }
+        // touch the file so eviction is least-recently-used
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+
+        MediaType mediaType = asset.contentType != null ? MediaType.parse(asset.contentType) : null;
+        if (mediaType == null) {
+            return new WebResourceResponse(null, null, input);
+        }
+        Charset charset = mediaType.charset();
+        return new WebResourceResponse(mediaType.type() + "/" + mediaType.subtype(),
+                charset != null ? charset.name() : null, input);
+    }
+
+    /*
+     * deletes every stored file, called when the reader database is reset without keeping saved posts
+     */
+    public void clear() {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File[] files = mStoreDir.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        //noinspection ResultOfMethodCallIgnored
+                        file.delete();
+                    }
+                }
+            }
+        });
+    }
+
+    @VisibleForTesting
+    void savePostAssets(long blogId, long postId, @NonNull String html, boolean isPrivatePost,
+                        @Nullable String accessToken) {
+        if (!mStoreDir.exists() && !mStoreDir.mkdirs()) {
+            AppLog.w(T.READER, "saved post assets > unable to create store directory");
+            return;
+        }
+
+        final Set<String> urls = new LinkedHashSet<>();
+        new ReaderResourceScanner(html).beginScan(new ReaderHtmlUtils.HtmlScannerListener() {
+            @Override
+            public void onTagFound(String tag, String src) {
+                if (urls.size() < MAX_ASSETS_PER_POST) {
+                    urls.add(src);
+                }
+            }
+        });
+
+        List<Asset> assets = new ArrayList<>();
+        int numDownloaded = 0;
+        for (String url : urls) {
+            // files which are already stored (ex: by another post from the same blog) aren't downloaded again
+            Asset stored = ReaderPostAssetTable.getAsset(mDb, url);
+            if (stored != null && new File(mStoreDir, stored.hash).exists()) {
+                assets.add(new Asset(blogId, postId, url, stored.hash, stored.contentType));
+                continue;
+            }
+            Asset downloaded = download(blogId, postId, url, isPrivatePost ? accessToken : null);
+            if (downloaded != null) {
+                assets.add(downloaded);
+                numDownloaded++;
+            }
+        }
+
+        ReaderPostAssetTable.setAssetsForPost(mDb, blogId, postId, assets);
+        AppLog.d(T.READER, String.format(Locale.ENGLISH,
+                "saved post assets > stored %d of %d assets for post %d, %d downloaded",
+                assets.size(), urls.size(), postId, numDownloaded));
+
+        trimStore();
+    }
+
+    /*
+     * downloads the passed url into a file named by the hash of its content, returning null if it
+     * couldn't be downloaded
+     */
+    @Nullable
+    private Asset download(long blogId, long postId, @NonNull String url, @Nullable String accessToken) {
+        Request.Builder builder = new Request.Builder();
+        // images on private sites are requested the same way ReaderWebView requests them
+        String authenticatedUrl = TextUtils.isEmpty(accessToken)
+                ? null : AuthenticatedWebResourceLoader.getAuthenticatedImageUrl(url);
+        if (authenticatedUrl != null) {
+            builder.url(authenticatedUrl).header("Authorization", "Bearer " + accessToken);
+        } else {
+            builder.url(url);
+        }
+        if (mUserAgent != null) {
+            builder.header("User-Agent", mUserAgent);
+        }
+
+        File tempFile = null;
+        Response response = null;
+        try {
+            response = mClient.newCall(builder.build()).execute();
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                AppLog.w(T.READER, "saved post assets > unable to download " + url + ", response code "
+                                   + response.code());
+                return null;
+            }
+            if (body.contentLength() > MAX_ASSET_BYTES) {
+                return null;
+            }
+
+            tempFile = File.createTempFile(TEMP_FILE_PREFIX, null, mStoreDir);
+            String hash = writeAndHash(body.byteStream(), tempFile);
+            if (hash == null) {
+                return null;
+            }
+
+            File file = new File(mStoreDir, hash);
+            if (file.exists()) {
+                // another url has the same content
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+            } else if (!tempFile.renameTo(file)) {
+                return null;
+            }
+
+            MediaType mediaType = body.contentType();
+            return new Asset(blogId, postId, url, hash, mediaType != null ? mediaType.toString() : null);
+        } catch (IOException | IllegalArgumentException e) {
+            AppLog.w(T.READER, "saved post assets > unable to download " + url + ": " + e);
+            return null;
+        } finally {
+            Util.closeQuietly(response);
+            if (tempFile != null) {
+                //noinspection ResultOfMethodCallIgnored
+                tempFile.delete();
+            }
+        }
+    }
+
+    /*
+     * copies the input to the file, returning the hex SHA-1 of what was written or null if it was
+     * larger than an asset is allowed to be
+     */
+    @Nullable
+    private static String writeAndHash(@NonNull InputStream input, @NonNull File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        OutputStream output = new FileOutputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                total += count;
+                if (total > MAX_ASSET_BYTES) {
+                    return null;
+                }
+                digest.update(buffer, 0, count);
+                output.write(buffer, 0, count);
+            }
+        } finally {
+            Util.closeQuietly(output);
+            Util.closeQuietly(input);
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return hash.toString();
+    }
+
+    /*
+     * deletes files no saved post uses, then the least-recently-used files until the store is
+     * within its budget - posts which used an evicted file request it from the network again
+     */
+    private void trimStore() {
+        deleteUnusedFiles();
+
+        File[] files = mStoreDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        if (totalBytes <= mMaxStoreBytes) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Long.compare(file1.lastModified(), file2.lastModified());
+            }
+        });
+
+        int numEvicted = 0;
+        for (File file : files) {
+            if (totalBytes <= mMaxStoreBytes) {
+                break;
+            }
+            long length = file.length();
+            ReaderPostAssetTable.deleteAssetsWithHash(mDb, file.getName());
+            if (file.delete()) {
+                totalBytes -= length;
+                numEvicted++;
+            }
+        }
+        AppLog.d(T.READER, "saved post assets > evicted " + numEvicted + " files");
+    }
+
+    /*
+     * deletes files which are no longer used by a saved post (ex: it was unsaved, or its rows were
+     * purged along with the post) along with any left over from interrupted downloads
+     */
+    private void deleteUnusedFiles() {
+        File[] files = mStoreDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<String> hashes = ReaderPostAssetTable.getHashes(mDb);
+        for (File file : files) {
+            if (!hashes.contains(file.getName())) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    long getStoreSize() {
+        long totalBytes = 0;
+        File[] files = mStoreDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                totalBytes += file.length();
+            }
+        }
+        return totalBytes;
+    }
+}
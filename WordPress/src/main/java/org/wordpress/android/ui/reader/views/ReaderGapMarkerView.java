@@ -67,7 +67,10 @@ public class ReaderGapMarkerView extends RelativeLayout {
         showProgress();
     }
 
-    private void showProgress() {
+    /*
+     * also called by the adapter when it starts filling the gap before the user reaches it
+     */
+    public void showProgress() {
         mText.setVisibility(View.INVISIBLE);
         mProgress.setVisibility(View.VISIBLE);
     }
@@ -1,6 +1,7 @@
 package org.wordpress.android.ui.reader.views;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.View;
@@ -25,6 +26,8 @@ import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * topmost view in post detail - shows blavatar + avatar, author name, blog name, and follow button
@@ -140,14 +143,14 @@ public class ReaderPostDetailHeaderView extends LinearLayout {
          * - if there's neither a blavatar nor an avatar, hide them both
          */
         if (hasBlavatar && hasAvatar) {
-            int blavatarSz = getResources().getDimensionPixelSize(R.dimen.reader_detail_header_blavatar);
+            int blavatarSz = getBlavatarSize(getResources(), true);
             imgBlavatar.getLayoutParams().height = blavatarSz;
             imgBlavatar.getLayoutParams().width = blavatarSz;
             imageManager.load(imgBlavatar, ImageType.BLAVATAR,
                     PhotonUtils.getPhotonImageUrl(blavatarUrl, blavatarSz, blavatarSz));
             imgBlavatar.setVisibility(View.VISIBLE);
 
-            int avatarSz = getResources().getDimensionPixelSize(R.dimen.reader_detail_header_avatar);
+            int avatarSz = getAvatarSize(getResources(), true);
             imgAvatar.getLayoutParams().height = avatarSz;
             imgAvatar.getLayoutParams().width = avatarSz;
             imageManager.loadIntoCircle(imgAvatar, ImageType.AVATAR,
@@ -182,6 +185,41 @@ public class ReaderPostDetailHeaderView extends LinearLayout {
         }
     }
 
+    /*
+     * returns the urls of the blavatar and avatar as they're requested when the header shows the
+     * passed post, so they can be downloaded ahead of time (ex: for saved posts)
+     */
+    @NonNull
+    public static List<String> getBlavatarAndAvatarUrls(@NonNull Context context, @NonNull ReaderPost post) {
+        String blavatarUrl = post.getBlogImageUrl();
+        String avatarUrl = post.getPostAvatar();
+        boolean hasBlavatar = !TextUtils.isEmpty(blavatarUrl);
+        boolean hasAvatar = !TextUtils.isEmpty(avatarUrl);
+
+        List<String> urls = new ArrayList<>();
+        if (hasBlavatar) {
+            int blavatarSz = getBlavatarSize(context.getResources(), hasAvatar);
+            urls.add(PhotonUtils.getPhotonImageUrl(blavatarUrl, blavatarSz, blavatarSz));
+        }
+        if (hasAvatar) {
+            urls.add(GravatarUtils.fixGravatarUrl(avatarUrl, getAvatarSize(context.getResources(), hasBlavatar)));
+        }
+        return urls;
+    }
+
+    /*
+     * the blavatar and avatar are shown overlaid when there are both, otherwise either fills the frame
+     */
+    private static int getBlavatarSize(@NonNull Resources resources, boolean hasAvatar) {
+        return resources.getDimensionPixelSize(
+                hasAvatar ? R.dimen.reader_detail_header_blavatar : R.dimen.reader_detail_header_avatar_frame);
+    }
+
+    private static int getAvatarSize(@NonNull Resources resources, boolean hasBlavatar) {
+        return resources.getDimensionPixelSize(
+                hasBlavatar ? R.dimen.reader_detail_header_avatar : R.dimen.reader_detail_header_avatar_frame);
+    }
+
     /*
      * click listener which shows blog preview
      */
@@ -15,14 +15,10 @@ import android.webkit.WebViewClient;
 
 import org.wordpress.android.WordPress;
 import org.wordpress.android.fluxc.store.AccountStore;
+import org.wordpress.android.networking.AuthenticatedWebResourceLoader;
+import org.wordpress.android.ui.reader.utils.ReaderSavedPostAssets;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.UrlUtils;
-import org.wordpress.android.util.WPUrlUtils;
-
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
 
 import javax.inject.Inject;
 
@@ -54,11 +50,6 @@ public class ReaderWebView extends WebView {
         void onPageFinished(WebView view, String url);
     }
 
-    /**
-     * Timeout in milliseconds for read / connect timeouts
-     */
-    private static final int TIMEOUT_MS = 30000;
-
     private ReaderWebChromeClient mReaderChromeClient;
     private ReaderCustomViewListener mCustomViewListener;
     private ReaderWebViewUrlClickListener mUrlClickListener;
@@ -240,29 +231,22 @@ public class ReaderWebView extends WebView {
         @SuppressWarnings("deprecation")
         @Override
         public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
-            URL imageUrl = null;
-            if (mIsPrivatePost && mBlogSchemeIsHttps && UrlUtils.isImageUrl(url)) {
-                try {
-                    imageUrl = new URL(UrlUtils.makeHttps(url));
-                } catch (MalformedURLException e) {
-                    AppLog.e(AppLog.T.READER, e);
-                }
+            // saved posts are shown from the assets stored when they were saved, so they open
+            // without waiting on (or having) a network connection
+            WebResourceResponse savedAsset = ReaderSavedPostAssets.getInstance().getResponse(url);
+            if (savedAsset != null) {
+                return savedAsset;
             }
+
             // Intercept requests for private images and add the WP.com authorization header
-            if (imageUrl != null && WPUrlUtils.safeToAddWordPressComAuthToken(imageUrl)
-                && !TextUtils.isEmpty(mToken)) {
-                try {
-                    HttpURLConnection conn = (HttpURLConnection) imageUrl.openConnection();
-                    conn.setRequestProperty("Authorization", "Bearer " + mToken);
-                    conn.setReadTimeout(TIMEOUT_MS);
-                    conn.setConnectTimeout(TIMEOUT_MS);
-                    conn.setRequestProperty("User-Agent", WordPress.getUserAgent());
-                    conn.setRequestProperty("Connection", "Keep-Alive");
-                    return new WebResourceResponse(conn.getContentType(),
-                                                   conn.getContentEncoding(),
-                                                   conn.getInputStream());
-                } catch (IOException e) {
-                    AppLog.e(AppLog.T.READER, e);
+            if (mIsPrivatePost && mBlogSchemeIsHttps && !TextUtils.isEmpty(mToken)) {
+                String imageUrl = AuthenticatedWebResourceLoader.getAuthenticatedImageUrl(url);
+                if (imageUrl != null) {
+                    WebResourceResponse response =
+                            AuthenticatedWebResourceLoader.getInstance(view.getContext()).load(imageUrl, mToken);
+                    if (response != null) {
+                        return response;
+                    }
                 }
             }
 
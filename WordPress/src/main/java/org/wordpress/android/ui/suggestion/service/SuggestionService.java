@@ -16,6 +16,7 @@ import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.models.Tag;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.WPExecutors;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -76,7 +77,7 @@ public class SuggestionService extends Service {
     }
 
     private void handleSuggestionsUpdatedResponse(final long siteId, final JSONObject jsonObject) {
-        new Thread() {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
                 if (jsonObject == null) {
@@ -90,7 +91,7 @@ public class SuggestionService extends Service {
                     EventBus.getDefault().post(new SuggestionEvents.SuggestionNameListUpdated(siteId));
                 }
             }
-        }.start();
+        });
     }
 
     private void removeSiteIdFromSuggestionRequestsAndStopServiceIfNecessary(long siteId) {
@@ -129,7 +130,7 @@ public class SuggestionService extends Service {
     }
 
     private void handleTagsUpdatedResponse(final long siteId, final JSONObject jsonObject) {
-        new Thread() {
+        WPExecutors.dbWrite(new Runnable() {
             @Override
             public void run() {
                 if (jsonObject == null) {
@@ -143,7 +144,7 @@ public class SuggestionService extends Service {
                     EventBus.getDefault().post(new SuggestionEvents.SuggestionTagListUpdated(siteId));
                 }
             }
-        }.start();
+        });
     }
 
     private void removeSiteIdFromTagRequestsAndStopServiceIfNecessary(long siteId) {
@@ -0,0 +1,73 @@
+package org.wordpress.android.ui.uploads;
+
+import androidx.annotation.NonNull;
+
+/**
+ * decides how many media uploads MediaUploadHandler runs in parallel - the limit starts low and
+ * grows by one each time an upload completes at a good speed, up to the maximum for the current
+ * network type, and shrinks when uploads slow down or fail since that means the connection is
+ * already saturated
+ */
+class MediaUploadConcurrencyPolicy {
+    enum NetworkType {
+        WIFI,
+        CELLULAR,
+        OTHER
+    }
+
+    static final int DEFAULT_MAX_UPLOADS_WIFI = 4;
+    static final int DEFAULT_MAX_UPLOADS_CELLULAR = 2;
+
+    // uploads smaller than this finish too quickly for their speed to say much about the connection
+    static final long MIN_BYTES_FOR_THROUGHPUT = 256 * 1024;
+    // uploads slower than this (bytes per second) suggest there are too many running at once
+    static final long MIN_BYTES_PER_SECOND = 64 * 1024;
+
+    private final int mMaxUploadsWifi;
+    private final int mMaxUploadsCellular;
+    private int mLimit = 2;
+
+    MediaUploadConcurrencyPolicy() {
+        this(DEFAULT_MAX_UPLOADS_WIFI, DEFAULT_MAX_UPLOADS_CELLULAR);
+    }
+
+    MediaUploadConcurrencyPolicy(int maxUploadsWifi, int maxUploadsCellular) {
+        if (maxUploadsWifi < 1 || maxUploadsCellular < 1) {
+            throw new IllegalArgumentException("at least one upload must be allowed");
+        }
+        mMaxUploadsWifi = maxUploadsWifi;
+        mMaxUploadsCellular = maxUploadsCellular;
+    }
+
+    synchronized int getMaxConcurrentUploads(@NonNull NetworkType networkType) {
+        return Math.max(1, Math.min(mLimit, getMaxForNetwork(networkType)));
+    }
+
+    synchronized void onUploadCompleted(@NonNull NetworkType networkType, long numBytes, long elapsedMs) {
+        if (numBytes < MIN_BYTES_FOR_THROUGHPUT || elapsedMs <= 0) {
+            return;
+        }
+        long bytesPerSecond = numBytes * 1000 / elapsedMs;
+        int max = getMaxForNetwork(networkType);
+        if (bytesPerSecond >= MIN_BYTES_PER_SECOND) {
+            mLimit = Math.min(mLimit + 1, max);
+        } else {
+            mLimit = Math.max(1, Math.min(mLimit, max) - 1);
+        }
+    }
+
+    synchronized void onUploadFailed() {
+        mLimit = Math.max(1, mLimit / 2);
+    }
+
+    private int getMaxForNetwork(@NonNull NetworkType networkType) {
+        switch (networkType) {
+            case WIFI:
+                return mMaxUploadsWifi;
+            case CELLULAR:
+                return mMaxUploadsCellular;
+            default:
+                return 1;
+        }
+    }
+}
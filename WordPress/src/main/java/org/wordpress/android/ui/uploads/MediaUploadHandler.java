@@ -1,5 +1,7 @@
 package org.wordpress.android.ui.uploads;
 
+import android.content.Context;
+
 import androidx.annotation.NonNull;
 
 import org.greenrobot.eventbus.EventBus;
@@ -17,15 +19,18 @@ import org.wordpress.android.fluxc.store.MediaStore.OnMediaUploaded;
 import org.wordpress.android.fluxc.store.MediaStore.UploadMediaPayload;
 import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.ui.prefs.AppPrefs;
+import org.wordpress.android.ui.uploads.MediaUploadConcurrencyPolicy.NetworkType;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
-import org.wordpress.android.util.StringUtils;
+import org.wordpress.android.util.FileUtils;
+import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.WPMediaUtils;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,8 +38,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 
 public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptimizer.VideoOptimizationListener {
-    private static List<MediaModel> sPendingUploads = new ArrayList<>();
-    private static List<MediaModel> sInProgressUploads = new ArrayList<>();
+    // video optimization is CPU-bound, so only one video is optimized at a time while other media uploads
+    private static final int MAX_CONCURRENT_OPTIMIZATIONS = 1;
+    private static final int MAX_RECENT_TIMINGS = 50;
+
+    private static final MediaUploadQueue sUploadQueue = new MediaUploadQueue();
+    private static final MediaUploadConcurrencyPolicy sConcurrencyPolicy = new MediaUploadConcurrencyPolicy();
+    private static final LinkedList<MediaUploadTiming> sRecentTimings = new LinkedList<>();
     private static ConcurrentHashMap<Integer, Float> sOptimizationProgressByMediaId = new ConcurrentHashMap<>();
 
     @Inject Dispatcher mDispatcher;
@@ -55,12 +65,12 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
 
     @Override
     public boolean hasInProgressUploads() {
-        return !sInProgressUploads.isEmpty() || !sPendingUploads.isEmpty();
+        return !sUploadQueue.isEmpty();
     }
 
     @Override
     public void cancelInProgressUploads() {
-        for (MediaModel oneUpload : sInProgressUploads) {
+        for (MediaModel oneUpload : sUploadQueue.getInProgressMedia()) {
             cancelUpload(oneUpload, false);
         }
     }
@@ -72,26 +82,11 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     static boolean hasInProgressMediaUploadsForPost(int postId) {
-        synchronized (sInProgressUploads) {
-            for (MediaModel queuedMedia : sInProgressUploads) {
-                if (queuedMedia.getLocalPostId() == postId) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return sUploadQueue.hasInProgressForPost(postId);
     }
 
     static boolean hasPendingMediaUploadsForPost(int postId) {
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                if (queuedMedia.getLocalPostId() == postId) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return sUploadQueue.hasPendingForPost(postId);
     }
 
     static boolean hasPendingOrInProgressMediaUploadsForPost(int postId) {
@@ -117,43 +112,28 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         if (postModel == null) {
             return Collections.emptyList();
         }
-
-        List<MediaModel> mediaList = new ArrayList<>();
-        synchronized (sInProgressUploads) {
-            for (MediaModel queuedMedia : sInProgressUploads) {
-                if (queuedMedia.getLocalPostId() == postModel.getId()) {
-                    mediaList.add(queuedMedia);
-                }
-            }
-        }
-
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                if (queuedMedia.getLocalPostId() == postModel.getId()) {
-                    mediaList.add(queuedMedia);
-                }
-            }
-        }
-        return mediaList;
+        return sUploadQueue.getMediaForPost(postModel.getId());
     }
 
     static boolean isPendingOrInProgressMediaUpload(int mediaId) {
-        synchronized (sInProgressUploads) {
-            for (MediaModel uploadingMedia : sInProgressUploads) {
-                if (uploadingMedia.getId() == mediaId) {
-                    return true;
-                }
-            }
-        }
+        return sUploadQueue.contains(mediaId);
+    }
 
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                if (queuedMedia.getId() == mediaId) {
-                    return true;
-                }
-            }
+    /**
+     * Moves the pending media uploads for the given post ahead of media queued for other posts, so the post can be
+     * uploaded as soon as possible.
+     */
+    static void prioritizeMediaUploadsForPost(int postId) {
+        sUploadQueue.prioritizePost(postId);
+    }
+
+    /**
+     * Returns the timings of the most recently ended media uploads, oldest first.
+     */
+    public static List<MediaUploadTiming> getRecentUploadTimings() {
+        synchronized (sRecentTimings) {
+            return new ArrayList<>(sRecentTimings);
         }
-        return false;
     }
 
     /**
@@ -173,14 +153,17 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
             AppLog.i(T.MEDIA, "MediaUploadHandler > Upload successfully canceled");
             trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_CANCELED,
                                    getMediaFromInProgressQueueById(event.media.getId()), null);
-            completeUploadWithId(event.media.getId());
+            completeUploadWithId(event.media.getId(), false);
             uploadNextInQueue();
         } else if (event.completed) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Upload completed - localId=" + event.media.getId() + " title="
                               + event.media.getTitle());
             trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_SUCCESS,
                                    getMediaFromInProgressQueueById(event.media.getId()), null);
-            completeUploadWithId(event.media.getId());
+            MediaUploadTiming timing = completeUploadWithId(event.media.getId(), true);
+            if (timing != null) {
+                sConcurrencyPolicy.onUploadCompleted(getNetworkType(), timing.numBytes, timing.uploadMs);
+            }
             uploadNextInQueue();
         } else {
             AppLog.i(T.MEDIA, "MediaUploadHandler > " + event.media.getId() + " - progress: " + event.progress);
@@ -198,70 +181,91 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         properties.put("error_type", event.error.type.name());
         trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_ERROR, media, properties);
 
-        completeUploadWithId(event.media.getId());
+        completeUploadWithId(event.media.getId(), false);
+        sConcurrencyPolicy.onUploadFailed();
         uploadNextInQueue();
     }
 
+    /*
+     * starts pending uploads until the number of concurrent uploads allowed for the current network is reached
+     */
     private synchronized void uploadNextInQueue() {
-        MediaModel next = getNextMediaToUpload();
-
-        if (next == null) {
-            AppLog.w(T.MEDIA, "MediaUploadHandler > No more media items to upload. Skipping this request.");
-            checkIfUploadsComplete();
-            return;
+        int maxUploads = sConcurrencyPolicy.getMaxConcurrentUploads(getNetworkType());
+        while (sUploadQueue.getNumUploading() < maxUploads) {
+            boolean allowOptimization = sUploadQueue.getNumOptimizing() < MAX_CONCURRENT_OPTIMIZATIONS;
+            MediaUploadQueue.Entry next = sUploadQueue.pollNext(allowOptimization);
+            if (next == null) {
+                break;
+            }
+            prepareForUpload(next);
         }
 
-        prepareForUpload(next);
-    }
-
-    private synchronized void completeUploadWithId(int id) {
-        MediaModel media = getMediaFromInProgressQueueById(id);
-        if (media != null) {
-            sInProgressUploads.remove(media);
-            trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_STARTED, media, null);
+        if (!checkIfUploadsComplete()) {
+            AppLog.d(T.MEDIA, "MediaUploadHandler > " + sUploadQueue.getNumUploading() + " of max " + maxUploads
+                              + " uploads in progress, " + sUploadQueue.getNumOptimizing() + " optimizing");
         }
     }
 
-    private MediaModel getMediaFromInProgressQueueById(int id) {
-        for (MediaModel media : sInProgressUploads) {
-            if (media.getId() == id) {
-                return media;
+    /*
+     * removes the media from the queue, returning the timing of its upload if it was in progress
+     */
+    private synchronized MediaUploadTiming completeUploadWithId(int id, boolean succeeded) {
+        int numConcurrentUploads = sUploadQueue.getNumUploading();
+        MediaUploadQueue.Entry entry = sUploadQueue.remove(id);
+        if (entry == null || entry.startedAt == 0) {
+            return null;
+        }
+        trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_STARTED, entry.media, null);
+        return recordUploadTiming(entry, numConcurrentUploads, succeeded);
+    }
+
+    private MediaUploadTiming recordUploadTiming(@NonNull MediaUploadQueue.Entry entry, int numConcurrentUploads,
+                                                 boolean succeeded) {
+        long now = System.currentTimeMillis();
+        long uploadStartedAt = entry.uploadStartedAt > 0 ? entry.uploadStartedAt : now;
+        MediaUploadTiming timing = new MediaUploadTiming(
+                entry.media.getId(),
+                entry.media.getLocalPostId(),
+                FileUtils.length(entry.media.getFilePath()),
+                entry.startedAt - entry.queuedAt,
+                uploadStartedAt - entry.startedAt,
+                now - uploadStartedAt,
+                numConcurrentUploads,
+                succeeded);
+        AppLog.i(T.MEDIA, "MediaUploadHandler > " + timing);
+
+        synchronized (sRecentTimings) {
+            sRecentTimings.add(timing);
+            if (sRecentTimings.size() > MAX_RECENT_TIMINGS) {
+                sRecentTimings.removeFirst();
             }
         }
-        return null;
+        return timing;
     }
 
-    private MediaModel getNextMediaToUpload() {
-        synchronized (sPendingUploads) {
-            if (!sPendingUploads.isEmpty()) {
-                return sPendingUploads.remove(0);
-            }
-        }
-        return null;
+    private MediaModel getMediaFromInProgressQueueById(int id) {
+        MediaUploadQueue.Entry entry = sUploadQueue.getInProgress(id);
+        return entry != null ? entry.media : null;
     }
 
     private void addUniqueMediaToQueue(MediaModel media) {
         if (media != null) {
-            if (mediaAlreadyQueuedOrUploading(media)) {
-                return;
-            }
-
-            synchronized (sPendingUploads) {
-                // no match found in queue
-                sPendingUploads.add(media);
+            boolean needsOptimization = media.isVideo() && WPMediaUtils.isVideoOptimizationEnabled();
+            if (!sUploadQueue.add(media, needsOptimization)) {
+                AppLog.i(T.MEDIA, "MediaUploadHandler > Media with path " + media.getFilePath() + " and site id "
+                                  + media.getLocalSiteId() + " is already queued for this post");
             }
         }
     }
 
-    private void addUniqueMediaToInProgressUploads(@NonNull MediaModel mediaToAdd) {
-        synchronized (sInProgressUploads) {
-            for (MediaModel media : sInProgressUploads) {
-                if (media.getId() == mediaToAdd.getId()) {
-                    return;
-                }
-            }
-            sInProgressUploads.add(mediaToAdd);
+    private static NetworkType getNetworkType() {
+        Context context = WordPress.getContext();
+        if (NetworkUtils.isWiFiConnected(context)) {
+            return NetworkType.WIFI;
+        } else if (NetworkUtils.isMobileConnected(context)) {
+            return NetworkType.CELLULAR;
         }
+        return NetworkType.OTHER;
     }
 
     private void cancelUpload(MediaModel oneUpload, boolean delete) {
@@ -276,12 +280,16 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         }
     }
 
-    private void prepareForUpload(@NonNull MediaModel media) {
-        if (media.isVideo() && WPMediaUtils.isVideoOptimizationEnabled()) {
-            addUniqueMediaToInProgressUploads(media);
-            new VideoOptimizer(media, this).start();
+    /*
+     * videos are optimized before they're uploaded - optimizing doesn't count towards the concurrent upload limit
+     * so other media keeps uploading while a video is optimized
+     */
+    private void prepareForUpload(@NonNull MediaUploadQueue.Entry entry) {
+        if (entry.needsOptimization) {
+            sUploadQueue.setOptimizing(entry.media.getId(), true);
+            new VideoOptimizer(entry.media, this).start();
         } else {
-            dispatchUploadAction(media);
+            dispatchUploadAction(entry.media);
         }
     }
 
@@ -291,13 +299,14 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         // somehow lost our reference to the site, complete this action
         if (site == null) {
             AppLog.w(T.MEDIA, "MediaUploadHandler > Unexpected state, site is null. Skipping this request.");
+            sUploadQueue.remove(media.getId());
             checkIfUploadsComplete();
             return;
         }
 
         AppLog.i(T.MEDIA, "MediaUploadHandler > Dispatching upload action for media with local id: "
                           + media.getId() + " and path: " + media.getFilePath());
-        addUniqueMediaToInProgressUploads(media);
+        sUploadQueue.setUploadStarted(media.getId());
 
         mDispatcher.dispatch(MediaActionBuilder.newUpdateMediaAction(media));
         UploadMediaPayload payload = new UploadMediaPayload(site, media, AppPrefs.isStripImageLocation());
@@ -312,7 +321,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     private boolean checkIfUploadsComplete() {
-        if (sPendingUploads.isEmpty() && sInProgressUploads.isEmpty()) {
+        if (sUploadQueue.isEmpty()) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Completed");
             return true;
         }
@@ -327,19 +336,8 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         if (event.post == null) {
             return;
         }
-        synchronized (sInProgressUploads) {
-            for (MediaModel inProgressUpload : sInProgressUploads) {
-                if (inProgressUpload.getLocalPostId() == event.post.getId()) {
-                    cancelUpload(inProgressUpload, true);
-                }
-            }
-        }
-        synchronized (sPendingUploads) {
-            for (MediaModel pendingUpload : sPendingUploads) {
-                if (pendingUpload.getLocalPostId() == event.post.getId()) {
-                    cancelUpload(pendingUpload, true);
-                }
-            }
+        for (MediaModel upload : sUploadQueue.getMediaForPost(event.post.getId())) {
+            cancelUpload(upload, true);
         }
     }
 
@@ -384,58 +382,6 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         AnalyticsTracker.track(stat, mediaProperties);
     }
 
-    private boolean mediaAlreadyQueuedOrUploading(MediaModel mediaModel) {
-        for (MediaModel queuedMedia : sInProgressUploads) {
-            AppLog.i(T.MEDIA, "MediaUploadHandler > Attempting to add media with path " + mediaModel.getFilePath()
-                              + " and site id " + mediaModel.getLocalSiteId() + ". Comparing with " + queuedMedia
-                                      .getFilePath()
-                              + ", " + queuedMedia.getLocalSiteId());
-            if (isSameMediaFileQueuedForThisPost(queuedMedia, mediaModel)) {
-                return true;
-            }
-        }
-
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                AppLog.i(T.MEDIA, "MediaUploadHandler > Attempting to add media with path " + mediaModel.getFilePath()
-                                  + " and site id " + mediaModel.getLocalSiteId() + ". Comparing with " + queuedMedia
-                                          .getFilePath()
-                                  + ", " + queuedMedia.getLocalSiteId());
-                if (isSameMediaFileQueuedForThisPost(queuedMedia, mediaModel)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean isSameMediaFileQueuedForThisPost(MediaModel media1, MediaModel media2) {
-        /*
-            This method used to be called "compareBySiteAndFilePath" and compared just siteId and filePath. It made
-            sense since a media file is tied to a site and can be referenced from multiple posts on that site. This
-            approach tried to prevent wasting users' data.
-
-            The issue was that when a same image was added to content of two posts only a single MediaModel was
-            enqueued. However, MediaModel references only a single post (`localPostId`). When the upload finished
-            only the first post got updated with the url. The second post got uploaded to the server with a path to
-            local image. We decided to check whether the image belongs to the same post so we can be sure the local
-            path gets replaced with the url.
-
-            More info can be found here - https://github.com/wordpress-mobile/WordPress-Android/pull/10204.
-
-            We also need to check the `markedLocallyAsFeatured` flag is equal as we might lose it otherwise. If the
-            user adds an image into the post content and they set the same image as featured image, we need to enqueue
-            both uploads. Otherwise, we could lose the information what we need to update - the featured image or post
-            content.
-
-            Issue with a proper fix - https://github.com/wordpress-mobile/WordPress-Android/issues/10210
-         */
-        return (media1.getLocalSiteId() == media2.getLocalSiteId()
-                && media1.getLocalPostId() == media2.getLocalPostId()
-                && StringUtils.equals(media1.getFilePath(), media2.getFilePath()))
-                && media1.getMarkedLocallyAsFeatured() == media2.getMarkedLocallyAsFeatured();
-    }
-
     @Override
     public void onVideoOptimizationProgress(@NonNull MediaModel media, float progress) {
         sOptimizationProgressByMediaId.put(media.getId(), progress);
@@ -447,11 +393,14 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     @Override
     public void onVideoOptimizationCompleted(@NonNull MediaModel media) {
         sOptimizationProgressByMediaId.remove(media.getId());
+        sUploadQueue.setOptimizing(media.getId(), false);
         // make sure this media should still be uploaded (may have been cancelled during optimization)
-        if (sInProgressUploads.contains(media)) {
+        if (sUploadQueue.getInProgress(media.getId()) != null) {
             dispatchUploadAction(media);
         } else {
             AppLog.d(T.MEDIA, "MediaUploadHandler > skipping upload of optimized media");
         }
+        // the next video can be optimized now
+        uploadNextInQueue();
     }
 }
@@ -0,0 +1,289 @@
+package org.wordpress.android.ui.uploads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * pending and in-progress media uploads used by MediaUploadHandler - uploads are indexed by media id
+ * and post id so lookups don't scan the queue, and pending uploads are ordered by the priority of
+ * their post and then by the order they were added
+ * <p>
+ * all methods are synchronized since uploads are added and completed from different threads
+ */
+class MediaUploadQueue {
+    static class Entry {
+        final MediaModel media;
+        final boolean needsOptimization;
+        final long queuedAt;
+        private final long mSequence;
+        private int mPriority;
+        private boolean mIsOptimizing;
+        long startedAt;
+        long uploadStartedAt;
+
+        private Entry(@NonNull MediaModel media, boolean needsOptimization, long sequence, int priority) {
+            this.media = media;
+            this.needsOptimization = needsOptimization;
+            this.queuedAt = System.currentTimeMillis();
+            mSequence = sequence;
+            mPriority = priority;
+        }
+    }
+
+    private static final Comparator<Entry> PENDING_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry entry1, Entry entry2) {
+            if (entry1.mPriority != entry2.mPriority) {
+                return entry1.mPriority > entry2.mPriority ? -1 : 1;
+            }
+            return Long.compare(entry1.mSequence, entry2.mSequence);
+        }
+    };
+
+    private final TreeSet<Entry> mPendingOrder = new TreeSet<>(PENDING_ORDER);
+    private final Map<Integer, Entry> mPendingById = new HashMap<>();
+    private final Map<Integer, Entry> mInProgressById = new LinkedHashMap<>();
+    private final Map<Integer, List<Entry>> mEntriesByPostId = new HashMap<>();
+    private final Map<Integer, Integer> mPriorityByPostId = new HashMap<>();
+    private long mNextSequence;
+    private int mNextPriority;
+    private int mNumOptimizing;
+
+    /*
+     * adds the passed media to the end of the pending uploads for its post - returns false if it's
+     * already queued or uploading
+     */
+    synchronized boolean add(@NonNull MediaModel media, boolean needsOptimization) {
+        if (contains(media.getId()) || findSameMediaForPost(media) != null) {
+            return false;
+        }
+
+        Integer priority = mPriorityByPostId.get(media.getLocalPostId());
+        Entry entry = new Entry(media, needsOptimization, mNextSequence++, priority != null ? priority : 0);
+        mPendingOrder.add(entry);
+        mPendingById.put(media.getId(), entry);
+        getEntriesForPost(media.getLocalPostId(), true).add(entry);
+        return true;
+    }
+
+    /*
+     * moves the next pending upload to the in-progress uploads and returns it - uploads that need
+     * optimizing are skipped when optimizing isn't allowed
+     */
+    synchronized @Nullable Entry pollNext(boolean allowOptimization) {
+        for (Iterator<Entry> iterator = mPendingOrder.iterator(); iterator.hasNext();) {
+            Entry entry = iterator.next();
+            if (entry.needsOptimization && !allowOptimization) {
+                continue;
+            }
+            iterator.remove();
+            mPendingById.remove(entry.media.getId());
+            mInProgressById.put(entry.media.getId(), entry);
+            entry.startedAt = System.currentTimeMillis();
+            return entry;
+        }
+        return null;
+    }
+
+    /*
+     * removes the pending or in-progress upload with the passed media id, returning it
+     */
+    synchronized @Nullable Entry remove(int mediaId) {
+        Entry entry = mInProgressById.remove(mediaId);
+        if (entry != null) {
+            if (entry.mIsOptimizing) {
+                entry.mIsOptimizing = false;
+                mNumOptimizing--;
+            }
+        } else {
+            entry = mPendingById.remove(mediaId);
+            if (entry == null) {
+                return null;
+            }
+            mPendingOrder.remove(entry);
+        }
+
+        int postId = entry.media.getLocalPostId();
+        List<Entry> postEntries = getEntriesForPost(postId, false);
+        if (postEntries != null) {
+            postEntries.remove(entry);
+            if (postEntries.isEmpty()) {
+                mEntriesByPostId.remove(postId);
+                mPriorityByPostId.remove(postId);
+            }
+        }
+        return entry;
+    }
+
+    /*
+     * moves the pending uploads for the passed post ahead of all others, including uploads added
+     * for it later - the most recently prioritized post goes first
+     */
+    synchronized void prioritizePost(int postId) {
+        int priority = ++mNextPriority;
+        mPriorityByPostId.put(postId, priority);
+        List<Entry> postEntries = getEntriesForPost(postId, false);
+        if (postEntries == null) {
+            return;
+        }
+        for (Entry entry : postEntries) {
+            // TreeSet doesn't reorder entries in place, so remove them before changing their priority
+            boolean isPending = mPendingOrder.remove(entry);
+            entry.mPriority = priority;
+            if (isPending) {
+                mPendingOrder.add(entry);
+            }
+        }
+    }
+
+    synchronized void setOptimizing(int mediaId, boolean isOptimizing) {
+        Entry entry = mInProgressById.get(mediaId);
+        if (entry != null && entry.mIsOptimizing != isOptimizing) {
+            entry.mIsOptimizing = isOptimizing;
+            mNumOptimizing += isOptimizing ? 1 : -1;
+        }
+    }
+
+    synchronized void setUploadStarted(int mediaId) {
+        Entry entry = mInProgressById.get(mediaId);
+        if (entry != null) {
+            entry.uploadStartedAt = System.currentTimeMillis();
+        }
+    }
+
+    synchronized @Nullable Entry getInProgress(int mediaId) {
+        return mInProgressById.get(mediaId);
+    }
+
+    synchronized boolean contains(int mediaId) {
+        return mInProgressById.containsKey(mediaId) || mPendingById.containsKey(mediaId);
+    }
+
+    synchronized boolean isEmpty() {
+        return mInProgressById.isEmpty() && mPendingById.isEmpty();
+    }
+
+    /*
+     * returns the number of in-progress uploads which are transferring media rather than optimizing it
+     */
+    synchronized int getNumUploading() {
+        return mInProgressById.size() - mNumOptimizing;
+    }
+
+    synchronized int getNumOptimizing() {
+        return mNumOptimizing;
+    }
+
+    synchronized @NonNull List<MediaModel> getInProgressMedia() {
+        List<MediaModel> mediaList = new ArrayList<>(mInProgressById.size());
+        for (Entry entry : mInProgressById.values()) {
+            mediaList.add(entry.media);
+        }
+        return mediaList;
+    }
+
+    /*
+     * returns the in-progress and then the pending media for the passed post
+     */
+    synchronized @NonNull List<MediaModel> getMediaForPost(int postId) {
+        List<MediaModel> mediaList = new ArrayList<>();
+        List<Entry> postEntries = getEntriesForPost(postId, false);
+        if (postEntries != null) {
+            for (Entry entry : postEntries) {
+                if (mInProgressById.containsKey(entry.media.getId())) {
+                    mediaList.add(entry.media);
+                }
+            }
+            for (Entry entry : postEntries) {
+                if (mPendingById.containsKey(entry.media.getId())) {
+                    mediaList.add(entry.media);
+                }
+            }
+        }
+        return mediaList;
+    }
+
+    synchronized boolean hasInProgressForPost(int postId) {
+        return hasEntryForPost(postId, mInProgressById);
+    }
+
+    synchronized boolean hasPendingForPost(int postId) {
+        return hasEntryForPost(postId, mPendingById);
+    }
+
+    private boolean hasEntryForPost(int postId, Map<Integer, Entry> entriesById) {
+        List<Entry> postEntries = getEntriesForPost(postId, false);
+        if (postEntries != null) {
+            for (Entry entry : postEntries) {
+                if (entriesById.containsKey(entry.media.getId())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private @Nullable List<Entry> getEntriesForPost(int postId, boolean create) {
+        List<Entry> postEntries = mEntriesByPostId.get(postId);
+        if (postEntries == null && create) {
+            postEntries = new ArrayList<>();
+            mEntriesByPostId.put(postId, postEntries);
+        }
+        return postEntries;
+    }
+
+    /*
+     * returns the queued or uploading media which uploads the same file for the same post as the
+     * passed media - see the note in isSameMediaFileQueuedForThisPost() below
+     */
+    private @Nullable MediaModel findSameMediaForPost(@NonNull MediaModel media) {
+        List<Entry> postEntries = getEntriesForPost(media.getLocalPostId(), false);
+        if (postEntries != null) {
+            for (Entry entry : postEntries) {
+                if (isSameMediaFileQueuedForThisPost(entry.media, media)) {
+                    return entry.media;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSameMediaFileQueuedForThisPost(MediaModel media1, MediaModel media2) {
+        /*
+            This method used to be called "compareBySiteAndFilePath" and compared just siteId and filePath. It made
+            sense since a media file is tied to a site and can be referenced from multiple posts on that site. This
+            approach tried to prevent wasting users' data.
+
+            The issue was that when a same image was added to content of two posts only a single MediaModel was
+            enqueued. However, MediaModel references only a single post (`localPostId`). When the upload finished
+            only the first post got updated with the url. The second post got uploaded to the server with a path to
+            local image. We decided to check whether the image belongs to the same post so we can be sure the local
+            path gets replaced with the url.
+
+            More info can be found here - https://github.com/wordpress-mobile/WordPress-Android/pull/10204.
+
+            We also need to check the `markedLocallyAsFeatured` flag is equal as we might lose it otherwise. If the
+            user adds an image into the post content and they set the same image as featured image, we need to enqueue
+            both uploads. Otherwise, we could lose the information what we need to update - the featured image or post
+            content.
+
+            Issue with a proper fix - https://github.com/wordpress-mobile/WordPress-Android/issues/10210
+         */
+        return (media1.getLocalSiteId() == media2.getLocalSiteId()
+                && media1.getLocalPostId() == media2.getLocalPostId()
+                && StringUtils.equals(media1.getFilePath(), media2.getFilePath()))
+                && media1.getMarkedLocallyAsFeatured() == media2.getMarkedLocallyAsFeatured();
+    }
+}
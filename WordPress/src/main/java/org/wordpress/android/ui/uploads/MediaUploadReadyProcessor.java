@@ -10,23 +10,25 @@ import org.wordpress.android.ui.posts.PostUtils;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.helpers.MediaFile;
 
+import java.util.Map;
+
 
 public class MediaUploadReadyProcessor implements MediaUploadReadyListener {
     @Override
-    public PostModel replaceMediaFileWithUrlInPost(@Nullable PostModel post, String localMediaId, MediaFile mediaFile,
-                                                   String siteUrl) {
+    public PostModel replaceMediaFilesWithUrlsInPost(@Nullable PostModel post, Map<String, MediaFile> mediaFiles,
+                                                     String siteUrl) {
         if (post != null) {
             boolean showAztecEditor = AppPrefs.isAztecEditorEnabled();
             boolean showGutenbergEditor = AppPrefs.isGutenbergEditorEnabled();
 
             if (showGutenbergEditor && PostUtils.contentContainsGutenbergBlocks(post.getContent())) {
-                post.setContent(
-
-                        PostUtils.replaceMediaFileWithUrlInGutenbergPost(post.getContent(), localMediaId, mediaFile,
-                                siteUrl));
+                post.setContent(PostUtils.replaceMediaFilesWithUrlsInGutenbergPost(post.getContent(), mediaFiles,
+                        siteUrl));
             } else if (showAztecEditor) {
-                post.setContent(AztecEditorFragment.replaceMediaFileWithUrl(WordPress.getContext(), post.getContent(),
-                                                                            localMediaId, mediaFile));
+                for (Map.Entry<String, MediaFile> entry : mediaFiles.entrySet()) {
+                    post.setContent(AztecEditorFragment.replaceMediaFileWithUrl(WordPress.getContext(),
+                            post.getContent(), entry.getKey(), entry.getValue()));
+                }
             }
         }
 
@@ -0,0 +1,49 @@
+package org.wordpress.android.ui.uploads;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * how long a single media upload spent waiting in the queue, optimizing and transferring, recorded
+ * by MediaUploadHandler when the upload ends
+ */
+public class MediaUploadTiming {
+    public final int mediaId;
+    public final int localPostId;
+    public final long numBytes;
+    public final long queuedMs;
+    public final long optimizationMs;
+    public final long uploadMs;
+    // the number of uploads transferring when this one ended, including this one
+    public final int numConcurrentUploads;
+    public final boolean succeeded;
+
+    MediaUploadTiming(int mediaId, int localPostId, long numBytes, long queuedMs, long optimizationMs,
+                      long uploadMs, int numConcurrentUploads, boolean succeeded) {
+        this.mediaId = mediaId;
+        this.localPostId = localPostId;
+        this.numBytes = numBytes;
+        this.queuedMs = queuedMs;
+        this.optimizationMs = optimizationMs;
+        this.uploadMs = uploadMs;
+        this.numConcurrentUploads = numConcurrentUploads;
+        this.succeeded = succeeded;
+    }
+
+    /*
+     * returns the transfer speed in bytes per second, or zero if unknown
+     */
+    public long getBytesPerSecond() {
+        return uploadMs > 0 ? numBytes * 1000 / uploadMs : 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH,
+                "media %d: %d bytes, queued %dms, optimized %dms, uploaded %dms (%d B/s) with %d concurrent%s",
+                mediaId, numBytes, queuedMs, optimizationMs, uploadMs, getBytesPerSecond(), numConcurrentUploads,
+                succeeded ? "" : ", failed");
+    }
+}
@@ -47,11 +47,14 @@ import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.util.WPMediaUtils;
+import org.wordpress.android.util.helpers.MediaFile;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -276,6 +279,8 @@ public class UploadService extends Service {
                 boolean postHasGutenbergBlocks = PostUtils.contentContainsGutenbergBlocks(post.getContent());
                 retryUpload(post, !postHasGutenbergBlocks);
             } else if (hasPendingOrInProgressMediaUploadsForPost(post)) {
+                // the post is waiting on its media, so upload that ahead of media queued for other posts
+                MediaUploadHandler.prioritizeMediaUploadsForPost(post.getId());
                 // Register the post (as PENDING) in the UploadStore, along with all media currently in progress for it
                 // If the post is already registered, the new media will be added to its list
                 List<MediaModel> activeMedia = MediaUploadHandler.getPendingOrInProgressMediaUploadsForPost(post);
@@ -452,13 +457,16 @@ public class UploadService extends Service {
             // updates in one go and save only once
             MediaUploadReadyListener processor = new MediaUploadReadyProcessor();
             Set<MediaModel> completedMedia = sInstance.mUploadStore.getCompletedMediaForPost(post);
+            List<MediaModel> completedContentMedia = new ArrayList<>();
             for (MediaModel media : completedMedia) {
                 if (media.getMarkedLocallyAsFeatured()) {
                     post = updatePostWithNewFeaturedImg(post, media.getMediaId());
                 } else {
-                    post = updatePostWithMediaUrl(post, media, processor);
+                    completedContentMedia.add(media);
                 }
             }
+            // replace all the media in the content together so the post is only processed once
+            post = updatePostWithMediaUrls(post, completedContentMedia, processor);
 
             if (completedMedia != null && !completedMedia.isEmpty()) {
                 // finally remove all completed uploads for this post, as they've been taken care of
@@ -599,17 +607,20 @@ public class UploadService extends Service {
         }
         return post;
     }
-    private static synchronized PostModel updatePostWithMediaUrl(PostModel post, MediaModel media,
-                                                                 MediaUploadReadyListener processor) {
-        if (media != null && post != null && processor != null && sInstance != null) {
+    private static synchronized PostModel updatePostWithMediaUrls(PostModel post, List<MediaModel> mediaList,
+                                                                  MediaUploadReadyListener processor) {
+        if (mediaList != null && !mediaList.isEmpty() && post != null && processor != null && sInstance != null) {
             boolean changesConfirmed = post.contentHashcode() == post.getChangesConfirmedContentHashcode();
 
             // obtain site url used to generate attachment page url
-            SiteModel site = sInstance.mSiteStore.getSiteByLocalId(media.getLocalSiteId());
+            SiteModel site = sInstance.mSiteStore.getSiteByLocalId(mediaList.get(0).getLocalSiteId());
 
-            // actually replace the media ID with the media uri
-            processor.replaceMediaFileWithUrlInPost(post, String.valueOf(media.getId()),
-                    FluxCUtils.mediaFileFromMediaModel(media), site.getUrl());
+            // actually replace the media IDs with the media uris
+            Map<String, MediaFile> mediaFiles = new LinkedHashMap<>();
+            for (MediaModel media : mediaList) {
+                mediaFiles.put(String.valueOf(media.getId()), FluxCUtils.mediaFileFromMediaModel(media));
+            }
+            processor.replaceMediaFilesWithUrlsInPost(post, mediaFiles, site.getUrl());
 
             // we changed the post, so let’s mark this down
             if (!post.isLocalDraft()) {
@@ -618,7 +629,7 @@ public class UploadService extends Service {
             post.setDateLocallyChanged(DateTimeUtils.iso8601UTCFromTimestamp(System.currentTimeMillis() / 1000));
             if (changesConfirmed) {
                 /*
-                 * We are replacing image local path with a url. We need to make sure to retain the confirmation
+                 * We are replacing image local paths with urls. We need to make sure to retain the confirmation
                  * state.
                  */
                 post.setChangesConfirmedContentHashcode(post.contentHashcode());
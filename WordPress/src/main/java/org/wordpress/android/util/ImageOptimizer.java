@@ -0,0 +1,575 @@
+package org.wordpress.android.util;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.text.TextUtils;
+import android.webkit.MimeTypeMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * resizes and compresses images before they're uploaded - replaces ImageUtils.optimizeImage, which
+ * decoded each image at up to twice its target size and then created rotated and scaled copies of
+ * it. here images are decoded in strips at the nearest sampled size with BitmapRegionDecoder, and
+ * each strip is scaled and rotated straight into the output bitmap, so the only full size bitmap
+ * is the output itself. strip and output bitmaps are reused between the images being optimized
+ * together, and released once none are left, and the number of images optimized at once is
+ * limited by the memory they need rather than by how many are picked.
+ * <p>
+ * results are stored by a hash of the source image and the optimization settings, so an upload
+ * which is retried or an image which is inserted again isn't re-encoded.
+ */
+public class ImageOptimizer {
+    private static final String CACHE_DIR_NAME = "optimized_images";
+    private static final long MAX_CACHE_BYTES = 200 * 1024 * 1024;
+
+    // height of each strip decoded from the source, in sampled rows, and the rows decoded on either
+    // side of it so filtering at the edges of a strip matches filtering within it
+    private static final int STRIP_HEIGHT = 256;
+    private static final int STRIP_OVERLAP = 2;
+
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static ImageOptimizer sInstance;
+
+    private final Context mContext;
+    private final File mCacheDir;
+    private final int mMemoryBudgetKb;
+    private final Semaphore mMemoryPermits;
+    private final Semaphore mJobPermits;
+    private final BitmapPool mBitmapPool;
+    private final Object mCacheLock = new Object();
+
+    private final AtomicInteger mActiveJobs = new AtomicInteger();
+    private final AtomicInteger mEncodeCount = new AtomicInteger();
+    private final AtomicInteger mReservedKb = new AtomicInteger();
+    private final AtomicInteger mPeakReservedKb = new AtomicInteger();
+
+    public static synchronized ImageOptimizer getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            Context appContext = context.getApplicationContext();
+            // a quarter of the app's heap is shared by images being optimized, another quarter may be
+            // kept in the pool between them
+            ActivityManager activityManager = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+            long memoryBudget = activityManager.getMemoryClass() * 1024L * 1024L / 4;
+            sInstance = new ImageOptimizer(appContext, new File(appContext.getCacheDir(), CACHE_DIR_NAME),
+                    memoryBudget);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    public ImageOptimizer(@NonNull Context context, @NonNull File cacheDir, long memoryBudget) {
+        mContext = context;
+        mCacheDir = cacheDir;
+        mMemoryBudgetKb = (int) (memoryBudget / 1024);
+        mMemoryPermits = new Semaphore(mMemoryBudgetKb, true);
+        mJobPermits = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors()), true);
+        mBitmapPool = new BitmapPool(memoryBudget);
+    }
+
+    /**
+     * Given the path to an image, compress and resize it - blocks until memory for the image is
+     * available, so it's safe to optimize many images at once from a background thread.
+     * @param path the path to the original image
+     * @param maxImageSize the maximum allowed width or height
+     * @param quality the encoder quality
+     * @return the path to the optimized image, or the original path if it couldn't be optimized
+     */
+    public String optimize(String path, int maxImageSize, int quality) {
+        if (TextUtils.isEmpty(path)) {
+            return path;
+        }
+
+        File file = new File(path);
+        if (!file.exists()) {
+            return path;
+        }
+
+        String mimeType = MediaUtils.getMediaFileMimeType(file);
+        if ("image/gif".equals(mimeType)) {
+            // Don't rescale gifs to maintain their quality
+            return path;
+        }
+
+        // do not optimize if original-size and 100% quality are set.
+        if (maxImageSize == Integer.MAX_VALUE && quality == 100) {
+            return path;
+        }
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            // Can't read the src dimensions.
+            return path;
+        }
+
+        String fileName = MediaUtils.getMediaFileName(file, mimeType);
+        String fileExtension = MimeTypeMap.getFileExtensionFromUrl(fileName).toLowerCase(Locale.ROOT);
+
+        File resultFile;
+        try {
+            String key = getSourceHash(file) + "_" + maxImageSize + "_" + quality;
+            resultFile = new File(new File(mCacheDir, key), getResultFileName(fileName, fileExtension));
+        } catch (IOException e) {
+            AppLog.e(T.MEDIA, "Failed to read the original picture. Use the original picture instead.", e);
+            return path;
+        }
+
+        if (resultFile.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            resultFile.getParentFile().setLastModified(System.currentTimeMillis());
+            return resultFile.getPath();
+        }
+
+        Job job = new Job(path, bounds.outWidth, bounds.outHeight, maxImageSize,
+                ImageUtils.getImageOrientation(mContext, path));
+        int costKb = Math.min(mMemoryBudgetKb, Math.max(1, (int) (job.getCost() / 1024)));
+
+        boolean acquired = false;
+        mActiveJobs.incrementAndGet();
+        try {
+            mJobPermits.acquire();
+            try {
+                mMemoryPermits.acquire(costKb);
+                acquired = true;
+                updatePeakReserved(mReservedKb.addAndGet(costKb));
+                if (!writeResult(job, fileExtension, quality, resultFile)) {
+                    AppLog.w(T.MEDIA, "Failed to compress the optimized image. Use the original picture instead.");
+                    return path;
+                }
+            } finally {
+                if (acquired) {
+                    mReservedKb.addAndGet(-costKb);
+                    mMemoryPermits.release(costKb);
+                }
+                mJobPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return path;
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            AppLog.e(T.MEDIA, "Failed to create optimized image. Use the original picture instead.", e);
+            return path;
+        } catch (OutOfMemoryError e) {
+            mBitmapPool.clear();
+            AppLog.e(T.MEDIA, "Can't optimize the picture due to low memory. Use the original picture instead.");
+            return path;
+        } finally {
+            // the pool only helps images optimized together, so don't keep its bitmaps once the last
+            // of them is done - the optimizer is a singleton, so they'd never be released otherwise
+            if (mActiveJobs.decrementAndGet() == 0) {
+                mBitmapPool.clear();
+            }
+        }
+
+        trimCache();
+        return resultFile.getPath();
+    }
+
+    /*
+     * encodes the optimized image into a temp file which is renamed once it's complete, so another
+     * job never sees a partial result
+     */
+    private boolean writeResult(Job job, String fileExtension, int quality, File resultFile) throws IOException {
+        File dir = resultFile.getParentFile();
+        if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+            throw new IOException("Can't create " + dir);
+        }
+
+        Bitmap.CompressFormat format = "png".equals(fileExtension)
+                ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+        File tempFile = File.createTempFile("optimizing", null, dir);
+        Bitmap target = job.decode();
+        try {
+            boolean compressed;
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile), WRITE_BUFFER_SIZE);
+            try {
+                compressed = target.compress(format, quality, out);
+                mEncodeCount.incrementAndGet();
+            } finally {
+                out.close();
+            }
+            if (compressed && (tempFile.renameTo(resultFile) || resultFile.exists())) {
+                return true;
+            }
+        } finally {
+            mBitmapPool.put(target);
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        }
+        return false;
+    }
+
+    /*
+     * the optimization of a single image - the source is sampled by the largest power of two which
+     * keeps it at least as large as the target, and the rest of the scaling is done when each
+     * strip is drawn, along with the rotation
+     */
+    private class Job {
+        private final String mPath;
+        private final int mSrcWidth;
+        private final int mSrcHeight;
+        private final int mOrientation;
+        private final int mSampleSize;
+        private final int mScaledWidth;
+        private final int mScaledHeight;
+
+        Job(String path, int srcWidth, int srcHeight, int maxImageSize, int orientation) {
+            mPath = path;
+            mSrcWidth = srcWidth;
+            mSrcHeight = srcHeight;
+            mOrientation = ((orientation % 360) + 360) % 360;
+
+            int srcMaxSize = Math.max(srcWidth, srcHeight);
+            int maxSize = Math.min(srcMaxSize, maxImageSize);
+            float scale = (float) maxSize / srcMaxSize;
+            mScaledWidth = Math.max(1, Math.round(srcWidth * scale));
+            mScaledHeight = Math.max(1, Math.round(srcHeight * scale));
+
+            int sampleSize = 1;
+            while (srcMaxSize / (sampleSize * 2) >= maxSize) {
+                sampleSize *= 2;
+            }
+            mSampleSize = sampleSize;
+        }
+
+        /*
+         * the memory needed by the output bitmap and one decoded strip
+         */
+        long getCost() {
+            long stripRows = Math.min(STRIP_HEIGHT + 2 * STRIP_OVERLAP, getSampled(mSrcHeight));
+            return ((long) mScaledWidth * mScaledHeight + getSampled(mSrcWidth) * stripRows) * BYTES_PER_PIXEL;
+        }
+
+        Bitmap decode() throws IOException {
+            boolean rotated = mOrientation == 90 || mOrientation == 270;
+            Bitmap target = mBitmapPool.get(rotated ? mScaledHeight : mScaledWidth,
+                    rotated ? mScaledWidth : mScaledHeight);
+            target.eraseColor(Color.TRANSPARENT);
+
+            // maps source pixels to the output - scaled to the exact size, then rotated
+            Matrix matrix = new Matrix();
+            matrix.postScale((float) mScaledWidth / mSrcWidth, (float) mScaledHeight / mSrcHeight);
+            matrix.postRotate(mOrientation);
+            switch (mOrientation) {
+                case 90:
+                    matrix.postTranslate(mScaledHeight, 0);
+                    break;
+                case 180:
+                    matrix.postTranslate(mScaledWidth, mScaledHeight);
+                    break;
+                case 270:
+                    matrix.postTranslate(0, mScaledWidth);
+                    break;
+            }
+
+            Canvas canvas = new Canvas(target);
+            Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            BitmapRegionDecoder decoder = null;
+            try {
+                decoder = BitmapRegionDecoder.newInstance(mPath, false);
+            } catch (IOException e) {
+                // the format isn't supported by the region decoder
+                AppLog.w(T.MEDIA, "Can't decode regions of " + mPath + ", decoding the whole image");
+            }
+
+            try {
+                if (decoder != null) {
+                    decodeStrips(decoder, canvas, matrix, paint);
+                } else {
+                    decodeWhole(canvas, matrix, paint);
+                }
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                mBitmapPool.put(target);
+                throw e;
+            } finally {
+                if (decoder != null) {
+                    decoder.recycle();
+                }
+            }
+            return target;
+        }
+
+        private void decodeStrips(BitmapRegionDecoder decoder, Canvas canvas, Matrix matrix, Paint paint)
+                throws IOException {
+            int stripSrcHeight = STRIP_HEIGHT * mSampleSize;
+            int overlapSrcHeight = STRIP_OVERLAP * mSampleSize;
+            int stripWidth = (int) getSampled(mSrcWidth);
+            int stripHeight = (int) Math.min(STRIP_HEIGHT + 2 * STRIP_OVERLAP, getSampled(mSrcHeight));
+
+            // every strip is decoded into the same bitmap - the last one may not fill it, but only the
+            // rows it decoded are drawn
+            Bitmap strip = mBitmapPool.get(stripWidth, stripHeight);
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = mSampleSize;
+            options.inMutable = true;
+            options.inBitmap = strip;
+
+            Rect region = new Rect();
+            RectF clip = new RectF();
+            Matrix stripMatrix = new Matrix();
+            try {
+                for (int top = 0; top < mSrcHeight; top += stripSrcHeight) {
+                    int bottom = Math.min(top + stripSrcHeight, mSrcHeight);
+                    region.set(0, Math.max(0, top - overlapSrcHeight), mSrcWidth,
+                            Math.min(mSrcHeight, bottom + overlapSrcHeight));
+
+                    Bitmap decoded = decoder.decodeRegion(region, options);
+                    if (decoded == null) {
+                        throw new IOException("Can't decode the region " + region + " of " + mPath);
+                    }
+                    if (decoded != strip) {
+                        // the decoder couldn't reuse the strip, so keep the bitmap it created instead
+                        mBitmapPool.put(strip);
+                        strip = decoded;
+                        options.inBitmap = strip;
+                    }
+
+                    clip.set(0, top, mSrcWidth, bottom);
+                    matrix.mapRect(clip);
+                    stripMatrix.setScale(mSampleSize, mSampleSize);
+                    stripMatrix.postTranslate(0, region.top);
+                    stripMatrix.postConcat(matrix);
+
+                    canvas.save();
+                    canvas.clipRect(clip);
+                    canvas.drawBitmap(strip, stripMatrix, paint);
+                    canvas.restore();
+                }
+            } finally {
+                mBitmapPool.put(strip);
+            }
+        }
+
+        private void decodeWhole(Canvas canvas, Matrix matrix, Paint paint) throws IOException {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = mSampleSize;
+            Bitmap decoded = BitmapFactory.decodeFile(mPath, options);
+            if (decoded == null) {
+                throw new IOException("Can't decode " + mPath);
+            }
+            Matrix decodedMatrix = new Matrix();
+            decodedMatrix.setScale((float) mSrcWidth / decoded.getWidth(), (float) mSrcHeight / decoded.getHeight());
+            decodedMatrix.postConcat(matrix);
+            canvas.drawBitmap(decoded, decodedMatrix, paint);
+            decoded.recycle();
+        }
+
+        private long getSampled(int size) {
+            return (size + mSampleSize - 1) / mSampleSize;
+        }
+    }
+
+    /*
+     * mutable ARGB bitmaps kept for reuse once an image is done with them - pictures taken by the
+     * same camera at the same settings produce outputs and strips of the same size, so a batch of
+     * them allocates bitmaps for the first image only
+     */
+    static class BitmapPool {
+        private final long mMaxBytes;
+        private final LinkedList<Bitmap> mBitmaps = new LinkedList<>();
+        private long mBytes;
+
+        BitmapPool(long maxBytes) {
+            mMaxBytes = maxBytes;
+        }
+
+        synchronized Bitmap get(int width, int height) {
+            Iterator<Bitmap> iterator = mBitmaps.iterator();
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                    iterator.remove();
+                    mBytes -= bitmap.getAllocationByteCount();
+                    return bitmap;
+                }
+            }
+            return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+
+        synchronized void put(Bitmap bitmap) {
+            if (bitmap == null || bitmap.isRecycled() || mBitmaps.contains(bitmap)) {
+                return;
+            }
+            if (!bitmap.isMutable() || bitmap.getConfig() != Bitmap.Config.ARGB_8888
+                || bitmap.getAllocationByteCount() > mMaxBytes) {
+                bitmap.recycle();
+                return;
+            }
+            mBitmaps.addFirst(bitmap);
+            mBytes += bitmap.getAllocationByteCount();
+            while (mBytes > mMaxBytes) {
+                Bitmap oldest = mBitmaps.removeLast();
+                mBytes -= oldest.getAllocationByteCount();
+                oldest.recycle();
+            }
+        }
+
+        synchronized long getBytes() {
+            return mBytes;
+        }
+
+        synchronized void clear() {
+            for (Bitmap bitmap : mBitmaps) {
+                bitmap.recycle();
+            }
+            mBitmaps.clear();
+            mBytes = 0;
+        }
+    }
+
+    private void updatePeakReserved(int reservedKb) {
+        int peak;
+        do {
+            peak = mPeakReservedKb.get();
+        } while (reservedKb > peak && !mPeakReservedKb.compareAndSet(peak, reservedKb));
+    }
+
+    /*
+     * deletes the least recently used results once the cache is over its size
+     */
+    private void trimCache() {
+        synchronized (mCacheLock) {
+            File[] dirs = mCacheDir.listFiles();
+            if (dirs == null) {
+                return;
+            }
+            long[] lastModified = new long[dirs.length];
+            long totalBytes = 0;
+            for (int i = 0; i < dirs.length; i++) {
+                lastModified[i] = dirs[i].lastModified();
+                totalBytes += getDirSize(dirs[i]);
+            }
+            if (totalBytes <= MAX_CACHE_BYTES) {
+                return;
+            }
+
+            final long[] times = lastModified;
+            Integer[] order = new Integer[dirs.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer lhs, Integer rhs) {
+                    return Long.compare(times[lhs], times[rhs]);
+                }
+            });
+            for (int i = 0; i < order.length && totalBytes > MAX_CACHE_BYTES; i++) {
+                File dir = dirs[order[i]];
+                totalBytes -= getDirSize(dir);
+                deleteDir(dir);
+            }
+        }
+    }
+
+    private static long getDirSize(File dir) {
+        long size = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+
+    /*
+     * keeps the original name, as ImageUtils.optimizeImage did, since it's the name the upload uses
+     */
+    private static String getResultFileName(String fileName, String fileExtension) {
+        String name = FileUtils.getFileNameFromPath(fileName);
+        if (TextUtils.isEmpty(name) || name.length() < 3) {
+            name = "wp-image";
+        }
+        return name + "." + fileExtension;
+    }
+
+    private static String getSourceHash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        } finally {
+            in.close();
+        }
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return hash.toString();
+    }
+
+    @VisibleForTesting
+    int getEncodeCount() {
+        return mEncodeCount.get();
+    }
+
+    @VisibleForTesting
+    long getPeakReservedBytes() {
+        return mPeakReservedKb.get() * 1024L;
+    }
+
+    @VisibleForTesting
+    long getPooledBytes() {
+        return mBitmapPool.getBytes();
+    }
+
+    @VisibleForTesting
+    long getMemoryBudget() {
+        return mMemoryBudgetKb * 1024L;
+    }
+}
@@ -0,0 +1,90 @@
+package org.wordpress.android.util;
+
+import android.text.Spanned;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+
+/**
+ * size-bounded LRU cache of text converted to a Spanned (ex: from HTML or note ranges), so lists can
+ * convert their items' text on a background thread when the items are loaded and only bind the
+ * result on the main thread
+ * <p>
+ * entries are keyed by item id and stored along with a version stamp of the item they were built
+ * from, so a changed item replaces its stale entry rather than adding another - safe to use from
+ * any thread
+ */
+public class SpannedCache {
+    public interface SpannedBuilder {
+        @NonNull Spanned build();
+    }
+
+    private static class Entry {
+        private final long mVersion;
+        private final Spanned mText;
+
+        Entry(long version, @NonNull Spanned text) {
+            mVersion = version;
+            mText = text;
+        }
+    }
+
+    private final LruCache<String, Entry> mCache;
+
+    /*
+     * maxChars is the total length of the cached text rather than the number of entries
+     */
+    public SpannedCache(int maxChars) {
+        mCache = new LruCache<String, Entry>(maxChars) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull Entry entry) {
+                return Math.max(1, entry.mText.length());
+            }
+        };
+    }
+
+    /*
+     * returns the cached text for the passed key, or null if it's not cached or was built from a
+     * different version of the item
+     */
+    @Nullable
+    public Spanned get(@NonNull String key, long version) {
+        Entry entry = mCache.get(key);
+        return entry != null && entry.mVersion == version ? entry.mText : null;
+    }
+
+    public boolean contains(@NonNull String key, long version) {
+        return get(key, version) != null;
+    }
+
+    public void put(@NonNull String key, long version, @NonNull Spanned text) {
+        mCache.put(key, new Entry(version, text));
+    }
+
+    /*
+     * returns the cached text for the passed key and version, building and caching it if it's not
+     * cached - used when binding items which weren't prepared in the background
+     */
+    @NonNull
+    public Spanned getOrBuild(@NonNull String key, long version, @NonNull SpannedBuilder builder) {
+        Spanned text = get(key, version);
+        if (text == null) {
+            text = builder.build();
+            put(key, version, text);
+        }
+        return text;
+    }
+
+    public int getHitCount() {
+        return mCache.hitCount();
+    }
+
+    public int getMissCount() {
+        return mCache.missCount();
+    }
+
+    public void clear() {
+        mCache.evictAll();
+    }
+}
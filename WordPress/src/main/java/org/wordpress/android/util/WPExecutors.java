@@ -0,0 +1,214 @@
+package org.wordpress.android.util;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.BuildConfig;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * app-wide background executors, used instead of starting a new thread for each piece of
+ * background work so the number of threads stays bounded:
+ * <p>
+ * IO - network & file access (ex: downloading video frames)
+ * DB_WRITE - work that writes to the local databases, run one task at a time so tasks don't
+ * contend with each other for the single SQLite writer
+ * PARSE - CPU-bound work such as parsing responses and rendering content
+ * <p>
+ * tasks return a Future which callers tied to a lifecycle should cancel when it ends, and tasks
+ * that wait or run unusually long are logged along with the queue depth of their executor
+ */
+public class WPExecutors {
+    public enum Pool {
+        IO("wp-io", 4, Process.THREAD_PRIORITY_BACKGROUND),
+        DB_WRITE("wp-db-write", 1, Process.THREAD_PRIORITY_BACKGROUND),
+        PARSE("wp-parse",
+              Math.max(2, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4)),
+              Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+
+        private final String mName;
+        private final int mNumThreads;
+        private final int mThreadPriority;
+
+        Pool(String name, int numThreads, int threadPriority) {
+            mName = name;
+            mNumThreads = numThreads;
+            mThreadPriority = threadPriority;
+        }
+    }
+
+    // tasks which wait in the queue or run for longer than these are logged
+    private static final long SLOW_WAIT_MS = 500;
+    private static final long SLOW_RUN_MS = 1000;
+
+    private static final MeteredExecutor IO_EXECUTOR = new MeteredExecutor(Pool.IO);
+    private static final MeteredExecutor DB_WRITE_EXECUTOR = new MeteredExecutor(Pool.DB_WRITE);
+    private static final MeteredExecutor PARSE_EXECUTOR = new MeteredExecutor(Pool.PARSE);
+
+    private WPExecutors() {
+        throw new AssertionError();
+    }
+
+    public static Future<?> io(@NonNull Runnable task) {
+        return IO_EXECUTOR.submit(task);
+    }
+
+    public static Future<?> dbWrite(@NonNull Runnable task) {
+        return DB_WRITE_EXECUTOR.submit(task);
+    }
+
+    public static Future<?> parse(@NonNull Runnable task) {
+        return PARSE_EXECUTOR.submit(task);
+    }
+
+    /*
+     * returns the executor for the passed pool, for use with APIs that take an Executor (ex: AsyncTask)
+     */
+    public static ThreadPoolExecutor getExecutor(@NonNull Pool pool) {
+        switch (pool) {
+            case DB_WRITE:
+                return DB_WRITE_EXECUTOR;
+            case PARSE:
+                return PARSE_EXECUTOR;
+            default:
+                return IO_EXECUTOR;
+        }
+    }
+
+    /*
+     * returns the number of tasks waiting to run in the passed pool
+     */
+    public static int getQueueDepth(@NonNull Pool pool) {
+        return getExecutor(pool).getQueue().size();
+    }
+
+    /*
+     * returns the average time in milliseconds tasks in the passed pool waited before running
+     */
+    public static long getAverageWaitMs(@NonNull Pool pool) {
+        return ((MeteredExecutor) getExecutor(pool)).getAverageWaitMs();
+    }
+
+    private static class PoolThreadFactory implements ThreadFactory {
+        private final Pool mPool;
+        private final AtomicInteger mThreadNumber = new AtomicInteger(1);
+
+        PoolThreadFactory(Pool pool) {
+            mPool = pool;
+        }
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(mPool.mThreadPriority);
+                    runnable.run();
+                }
+            }, mPool.mName + "-" + mThreadNumber.getAndIncrement());
+        }
+    }
+
+    private static class TimedTask<V> extends FutureTask<V> {
+        private final long mQueuedAt = System.currentTimeMillis();
+        private long mStartedAt;
+
+        TimedTask(Runnable runnable, V result) {
+            super(runnable, result);
+        }
+    }
+
+    private static class MeteredExecutor extends ThreadPoolExecutor {
+        private final Pool mPool;
+        private final AtomicInteger mNumCompleted = new AtomicInteger();
+        private long mTotalWaitMs;
+
+        MeteredExecutor(Pool pool) {
+            // threads are created on demand and idle ones time out, so unused pools cost nothing
+            super(pool.mNumThreads, pool.mNumThreads, 30, TimeUnit.SECONDS,
+                  new LinkedBlockingQueue<Runnable>(), new PoolThreadFactory(pool));
+            allowCoreThreadTimeOut(true);
+            mPool = pool;
+        }
+
+        @Override
+        protected <V> RunnableFuture<V> newTaskFor(Runnable runnable, V value) {
+            return new TimedTask<>(runnable, value);
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable runnable) {
+            super.beforeExecute(thread, runnable);
+            if (runnable instanceof TimedTask) {
+                TimedTask task = (TimedTask) runnable;
+                task.mStartedAt = System.currentTimeMillis();
+                long waitMs = task.mStartedAt - task.mQueuedAt;
+                synchronized (this) {
+                    mTotalWaitMs += waitMs;
+                }
+                if (waitMs > SLOW_WAIT_MS) {
+                    AppLog.w(T.UTILS, String.format(Locale.ENGLISH, "%s > task waited %dms, queue depth %d",
+                            mPool.mName, waitMs, getQueue().size()));
+                }
+            }
+        }
+
+        @Override
+        protected void afterExecute(Runnable runnable, Throwable throwable) {
+            super.afterExecute(runnable, throwable);
+            mNumCompleted.incrementAndGet();
+            if (runnable instanceof TimedTask) {
+                TimedTask task = (TimedTask) runnable;
+                logTaskException(task);
+                long runMs = System.currentTimeMillis() - task.mStartedAt;
+                if (runMs > SLOW_RUN_MS) {
+                    AppLog.w(T.UTILS, String.format(Locale.ENGLISH, "%s > task ran for %dms",
+                            mPool.mName, runMs));
+                }
+            }
+        }
+
+        /*
+         * submitted tasks capture their exceptions in the Future rather than letting them reach
+         * the thread, so report them here otherwise they'd go unnoticed if the Future is ignored -
+         * they're sent to crash logging in every build, and debug builds also rethrow them on the
+         * worker thread to crash the app as it would if the task had been run on its own thread
+         */
+        private void logTaskException(TimedTask task) {
+            if (task.isCancelled()) {
+                return;
+            }
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                String message = mPool.mName + " > task failed";
+                AppLog.e(T.UTILS, message, cause);
+                CrashLoggingUtils.logException(cause, T.UTILS, message);
+                if (BuildConfig.DEBUG) {
+                    throw new RuntimeException(message, cause);
+                }
+            } catch (InterruptedException | CancellationException e) {
+                // ignored
+            }
+        }
+
+        synchronized long getAverageWaitMs() {
+            int numCompleted = mNumCompleted.get();
+            return numCompleted > 0 ? mTotalWaitMs / numCompleted : 0;
+        }
+    }
+}
@@ -57,7 +57,7 @@ public class WPMediaUtils {
             return null;
         }
 
-        String optimizedPath = ImageUtils.optimizeImage(context, path, resizeDimension, quality);
+        String optimizedPath = ImageOptimizer.getInstance(context).optimize(path, resizeDimension, quality);
         if (optimizedPath == null) {
             AppLog.e(AppLog.T.EDITOR, "Optimized picture was null!");
             AnalyticsTracker.track(AnalyticsTracker.Stat.MEDIA_PHOTO_OPTIMIZE_ERROR);
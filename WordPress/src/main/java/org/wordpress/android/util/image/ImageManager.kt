@@ -240,6 +240,18 @@ class ImageManager @Inject constructor(private val placeholderManager: ImagePlac
                 .into(target)
     }
 
+    /**
+     * Downloads the image from the "imgUrl" into the disk cache without showing it, so it can be shown later without
+     * a network connection (eg. the avatars of saved posts).
+     */
+    fun preload(context: Context, imgUrl: String) {
+        if (!context.isAvailable() || TextUtils.isEmpty(imgUrl)) return
+        GlideApp.with(context)
+                .downloadOnly()
+                .load(imgUrl)
+                .submit()
+    }
+
     /**
      * Cancel any pending requests and free any resources that may have been
      * loaded for the view.
@@ -0,0 +1,67 @@
+package org.wordpress.android.models
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderPostTest {
+    @Test
+    fun `content hash is the same for posts with the same content`() {
+        assertThat(createPost().contentHash).isEqualTo(createPost().contentHash)
+    }
+
+    @Test
+    fun `content hash ignores the railcar and bookmark flag`() {
+        val post = createPost()
+        val hash = post.contentHash
+
+        post.setRailcarJson("{\"railcar\":\"abc\"}")
+        post.isBookmarked = true
+
+        assertThat(post.contentHash).isEqualTo(hash)
+    }
+
+    @Test
+    fun `content hash changes when stored fields change`() {
+        val hash = createPost().contentHash
+
+        assertThat(createPost().apply { numLikes++ }.contentHash).isNotEqualTo(hash)
+        assertThat(createPost().apply { isFollowedByCurrentUser = true }.contentHash).isNotEqualTo(hash)
+        assertThat(createPost().apply { setFeaturedImage("https://example.com/other.jpg") }.contentHash)
+                .isNotEqualTo(hash)
+        assertThat(createPost().apply { text = "$text!" }.contentHash).isNotEqualTo(hash)
+        assertThat(createPost().apply { cardType = ReaderCardType.PHOTO }.contentHash).isNotEqualTo(hash)
+    }
+
+    @Test
+    fun `content hash separates adjacent text fields`() {
+        val first = createPost().apply {
+            title = "ab"
+            excerpt = "c"
+        }
+        val second = createPost().apply {
+            title = "a"
+            excerpt = "bc"
+        }
+
+        assertThat(first.contentHash).isNotEqualTo(second.contentHash)
+    }
+
+    @Test
+    fun `content hash is never zero`() {
+        assertThat(ReaderPost().contentHash).isNotEqualTo(0L)
+        assertThat(createPost().contentHash).isNotEqualTo(0L)
+    }
+
+    private fun createPost() = ReaderPost().apply {
+        postId = 1234
+        blogId = 5678
+        pseudoId = "pseudo-1234"
+        title = "Title"
+        text = "<p>Some text</p>"
+        excerpt = "Some text"
+        setFeaturedImage("https://example.com/image.jpg")
+        numLikes = 3
+        numReplies = 2
+        datePublished = "2019-06-01T12:00:00+00:00"
+    }
+}
@@ -0,0 +1,55 @@
+package org.wordpress.android.ui.main
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.ui.main.SitePickerAdapter.SiteRecord
+
+class SiteSearchIndexTest {
+    private val cooking = SiteRecord(1, 101, "Cooking Blog", "cooking.example.com")
+    private val cafe = SiteRecord(2, 102, "Café Crème", "cafecreme.wordpress.com")
+    private val agency = SiteRecord(3, 103, "Agency", "example.org/clients/agency")
+    private val sites = listOf(cooking, cafe, agency)
+    private val index = SiteSearchIndex.EMPTY.update(sites)
+
+    @Test
+    fun `matches text anywhere in the name or url`() {
+        assertThat(index.search(sites, "king")).containsExactly(cooking)
+        assertThat(index.search(sites, "example")).containsExactly(cooking, agency)
+        assertThat(index.search(sites, "wordpress.com")).containsExactly(cafe)
+    }
+
+    @Test
+    fun `matches words in any order`() {
+        assertThat(index.search(sites, "blog cook")).containsExactly(cooking)
+        assertThat(index.search(sites, "clients example")).containsExactly(agency)
+        assertThat(index.search(sites, "blog agency")).isEmpty()
+    }
+
+    @Test
+    fun `ignores case and accents`() {
+        assertThat(index.search(sites, "CAFE creme")).containsExactly(cafe)
+        assertThat(index.search(sites, "café")).containsExactly(cafe)
+    }
+
+    @Test
+    fun `empty query matches every site in order`() {
+        assertThat(index.search(sites, " ")).containsExactly(cooking, cafe, agency)
+        assertThat(index.search(sites, "--")).isEmpty()
+    }
+
+    @Test
+    fun `sites missing from the index are still searched`() {
+        val renamed = SiteRecord(1, 101, "Baking Blog", "cooking.example.com")
+
+        assertThat(index.search(listOf(renamed), "baking")).containsExactly(renamed)
+        assertThat(index.search(listOf(renamed), "cooking blog")).containsExactly(renamed)
+    }
+
+    @Test
+    fun `adding text to a query narrows it`() {
+        assertThat(SiteSearchIndex.isNarrowerQuery("coo", "cook")).isTrue()
+        assertThat(SiteSearchIndex.isNarrowerQuery("cook", "cook blog")).isTrue()
+        assertThat(SiteSearchIndex.isNarrowerQuery("cook", "coo")).isFalse()
+        assertThat(SiteSearchIndex.isNarrowerQuery("-", "-a")).isFalse()
+    }
+}
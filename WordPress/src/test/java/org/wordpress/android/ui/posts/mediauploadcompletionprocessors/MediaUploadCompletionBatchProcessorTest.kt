@@ -0,0 +1,75 @@
+package org.wordpress.android.ui.posts.mediauploadcompletionprocessors
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import org.assertj.core.api.Assertions
+import org.junit.Test
+import org.wordpress.android.util.helpers.MediaFile
+
+class MediaUploadCompletionBatchProcessorTest {
+    @Test
+    fun `processPost splices id and url for a single media in each block type`() {
+        val mediaFiles = mapOf(TestContent.localMediaId to createMediaFile(TestContent.remoteMediaId))
+        val processor = MediaUploadCompletionBatchProcessor(mediaFiles, TestContent.siteUrl)
+
+        Assertions.assertThat(processor.processPost(TestContent.oldPostImage)).isEqualTo(TestContent.newPostImage)
+        Assertions.assertThat(processor.processPost(TestContent.oldPostMediaText))
+                .isEqualTo(TestContent.newPostMediaText)
+        Assertions.assertThat(processor.processPost(TestContent.oldPostGallery)).isEqualTo(TestContent.newPostGallery)
+    }
+
+    @Test
+    fun `processPost leaves content without matching media unchanged`() {
+        val mediaFiles = mapOf("999" to createMediaFile(TestContent.remoteMediaId))
+        val processor = MediaUploadCompletionBatchProcessor(mediaFiles, TestContent.siteUrl)
+
+        Assertions.assertThat(processor.processPost(TestContent.oldPostImage)).isEqualTo(TestContent.oldPostImage)
+    }
+
+    @Test
+    fun `processPost matches processing each media in turn for a large gallery`() {
+        val localIds = (1..GALLERY_SIZE).map { (LOCAL_ID_BASE + it).toString() }
+        val mediaFiles = localIds.associateWith { createMediaFile((REMOTE_ID_BASE + it.toInt()).toString()) }
+        val post = TestContent.paragraphBlock + createGalleryBlock(localIds, "media") +
+                createGalleryBlock(localIds.take(GALLERY_SIZE / 2), "attachment")
+
+        val expected = mediaFiles.entries.fold(post) { content, (localId, mediaFile) ->
+            MediaUploadCompletionProcessor(localId, mediaFile, TestContent.siteUrl).processPost(content)
+        }
+        val actual = MediaUploadCompletionBatchProcessor(mediaFiles, TestContent.siteUrl).processPost(post)
+
+        Assertions.assertThat(actual).isEqualTo(expected)
+        Assertions.assertThat(actual).doesNotContain("data-id=\"${localIds.first()}\"")
+    }
+
+    private fun createMediaFile(remoteId: String): MediaFile {
+        val mediaFile: MediaFile = mock()
+        whenever(mediaFile.mediaId).thenReturn(remoteId)
+        whenever(mediaFile.fileURL).thenReturn("https://example.files.wordpress.com/$remoteId.jpg")
+        whenever(mediaFile.getAttachmentPageURL(any())).thenReturn("${TestContent.siteUrl}?p=$remoteId")
+        return mediaFile
+    }
+
+    private fun createGalleryBlock(localIds: List<String>, linkTo: String): String {
+        val items = localIds.joinToString("\n") {
+            """    <li class="blocks-gallery-item">
+      <figure><a href="file://image$it.jpg"><img src="file://image$it.jpg" alt="" data-id="$it" data-full-url="file://image$it.jpg" data-link="file://image$it.jpg" class="wp-image-$it"></a></figure>
+    </li>"""
+        }
+        return """<!-- wp:gallery {"ids":[${localIds.joinToString(",")}],"linkTo":"$linkTo"} -->
+<figure class="wp-block-gallery columns-3 is-cropped">
+  <ul class="blocks-gallery-grid">
+$items
+  </ul>
+</figure>
+<!-- /wp:gallery -->
+"""
+    }
+
+    companion object {
+        private const val GALLERY_SIZE = 50
+        private const val LOCAL_ID_BASE = 1000
+        private const val REMOTE_ID_BASE = 90000
+    }
+}
@@ -0,0 +1,173 @@
+package org.wordpress.android.ui.reader.utils
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.models.ReaderComment
+import org.wordpress.android.models.ReaderCommentList
+import java.util.Random
+
+class ReaderCommentLevelerTest {
+    @Test
+    fun `createLevelList places children below their parents in order`() {
+        val comments = createList(
+                comment(1, 0),
+                comment(2, 0),
+                comment(3, 1),
+                comment(4, 3),
+                comment(5, 1),
+                comment(6, 2)
+        )
+
+        val result = ReaderCommentLeveler(comments).createLevelList()
+
+        assertThat(result.toLevels()).containsExactly(1L to 0, 3L to 1, 4L to 2, 5L to 1, 2L to 0, 6L to 1)
+    }
+
+    @Test
+    fun `createLevelList adds orphans and their children last`() {
+        val comments = createList(
+                comment(1, 0),
+                comment(2, MISSING_PARENT_ID),
+                comment(3, 2),
+                comment(4, 1)
+        )
+
+        val result = ReaderCommentLeveler(comments).createLevelList()
+
+        assertThat(result.toLevels()).containsExactly(1L to 0, 4L to 1, 2L to 1, 3L to 2)
+    }
+
+    @Test
+    fun `createLevelList matches the per-level walk for random threads`() {
+        val random = Random(RANDOM_SEED)
+        repeat(NUM_RANDOM_THREADS) {
+            val comments = createRandomThread(random, 1 + random.nextInt(MAX_RANDOM_THREAD_SIZE))
+
+            val expected = createLevelListByWalkingLevels(copyOf(comments)).toLevels()
+            val actual = ReaderCommentLeveler(copyOf(comments)).createLevelList().toLevels()
+
+            assertThat(actual).isEqualTo(expected)
+        }
+    }
+
+    @Test
+    fun `createLevelList handles very deep threads`() {
+        val comments = createDeepThread(DEEP_THREAD_SIZE)
+
+        val result = ReaderCommentLeveler(comments).createLevelList()
+
+        assertThat(result).hasSize(DEEP_THREAD_SIZE)
+        assertThat(result.last().level).isEqualTo(DEEP_THREAD_SIZE - 1)
+    }
+
+    @Test
+    fun `addToLevelList threads new comments under existing and new parents`() {
+        val levelList = ReaderCommentLeveler(createList(
+                comment(1, 0),
+                comment(2, 1),
+                comment(3, 0),
+                comment(4, MISSING_PARENT_ID)
+        )).createLevelList()
+        val newComments = createList(
+                comment(5, 1),
+                comment(6, 5),
+                comment(7, 0),
+                comment(8, 4),
+                comment(9, MISSING_PARENT_ID)
+        )
+
+        val result = ReaderCommentLeveler.addToLevelList(levelList, newComments)
+
+        assertThat(result.toLevels()).containsExactly(
+                1L to 0, 2L to 1, 5L to 1, 6L to 2, 3L to 0, 7L to 0, 4L to 1, 8L to 2, 9L to 1
+        )
+    }
+
+    @Test
+    fun `addToLevelList ignores comments which are already in the list`() {
+        val levelList = ReaderCommentLeveler(createList(comment(1, 0), comment(2, 1))).createLevelList()
+
+        val result = ReaderCommentLeveler.addToLevelList(levelList, createList(comment(2, 1), comment(3, 0)))
+
+        assertThat(result.toLevels()).containsExactly(1L to 0, 2L to 1, 3L to 0)
+    }
+
+    @Test
+    fun `addToLevelList matches leveling every page at once`() {
+        val random = Random(RANDOM_SEED)
+        repeat(NUM_RANDOM_THREADS) {
+            val comments = createRandomThread(random, 1 + random.nextInt(MAX_RANDOM_THREAD_SIZE))
+            val pageSize = 1 + random.nextInt(comments.size)
+
+            var levelList = ReaderCommentLeveler(copyOf(comments.take(pageSize))).createLevelList()
+            comments.drop(pageSize).chunked(pageSize).forEach { page ->
+                levelList = ReaderCommentLeveler.addToLevelList(levelList, copyOf(page))
+            }
+            val expected = ReaderCommentLeveler(copyOf(comments)).createLevelList()
+
+            assertThat(levelList.toLevels()).isEqualTo(expected.toLevels())
+        }
+    }
+
+    /*
+     * the previous implementation, which walked the list once per level and scanned every comment
+     * for each parent - used as a reference for threads without orphans
+     */
+    private fun createLevelListByWalkingLevels(comments: ReaderCommentList): ReaderCommentList {
+        val result = ReaderCommentList()
+        comments.forEach { it.level = 0 }
+        result.addAll(comments.filter { it.parentId == 0L })
+        var level = 0
+        var hasChanges = true
+        while (hasChanges) {
+            hasChanges = false
+            var index = 0
+            while (index < result.size) {
+                val parent = result[index]
+                val children = comments.filter { it.parentId == parent.commentId }
+                if (parent.level == level && children.isNotEmpty()) {
+                    children.forEach { it.level = level + 1 }
+                    result.addAll(index + 1, children)
+                    hasChanges = true
+                    index += children.size
+                }
+                index++
+            }
+            level++
+        }
+        return result
+    }
+
+    private fun createRandomThread(random: Random, size: Int): ReaderCommentList {
+        val comments = (1..size).map { id ->
+            // replies are always newer than the comment they reply to, as they are on the server
+            val parentId = if (id == 1 || random.nextInt(3) == 0) 0L else 1L + random.nextInt(id - 1)
+            comment(id.toLong(), parentId)
+        }
+        return createList(*comments.toTypedArray())
+    }
+
+    private fun createDeepThread(size: Int) =
+            createList(*(1..size).map { comment(it.toLong(), it - 1L) }.toTypedArray())
+
+    private fun comment(commentId: Long, parentId: Long) = ReaderComment().apply {
+        this.commentId = commentId
+        this.parentId = parentId
+        this.timestamp = commentId
+    }
+
+    private fun createList(vararg comments: ReaderComment) = ReaderCommentList().apply { addAll(comments) }
+
+    private fun copyOf(comments: List<ReaderComment>) =
+            createList(*comments.map { comment(it.commentId, it.parentId) }.toTypedArray())
+
+    private fun ReaderCommentList.toLevels() = map { it.commentId to it.level }
+
+    companion object {
+        private const val MISSING_PARENT_ID = 999L
+        private const val RANDOM_SEED = 42L
+        private const val NUM_RANDOM_THREADS = 500
+        private const val MAX_RANDOM_THREAD_SIZE = 60
+        private const val DEEP_THREAD_SIZE = 20_000
+    }
+}
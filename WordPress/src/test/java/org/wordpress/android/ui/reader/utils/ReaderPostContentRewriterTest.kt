@@ -0,0 +1,89 @@
+package org.wordpress.android.ui.reader.utils
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderPostContentRewriterTest {
+    private val galleryClass = "gallery-only-class42"
+
+    private val tagRewriter = object : ReaderPostContentRewriter.TagRewriter {
+        override fun rewriteImageTag(imageTag: String, imageUrl: String): String? {
+            return if (imageUrl.contains("skip")) null else "<img src='$imageUrl' />"
+        }
+
+        override fun rewriteIframeTag(iframeTag: String, src: String): String? {
+            return "<iframe src='$src' />"
+        }
+    }
+
+    private fun rewrite(content: String, rewriteImages: Boolean = true): String {
+        val output = StringBuilder()
+        ReaderPostContentRewriter(rewriteImages, galleryClass).rewrite(content, tagRewriter, output)
+        return output.toString()
+    }
+
+    @Test
+    fun `rewrites image and iframe tags in place`() {
+        val content = "<p>a</p><img class=\"x\" src=\"https://a.com/1.jpg\" width=\"10\"><p>b</p>" +
+                "<iframe width='5' src='https://v.com/x'></iframe><p>c</p>"
+
+        val result = rewrite(content)
+
+        assertThat(result).isEqualTo("<p>a</p><img src='https://a.com/1.jpg' /><p>b</p>" +
+                "<iframe src='https://v.com/x' /></iframe><p>c</p>")
+    }
+
+    @Test
+    fun `rewrites every occurrence of a repeated image`() {
+        val tag = "<img src=\"https://a.com/1.jpg\">"
+        val content = "$tag<br>$tag"
+
+        val result = rewrite(content)
+
+        assertThat(result).isEqualTo("<img src='https://a.com/1.jpg' /><br><img src='https://a.com/1.jpg' />")
+    }
+
+    @Test
+    fun `keeps tags the rewriter declines`() {
+        val content = "<img src=\"https://a.com/skip.png\">"
+
+        assertThat(rewrite(content)).isEqualTo(content)
+    }
+
+    @Test
+    fun `leaves images untouched when image rewriting is disabled`() {
+        val content = "<img src=\"https://a.com/1.jpg\"><iframe src='https://v.com/x'>"
+
+        val result = rewrite(content, rewriteImages = false)
+
+        assertThat(result).isEqualTo("<img src=\"https://a.com/1.jpg\"><iframe src='https://v.com/x' />")
+    }
+
+    @Test
+    fun `matches the sequential gallery class amendment`() {
+        val content = "<div class=\"tiled-gallery  type-rectangular\"><div class=\"gallery-row \">" +
+                "<img class=\"tiled-gallery-item  x\" src=\"https://a.com/1.jpg\"></div></div>"
+
+        val result = rewrite(content, rewriteImages = false)
+
+        assertThat(result).isEqualTo(sequentialGalleryAmend(content))
+    }
+
+    @Test
+    fun `returns content without tags unchanged`() {
+        val content = "<p>no media here</p>"
+
+        assertThat(rewrite(content)).isEqualTo(content)
+    }
+
+    private fun sequentialGalleryAmend(content: String): String {
+        var result = content
+        listOf("(tiled-gallery) ([\\s\"'])",
+                "(gallery-row) ([\\s\"'])",
+                "(gallery-group) ([\\s\"'])",
+                "(tiled-gallery-item) ([\\s\"'])").forEach {
+            result = result.replace(Regex(it), "$1 $galleryClass$2")
+        }
+        return result
+    }
+}
@@ -0,0 +1,52 @@
+package org.wordpress.android.ui.uploads
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.ui.uploads.MediaUploadConcurrencyPolicy.NetworkType.CELLULAR
+import org.wordpress.android.ui.uploads.MediaUploadConcurrencyPolicy.NetworkType.OTHER
+import org.wordpress.android.ui.uploads.MediaUploadConcurrencyPolicy.NetworkType.WIFI
+
+private const val LARGE_UPLOAD_BYTES = 1024 * 1024L
+
+class MediaUploadConcurrencyPolicyTest {
+    private val policy = MediaUploadConcurrencyPolicy(4, 2)
+
+    @Test
+    fun `limit grows with fast uploads up to the network maximum`() {
+        repeat(5) { policy.onUploadCompleted(WIFI, LARGE_UPLOAD_BYTES, 1000) }
+
+        assertThat(policy.getMaxConcurrentUploads(WIFI)).isEqualTo(4)
+        assertThat(policy.getMaxConcurrentUploads(CELLULAR)).isEqualTo(2)
+        assertThat(policy.getMaxConcurrentUploads(OTHER)).isEqualTo(1)
+    }
+
+    @Test
+    fun `limit shrinks with slow uploads`() {
+        repeat(5) { policy.onUploadCompleted(WIFI, LARGE_UPLOAD_BYTES, 1000) }
+
+        policy.onUploadCompleted(WIFI, LARGE_UPLOAD_BYTES, 60_000)
+
+        assertThat(policy.getMaxConcurrentUploads(WIFI)).isEqualTo(3)
+    }
+
+    @Test
+    fun `small uploads don't change the limit`() {
+        val initial = policy.getMaxConcurrentUploads(WIFI)
+
+        policy.onUploadCompleted(WIFI, 1024, 1)
+        policy.onUploadCompleted(WIFI, 1024, 60_000)
+
+        assertThat(policy.getMaxConcurrentUploads(WIFI)).isEqualTo(initial)
+    }
+
+    @Test
+    fun `failures halve the limit but always allow one upload`() {
+        repeat(5) { policy.onUploadCompleted(WIFI, LARGE_UPLOAD_BYTES, 1000) }
+
+        policy.onUploadFailed()
+        assertThat(policy.getMaxConcurrentUploads(WIFI)).isEqualTo(2)
+
+        repeat(3) { policy.onUploadFailed() }
+        assertThat(policy.getMaxConcurrentUploads(WIFI)).isEqualTo(1)
+    }
+}
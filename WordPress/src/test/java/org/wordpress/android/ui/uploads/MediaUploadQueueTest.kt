@@ -0,0 +1,101 @@
+package org.wordpress.android.ui.uploads
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.fluxc.model.MediaModel
+
+class MediaUploadQueueTest {
+    private val queue = MediaUploadQueue()
+
+    @Test
+    fun `pending uploads are started in the order they were added`() {
+        queue.add(createMediaModel(id = 1), false)
+        queue.add(createMediaModel(id = 2), false)
+        queue.add(createMediaModel(id = 3), false)
+
+        assertThat(pollIds(3)).containsExactly(1, 2, 3)
+        assertThat(queue.numUploading).isEqualTo(3)
+    }
+
+    @Test
+    fun `same file for the same post is only queued once`() {
+        assertThat(queue.add(createMediaModel(id = 1, postId = 10, path = "/a.jpg"), false)).isTrue()
+        assertThat(queue.add(createMediaModel(id = 2, postId = 10, path = "/a.jpg"), false)).isFalse()
+        assertThat(queue.add(createMediaModel(id = 3, postId = 11, path = "/a.jpg"), false)).isTrue()
+        assertThat(queue.add(createMediaModel(id = 4, postId = 10, path = "/a.jpg", featured = true), false)).isTrue()
+    }
+
+    @Test
+    fun `prioritized post uploads go first`() {
+        queue.add(createMediaModel(id = 1, postId = 10), false)
+        queue.add(createMediaModel(id = 2, postId = 11), false)
+        queue.add(createMediaModel(id = 3, postId = 10), false)
+        queue.add(createMediaModel(id = 4, postId = 11), false)
+
+        queue.prioritizePost(11)
+
+        assertThat(pollIds(4)).containsExactly(2, 4, 1, 3)
+    }
+
+    @Test
+    fun `uploads needing optimization are skipped when optimizing isn't allowed`() {
+        queue.add(createMediaModel(id = 1), true)
+        queue.add(createMediaModel(id = 2), false)
+
+        assertThat(queue.pollNext(false)!!.media.id).isEqualTo(2)
+        assertThat(queue.pollNext(false)).isNull()
+        assertThat(queue.pollNext(true)!!.media.id).isEqualTo(1)
+    }
+
+    @Test
+    fun `optimizing uploads don't count as uploading`() {
+        queue.add(createMediaModel(id = 1), true)
+        queue.add(createMediaModel(id = 2), false)
+        pollIds(2)
+
+        queue.setOptimizing(1, true)
+
+        assertThat(queue.numUploading).isEqualTo(1)
+        assertThat(queue.numOptimizing).isEqualTo(1)
+
+        queue.remove(1)
+
+        assertThat(queue.numOptimizing).isEqualTo(0)
+    }
+
+    @Test
+    fun `lookups by post reflect pending and in-progress uploads`() {
+        queue.add(createMediaModel(id = 1, postId = 10), false)
+        queue.add(createMediaModel(id = 2, postId = 10), false)
+        queue.pollNext(true)
+
+        assertThat(queue.hasInProgressForPost(10)).isTrue()
+        assertThat(queue.hasPendingForPost(10)).isTrue()
+        assertThat(queue.getMediaForPost(10).map { it.id }).containsExactly(1, 2)
+        assertThat(queue.hasPendingForPost(11)).isFalse()
+
+        queue.remove(1)
+        queue.remove(2)
+
+        assertThat(queue.getMediaForPost(10)).isEmpty()
+        assertThat(queue.isEmpty).isTrue()
+        assertThat(queue.contains(1)).isFalse()
+    }
+
+    private fun pollIds(count: Int) = (1..count).map { queue.pollNext(true)!!.media.id }
+
+    private fun createMediaModel(
+        id: Int,
+        postId: Int = 1,
+        path: String = "/media$id.jpg",
+        featured: Boolean = false
+    ): MediaModel {
+        val media = MediaModel()
+        media.id = id
+        media.localSiteId = 1
+        media.localPostId = postId
+        media.filePath = path
+        media.markedLocallyAsFeatured = featured
+        return media
+    }
+}
@@ -0,0 +1,74 @@
+package org.wordpress.android.util
+
+import android.text.Spanned
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class SpannedCacheTest {
+    @Test
+    fun `get returns text only for the version it was built from`() {
+        val cache = SpannedCache(MAX_CHARS)
+        val text = createText(10)
+
+        cache.put("1", 1L, text)
+
+        assertThat(cache.get("1", 1L)).isSameAs(text)
+        assertThat(cache.get("1", 2L)).isNull()
+        assertThat(cache.get("2", 1L)).isNull()
+    }
+
+    @Test
+    fun `putting a new version replaces the stale entry`() {
+        val cache = SpannedCache(MAX_CHARS)
+        val newText = createText(10)
+
+        cache.put("1", 1L, createText(10))
+        cache.put("1", 2L, newText)
+
+        assertThat(cache.get("1", 1L)).isNull()
+        assertThat(cache.get("1", 2L)).isSameAs(newText)
+    }
+
+    @Test
+    fun `getOrBuild only builds text which isn't cached`() {
+        val cache = SpannedCache(MAX_CHARS)
+        var numBuilds = 0
+        val builder = SpannedCache.SpannedBuilder {
+            numBuilds++
+            createText(10)
+        }
+
+        val first = cache.getOrBuild("1", 1L, builder)
+        val second = cache.getOrBuild("1", 1L, builder)
+        cache.getOrBuild("1", 2L, builder)
+
+        assertThat(second).isSameAs(first)
+        assertThat(numBuilds).isEqualTo(2)
+    }
+
+    @Test
+    fun `least recently used text is evicted when the cache exceeds its size in chars`() {
+        val cache = SpannedCache(MAX_CHARS)
+
+        cache.put("1", 1L, createText(MAX_CHARS / 2))
+        cache.put("2", 1L, createText(MAX_CHARS / 2))
+        cache.get("1", 1L)
+        cache.put("3", 1L, createText(MAX_CHARS / 2))
+
+        assertThat(cache.contains("1", 1L)).isTrue()
+        assertThat(cache.contains("2", 1L)).isFalse()
+        assertThat(cache.contains("3", 1L)).isTrue()
+    }
+
+    private fun createText(length: Int): Spanned {
+        val text: Spanned = mock()
+        whenever(text.length).thenReturn(length)
+        return text
+    }
+
+    companion object {
+        private const val MAX_CHARS = 100
+    }
+}
@@ -0,0 +1,43 @@
+package org.wordpress.android.analytics;
+
+import org.wordpress.android.analytics.AnalyticsTracker.Stat;
+
+import java.util.Map;
+
+/**
+ * An event or command queued by {@link AnalyticsTracker} for the analytics thread. Commands go through the same
+ * queue as tracked events so trackers see them in the order they were made.
+ */
+final class AnalyticsEvent {
+    enum Type {
+        TRACK,
+        FLUSH,
+        END_SESSION,
+        CLEAR_ALL_DATA,
+        REFRESH_METADATA
+    }
+
+    static final AnalyticsEvent FLUSH = new AnalyticsEvent(Type.FLUSH, null, null, null);
+    static final AnalyticsEvent END_SESSION = new AnalyticsEvent(Type.END_SESSION, null, null, null);
+    static final AnalyticsEvent CLEAR_ALL_DATA = new AnalyticsEvent(Type.CLEAR_ALL_DATA, null, null, null);
+
+    final Type type;
+    final Stat stat;
+    final Map<String, ?> properties;
+    final AnalyticsMetadata metadata;
+
+    private AnalyticsEvent(Type type, Stat stat, Map<String, ?> properties, AnalyticsMetadata metadata) {
+        this.type = type;
+        this.stat = stat;
+        this.properties = properties;
+        this.metadata = metadata;
+    }
+
+    static AnalyticsEvent track(Stat stat, Map<String, ?> properties) {
+        return new AnalyticsEvent(Type.TRACK, stat, properties, null);
+    }
+
+    static AnalyticsEvent refreshMetadata(AnalyticsMetadata metadata) {
+        return new AnalyticsEvent(Type.REFRESH_METADATA, null, null, metadata);
+    }
+}
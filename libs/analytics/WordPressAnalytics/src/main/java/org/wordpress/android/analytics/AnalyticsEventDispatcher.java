@@ -0,0 +1,162 @@
+package org.wordpress.android.analytics;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Passes queued analytics events to the trackers on a single background thread, so tracking an event only costs
+ * the caller adding it to a lock-free queue. Tracked events are passed to the trackers in batches once
+ * {@link #BATCH_SIZE} events are queued or {@link #FLUSH_INTERVAL_MS} has passed since the first of them was queued,
+ * and commands (flush, end session, etc.) are run as soon as possible after the events queued before them.
+ */
+class AnalyticsEventDispatcher {
+    static final int QUEUE_CAPACITY = 1024;
+    static final int BATCH_SIZE = 20;
+    static final long FLUSH_INTERVAL_MS = 1000;
+
+    private final List<Tracker> mTrackers;
+    private final AnalyticsEventQueue mQueue = new AnalyticsEventQueue(QUEUE_CAPACITY);
+    private final AtomicBoolean mIsStarted = new AtomicBoolean();
+    private final AtomicInteger mNumDropped = new AtomicInteger();
+    // set by the analytics thread before it waits for an empty queue to be added to, and cleared by
+    // whichever producer wakes it
+    private final AtomicBoolean mIsIdle = new AtomicBoolean();
+    private final Thread mThread;
+    private volatile boolean mHasUrgentEvent;
+
+    /**
+     * @param trackers The trackers to pass events to - only accessed from the analytics thread once events are
+     * dispatched, apart from being added to
+     */
+    AnalyticsEventDispatcher(List<Tracker> trackers) {
+        mTrackers = trackers;
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatchLoop();
+            }
+        }, "wp-analytics");
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.MIN_PRIORITY);
+    }
+
+    /**
+     * Queues an event for the analytics thread - safe to call from any thread, and doesn't block
+     *
+     * @param urgent Whether the event should be passed on without waiting for a batch to fill
+     */
+    void dispatch(AnalyticsEvent event, boolean urgent) {
+        if (!mIsStarted.get() && mIsStarted.compareAndSet(false, true)) {
+            mThread.start();
+        }
+
+        if (!mQueue.offer(event)) {
+            // only happens if the analytics thread is stalled, in which case losing events is the lesser evil
+            if (mNumDropped.incrementAndGet() == 1) {
+                AppLog.w(T.STATS, "Analytics queue is full, dropping events");
+            }
+            return;
+        }
+
+        if (urgent) {
+            mHasUrgentEvent = true;
+            LockSupport.unpark(mThread);
+        } else if (mIsIdle.compareAndSet(true, false) || mQueue.size() >= BATCH_SIZE) {
+            // wake the analytics thread to start the flush interval, or to pass on a full batch
+            LockSupport.unpark(mThread);
+        }
+    }
+
+    /**
+     * @return The number of events dropped because the queue was full
+     */
+    int getNumDropped() {
+        return mNumDropped.get();
+    }
+
+    private void dispatchLoop() {
+        List<AnalyticsEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            if (mQueue.size() == 0) {
+                // the queue is checked again once the idle flag is set, so an event queued in between
+                // either is seen here or unparks the thread - the timeout is only a backstop
+                mIsIdle.set(true);
+                if (mQueue.size() == 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+                }
+                mIsIdle.set(false);
+                continue;
+            }
+
+            // wait for the batch to fill, an urgent event, or the flush interval to pass
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+            long remaining;
+            while (!mHasUrgentEvent && mQueue.size() < BATCH_SIZE
+                   && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            mHasUrgentEvent = false;
+
+            AnalyticsEvent event;
+            while ((event = mQueue.poll()) != null) {
+                if (event.type == AnalyticsEvent.Type.TRACK) {
+                    batch.add(event);
+                    if (batch.size() >= BATCH_SIZE) {
+                        trackBatch(batch);
+                    }
+                } else {
+                    trackBatch(batch);
+                    runCommand(event);
+                }
+            }
+            trackBatch(batch);
+        }
+    }
+
+    private void trackBatch(List<AnalyticsEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Tracker tracker : mTrackers) {
+            try {
+                tracker.trackBatch(batch);
+            } catch (RuntimeException e) {
+                // don't let a misbehaving tracker stop the analytics thread
+                AppLog.e(T.STATS, "Tracking failed in " + tracker.getClass().getSimpleName(), e);
+            }
+        }
+        batch.clear();
+    }
+
+    private void runCommand(AnalyticsEvent command) {
+        for (Tracker tracker : mTrackers) {
+            try {
+                switch (command.type) {
+                    case FLUSH:
+                        tracker.flush();
+                        break;
+                    case END_SESSION:
+                        tracker.endSession();
+                        break;
+                    case CLEAR_ALL_DATA:
+                        tracker.clearAllData();
+                        break;
+                    case REFRESH_METADATA:
+                        tracker.refreshMetadata(command.metadata);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                AppLog.e(T.STATS, "Running " + command.type + " failed in " + tracker.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.wordpress.android.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer which any number of threads add events to and a single thread removes them from.
+ * Each slot has a sequence number which tells producers when the slot is free and the consumer when it has been
+ * filled, so producers only contend on claiming a position and never block each other or the consumer.
+ */
+class AnalyticsEventQueue {
+    private final int mMask;
+    private final AtomicReferenceArray<AnalyticsEvent> mSlots;
+    private final AtomicLongArray mSequences;
+    private final AtomicLong mTail = new AtomicLong();
+    // only read and written by the consumer, but read by producers to estimate the size
+    private volatile long mHead;
+
+    /**
+     * @param capacity The maximum number of queued events, rounded up to a power of two
+     */
+    AnalyticsEventQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least one");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mSlots = new AtomicReferenceArray<>(size);
+        mSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an event to the end of the queue - safe to call from any thread
+     *
+     * @return false if the queue is full
+     */
+    boolean offer(AnalyticsEvent event) {
+        while (true) {
+            long position = mTail.get();
+            int index = (int) (position & mMask);
+            long difference = mSequences.get(index) - position;
+            if (difference == 0) {
+                if (mTail.compareAndSet(position, position + 1)) {
+                    mSlots.lazySet(index, event);
+                    // publish the slot to the consumer
+                    mSequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // the consumer hasn't freed this slot yet, so the queue is full
+                return false;
+            }
+            // another producer claimed this position, try the next one
+        }
+    }
+
+    /**
+     * Removes the event at the head of the queue - must only be called from the consumer thread
+     *
+     * @return The event, or null if the queue is empty
+     */
+    AnalyticsEvent poll() {
+        long position = mHead;
+        int index = (int) (position & mMask);
+        if (mSequences.get(index) != position + 1) {
+            // empty, or the producer which claimed this slot hasn't filled it yet
+            return null;
+        }
+        AnalyticsEvent event = mSlots.get(index);
+        mSlots.lazySet(index, null);
+        // free the slot for the producer which wraps around to it
+        mSequences.set(index, position + mMask + 1);
+        mHead = position + 1;
+        return event;
+    }
+
+    /**
+     * @return The approximate number of queued events
+     */
+    int size() {
+        return (int) Math.max(0, mTail.get() - mHead);
+    }
+}
@@ -4,10 +4,10 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class AnalyticsTracker {
     private static boolean mHasUserOptedOut;
@@ -613,7 +613,9 @@ public final class AnalyticsTracker {
         FEATURED_IMAGE_REMOVE_CLICKED_POST_SETTINGS
     }
 
-    private static final List<Tracker> TRACKERS = new ArrayList<>();
+    private static final List<Tracker> TRACKERS = new CopyOnWriteArrayList<>();
+    // trackers are called on the dispatcher's thread so tracking never does any work on the caller's thread
+    private static final AnalyticsEventDispatcher DISPATCHER = new AnalyticsEventDispatcher(TRACKERS);
 
     private AnalyticsTracker() {
     }
@@ -639,21 +641,16 @@ public final class AnalyticsTracker {
     }
 
     public static void track(Stat stat) {
-        if (mHasUserOptedOut) {
-            return;
-        }
-        for (Tracker tracker : TRACKERS) {
-            tracker.track(stat);
-        }
+        track(stat, null);
     }
 
     public static void track(Stat stat, Map<String, ?> properties) {
-        if (mHasUserOptedOut) {
+        if (mHasUserOptedOut || TRACKERS.isEmpty()) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.track(stat, properties);
-        }
+        // copy the properties since callers are free to reuse the map once this returns
+        Map<String, ?> propertiesCopy = properties == null ? null : new HashMap<>(properties);
+        DISPATCHER.dispatch(AnalyticsEvent.track(stat, propertiesCopy), false);
     }
 
     /**
@@ -675,29 +672,27 @@ public final class AnalyticsTracker {
         if (mHasUserOptedOut) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.flush();
-        }
+        dispatchCommand(AnalyticsEvent.FLUSH);
     }
 
     public static void endSession(boolean force) {
         if (mHasUserOptedOut && !force) {
             return;
         }
-        for (Tracker tracker : TRACKERS) {
-            tracker.endSession();
-        }
+        dispatchCommand(AnalyticsEvent.END_SESSION);
     }
 
     public static void clearAllData() {
-        for (Tracker tracker : TRACKERS) {
-            tracker.clearAllData();
-        }
+        dispatchCommand(AnalyticsEvent.CLEAR_ALL_DATA);
     }
 
     public static void refreshMetadata(AnalyticsMetadata metadata) {
-        for (Tracker tracker : TRACKERS) {
-            tracker.refreshMetadata(metadata);
+        dispatchCommand(AnalyticsEvent.refreshMetadata(metadata));
+    }
+
+    private static void dispatchCommand(AnalyticsEvent command) {
+        if (!TRACKERS.isEmpty()) {
+            DISPATCHER.dispatch(command, true);
         }
     }
 }
@@ -10,6 +10,8 @@ import org.json.JSONObject;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +25,22 @@ public class AnalyticsTrackerNosara extends Tracker {
 
     private static final String EVENTS_PREFIX = "wpandroid_";
 
+    // event names and pre-defined properties for each stat are resolved once up front rather than on every event
+    private static final Map<AnalyticsTracker.Stat, String> EVENT_NAMES =
+            new EnumMap<>(AnalyticsTracker.Stat.class);
+    private static final Map<AnalyticsTracker.Stat, Map<String, Object>> PREDEFINED_EVENT_PROPERTIES =
+            new EnumMap<>(AnalyticsTracker.Stat.class);
+
+    static {
+        for (AnalyticsTracker.Stat stat : AnalyticsTracker.Stat.values()) {
+            String eventName = resolveEventNameForStat(stat);
+            if (eventName != null) {
+                EVENT_NAMES.put(stat, eventName);
+            }
+            PREDEFINED_EVENT_PROPERTIES.put(stat, Collections.unmodifiableMap(resolvePredefinedEventProperties(stat)));
+        }
+    }
+
     private TracksClient mNosaraClient;
 
     public AnalyticsTrackerNosara(Context context) throws IllegalArgumentException {
@@ -40,7 +58,6 @@ public class AnalyticsTrackerNosara extends Tracker {
     }
 
     @Override
-    @SuppressWarnings("checkstyle:methodlength")
     public void track(AnalyticsTracker.Stat stat, Map<String, ?> properties) {
         if (mNosaraClient == null) {
             return;
@@ -50,12 +67,156 @@ public class AnalyticsTrackerNosara extends Tracker {
             return;
         }
 
-        String eventName = getEventNameForStat(stat);
+        String eventName = EVENT_NAMES.get(stat);
         if (eventName == null) {
             AppLog.w(AppLog.T.STATS, "There is NO match for the event " + stat.name() + "stat");
             return;
         }
 
+        Map<String, Object> predefinedEventProperties = PREDEFINED_EVENT_PROPERTIES.get(stat);
+
+        final String user;
+        final TracksClient.NosaraUserType userType;
+        if (getWordPressComUserName() != null) {
+            user = getWordPressComUserName();
+            userType = TracksClient.NosaraUserType.WPCOM;
+        } else {
+            // This is just a security checks since the anonID is already available here.
+            // refresh metadata is called on login/logout/startup and it loads/generates the anonId when necessary.
+            if (getAnonID() == null) {
+                user = generateNewAnonID();
+            } else {
+                user = getAnonID();
+            }
+            userType = TracksClient.NosaraUserType.ANON;
+        }
+
+        // It seems that we're tracking some events with user = null. Make sure we're catching the error here.
+        if (user == null) {
+            try {
+                throw new AnalyticsException("Trying to track analytics with an null user!");
+                // TODO add Crash Logging Exception or track this error in Nosara by using a special test user.
+            } catch (AnalyticsException e) {
+                AppLog.e(AppLog.T.STATS, e);
+            }
+            return;
+        }
+
+        // create the merged JSON Object of properties
+        // Properties defined by the user have precedence over the default ones pre-defined at "event level"
+        JSONObject propertiesToJSON = null;
+        if (properties != null && properties.size() > 0) {
+            try {
+                propertiesToJSON = new JSONObject(properties);
+                for (String key : predefinedEventProperties.keySet()) {
+                    try {
+                        if (propertiesToJSON.has(key)) {
+                            AppLog.w(AppLog.T.STATS,
+                                    "The user has defined a property named: '" + key + "' that will override"
+                                    + "the same property pre-defined at event level. This may generate unexpected "
+                                    + "behavior!!");
+                            AppLog.w(AppLog.T.STATS,
+                                    "User value: " + propertiesToJSON.get(key).toString()
+                                    + " - pre-defined value: "
+                                    + predefinedEventProperties.get(key).toString());
+                        } else {
+                            propertiesToJSON.put(key, predefinedEventProperties.get(key));
+                        }
+                    } catch (JSONException e) {
+                        AppLog.e(AppLog.T.STATS,
+                                "Error while merging user-defined properties with pre-defined properties", e);
+                    }
+                }
+            } catch (NullPointerException e) {
+                AppLog.e(AppLog.T.STATS, "A property passed to the event " + eventName + " has null key!", e);
+            }
+        }
+
+        if (propertiesToJSON == null) {
+            propertiesToJSON = new JSONObject(predefinedEventProperties);
+        }
+
+        if (propertiesToJSON.length() > 0) {
+            mNosaraClient.track(EVENTS_PREFIX + eventName, propertiesToJSON, user, userType);
+            String jsonString = propertiesToJSON.toString();
+            AppLog.i(T.STATS, "\uD83D\uDD35 Tracked: " + eventName + ", Properties: " + jsonString);
+        } else {
+            mNosaraClient.track(EVENTS_PREFIX + eventName, user, userType);
+            AppLog.i(T.STATS, "\uD83D\uDD35 Tracked: " + eventName);
+        }
+    }
+
+
+    @Override
+    public void endSession() {
+        this.flush();
+    }
+
+    @Override
+    public void flush() {
+        if (mNosaraClient == null) {
+            return;
+        }
+        mNosaraClient.flush();
+    }
+
+    @Override
+    public void refreshMetadata(AnalyticsMetadata metadata) {
+        if (mNosaraClient == null) {
+            return;
+        }
+
+        try {
+            JSONObject properties = new JSONObject();
+            properties.put(JETPACK_USER, metadata.isJetpackUser());
+            properties.put(NUMBER_OF_BLOGS, metadata.getNumBlogs());
+            properties.put(WPCOM_USER, metadata.isWordPressComUser());
+            // Only add the editor information if it was set before.
+            // See: https://github.com/wordpress-mobile/WordPress-Android/pull/10300#discussion_r309145514
+            if (metadata.isGutenbergEnabledVariableSet()) {
+                properties.put(IS_GUTENBERG_ENABLED, metadata.isGutenbergEnabled());
+            }
+            mNosaraClient.registerUserProperties(properties);
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.UTILS, e);
+        }
+
+        // De-anonymize user only when it's WPCOM and we have the username available (might still be waiting for it to
+        //  be fetched).
+        if (metadata.isUserConnected() && metadata.isWordPressComUser()
+            && !TextUtils.isEmpty(metadata.getUsername())) {
+            setWordPressComUserName(metadata.getUsername());
+            // Re-unify the user
+            if (getAnonID() != null) {
+                mNosaraClient.trackAliasUser(getWordPressComUserName(), getAnonID(), TracksClient.NosaraUserType.WPCOM);
+                clearAnonID();
+            }
+        } else {
+            // Not wpcom connected. Check if anonID is already present
+            setWordPressComUserName(null);
+            if (getAnonID() == null) {
+                generateNewAnonID();
+            }
+        }
+    }
+
+
+    @Override
+    public void clearAllData() {
+        super.clearAllData();
+        if (mNosaraClient == null) {
+            return;
+        }
+        mNosaraClient.clearUserProperties();
+        mNosaraClient.clearQueues();
+    }
+
+    /*
+     * returns the properties tracked with every occurrence of the passed stat - only called when building
+     * PREDEFINED_EVENT_PROPERTIES
+     */
+    @SuppressWarnings("checkstyle:methodlength")
+    private static Map<String, Object> resolvePredefinedEventProperties(AnalyticsTracker.Stat stat) {
         Map<String, Object> predefinedEventProperties = new HashMap<>();
         switch (stat) {
             case EDITOR_ADDED_PHOTO_NEW:
@@ -463,149 +624,21 @@ public class AnalyticsTrackerNosara extends Tracker {
                 predefinedEventProperties.put("button", "add_self_hosted_site");
                 break;
         }
-
-        final String user;
-        final TracksClient.NosaraUserType userType;
-        if (getWordPressComUserName() != null) {
-            user = getWordPressComUserName();
-            userType = TracksClient.NosaraUserType.WPCOM;
-        } else {
-            // This is just a security checks since the anonID is already available here.
-            // refresh metadata is called on login/logout/startup and it loads/generates the anonId when necessary.
-            if (getAnonID() == null) {
-                user = generateNewAnonID();
-            } else {
-                user = getAnonID();
-            }
-            userType = TracksClient.NosaraUserType.ANON;
-        }
-
-        // It seems that we're tracking some events with user = null. Make sure we're catching the error here.
-        if (user == null) {
-            try {
-                throw new AnalyticsException("Trying to track analytics with an null user!");
-                // TODO add Crash Logging Exception or track this error in Nosara by using a special test user.
-            } catch (AnalyticsException e) {
-                AppLog.e(AppLog.T.STATS, e);
-            }
-            return;
-        }
-
-        // create the merged JSON Object of properties
-        // Properties defined by the user have precedence over the default ones pre-defined at "event level"
-        JSONObject propertiesToJSON = null;
-        if (properties != null && properties.size() > 0) {
-            try {
-                propertiesToJSON = new JSONObject(properties);
-                for (String key : predefinedEventProperties.keySet()) {
-                    try {
-                        if (propertiesToJSON.has(key)) {
-                            AppLog.w(AppLog.T.STATS,
-                                    "The user has defined a property named: '" + key + "' that will override"
-                                    + "the same property pre-defined at event level. This may generate unexpected "
-                                    + "behavior!!");
-                            AppLog.w(AppLog.T.STATS,
-                                    "User value: " + propertiesToJSON.get(key).toString()
-                                    + " - pre-defined value: "
-                                    + predefinedEventProperties.get(key).toString());
-                        } else {
-                            propertiesToJSON.put(key, predefinedEventProperties.get(key));
-                        }
-                    } catch (JSONException e) {
-                        AppLog.e(AppLog.T.STATS,
-                                "Error while merging user-defined properties with pre-defined properties", e);
-                    }
-                }
-            } catch (NullPointerException e) {
-                AppLog.e(AppLog.T.STATS, "A property passed to the event " + eventName + " has null key!", e);
-            }
-        }
-
-        if (propertiesToJSON == null) {
-            propertiesToJSON = new JSONObject(predefinedEventProperties);
-        }
-
-        if (propertiesToJSON.length() > 0) {
-            mNosaraClient.track(EVENTS_PREFIX + eventName, propertiesToJSON, user, userType);
-            String jsonString = propertiesToJSON.toString();
-            AppLog.i(T.STATS, "\uD83D\uDD35 Tracked: " + eventName + ", Properties: " + jsonString);
-        } else {
-            mNosaraClient.track(EVENTS_PREFIX + eventName, user, userType);
-            AppLog.i(T.STATS, "\uD83D\uDD35 Tracked: " + eventName);
-        }
-    }
-
-
-    @Override
-    public void endSession() {
-        this.flush();
-    }
-
-    @Override
-    public void flush() {
-        if (mNosaraClient == null) {
-            return;
-        }
-        mNosaraClient.flush();
-    }
-
-    @Override
-    public void refreshMetadata(AnalyticsMetadata metadata) {
-        if (mNosaraClient == null) {
-            return;
-        }
-
-        try {
-            JSONObject properties = new JSONObject();
-            properties.put(JETPACK_USER, metadata.isJetpackUser());
-            properties.put(NUMBER_OF_BLOGS, metadata.getNumBlogs());
-            properties.put(WPCOM_USER, metadata.isWordPressComUser());
-            // Only add the editor information if it was set before.
-            // See: https://github.com/wordpress-mobile/WordPress-Android/pull/10300#discussion_r309145514
-            if (metadata.isGutenbergEnabledVariableSet()) {
-                properties.put(IS_GUTENBERG_ENABLED, metadata.isGutenbergEnabled());
-            }
-            mNosaraClient.registerUserProperties(properties);
-        } catch (JSONException e) {
-            AppLog.e(AppLog.T.UTILS, e);
-        }
-
-        // De-anonymize user only when it's WPCOM and we have the username available (might still be waiting for it to
-        //  be fetched).
-        if (metadata.isUserConnected() && metadata.isWordPressComUser()
-            && !TextUtils.isEmpty(metadata.getUsername())) {
-            setWordPressComUserName(metadata.getUsername());
-            // Re-unify the user
-            if (getAnonID() != null) {
-                mNosaraClient.trackAliasUser(getWordPressComUserName(), getAnonID(), TracksClient.NosaraUserType.WPCOM);
-                clearAnonID();
-            }
-        } else {
-            // Not wpcom connected. Check if anonID is already present
-            setWordPressComUserName(null);
-            if (getAnonID() == null) {
-                generateNewAnonID();
-            }
-        }
+        return predefinedEventProperties;
     }
 
-
-    @Override
-    public void clearAllData() {
-        super.clearAllData();
-        if (mNosaraClient == null) {
-            return;
-        }
-        mNosaraClient.clearUserProperties();
-        mNosaraClient.clearQueues();
-    }
-
-    @SuppressWarnings("checkstyle:methodlength")
     public static String getEventNameForStat(AnalyticsTracker.Stat stat) {
         if (!isValidEvent(stat)) {
             return null;
         }
+        return EVENT_NAMES.get(stat);
+    }
 
+    /*
+     * maps the passed stat to its event name - only called when building EVENT_NAMES
+     */
+    @SuppressWarnings("checkstyle:methodlength")
+    private static String resolveEventNameForStat(AnalyticsTracker.Stat stat) {
         switch (stat) {
             case APPLICATION_OPENED:
                 // This stat is part of a funnel that provides critical information.  Before
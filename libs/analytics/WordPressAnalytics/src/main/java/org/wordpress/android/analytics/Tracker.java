@@ -7,6 +7,7 @@ import android.preference.PreferenceManager;
 import org.wordpress.android.analytics.AnalyticsTracker.Stat;
 import org.wordpress.android.util.AppLog;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -23,6 +24,19 @@ public abstract class Tracker {
 
     abstract String getAnonIdPrefKey();
 
+    /*
+     * called on the analytics thread with events queued by AnalyticsTracker, in the order they were tracked
+     */
+    void trackBatch(List<AnalyticsEvent> events) {
+        for (AnalyticsEvent event : events) {
+            if (event.properties == null) {
+                track(event.stat);
+            } else {
+                track(event.stat, event.properties);
+            }
+        }
+    }
+
     private String mAnonID = null; // do not access this variable directly. Use methods.
     private String mWpcomUserName = null;
     Context mContext;
@@ -0,0 +1,58 @@
+package org.wordpress.android.networking;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.wordpress.rest.RestRequest;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A REST request whose response is handed to a parser on the network thread rather than being
+ * turned into a JSONObject - for large responses which the caller can read straight into its own
+ * model, so the response is never held as a string or as a tree of JSON objects.
+ */
+public class ParsedRestRequest<T> extends RestRequest {
+    public interface Parser<T> {
+        /**
+         * Called on the network thread with the body of a successful response
+         */
+        T parse(byte[] data) throws IOException;
+    }
+
+    public interface Listener<T> {
+        void onResponse(T response);
+    }
+
+    private final Parser<T> mParser;
+    private final Listener<T> mListener;
+    private volatile T mParsedResponse;
+
+    ParsedRestRequest(int method, String url, Map<String, String> params, Parser<T> parser,
+                      Listener<T> listener, ErrorListener errorListener) {
+        super(method, url, params, null, errorListener);
+        mParser = parser;
+        mListener = listener;
+    }
+
+    @Override
+    protected Response<JSONObject> parseNetworkResponse(NetworkResponse response) {
+        try {
+            mParsedResponse = mParser.parse(response.data);
+        } catch (IOException | IllegalStateException e) {
+            return Response.error(new ParseError(e));
+        }
+        return Response.success(null, HttpHeaderParser.parseCacheHeaders(response));
+    }
+
+    @Override
+    protected void deliverResponse(JSONObject response) {
+        if (mListener != null) {
+            mListener.onResponse(mParsedResponse);
+        }
+    }
+}
@@ -36,6 +36,8 @@ public class RestClientUtils {
     private RestClient mRestClient;
     private Authenticator mAuthenticator;
     private Context mContext;
+    private RestRequestBatcher mBatcher;
+    private RestRequest.OnAuthFailedListener mOnAuthFailedListener;
 
     /**
      * Socket timeout in milliseconds for rest requests
@@ -76,7 +78,9 @@ public class RestClientUtils {
         if (onAuthFailedListener != null) {
             mRestClient.setOnAuthFailedListener(onAuthFailedListener);
         }
+        mOnAuthFailedListener = onAuthFailedListener;
         mRestClient.setUserAgent(sUserAgent);
+        mBatcher = new RestRequestBatcher(this);
     }
 
     public Authenticator getAuthenticator() {
@@ -89,7 +93,7 @@ public class RestClientUtils {
 
     public void getCategories(long siteId, Listener listener, ErrorListener errorListener) {
         String path = String.format(Locale.US, "sites/%d/categories", siteId);
-        get(path, null, null, listener, errorListener);
+        getBatched(path, null, listener, errorListener);
     }
 
     /**
@@ -152,23 +156,23 @@ public class RestClientUtils {
 
     public void getJetpackSettings(long siteId, Listener listener, ErrorListener errorListener) {
         String path = String.format(Locale.US, "jetpack-blogs/%d/rest-api/?path=/jetpack/v4/settings", siteId);
-        get(path, listener, errorListener);
+        getBatched(path, null, listener, errorListener);
     }
 
     public void getGeneralSettings(long siteId, Listener listener, ErrorListener errorListener) {
         String path = String.format(Locale.US, "sites/%d/settings", siteId);
-        get(path, listener, errorListener);
+        getBatched(path, null, listener, errorListener);
     }
 
     public void getJetpackMonitorSettings(long siteId, Listener listener, ErrorListener errorListener) {
         String path = String.format(Locale.US, "jetpack-blogs/%d", siteId);
-        get(path, listener, errorListener);
+        getBatched(path, null, listener, errorListener);
     }
 
 
     public void getJetpackModuleSettings(long siteId, Listener listener, ErrorListener errorListener) {
         String path = String.format(Locale.US, "sites/%d/jetpack/modules", siteId);
-        get(path, listener, errorListener);
+        getBatched(path, null, listener, errorListener);
     }
 
     public void setGeneralSiteSettings(long siteId, JSONObject params, Listener listener, ErrorListener errorListener) {
@@ -272,6 +276,45 @@ public class RestClientUtils {
         return request;
     }
 
+    /**
+     * Make GET request whose response is read by the passed parser on the network thread instead
+     * of being turned into a JSONObject - for large responses
+     */
+    public <T> Request<JSONObject> getParsed(String path, Map<String, String> params,
+                                             ParsedRestRequest.Parser<T> parser,
+                                             ParsedRestRequest.Listener<T> listener, ErrorListener errorListener) {
+        HashMap<String, String> paramsWithLocale = getRestLocaleParams(mContext);
+        if (params != null) {
+            paramsWithLocale.putAll(params);
+        }
+
+        String realPath = getSanitizedPath(path);
+        if (TextUtils.isEmpty(realPath)) {
+            realPath = path;
+        }
+        paramsWithLocale.putAll(getSanitizedParameters(path));
+
+        ParsedRestRequest<T> request = new ParsedRestRequest<>(Method.GET,
+                mRestClient.getAbsoluteURL(realPath, paramsWithLocale), null, parser, listener, errorListener);
+        request.setUserAgent(sUserAgent);
+        request.setAccessToken(mRestClient.getAccessToken());
+        if (mOnAuthFailedListener != null) {
+            request.setOnAuthFailedListener(mOnAuthFailedListener);
+        }
+        request.setRetryPolicy(new DefaultRetryPolicy(REST_TIMEOUT_MS, REST_MAX_RETRIES_GET, REST_BACKOFF_MULT));
+        AuthenticatorRequest authCheck = new AuthenticatorRequest(request, errorListener, mRestClient, mAuthenticator);
+        authCheck.send();
+        return request;
+    }
+
+    /**
+     * Make GET request which may be sent along with other GETs made within a short window as a
+     * single batch request - for independent requests which are made together
+     */
+    public void getBatched(String path, Map<String, String> params, Listener listener, ErrorListener errorListener) {
+        mBatcher.add(path, params, listener, errorListener);
+    }
+
     /**
      * Make POST request
      */
@@ -351,6 +394,10 @@ public class RestClientUtils {
         return queryParams;
     }
 
+    HashMap<String, String> getLocaleParams() {
+        return getRestLocaleParams(mContext);
+    }
+
     /**
      * Returns locale parameter used in REST calls which require the response to be localized
      */
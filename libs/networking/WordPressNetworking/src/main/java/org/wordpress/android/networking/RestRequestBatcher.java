@@ -0,0 +1,248 @@
+package org.wordpress.android.networking;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.android.volley.VolleyError;
+import com.wordpress.rest.RestRequest.ErrorListener;
+import com.wordpress.rest.RestRequest.Listener;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Collects independent GET requests made within a short window and sends them as a single call to
+ * the WordPress.com batch endpoint, then hands each response to the listener of the request it
+ * belongs to. Requests are sent on their own when there's nothing to batch them with, and any
+ * request which the batch couldn't answer - or all of them if the batch itself failed - is sent
+ * again on its own, so listeners receive the same responses and errors they would without batching.
+ */
+class RestRequestBatcher {
+    /**
+     * How long a request waits for others to be batched with it
+     */
+    static final long BATCH_WINDOW_MS = 20;
+
+    /**
+     * Requests in a single batch call - a full batch is sent without waiting for the window
+     */
+    static final int MAX_BATCH_SIZE = 10;
+
+    private static final String BATCH_PATH = "batch/";
+
+    private final RestClientUtils mRestClientUtils;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final List<PendingRequest> mPendingRequests = new ArrayList<>();
+
+    private final Runnable mSendRunnable = new Runnable() {
+        @Override
+        public void run() {
+            sendPendingRequests();
+        }
+    };
+
+    RestRequestBatcher(RestClientUtils restClientUtils) {
+        mRestClientUtils = restClientUtils;
+    }
+
+    void add(String path, Map<String, String> params, Listener listener, ErrorListener errorListener) {
+        PendingRequest request = new PendingRequest(path, params, listener, errorListener);
+        synchronized (mPendingRequests) {
+            mPendingRequests.add(request);
+            if (mPendingRequests.size() >= MAX_BATCH_SIZE) {
+                mHandler.removeCallbacks(mSendRunnable);
+                mHandler.post(mSendRunnable);
+            } else if (mPendingRequests.size() == 1) {
+                mHandler.postDelayed(mSendRunnable, BATCH_WINDOW_MS);
+            }
+        }
+    }
+
+    private void sendPendingRequests() {
+        final List<PendingRequest> requests;
+        synchronized (mPendingRequests) {
+            mHandler.removeCallbacks(mSendRunnable);
+            requests = new ArrayList<>(mPendingRequests);
+            mPendingRequests.clear();
+        }
+
+        for (int start = 0; start < requests.size(); start += MAX_BATCH_SIZE) {
+            sendBatch(requests.subList(start, Math.min(start + MAX_BATCH_SIZE, requests.size())));
+        }
+    }
+
+    private void sendBatch(List<PendingRequest> requests) {
+        // requests for the same url share an entry in the batch
+        final Map<String, List<PendingRequest>> requestsByUrl = new LinkedHashMap<>();
+        for (PendingRequest request : requests) {
+            List<PendingRequest> sameUrl = requestsByUrl.get(request.mBatchUrl);
+            if (sameUrl == null) {
+                sameUrl = new ArrayList<>();
+                requestsByUrl.put(request.mBatchUrl, sameUrl);
+            }
+            sameUrl.add(request);
+        }
+
+        if (requestsByUrl.size() == 1) {
+            sendIndividually(requests);
+            return;
+        }
+
+        Map<String, String> batchParams = new HashMap<>();
+        int index = 0;
+        for (String url : requestsByUrl.keySet()) {
+            batchParams.put("urls[" + index++ + "]", url);
+        }
+
+        mRestClientUtils.get(BATCH_PATH, batchParams, null, new Listener() {
+            @Override
+            public void onResponse(JSONObject response) {
+                Map<String, JSONObject> results = getResultsByUrl(response);
+                for (Map.Entry<String, List<PendingRequest>> entry : requestsByUrl.entrySet()) {
+                    JSONObject result = results.get(normalizeBatchUrl(entry.getKey()));
+                    if (result == null || isErrorResult(result)) {
+                        sendIndividually(entry.getValue());
+                    } else {
+                        deliverResult(entry.getValue(), result);
+                    }
+                }
+            }
+        }, new ErrorListener() {
+            @Override
+            public void onErrorResponse(VolleyError volleyError) {
+                AppLog.w(AppLog.T.API, "Batch request failed, sending its requests individually");
+                for (List<PendingRequest> sameUrl : requestsByUrl.values()) {
+                    sendIndividually(sameUrl);
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands a result to each request for its url. Listeners may modify the response they're given,
+     * so every listener after the first gets its own copy, as it would if its request had been
+     * sent on its own.
+     */
+    private void deliverResult(List<PendingRequest> requests, JSONObject result) {
+        boolean isFirst = true;
+        for (PendingRequest request : requests) {
+            if (request.mListener == null) {
+                continue;
+            }
+            if (isFirst) {
+                isFirst = false;
+                request.mListener.onResponse(result);
+            } else {
+                try {
+                    request.mListener.onResponse(new JSONObject(result.toString()));
+                } catch (JSONException e) {
+                    AppLog.e(AppLog.T.API, e);
+                    sendIndividually(Collections.singletonList(request));
+                }
+            }
+        }
+    }
+
+    private void sendIndividually(List<PendingRequest> requests) {
+        for (PendingRequest request : requests) {
+            mRestClientUtils.get(request.mPath, request.mParams, null, request.mListener, request.mErrorListener);
+        }
+    }
+
+    /**
+     * The results in a batch response, keyed by their normalized url
+     */
+    private static Map<String, JSONObject> getResultsByUrl(JSONObject response) {
+        Map<String, JSONObject> results = new HashMap<>();
+        if (response != null) {
+            Iterator<String> urls = response.keys();
+            while (urls.hasNext()) {
+                String url = urls.next();
+                JSONObject result = response.optJSONObject(url);
+                if (result != null) {
+                    results.put(normalizeBatchUrl(url), result);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The batch endpoint keys each result by the url it answered, which needn't be exactly the url
+     * that was sent - its parameters may be encoded differently or reordered. This reduces a url to
+     * its decoded path, without a trailing slash, followed by its decoded parameters sorted by
+     * name, so both forms of the same url match.
+     */
+    static String normalizeBatchUrl(String url) {
+        Uri uri = Uri.parse(url);
+        String path = StringUtils.notNullStr(uri.getPath());
+        if (!path.startsWith("/")) {
+            path = "/" + path;
+        }
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        StringBuilder normalized = new StringBuilder(path);
+        char separator = '?';
+        for (String name : new TreeSet<>(uri.getQueryParameterNames())) {
+            for (String value : uri.getQueryParameters(name)) {
+                normalized.append(separator).append(name).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * The batch endpoint returns the error of a failed request in place of its response
+     */
+    private static boolean isErrorResult(JSONObject result) {
+        return result.has("error") && result.has("message");
+    }
+
+    private class PendingRequest {
+        private final String mPath;
+        private final Map<String, String> mParams;
+        private final Listener mListener;
+        private final ErrorListener mErrorListener;
+        private final String mBatchUrl;
+
+        PendingRequest(String path, Map<String, String> params, Listener listener, ErrorListener errorListener) {
+            mPath = path;
+            mParams = params;
+            mListener = listener;
+            mErrorListener = errorListener;
+            mBatchUrl = getBatchUrl(path, params);
+        }
+
+        /**
+         * The url of the request within the batch - relative to the API version, with the same
+         * parameters as the request would be sent with on its own
+         */
+        private String getBatchUrl(String path, Map<String, String> params) {
+            Map<String, String> allParams = new TreeMap<>(mRestClientUtils.getLocaleParams());
+            if (params != null) {
+                allParams.putAll(params);
+            }
+            Uri.Builder builder = Uri.parse(path.startsWith("/") ? path : "/" + path).buildUpon();
+            for (Map.Entry<String, String> param : allParams.entrySet()) {
+                builder.appendQueryParameter(param.getKey(), param.getValue());
+            }
+            return builder.build().toString();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.wordpress.android.util;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.util.Locale;
+import java.util.Random;
+
+public class HtmlStripperTest extends InstrumentationTestCase {
+    private static final String TAG = "HtmlStripperTest";
+
+    private static final String[] CASES = {
+            "<p>Hello</p><p>World &amp; more</p>",
+            "<p>Only paragraph</p>",
+            "text<br>line<br/>two<BR>three",
+            "&lt;b&gt; not a tag &nbsp;&eacute;&hellip;",
+            "&nbsp;&nbsp; leading non-breaking spaces",
+            "<DIV CLASS=\"x\">Upper case</DIV><P>tags",
+            "<a href=\"x\"\n title=\"y\">multi-line tag</a>",
+            "<a href=\"x\"\r title=\"y\">carriage return in tag</a>",
+            "<x <br> y>z",
+            "<a title='<br>'>title</a> after",
+            "<x <p class=\"a\">r <p>s",
+            "unclosed < tag and > stray",
+            "a &#128512; b &#x41; &#65; &#12a; &#x; &#;",
+            "&am<b>p;</b> entity split by a tag",
+            "<p<br><br/><br/><!--",
+            ""
+    };
+
+    private static final String[] FRAGMENTS = {
+            "<", "<p", "<p>", "<p class='x'>", "<br", "<br>", "<br/>", "</p>", ">", "a", " ", "\n", "\r",
+            "&", "&amp;", "&am", "p;", ";", "&#", "x", "12", "&#38;", "&#x41;", "&nbsp;", "<b>", "<x ", "<!--"
+    };
+
+    public void testStripMatchesRegexImplementation() {
+        for (String html : CASES) {
+            assertEquals(html, regexStripHtml(html), HtmlStripper.strip(html));
+        }
+    }
+
+    public void testStripMatchesRegexImplementationForMalformedHtml() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder html = new StringBuilder();
+            int numFragments = random.nextInt(20);
+            for (int j = 0; j < numFragments; j++) {
+                html.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertEquals(html.toString(), regexStripHtml(html.toString()), HtmlStripper.strip(html.toString()));
+        }
+    }
+
+    public void testFastStripHtml() {
+        assertNull(HtmlUtils.fastStripHtml(null));
+        assertEquals("", HtmlUtils.fastStripHtml(""));
+        assertEquals("Hello\nWorld & more", HtmlUtils.fastStripHtml("<p>Hello</p><p>World &amp; more</p>"));
+    }
+
+    public void testStripTime() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.append("<p class=\"para\">Paragraph ").append(i)
+                   .append(" with <a href=\"https://wordpress.com\">a link</a>, an entity &amp;<br/>and a break</p>");
+        }
+        String html = builder.toString();
+
+        long regexStart = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            regexStripHtml(html);
+        }
+        long regexNanos = (System.nanoTime() - regexStart) / 10;
+
+        long stripperStart = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            HtmlStripper.strip(html);
+        }
+        long stripperNanos = (System.nanoTime() - stripperStart) / 10;
+
+        Log.i(TAG, String.format(Locale.ENGLISH, "%d chars: regex %.2fms, stripper %.2fms",
+                html.length(), regexNanos / 1e6, stripperNanos / 1e6));
+    }
+
+    /*
+     * the regex-based implementation HtmlUtils.fastStripHtml() used previously
+     */
+    private static String regexStripHtml(String str) {
+        if (str.length() == 0) {
+            return str;
+        }
+        if (str.lastIndexOf("<p") > 0) {
+            str = str.replaceAll("<p(.|\n)*?>", "\n<p>");
+        }
+        if (str.contains("<br")) {
+            str = str.replaceAll("<br(.|\n)*?>", "\n");
+        }
+        String stripped = StringEscapeUtils.unescapeHtml4(str.replaceAll("<(.|\n)*?>", ""));
+        int start = 0;
+        while (start != stripped.length()
+               && (Character.isWhitespace(stripped.charAt(start)) || stripped.charAt(start) == 160)) {
+            start++;
+        }
+        return stripped.substring(start);
+    }
+}
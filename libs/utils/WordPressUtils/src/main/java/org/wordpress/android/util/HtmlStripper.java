@@ -0,0 +1,325 @@
+package org.wordpress.android.util;
+
+import org.apache.commons.text.translate.EntityArrays;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass replacement for the regex-based tag stripping previously done by
+ * {@link HtmlUtils#fastStripHtml(String)}. Tags are removed, {@code <p>} and {@code <br>} tags are
+ * converted to line breaks and HTML entities are decoded in one scan of the input, producing the
+ * same output as the previous implementation:
+ * <pre>
+ *   replaceAll("&lt;p(.|\n)*?&gt;", "\n&lt;p&gt;")  // only if "&lt;p" appears after the start
+ *   replaceAll("&lt;br(.|\n)*?&gt;", "\n")
+ *   unescapeHtml4(replaceAll("&lt;(.|\n)*?&gt;", ""))
+ * </pre>
+ * A tag runs from {@code <} to the first {@code >} after it, provided no line terminator other
+ * than {@code \n} comes first (matching the regex's {@code (.|\n)}). Since the regex passes ran one
+ * after the other, a {@code <br>} inside another tag removed that tag's closing {@code >}, so the
+ * outer tag then ran on to the next surviving {@code >} - this is emulated below so malformed
+ * content strips the same way it did before.
+ */
+public class HtmlStripper {
+    // buffers larger than this aren't kept for reuse so one huge post doesn't pin memory
+    private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+    private static final char LINE_SEPARATOR = (char) 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = (char) 0x2029;
+
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+    private static final int MAX_ENTITY_LENGTH;
+
+    static {
+        // earlier tables take precedence, as they do in unescapeHtml4
+        List<Map<CharSequence, CharSequence>> entityTables = new ArrayList<>(3);
+        entityTables.add(EntityArrays.BASIC_UNESCAPE);
+        entityTables.add(EntityArrays.ISO8859_1_UNESCAPE);
+        entityTables.add(EntityArrays.HTML40_EXTENDED_UNESCAPE);
+
+        int maxLength = 0;
+        for (Map<CharSequence, CharSequence> entities : entityTables) {
+            for (Map.Entry<CharSequence, CharSequence> entry : entities.entrySet()) {
+                String key = entry.getKey().toString();
+                if (!ENTITIES.containsKey(key)) {
+                    ENTITIES.put(key, entry.getValue().toString());
+                    maxLength = Math.max(maxLength, key.length());
+                }
+            }
+        }
+        MAX_ENTITY_LENGTH = maxLength;
+    }
+
+    private static final ThreadLocal<HtmlStripper> STRIPPER = new ThreadLocal<HtmlStripper>() {
+        @Override
+        protected HtmlStripper initialValue() {
+            return new HtmlStripper();
+        }
+    };
+
+    private final StringBuilder mOutput = new StringBuilder();
+    private String mInput;
+    private int mLength;
+    private boolean mConvertParagraphs;
+    // position in the output of the '&' that may start an entity, or -1
+    private int mEntityStart;
+    // the last search for the end of a tag started at mTagSearchStart and stopped at mTagStop,
+    // so a search starting anywhere in between stops at the same '>' or line terminator
+    private int mTagSearchStart;
+    private int mTagStop;
+    // extending a tag that ran past its '>' failed when it reached this position
+    private int mExtensionFailedAt;
+
+    private HtmlStripper() {
+    }
+
+    /**
+     * Removes HTML tags from the passed string, converting paragraphs and line breaks to newlines
+     * and decoding entities - uses a buffer reused by the calling thread
+     * @param str String containing html
+     * @return String without HTML and with leading whitespace removed
+     */
+    public static String strip(String str) {
+        if (str == null || str.length() == 0) {
+            return str;
+        }
+        return STRIPPER.get().stripHtml(str);
+    }
+
+    private String stripHtml(String str) {
+        mInput = str;
+        mLength = str.length();
+        mConvertParagraphs = str.lastIndexOf("<p") > 0;
+        mEntityStart = -1;
+        mTagSearchStart = -1;
+        mTagStop = -1;
+        mExtensionFailedAt = -1;
+        mOutput.setLength(0);
+
+        try {
+            int pos = 0;
+            while (pos < mLength) {
+                char c = str.charAt(pos);
+                if (c == '<') {
+                    pos = appendTag(pos);
+                } else {
+                    appendChar(c);
+                    pos++;
+                }
+            }
+            return trimStart(mOutput);
+        } finally {
+            mInput = null;
+            if (mOutput.capacity() > MAX_REUSED_BUFFER_SIZE) {
+                mOutput.setLength(0);
+                mOutput.trimToSize();
+            }
+        }
+    }
+
+    /*
+     * handles the '<' at the passed position, returning the position to continue from
+     */
+    private int appendTag(int start) {
+        int end = findTagEnd(start);
+        if (end == -1) {
+            // not a tag, so the '<' is plain text
+            appendChar('<');
+            return start + 1;
+        }
+
+        if (isParagraphAt(start) || isBreakAt(start)) {
+            appendChar('\n');
+            return end + 1;
+        }
+
+        int innerBreak = findInnerBreak(start, end);
+        if (innerBreak == -1) {
+            return end + 1;
+        }
+
+        // a <br> inside this tag removed its '>', so the tag continues to the next surviving '>'
+        int extendedEnd = findExtendedEnd(end + 1);
+        if (extendedEnd != -1) {
+            return extendedEnd + 1;
+        }
+
+        // there wasn't one, so the text up to the inner <br> is left as-is
+        for (int i = start; i < innerBreak; i++) {
+            appendChar(mInput.charAt(i));
+        }
+        appendChar('\n');
+        return end + 1;
+    }
+
+    /*
+     * returns the position of the '>' which closes the tag starting at the passed position, or
+     * -1 if it's not a tag
+     */
+    private int findTagEnd(int start) {
+        if (start < mTagSearchStart || start >= mTagStop) {
+            int stop = start + 1;
+            while (stop < mLength && mInput.charAt(stop) != '>' && !isLineTerminator(mInput.charAt(stop))) {
+                stop++;
+            }
+            mTagSearchStart = start;
+            mTagStop = stop;
+        }
+        return mTagStop < mLength && mInput.charAt(mTagStop) == '>' ? mTagStop : -1;
+    }
+
+    /*
+     * returns the position of the <br> which removes the '>' of the tag spanning the passed
+     * positions, or -1 if its '>' survives - a <br> only does so if it comes before any <p>
+     */
+    private int findInnerBreak(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (mInput.charAt(i) == '<') {
+                if (isParagraphAt(i)) {
+                    return -1;
+                }
+                if (isBreakAt(i)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * continues a tag whose '>' was removed, returning the position of the next '>' which wasn't
+     * also removed, or -1 if a line terminator or the end of the input comes first
+     */
+    private int findExtendedEnd(int from) {
+        if (from <= mExtensionFailedAt) {
+            // an earlier extension passed through here and failed, so this one will too
+            return -1;
+        }
+
+        int pos = from;
+        while (pos < mLength) {
+            char c = mInput.charAt(pos);
+            if (c == '>') {
+                return pos;
+            }
+            if (isLineTerminator(c)) {
+                mExtensionFailedAt = pos;
+                return -1;
+            }
+            if (c == '<') {
+                int end = findTagEnd(pos);
+                if (end != -1) {
+                    if (isParagraphAt(pos) || (!isBreakAt(pos) && findInnerBreak(pos, end) == -1)) {
+                        return end;
+                    }
+                    pos = end + 1;
+                    continue;
+                }
+            }
+            pos++;
+        }
+        mExtensionFailedAt = mLength;
+        return -1;
+    }
+
+    private boolean isParagraphAt(int pos) {
+        return mConvertParagraphs && mInput.startsWith("<p", pos);
+    }
+
+    private boolean isBreakAt(int pos) {
+        return mInput.startsWith("<br", pos);
+    }
+
+    /*
+     * line terminators other than \n, which aren't matched by the regex's "."
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\r' || c == '\u0085' || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR;
+    }
+
+    /*
+     * appends a char of text, decoding the entity it ends if it's a ';' - since entities are
+     * decoded in the output they're decoded after tags are removed, as unescapeHtml4 did
+     */
+    private void appendChar(char c) {
+        if (c == '&') {
+            mEntityStart = mOutput.length();
+        } else if (c == ';' && mEntityStart != -1) {
+            int entityStart = mEntityStart;
+            mEntityStart = -1;
+            mOutput.append(c);
+            decodeEntity(entityStart);
+            return;
+        }
+        mOutput.append(c);
+    }
+
+    /*
+     * replaces the entity at the end of the output starting at the passed position with the
+     * character(s) it represents, leaving it as-is if it isn't a valid entity
+     */
+    private void decodeEntity(int start) {
+        int length = mOutput.length() - start;
+        if (length > 2 && mOutput.charAt(start + 1) == '#') {
+            decodeNumericEntity(start);
+        } else if (length <= MAX_ENTITY_LENGTH) {
+            String decoded = ENTITIES.get(mOutput.substring(start));
+            if (decoded != null) {
+                mOutput.setLength(start);
+                mOutput.append(decoded);
+            }
+        }
+    }
+
+    private void decodeNumericEntity(int start) {
+        int digitsStart = start + 2;
+        int end = mOutput.length() - 1;
+        boolean isHex = false;
+        char first = mOutput.charAt(digitsStart);
+        if (first == 'x' || first == 'X') {
+            isHex = true;
+            digitsStart++;
+        }
+        // like unescapeHtml4, hex digits are accepted (and then fail to parse) even if it isn't hex
+        for (int i = digitsStart; i < end; i++) {
+            if (!isHexDigit(mOutput.charAt(i))) {
+                return;
+            }
+        }
+
+        int value;
+        try {
+            value = Integer.parseInt(mOutput.substring(digitsStart, end), isHex ? 16 : 10);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (!Character.isValidCodePoint(value)) {
+            return;
+        }
+        mOutput.setLength(start);
+        if (value > 0xFFFF) {
+            mOutput.append(Character.toChars(value));
+        } else {
+            mOutput.append((char) value);
+        }
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /*
+     * removes leading whitespace and non-breaking space (160) chars
+     */
+    private static String trimStart(CharSequence str) {
+        int length = str.length();
+        int start = 0;
+        while (start != length && (Character.isWhitespace(str.charAt(start)) || str.charAt(start) == 160)) {
+            start++;
+        }
+        return str.subSequence(start, length).toString();
+    }
+}
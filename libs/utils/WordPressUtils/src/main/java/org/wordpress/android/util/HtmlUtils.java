@@ -10,7 +10,6 @@ import android.text.TextUtils;
 import android.text.style.ForegroundColorSpan;
 import android.text.style.QuoteSpan;
 
-import org.apache.commons.text.StringEscapeUtils;
 import org.wordpress.android.util.helpers.WPHtmlTagHandler;
 import org.wordpress.android.util.helpers.WPQuoteSpan;
 
@@ -29,8 +28,9 @@ public class HtmlUtils {
     }
 
     /**
-     * This is much faster than stripHtml() but should only be used when we know the html is valid
-     * since the regex will be unpredictable with invalid html
+     * This is much faster than stripHtml() since it strips tags, converts paragraphs and line breaks
+     * and decodes entities in a single pass, but it doesn't parse the html so it should only be used
+     * when we know the html is valid
      * @param str String containing only valid html
      * @return String without HTML
      */
@@ -38,35 +38,7 @@ public class HtmlUtils {
         if (TextUtils.isEmpty(str)) {
             return str;
         }
-
-        // insert a line break before P tags unless the only one is at the start
-        if (str.lastIndexOf("<p") > 0) {
-            str = str.replaceAll("<p(.|\n)*?>", "\n<p>");
-        }
-
-        // convert BR tags to line breaks
-        if (str.contains("<br")) {
-            str = str.replaceAll("<br(.|\n)*?>", "\n");
-        }
-
-        // use regex to strip tags, then convert entities in the result
-        return trimStart(StringEscapeUtils.unescapeHtml4(str.replaceAll("<(.|\n)*?>", "")));
-    }
-
-    /*
-     * Same as apache.commons.lang.StringUtils.stripStart() but also removes non-breaking
-     * space (160) chars
-     */
-    private static String trimStart(final String str) {
-        int strLen;
-        if (str == null || (strLen = str.length()) == 0) {
-            return "";
-        }
-        int start = 0;
-        while (start != strLen && (Character.isWhitespace(str.charAt(start)) || str.charAt(start) == 160)) {
-            start++;
-        }
-        return str.substring(start);
+        return HtmlStripper.strip(str);
     }
 
     /**
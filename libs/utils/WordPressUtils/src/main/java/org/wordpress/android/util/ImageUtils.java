@@ -349,6 +349,12 @@ public class ImageUtils {
         Uri curUri = Uri.parse(filePath);
 
         if (filePath.contains("video")) {
+            VideoThumbnailLoader thumbnailLoader = VideoThumbnailLoader.getInstance(context);
+            Bitmap cachedThumbnail = thumbnailLoader.getCachedThumbnail(filePath, targetWidth);
+            if (cachedThumbnail != null) {
+                return cachedThumbnail;
+            }
+
             // Load the video thumbnail from the MediaStore
             int videoId = 0;
             try {
@@ -362,7 +368,9 @@ public class ImageUtils {
                     MediaStore.Video.Thumbnails.getThumbnail(crThumb, videoId, MediaStore.Video.Thumbnails.MINI_KIND,
                                                              options);
             if (videoThumbnail != null) {
-                return getScaledBitmapAtLongestSide(videoThumbnail, targetWidth);
+                Bitmap scaledThumbnail = getScaledBitmapAtLongestSide(videoThumbnail, targetWidth);
+                thumbnailLoader.putThumbnail(filePath, targetWidth, scaledThumbnail);
+                return scaledThumbnail;
             } else {
                 return null;
             }
@@ -199,7 +199,13 @@ public class JSONUtils {
      * use with strings that contain HTML entities
      */
     public static String getStringDecoded(JSONObject json, String name) {
-        String value = getString(json, name);
+        return decodeHtmlEntities(getString(json, name));
+    }
+
+    /*
+     * decodes the HTML entities in a value read outside of a JSONObject, as getStringDecoded() does
+     */
+    public static String decodeHtmlEntities(String value) {
         return StringEscapeUtils.unescapeHtml4(value);
     }
 
@@ -208,7 +214,13 @@ public class JSONUtils {
      * but our API sometimes uses "0" to denote false
      */
     public static boolean getBool(JSONObject json, String name) {
-        String value = getString(json, name);
+        return stringToBool(getString(json, name));
+    }
+
+    /*
+     * converts a value read as a string to a boolean using the same rules as getBool()
+     */
+    public static boolean stringToBool(String value) {
         if (TextUtils.isEmpty(value)) {
             return false;
         }
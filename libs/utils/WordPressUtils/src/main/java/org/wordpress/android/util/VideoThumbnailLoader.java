@@ -0,0 +1,467 @@
+package org.wordpress.android.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * retrieves video thumbnails through a memory cache, a size-capped disk cache and a small pool of
+ * decoder threads, so scrolling back to a video or reopening a screen doesn't decode its frame again
+ * <p>
+ * the memory cache is keyed by the video's path and the requested width, so it can be checked on the
+ * main thread without touching the disk. the disk cache also includes the size and modification time
+ * of local files in its keys, so a video which changes on disk gets a new thumbnail once it's loaded
+ * in the background again, and the old one ages out. requests for the same thumbnail share a single
+ * decode, and requests which are cancelled before their decode starts (ex: the view scrolled off
+ * screen) are never decoded. the most recent requests are decoded first since they're the ones most
+ * likely to still be on screen.
+ */
+public class VideoThumbnailLoader {
+    public interface Listener {
+        void onThumbnailLoaded(@NonNull String path, @NonNull Bitmap thumbnail);
+
+        void onThumbnailFailed(@NonNull String path);
+    }
+
+    private static final String DISK_CACHE_DIR = "video_thumbnails";
+    private static final String DISK_FILE_EXTENSION = ".jpg";
+    private static final int JPEG_QUALITY = 85;
+    private static final long MAX_DISK_CACHE_BYTES = 20 * 1024 * 1024;
+
+    // frames are decoded by at most this many threads at once
+    private static final int NUM_DECODER_THREADS = 2;
+
+    private static VideoThumbnailLoader sInstance;
+
+    private final Context mContext;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Bitmap> mMemoryCache;
+    private final Map<String, Job> mJobs = new HashMap<>();
+    private final Object mDiskLock = new Object();
+    private final ThreadPoolExecutor mExecutor;
+
+    public static synchronized VideoThumbnailLoader getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new VideoThumbnailLoader(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private VideoThumbnailLoader(@NonNull Context context) {
+        mContext = context;
+
+        // memory cache size is measured in kilobytes and uses an eighth of the available memory
+        int maxMemoryKb = (int) (Runtime.getRuntime().maxMemory() / 1024);
+        mMemoryCache = new LruCache<String, Bitmap>(maxMemoryKb / 8) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return (bitmap.getRowBytes() * bitmap.getHeight() / 1024) + 1;
+            }
+        };
+
+        mExecutor = new ThreadPoolExecutor(NUM_DECODER_THREADS, NUM_DECODER_THREADS, 30, TimeUnit.SECONDS,
+                new LifoBlockingDeque<Runnable>(), new ThreadFactory() {
+            private int mThreadNumber = 1;
+
+            @Override
+            public synchronized Thread newThread(@NonNull final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "video-thumbnail-" + mThreadNumber++);
+            }
+        });
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * a pending thumbnail request, which should be cancelled once its result is no longer needed
+     */
+    public class Request {
+        private final String mKey;
+        private final String mPath;
+        private Listener mListener;
+
+        private Request(@NonNull String key, @NonNull String path, @NonNull Listener listener) {
+            mKey = key;
+            mPath = path;
+            mListener = listener;
+        }
+
+        @NonNull
+        public String getPath() {
+            return mPath;
+        }
+
+        /*
+         * stops the listener being called, and skips the decode if no other request is waiting for it
+         */
+        public void cancel() {
+            synchronized (mJobs) {
+                if (mListener == null) {
+                    return;
+                }
+                mListener = null;
+                Job job = mJobs.get(mKey);
+                // a decode which has already started is left to finish so its thumbnail is cached
+                if (job != null && job.mRequests.remove(this) && job.mRequests.isEmpty()
+                    && job.mFuture.cancel(false)) {
+                    mJobs.remove(mKey);
+                }
+            }
+        }
+    }
+
+    private static class Job {
+        private final List<Request> mRequests = new ArrayList<>();
+        private Future<?> mFuture;
+    }
+
+    /*
+     * returns the thumbnail for the passed video if it's in the memory cache - this doesn't read the
+     * disk cache so it can be called from the main thread before deciding whether to call load()
+     */
+    @Nullable
+    public Bitmap getFromMemory(@NonNull String path, int maxWidth) {
+        return mMemoryCache.get(makeMemoryKey(path, maxWidth));
+    }
+
+    /*
+     * returns the cached thumbnail for the passed video from memory or disk, or null if it isn't
+     * cached - this reads from disk so should be avoided on the main thread
+     */
+    @Nullable
+    public Bitmap getCachedThumbnail(@NonNull String path, int maxWidth) {
+        return getCachedThumbnail(makeMemoryKey(path, maxWidth), path, maxWidth);
+    }
+
+    /*
+     * adds a thumbnail retrieved some other way (ex: from the MediaStore) to the cache - this writes
+     * to disk so should be avoided on the main thread
+     */
+    public void putThumbnail(@NonNull String path, int maxWidth, @NonNull Bitmap thumbnail) {
+        putThumbnail(makeMemoryKey(path, maxWidth), path, maxWidth, thumbnail);
+    }
+
+    /*
+     * returns the thumbnail for the passed video, decoding it if it isn't cached - must not be called
+     * from the main thread
+     */
+    @Nullable
+    public Bitmap getThumbnail(@NonNull String path, int maxWidth) {
+        String key = makeMemoryKey(path, maxWidth);
+        Bitmap thumbnail = getCachedThumbnail(key, path, maxWidth);
+        if (thumbnail == null) {
+            thumbnail = decodeThumbnail(path, maxWidth);
+            if (thumbnail != null) {
+                putThumbnail(key, path, maxWidth, thumbnail);
+            }
+        }
+        return thumbnail;
+    }
+
+    /*
+     * retrieves the thumbnail for the passed video in the background and passes it to the listener on
+     * the main thread - the listener is never called before this returns, even when the thumbnail is
+     * in the memory cache, so the caller can store the request first
+     */
+    @NonNull
+    public Request load(@NonNull final String path, final int maxWidth, @NonNull Listener listener) {
+        final String key = makeMemoryKey(path, maxWidth);
+        final Request request = new Request(key, path, listener);
+
+        final Bitmap thumbnail = mMemoryCache.get(key);
+        if (thumbnail != null) {
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(request, thumbnail);
+                }
+            });
+            return request;
+        }
+
+        synchronized (mJobs) {
+            Job job = mJobs.get(key);
+            if (job == null) {
+                job = new Job();
+                mJobs.put(key, job);
+                job.mRequests.add(request);
+                job.mFuture = mExecutor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        Bitmap result = getCachedThumbnail(key, path, maxWidth);
+                        if (result == null) {
+                            result = decodeThumbnail(path, maxWidth);
+                            if (result != null) {
+                                putThumbnail(key, path, maxWidth, result);
+                            }
+                        }
+                        deliver(key, result);
+                    }
+                });
+            } else {
+                job.mRequests.add(request);
+            }
+        }
+        return request;
+    }
+
+    private void deliver(@NonNull final String key, @Nullable final Bitmap thumbnail) {
+        final List<Request> requests;
+        synchronized (mJobs) {
+            Job job = mJobs.remove(key);
+            if (job == null) {
+                return;
+            }
+            requests = job.mRequests;
+        }
+
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (Request request : requests) {
+                    deliver(request, thumbnail);
+                }
+            }
+        });
+    }
+
+    /*
+     * passes the result to the request's listener unless the request has been cancelled - must be
+     * called on the main thread
+     */
+    private void deliver(@NonNull Request request, @Nullable Bitmap thumbnail) {
+        Listener listener;
+        synchronized (mJobs) {
+            listener = request.mListener;
+            request.mListener = null;
+        }
+        if (listener == null) {
+            return;
+        }
+        if (thumbnail != null) {
+            listener.onThumbnailLoaded(request.mPath, thumbnail);
+        } else {
+            listener.onThumbnailFailed(request.mPath);
+        }
+    }
+
+    @NonNull
+    private static String makeMemoryKey(@NonNull String path, int maxWidth) {
+        return path + "|" + maxWidth;
+    }
+
+    /*
+     * local files include their size and modification time in the key so a changed file isn't given
+     * the thumbnail of its previous contents - this stats the file so must not be called from the
+     * main thread
+     */
+    @NonNull
+    private static String makeDiskKey(@NonNull String path, int maxWidth) {
+        File file = new File(path);
+        String key;
+        if (file.isFile()) {
+            key = String.format(Locale.ENGLISH, "%s|%d|%d|%d", path, file.length(), file.lastModified(), maxWidth);
+        } else {
+            key = String.format(Locale.ENGLISH, "%s|%d", path, maxWidth);
+        }
+        return StringUtils.getMd5Hash(key);
+    }
+
+    @Nullable
+    private Bitmap decodeThumbnail(@NonNull String path, int maxWidth) {
+        if (TextUtils.isEmpty(path) || maxWidth <= 0) {
+            return null;
+        }
+        if (!path.startsWith("content:")) {
+            return ImageUtils.getVideoFrameFromVideo(path, maxWidth);
+        }
+
+        // content uris have to be opened through the content resolver
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        Bitmap frame = null;
+        try {
+            retriever.setDataSource(mContext, Uri.parse(path));
+            frame = retriever.getFrameAtTime();
+        } catch (RuntimeException e) {
+            AppLog.e(T.MEDIA, "Unable to retrieve frame from " + path, e);
+        } finally {
+            retriever.release();
+        }
+        return frame != null ? ImageUtils.getScaledBitmapAtLongestSide(frame, maxWidth) : null;
+    }
+
+    @Nullable
+    private Bitmap getCachedThumbnail(@NonNull String key, @NonNull String path, int maxWidth) {
+        Bitmap thumbnail = mMemoryCache.get(key);
+        if (thumbnail != null) {
+            return thumbnail;
+        }
+
+        synchronized (mDiskLock) {
+            File file = getCacheFile(makeDiskKey(path, maxWidth));
+            if (file == null || !file.exists()) {
+                return null;
+            }
+            thumbnail = BitmapFactory.decodeFile(file.getPath());
+            if (thumbnail != null) {
+                // touch the file so disk eviction is least-recently-used
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+            }
+        }
+
+        if (thumbnail != null) {
+            mMemoryCache.put(key, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    private void putThumbnail(@NonNull String key, @NonNull String path, int maxWidth, @NonNull Bitmap thumbnail) {
+        mMemoryCache.put(key, thumbnail);
+
+        synchronized (mDiskLock) {
+            File file = getCacheFile(makeDiskKey(path, maxWidth));
+            if (file != null && writeFile(file, thumbnail)) {
+                trimDiskCache();
+            }
+        }
+    }
+
+    /*
+     * deletes the least-recently-used files until the disk cache is below its max size
+     */
+    private void trimDiskCache() {
+        File[] files = listCacheFiles();
+        if (files == null) {
+            return;
+        }
+
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        if (totalBytes <= MAX_DISK_CACHE_BYTES) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Long.compare(file1.lastModified(), file2.lastModified());
+            }
+        });
+
+        int numDeleted = 0;
+        for (File file : files) {
+            if (totalBytes <= MAX_DISK_CACHE_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                totalBytes -= length;
+                numDeleted++;
+            }
+        }
+        AppLog.d(T.MEDIA, "video thumbnail cache > trimmed " + numDeleted + " files");
+    }
+
+    @Nullable
+    private File getCacheDir() {
+        File dir = new File(mContext.getCacheDir(), DISK_CACHE_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            AppLog.w(T.MEDIA, "video thumbnail cache > unable to create cache directory");
+            return null;
+        }
+        return dir;
+    }
+
+    @Nullable
+    private File getCacheFile(@NonNull String key) {
+        File dir = getCacheDir();
+        return dir != null ? new File(dir, key + DISK_FILE_EXTENSION) : null;
+    }
+
+    @Nullable
+    private File[] listCacheFiles() {
+        File dir = getCacheDir();
+        return dir != null ? dir.listFiles() : null;
+    }
+
+    private static boolean writeFile(@NonNull File file, @NonNull Bitmap thumbnail) {
+        // write to a temp file first so a partially written file is never read back
+        File tempFile = new File(file.getPath() + ".tmp");
+        OutputStream output = null;
+        try {
+            output = new FileOutputStream(tempFile);
+            boolean isCompressed = thumbnail.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, output);
+            output.close();
+            output = null;
+            if (isCompressed) {
+                return tempFile.renameTo(file);
+            }
+        } catch (IOException e) {
+            AppLog.e(T.MEDIA, e);
+        } finally {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    // ignored
+                }
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tempFile.delete();
+        return false;
+    }
+
+    @VisibleForTesting
+    void clearMemoryCache() {
+        mMemoryCache.evictAll();
+    }
+
+    /*
+     * queue which hands out the most recently added task first
+     */
+    private static class LifoBlockingDeque<E> extends LinkedBlockingDeque<E> {
+        @Override
+        public boolean offer(@NonNull E e) {
+            return offerFirst(e);
+        }
+    }
+}